@@ -0,0 +1,198 @@
+package hartman.games.adventureland.api;
+
+import hartman.games.adventureland.script.AdventureScriptParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of compiled adventures keyed by adventure id and script revision.
+ * <p>
+ * Parsing a script is far more expensive than taking a turn, so each revision of a script is compiled once
+ * and shared by every game of that adventure until it is evicted for size or idleness, or invalidated by an upload.
+ * Two threads missing on the same key at the same time may both compile the script; the first one to finish wins.
+ */
+@Component
+@Slf4j
+public class AdventureCache {
+
+    private final AdventureScriptParser parser;
+    private final int maximumSize;
+    private final long expireAfterAccessNanos;
+    private final LongSupplier ticker;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long totalLoadTimeNanos;
+
+    @Autowired
+    public AdventureCache(AdventureScriptParser parser,
+                          @Value("${adventureland.adventure-cache.maximum-size:100}") int maximumSize,
+                          @Value("${adventureland.adventure-cache.expire-after-access-minutes:30}") long expireAfterAccessMinutes) {
+        this(parser, maximumSize, TimeUnit.MINUTES.toNanos(expireAfterAccessMinutes), System::nanoTime);
+    }
+
+    AdventureCache(AdventureScriptParser parser, int maximumSize, long expireAfterAccessNanos, LongSupplier ticker) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be at least 1.");
+        }
+        this.parser = parser;
+        this.maximumSize = maximumSize;
+        this.expireAfterAccessNanos = expireAfterAccessNanos;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Returns the compiled adventure for the current revision of the script, parsing it on a miss.
+     */
+    public CompiledAdventure get(AdventureScript script) {
+        Key key = new Key(script.getAdventure().getId(), script.getRevision());
+
+        synchronized (this) {
+            long now = ticker.getAsLong();
+            expire(now);
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                entry.lastAccess = now;
+                hitCount++;
+                return entry.adventure;
+            }
+            missCount++;
+        }
+
+        long start = ticker.getAsLong();
+        CompiledAdventure adventure = new CompiledAdventure(parse(script.getScript()));
+        long end = ticker.getAsLong();
+
+        synchronized (this) {
+            totalLoadTimeNanos += end - start;
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                return existing.adventure;
+            }
+            entries.put(key, new Entry(adventure, end));
+            evictOverflow();
+            return adventure;
+        }
+    }
+
+    /**
+     * Compiles the given scripts ahead of their first game, e.g. at startup, until the cache is full. A script which
+     * fails to compile is skipped, it fails again once a game asks for it.
+     *
+     * @return the number of scripts compiled
+     */
+    public int preload(Iterable<AdventureScript> scripts) {
+        int loaded = 0;
+        for (AdventureScript script : scripts) {
+            if (loaded == maximumSize) {
+                break;
+            }
+            try {
+                get(script);
+                loaded++;
+            } catch (RuntimeException e) {
+                log.warn("Failed to compile the script of adventure {}, skipping it.", script.getAdventure().getId(), e);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Discards every compiled revision of the adventure, e.g. after its script has been replaced.
+     */
+    public synchronized void invalidate(long adventureId) {
+        entries.keySet().removeIf(key -> key.getAdventureId() == adventureId);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized Statistics stats() {
+        return new Statistics(hitCount, missCount, evictionCount, totalLoadTimeNanos, entries.size());
+    }
+
+    private hartman.games.adventureland.engine.Adventure parse(String script) {
+        try {
+            return parser.parse(new StringReader(script));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    // entries are kept in access order so the idle ones are always at the head
+    private void expire(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (now - entry.lastAccess < expireAfterAccessNanos) {
+                break;
+            }
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maximumSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    @lombok.Value
+    private static class Key {
+        long adventureId;
+        long revision;
+    }
+
+    private static class Entry {
+        private final CompiledAdventure adventure;
+        private long lastAccess;
+
+        private Entry(CompiledAdventure adventure, long lastAccess) {
+            this.adventure = adventure;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * Point-in-time counters describing how well the cache is doing.
+     */
+    @lombok.Value
+    public static class Statistics {
+        long hitCount;
+        long missCount;
+        long evictionCount;
+        long totalLoadTimeNanos;
+        int size;
+
+        public long getRequestCount() {
+            return hitCount + missCount;
+        }
+
+        public double getHitRate() {
+            long requestCount = getRequestCount();
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        public double getAverageLoadPenaltyNanos() {
+            return missCount == 0 ? 0.0 : (double) totalLoadTimeNanos / missCount;
+        }
+    }
+}
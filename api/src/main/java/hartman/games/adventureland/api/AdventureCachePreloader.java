@@ -0,0 +1,41 @@
+package hartman.games.adventureland.api;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles the uploaded adventure scripts once the application has started, so the first game of each adventure
+ * doesn't wait for its script to be parsed.
+ */
+@Component
+@Slf4j
+public class AdventureCachePreloader {
+
+    private final AdventureScriptRepository scripts;
+    private final AdventureCache cache;
+    private final boolean enabled;
+
+    @Autowired
+    public AdventureCachePreloader(AdventureScriptRepository scripts, AdventureCache cache,
+                                   @Value("${adventureland.adventure-cache.preload-on-startup:false}") boolean enabled) {
+        this.scripts = scripts;
+        this.cache = cache;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        int loaded = cache.preload(scripts.findAll());
+        log.info("Compiled {} adventure scripts in {} ms.", loaded, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
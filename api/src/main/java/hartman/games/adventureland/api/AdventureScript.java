@@ -33,4 +33,5 @@ public class AdventureScript {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY) Long id;
     @OneToOne(optional = false) @MapsId @NotNull Adventure adventure;
     @NotBlank @Lob String script;
+    long revision;
 }
@@ -31,6 +31,7 @@ public class AdventureScriptController {
 
     AdventureRepository adventureRepository;
     AdventureScriptRepository adventureScriptRepository;
+    AdventureCache adventureCache;
 
     @GetMapping
     public ResponseEntity<EntityModel<AdventureScript>> findOneByAdventureId(@PathVariable("id") long adventureId) {
@@ -55,8 +56,16 @@ public class AdventureScriptController {
     }
 
     private AdventureScript update(AdventureScript script, String scriptText) {
-        script.setScript(scriptText);
-        return adventureScriptRepository.save(script);
+        AdventureScript saved = script;
+        if (null == script.getId()) {
+            saved = adventureScriptRepository.save(script);
+        } else {
+            adventureScriptRepository.replaceScript(script.getId(), scriptText);
+            // the update bypasses the entity, so it is read back with its new script and revision
+            saved = adventureScriptRepository.findById(script.getId()).orElseThrow(IllegalStateException::new);
+        }
+        adventureCache.invalidate(saved.getAdventure().getId());
+        return saved;
     }
 
     private String fileToString(MultipartFile file) throws IOException {
@@ -1,5 +1,7 @@
 package hartman.games.adventureland.api;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,4 +15,13 @@ interface AdventureScriptRepository extends CrudRepository<AdventureScript, Long
     @Transactional
     Optional<AdventureScript> findByAdventureId(@Param("adventureId") long adventureId);
 
+    /**
+     * Replaces the text of the script and bumps its revision in one statement, so two uploads never get the same
+     * revision and a compiled adventure is never cached under the revision of another script.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update AdventureScript s set s.script = :script, s.revision = s.revision + 1 where s.id = :id")
+    int replaceScript(@Param("id") long id, @Param("script") String script);
+
 }
@@ -0,0 +1,26 @@
+package hartman.games.adventureland.api;
+
+import hartman.games.adventureland.engine.GameStateCodec;
+import hartman.games.adventureland.engine.core.CommandTokenizer;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * An adventure compiled from a script, along with the codec its game states are stored with and the tokenizer
+ * its commands are read with. Neither keeps any state of its own, so they are built once and shared by every turn.
+ */
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CompiledAdventure {
+
+    hartman.games.adventureland.engine.Adventure adventure;
+    GameStateCodec codec;
+    CommandTokenizer tokenizer;
+
+    CompiledAdventure(hartman.games.adventureland.engine.Adventure adventure) {
+        this.adventure = adventure;
+        this.codec = new GameStateCodec(adventure);
+        this.tokenizer = new CommandTokenizer(adventure.getVocabulary());
+    }
+}
@@ -2,7 +2,9 @@ package hartman.games.adventureland.api;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import hartman.games.adventureland.api.legacy.JavaSerializedGameStates;
 import hartman.games.adventureland.engine.GameState;
+import hartman.games.adventureland.engine.GameStateCodec;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,11 +18,6 @@ import javax.persistence.Id;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -75,31 +72,25 @@ public class Game {
         return Status.GAME_OVER != status;
     }
 
-    public Optional<GameState> currentGameState() {
-        if (getCurrentState() == null) {
+    /**
+     * Decodes the stored game state. States stored before the compact codec was introduced were written
+     * with Java serialization, they are recognised by its stream header and migrated to the codec's adventure.
+     */
+    public Optional<GameState> currentGameState(GameStateCodec codec) {
+        byte[] state = getCurrentState();
+        if (state == null) {
             return Optional.empty();
         }
-        try {
-            ByteArrayInputStream bais = new ByteArrayInputStream(getCurrentState());
-            ObjectInputStream ois = new ObjectInputStream(bais);
-            return Optional.of((GameState) ois.readObject());
-        }
-        catch (IOException | ClassNotFoundException e) {
-            throw new IllegalStateException(e);
+        if (JavaSerializedGameStates.isJavaSerialized(state)) {
+            return Optional.of(JavaSerializedGameStates.read(state, codec.getAdventure()));
         }
+        return Optional.of(codec.decode(state));
     }
 
-    public Game update(GameState gameState) {
+    public Game update(GameState gameState, GameStateCodec codec) {
         setStatus(gameState.isRunning() ? Game.Status.RUNNING : Game.Status.GAME_OVER);
-        try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ObjectOutputStream oos = new ObjectOutputStream(baos);
-            oos.writeObject(gameState);
-            setCurrentState(baos.toByteArray());
-            return this;
-        } catch (IOException e) {
-            throw new IllegalStateException(e);
-        }
+        setCurrentState(codec.encode(gameState));
+        return this;
     }
 
 }
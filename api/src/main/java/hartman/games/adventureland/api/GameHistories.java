@@ -0,0 +1,59 @@
+package hartman.games.adventureland.api;
+
+import hartman.games.adventureland.engine.GameHistory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Undo histories and saved games of the games played most recently, by game id.
+ * <p>
+ * Histories are only kept in memory. A game whose history has been evicted, or which is played again after a
+ * restart, carries on from its stored state with a fresh history, i.e. with nothing to undo or restore.
+ * <p>
+ * A history is not safe for concurrent use, so whoever takes a turn in its game holds its lock while doing so.
+ */
+@Component
+public class GameHistories {
+
+    private final int maximumGames;
+    private final int capacity;
+
+    private final Map<Long, GameHistory> histories = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Autowired
+    public GameHistories(@Value("${adventureland.game-history.maximum-games:1000}") int maximumGames,
+                         @Value("${adventureland.game-history.capacity:50}") int capacity) {
+        if (maximumGames < 1) {
+            throw new IllegalArgumentException("Maximum games must be at least 1.");
+        }
+        this.maximumGames = maximumGames;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the history of the game, starting a new one if it has none.
+     */
+    public synchronized GameHistory get(long gameId) {
+        GameHistory history = histories.get(gameId);
+        if (history == null) {
+            history = new GameHistory(capacity);
+            histories.put(gameId, history);
+            evictOverflow();
+        }
+        return history;
+    }
+
+    // histories are kept in access order so the least recently played are always at the head
+    private void evictOverflow() {
+        Iterator<GameHistory> iterator = histories.values().iterator();
+        while (histories.size() > maximumGames && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
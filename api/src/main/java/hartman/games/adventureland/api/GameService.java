@@ -1,11 +1,12 @@
 package hartman.games.adventureland.api;
 
-import hartman.games.adventureland.engine.CommandInterpreter;
+import hartman.games.adventureland.engine.Command;
+import hartman.games.adventureland.engine.Display;
+import hartman.games.adventureland.engine.GameHistory;
 import hartman.games.adventureland.engine.GameState;
-import hartman.games.adventureland.engine.Vocabulary;
-import hartman.games.adventureland.engine.core.DefaultCommandInterpreter;
+import hartman.games.adventureland.engine.GameStateCodec;
 import hartman.games.adventureland.engine.core.DefaultDisplay;
-import hartman.games.adventureland.script.AdventureScriptParser;
+import hartman.games.adventureland.engine.core.EventDisplay;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.Value;
@@ -13,21 +14,17 @@ import lombok.experimental.FieldDefaults;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.Reader;
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.time.LocalDateTime;
 import java.util.Optional;
-import java.util.Scanner;
+import java.util.stream.Collectors;
 
 @Service
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @RequiredArgsConstructor
 public class GameService {
 
-    AdventureScriptParser parser;
+    AdventureCache adventureCache;
+    GameHistories gameHistories;
     TurnRepository turnRepository;
     GameRepository gameRepository;
 
@@ -43,57 +40,56 @@ public class GameService {
         game = gameRepository.save(game);
 
         // take initial "start" turn automatically so any introductory OCCURS can run
-        takeTurn(game, "");
+        takeTurn(game, "", Turn.Format.TEXT);
 
         return game;
     }
 
     @Transactional
-    public Turn takeTurn(Game game, String inputCommand) {
+    public Turn takeTurn(Game game, String inputCommand, Turn.Format format) {
         return getAdventure(game)
-                .map(adventure -> takeTurnInGame(adventure, game, inputCommand))
+                .map(adventure -> takeTurnInGame(adventure, game, inputCommand, format))
                 .map(pair -> {
-                    gameRepository.save(game.update(pair.getGameState()));
+                    gameRepository.save(game.update(pair.getGameState(), pair.getCodec()));
                     return turnRepository.save(pair.getTurn());
                 })
                 .orElseThrow(IllegalStateException::new);
     }
 
-    private Optional<hartman.games.adventureland.engine.Adventure> getAdventure(Game game) {
+    private Optional<CompiledAdventure> getAdventure(Game game) {
         return Optional.ofNullable(game.getAdventure().getScript())
-                .map(AdventureScript::getScript)
-                .map(StringReader::new)
-                .map(this::parse);
+                .map(adventureCache::get);
     }
 
-    private GameStateTurnPair takeTurnInGame(hartman.games.adventureland.engine.Adventure adventure, Game game, String inputCommand) {
-        CommandInterpreter interpreter = new StringCommandInterpreter(inputCommand, adventure.getVocabulary());
-        StringWriter displayOut = new StringWriter();
-        DefaultDisplay display = new DefaultDisplay(new PrintWriter(displayOut));
-        GameState gameState = game.currentGameState().orElse(new GameState(adventure.getStartRoom(), adventure.getItems()));
-        hartman.games.adventureland.engine.Game engineGame = new hartman.games.adventureland.engine.Game(adventure, interpreter, display, gameState);
-        gameState = engineGame.takeTurn(interpreter.nextCommand());
-        Turn turn = Turn.builder().game(game).command(inputCommand).output(displayOut.toString()).build();
-        return new GameStateTurnPair(gameState, turn);
-    }
-
-    private hartman.games.adventureland.engine.Adventure parse(Reader reader) {
-        try {
-            return parser.parse(reader);
-        } catch (IOException e) {
-            throw new IllegalArgumentException(e);
-        }
-    }
-
-    private static class StringCommandInterpreter extends DefaultCommandInterpreter {
-        private StringCommandInterpreter(String command, Vocabulary vocabulary) {
-            super(new Scanner(command), vocabulary);
+    private GameStateTurnPair takeTurnInGame(CompiledAdventure compiled, Game game, String inputCommand, Turn.Format format) {
+        hartman.games.adventureland.engine.Adventure adventure = compiled.getAdventure();
+        Command command = compiled.getTokenizer().tokenize(inputCommand);
+        StringBuilder displayOut = new StringBuilder();
+        EventDisplay eventDisplay = new EventDisplay();
+        Display display = format == Turn.Format.EVENTS ? eventDisplay : new DefaultDisplay(displayOut);
+        GameStateCodec codec = compiled.getCodec();
+        GameHistory history = gameHistories.get(game.getId());
+        GameState gameState;
+        // a history is not safe for concurrent use, so the turns of a game are taken one at a time
+        synchronized (history) {
+            gameState = game.currentGameState(codec).orElseGet(() -> new GameState(adventure));
+            hartman.games.adventureland.engine.Game engineGame = new hartman.games.adventureland.engine.Game(adventure, () -> command, display, gameState, history);
+            gameState = engineGame.takeTurn(command);
         }
+        Turn turn = Turn.builder()
+                .game(game)
+                .command(inputCommand)
+                // null rather than empty, the turn is unwrapped into its resource where NON_EMPTY doesn't apply
+                .output(format == Turn.Format.EVENTS ? null : displayOut.toString())
+                .events(eventDisplay.getEvents().stream().map(TurnEvent::of).collect(Collectors.toList()))
+                .build();
+        return new GameStateTurnPair(gameState, codec, turn);
     }
 
     @Value
     private static class GameStateTurnPair {
         private final GameState gameState;
+        private final GameStateCodec codec;
         private final Turn turn;
     }
 
@@ -2,12 +2,14 @@ package hartman.games.adventureland.api;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -16,9 +18,12 @@ import javax.persistence.ManyToOne;
 import javax.persistence.OrderColumn;
 import javax.persistence.Table;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * A turn of a game which represents a player's input and the game's response as output.
+ * A turn of a game which represents a player's input and the game's response, either as text output or as
+ * events for clients which render the game themselves.
  */
 @Entity
 @Table(name = "turn")
@@ -32,5 +37,17 @@ public class Turn {
     @NonNull @ManyToOne(optional = false) @JsonIgnore Game game;
     @OrderColumn @Builder.Default LocalDateTime timestamp = LocalDateTime.now();
     @NonNull String command;
-    @NonNull String output;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY) @Builder.Default String output = "";
+    @JsonInclude(JsonInclude.Include.NON_EMPTY) @Convert(converter = TurnEventsConverter.class) @Builder.Default List<TurnEvent> events = new ArrayList<>();
+
+    public enum Format {
+        /**
+         * The game's response is rendered as text.
+         */
+        TEXT,
+        /**
+         * The game's response is recorded as events.
+         */
+        EVENTS
+    }
 }
@@ -0,0 +1,37 @@
+package hartman.games.adventureland.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import hartman.games.adventureland.engine.core.DisplayEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Something a turn showed the player, for clients which render the game themselves.
+ * Only the properties of the type of event are present.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class TurnEvent {
+    DisplayEvent.Type type;
+    String text;
+    String room;
+    List<String> items;
+    List<String> exits;
+
+    public static TurnEvent of(DisplayEvent event) {
+        return TurnEvent.builder()
+                .type(event.getType())
+                .text(event.getText())
+                .room(event.getRoom())
+                .items(event.getItems())
+                .exits(event.getExits())
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package hartman.games.adventureland.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the events of a turn as compact JSON, leaving out what an event doesn't have.
+ */
+@Converter
+public class TurnEventsConverter implements AttributeConverter<List<TurnEvent>, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<TurnEvent>> EVENTS = new TypeReference<List<TurnEvent>>() {};
+
+    @Override
+    public String convertToDatabaseColumn(List<TurnEvent> events) {
+        if (events == null || events.isEmpty()) {
+            return null;
+        }
+        try {
+            return MAPPER.writeValueAsString(events);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public List<TurnEvent> convertToEntityAttribute(String json) {
+        if (json == null || json.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            return MAPPER.readValue(json, EVENTS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -52,7 +52,7 @@ public class TurnsController {
     public ResponseEntity<EntityModel<Turn>> takeTurn(@PathVariable("gameId") long gameId, @RequestBody TurnDTO dto) {
         return gameRepository.findById(gameId)
                 .filter(Game::isNotGameOver)
-                .map(game -> gameService.takeTurn(game, dto.getCommand()))
+                .map(game -> gameService.takeTurn(game, dto.getCommand(), dto.getFormat() == null ? Turn.Format.TEXT : dto.getFormat()))
                 .map(turn -> {
                     WebMvcLinkBuilder link = linkTo(methodOn(TurnsController.class, turn.getGame().getAdventure().getId(), turn.getGame().getId()).findOne(turn.getId()));
                     return ResponseEntity.created(link.toUri()).body(new EntityModel<>(turn));
@@ -74,5 +74,9 @@ public class TurnsController {
     @NoArgsConstructor(access = AccessLevel.PRIVATE)
     public static class TurnDTO {
         String command;
+        /**
+         * How the game's response is returned, as text unless given.
+         */
+        Turn.Format format;
     }
 }
@@ -0,0 +1,19 @@
+package hartman.games.adventureland.api.legacy;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fields of a game state as Java serialization wrote them into saved games.
+ */
+class GameState implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    Map<String, Boolean> flags;
+    Map<String, Integer> counters;
+    Map<String, String> strings;
+    Set<Item> items;
+    boolean running;
+    Room currentRoom;
+}
@@ -0,0 +1,15 @@
+package hartman.games.adventureland.api.legacy;
+
+import java.io.Serializable;
+
+/**
+ * The fields of an item as Java serialization wrote them into saved games.
+ */
+class Item extends Word implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    String description;
+    boolean portable;
+    Room startingRoom;
+    Room currentRoom;
+}
@@ -0,0 +1,121 @@
+package hartman.games.adventureland.api.legacy;
+
+import hartman.games.adventureland.engine.Adventure;
+import hartman.games.adventureland.engine.GameState;
+import hartman.games.adventureland.engine.Item;
+import hartman.games.adventureland.engine.Room;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamConstants;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads game states stored with Java serialization, before the compact codec was introduced.
+ * <p>
+ * The engine classes have since changed shape, so such states can no longer be deserialized into them. Instead
+ * the engine classes in the stream are resolved to the mirrors of their old fields in this package, and the
+ * state is rebuilt from those against the current adventure. Rooms and items are found by name, like the codec
+ * does: items which are no longer part of the adventure are dropped, and a room which is no longer part of it
+ * makes the state unreadable.
+ */
+public final class JavaSerializedGameStates {
+
+    private static final String ENGINE_PACKAGE = "hartman.games.adventureland.engine.";
+    private static final String LEGACY_PACKAGE = "hartman.games.adventureland.api.legacy.";
+
+    private JavaSerializedGameStates() {
+    }
+
+    /**
+     * True if STATE starts with the Java serialization stream header.
+     */
+    public static boolean isJavaSerialized(byte[] state) {
+        return state.length >= 2
+                && (state[0] & 0xFF) == (ObjectStreamConstants.STREAM_MAGIC >>> 8 & 0xFF)
+                && (state[1] & 0xFF) == (ObjectStreamConstants.STREAM_MAGIC & 0xFF);
+    }
+
+    /**
+     * Rebuilds the Java serialized STATE as a game state of ADVENTURE.
+     *
+     * @throws IllegalArgumentException if the state cannot be read or is not a state of the adventure
+     */
+    public static GameState read(byte[] state, Adventure adventure) {
+        Object object;
+        try (ObjectInputStream in = new LegacyObjectInputStream(new ByteArrayInputStream(state))) {
+            object = in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalArgumentException("Invalid Java serialized game state.", e);
+        }
+        if (!(object instanceof hartman.games.adventureland.api.legacy.GameState)) {
+            throw new IllegalArgumentException("Java serialized object is not a game state.");
+        }
+        return migrate((hartman.games.adventureland.api.legacy.GameState) object, adventure);
+    }
+
+    private static GameState migrate(hartman.games.adventureland.api.legacy.GameState legacy, Adventure adventure) {
+        Map<String, Room> roomsByName = new HashMap<>();
+        adventure.getRooms().forEach(room -> roomsByName.putIfAbsent(room.getName(), room));
+        roomsByName.put(Room.NOWHERE.getName(), Room.NOWHERE);
+        roomsByName.put(Item.INVENTORY.getName(), Item.INVENTORY);
+        Map<String, Item> itemsByName = new HashMap<>();
+        adventure.getItems().forEach(item -> itemsByName.putIfAbsent(item.getName(), item));
+
+        GameState gameState = new GameState(adventure);
+        if (!legacy.running) {
+            gameState.quit();
+        }
+        gameState.moveTo(roomNamed(roomsByName, legacy.currentRoom));
+        for (hartman.games.adventureland.api.legacy.Item item : legacy.items) {
+            Room location = roomNamed(roomsByName, item.currentRoom);
+            Item current = itemsByName.get(item.name);
+            if (current != null) {
+                gameState.drop(current, location);
+            }
+        }
+        legacy.flags.forEach((name, value) -> {
+            if (value) {
+                gameState.setFlag(name, true);
+            }
+        });
+        legacy.counters.forEach(gameState::setCounter);
+        legacy.strings.forEach(gameState::setString);
+        return gameState;
+    }
+
+    private static Room roomNamed(Map<String, Room> roomsByName, hartman.games.adventureland.api.legacy.Room room) {
+        Room current = room == null ? null : roomsByName.get(room.name);
+        if (current == null) {
+            throw new IllegalArgumentException(String.format("Room %s is not part of the adventure.", room == null ? null : room.name));
+        }
+        return current;
+    }
+
+    /**
+     * Resolves the engine classes of the stream to their mirrors here, and refuses anything else outside of java.
+     */
+    private static class LegacyObjectInputStream extends ObjectInputStream {
+
+        LegacyObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            String name = desc.getName();
+            if (name.startsWith(ENGINE_PACKAGE)) {
+                return Class.forName(LEGACY_PACKAGE + name.substring(ENGINE_PACKAGE.length()), false, JavaSerializedGameStates.class.getClassLoader());
+            }
+            if (name.startsWith("java.")) {
+                return super.resolveClass(desc);
+            }
+            throw new InvalidClassException(name, "Not part of a game state.");
+        }
+    }
+}
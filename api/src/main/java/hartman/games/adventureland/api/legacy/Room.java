@@ -0,0 +1,22 @@
+package hartman.games.adventureland.api.legacy;
+
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * The fields of a room as Java serialization wrote them into saved games.
+ */
+class Room implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    String name;
+    String description;
+    Set<Exit> exits;
+
+    static class Exit implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        Word direction;
+        Room room;
+    }
+}
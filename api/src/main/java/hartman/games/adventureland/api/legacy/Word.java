@@ -0,0 +1,15 @@
+package hartman.games.adventureland.api.legacy;
+
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * The fields of a word as Java serialization wrote them into saved games.
+ */
+class Word implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    String name;
+    Set<String> synonyms;
+    boolean recognized;
+}
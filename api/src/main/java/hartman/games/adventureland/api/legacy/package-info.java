@@ -0,0 +1,2 @@
+@org.springframework.lang.NonNullApi
+package hartman.games.adventureland.api.legacy;
\ No newline at end of file
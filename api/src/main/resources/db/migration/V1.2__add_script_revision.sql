@@ -0,0 +1 @@
+ALTER TABLE script ADD COLUMN revision bigint NOT NULL DEFAULT 0;
@@ -0,0 +1 @@
+ALTER TABLE turn ADD COLUMN events text;
@@ -0,0 +1,118 @@
+package hartman.games.adventureland.api;
+
+import hartman.games.adventureland.engine.Room;
+import hartman.games.adventureland.engine.Vocabulary;
+import hartman.games.adventureland.script.AdventureScriptParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdventureCacheTest {
+
+    private final AtomicInteger parseCount = new AtomicInteger();
+    private final AtomicLong clock = new AtomicLong();
+    private final AdventureScriptParser parser = reader -> {
+        parseCount.incrementAndGet();
+        return new hartman.games.adventureland.engine.Adventure(new Vocabulary(emptySet()), emptySet(), emptySet(), emptySet(), Room.NOWHERE);
+    };
+
+    private AdventureCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new AdventureCache(parser, 2, 100, clock::get);
+    }
+
+    @Test
+    public void returnsSameCompiledAdventureForSameRevision() {
+        AdventureScript script = script(1L, 0L);
+
+        CompiledAdventure first = cache.get(script);
+        CompiledAdventure second = cache.get(script);
+
+        assertThat(second).isSameAs(first);
+        assertThat(parseCount).hasValue(1);
+        assertThat(cache.stats().getHitCount()).isEqualTo(1);
+        assertThat(cache.stats().getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void recompilesNewRevision() {
+        cache.get(script(1L, 0L));
+        cache.get(script(1L, 1L));
+
+        assertThat(parseCount).hasValue(2);
+    }
+
+    @Test
+    public void invalidateDiscardsAllRevisionsOfAdventure() {
+        cache.get(script(1L, 0L));
+        cache.get(script(2L, 0L));
+
+        cache.invalidate(1L);
+        cache.get(script(1L, 0L));
+        cache.get(script(2L, 0L));
+
+        assertThat(parseCount).hasValue(3);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedWhenFull() {
+        cache.get(script(1L, 0L));
+        cache.get(script(2L, 0L));
+        cache.get(script(1L, 0L));
+        cache.get(script(3L, 0L));
+
+        assertThat(cache.stats().getSize()).isEqualTo(2);
+        assertThat(cache.stats().getEvictionCount()).isEqualTo(1);
+
+        cache.get(script(1L, 0L));
+        assertThat(parseCount).hasValue(3);
+        cache.get(script(2L, 0L));
+        assertThat(parseCount).hasValue(4);
+    }
+
+    @Test
+    public void expiresIdleEntries() {
+        cache.get(script(1L, 0L));
+        clock.addAndGet(100);
+        cache.get(script(1L, 0L));
+
+        assertThat(parseCount).hasValue(2);
+        assertThat(cache.stats().getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void preloadCompilesScriptsUntilFull() {
+        int loaded = cache.preload(asList(script(1L, 0L), script(2L, 0L), script(3L, 0L)));
+
+        assertThat(loaded).isEqualTo(2);
+        assertThat(parseCount).hasValue(2);
+        cache.get(script(2L, 0L));
+        assertThat(parseCount).hasValue(2);
+    }
+
+    @Test
+    public void preloadSkipsScriptsWhichFailToCompile() {
+        AdventureCache cache = new AdventureCache(reader -> {
+            if (parseCount.incrementAndGet() == 1) {
+                throw new IllegalArgumentException("Syntax error.");
+            }
+            return new hartman.games.adventureland.engine.Adventure(new Vocabulary(emptySet()), emptySet(), emptySet(), emptySet(), Room.NOWHERE);
+        }, 2, 100, clock::get);
+
+        assertThat(cache.preload(asList(script(1L, 0L), script(2L, 0L)))).isEqualTo(1);
+        assertThat(cache.stats().getSize()).isEqualTo(1);
+    }
+
+    private AdventureScript script(long adventureId, long revision) {
+        Adventure adventure = Adventure.builder().id(adventureId).build();
+        return AdventureScript.builder().adventure(adventure).script("room forest \"I'm in a forest.\"").revision(revision).build();
+    }
+}
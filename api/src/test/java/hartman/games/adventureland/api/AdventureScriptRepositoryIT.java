@@ -60,4 +60,34 @@ public class AdventureScriptRepositoryIT extends AbstractIntegrationTest {
         assertThat(scripts).doesNotContain(script);
         assertThat(adventureScriptRepository.findById(script.getId())).isEmpty();
     }
+
+    @Test
+    public void scriptCreatedWithoutBuilderStartsAtRevisionZero() {
+        AdventureScript script = new AdventureScript();
+        script.setAdventure(saveNewAdventure());
+        script.setScript("room forest \"I'm in a forest.\"");
+
+        AdventureScript saved = adventureScriptRepository.save(script);
+
+        assertThat(adventureScriptRepository.findById(saved.getId()).get().getRevision()).isEqualTo(0L);
+    }
+
+    @Test
+    public void replacingScriptBumpsRevision() {
+        Adventure adventure = saveNewAdventure();
+
+        AdventureScript script = adventureScriptRepository.save(AdventureScript
+                .builder()
+                .adventure(adventure)
+                .script("room forest \"I'm in a forest.\"")
+                .build());
+        assertThat(script.getRevision()).isEqualTo(0L);
+
+        adventureScriptRepository.replaceScript(script.getId(), "room cave \"I'm in a cave.\"");
+        adventureScriptRepository.replaceScript(script.getId(), "room hall \"I'm in a hall.\"");
+
+        AdventureScript replaced = adventureScriptRepository.findById(script.getId()).get();
+        assertThat(replaced.getScript()).isEqualTo("room hall \"I'm in a hall.\"");
+        assertThat(replaced.getRevision()).isEqualTo(2L);
+    }
 }
@@ -298,7 +298,25 @@ public class AdventurelandWebIT extends AbstractWebIntegrationTest {
         verifyTurn(response);
     }
 
-    private MockHttpServletResponse postNewTurn(MockHttpServletResponse source) throws Exception {
+    @Test
+    @WithMockToken
+    public void takeTurnWithEvents() throws Exception {
+        MockHttpServletResponse response = accessRootResource();
+        response = createNewAdventure(response);
+        response = uploadAdventureScript(response);
+        response = createNewGame(response);
+
+        mvc.perform(
+                post(findTakeTurnLink(response).expand().getHref())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"command\": \"look\", \"format\": \"EVENTS\"}")).
+                andExpect(status().isCreated()).
+                andExpect(jsonPath("$.command", is("look"))).
+                andExpect(jsonPath("$.events").isArray()).
+                andExpect(jsonPath("$.output").doesNotExist());
+    }
+
+    private Link findTakeTurnLink(MockHttpServletResponse source) throws Exception {
 
         Link gameLink = getDiscovererFor(source).findLinkWithRel(IanaLinkRelations.SELF.value(), source.getContentAsString()).orElseThrow(AssertionError::new);
 
@@ -306,12 +324,17 @@ public class AdventurelandWebIT extends AbstractWebIntegrationTest {
                 .andExpect(status().isOk())
                 .andReturn().getResponse();
 
-        Link taketurnLink = getDiscovererFor(response).findLinkWithRel(TAKE_TURN_REL, response.getContentAsString()).orElseThrow(AssertionError::new);
+        return getDiscovererFor(response).findLinkWithRel(TAKE_TURN_REL, response.getContentAsString()).orElseThrow(AssertionError::new);
+    }
+
+    private MockHttpServletResponse postNewTurn(MockHttpServletResponse source) throws Exception {
+
+        Link taketurnLink = findTakeTurnLink(source);
 
         ClassPathResource resource = new ClassPathResource("data/turn.json");
         byte[] data = Files.readAllBytes(resource.getFile().toPath());
 
-        response = mvc.perform(
+        MockHttpServletResponse response = mvc.perform(
                 post(taketurnLink.expand().getHref())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(data)).
@@ -0,0 +1,34 @@
+package hartman.games.adventureland.api;
+
+import hartman.games.adventureland.engine.GameHistory;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GameHistoriesTest {
+
+    private final GameHistories histories = new GameHistories(2, 10);
+
+    @Test
+    public void returnsSameHistoryForSameGame() {
+        assertThat(histories.get(1L)).isSameAs(histories.get(1L));
+        assertThat(histories.get(1L)).isNotSameAs(histories.get(2L));
+    }
+
+    @Test
+    public void evictsLeastRecentlyPlayedGame() {
+        GameHistory first = histories.get(1L);
+        GameHistory second = histories.get(2L);
+        histories.get(1L);
+        histories.get(3L);
+
+        assertThat(histories.get(1L)).isSameAs(first);
+        assertThat(histories.get(2L)).isNotSameAs(second);
+    }
+
+    @Test
+    public void rejectsMaximumOfZero() {
+        assertThatThrownBy(() -> new GameHistories(0, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,40 @@
+package hartman.games.adventureland.api;
+
+import hartman.games.adventureland.engine.core.DisplayEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TurnEventsConverterTest {
+
+    private final TurnEventsConverter converter = new TurnEventsConverter();
+
+    @Test
+    public void storesOnlyWhatEventsHave() {
+        List<TurnEvent> events = asList(
+                TurnEvent.of(DisplayEvent.message("You fall.")),
+                TurnEvent.of(DisplayEvent.moved("cellar")),
+                TurnEvent.of(DisplayEvent.gameOver()));
+
+        assertThat(converter.convertToDatabaseColumn(events))
+                .isEqualTo("[{\"type\":\"MESSAGE\",\"text\":\"You fall.\"},{\"type\":\"MOVED\",\"room\":\"cellar\"},{\"type\":\"GAME_OVER\"}]");
+    }
+
+    @Test
+    public void readsEventsBack() {
+        List<TurnEvent> events = singletonList(TurnEvent.of(DisplayEvent.room("garage", singletonList("wrench"), asList("north", "south"))));
+
+        assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(events))).isEqualTo(events);
+    }
+
+    @Test
+    public void storesNoEventsAsNull() {
+        assertThat(converter.convertToDatabaseColumn(emptyList())).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isEmpty();
+    }
+}
@@ -1,10 +1,12 @@
 package hartman.games.adventureland.api;
 
+import hartman.games.adventureland.engine.core.DisplayEvent;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -64,4 +66,17 @@ public class TurnRepositoryIT extends AbstractIntegrationTest {
 
         assertThat(repository.findById(turn.getId())).isNotEmpty().hasValueSatisfying(t -> assertThat(t.getOutput()).isEqualTo(largeOutput));
     }
+
+    @Test
+    public void savesEventsInsteadOfOutputText() {
+        Adventure adventure = adventureRepository.save(newAdventure());
+        Game game = gameRepository.save(Game.builder().adventure(adventure).player("Player One").build());
+        List<TurnEvent> events = Collections.singletonList(TurnEvent.builder().type(DisplayEvent.Type.MOVED).room("cellar").build());
+        Turn turn = repository.save(Turn.builder().game(game).command("down").events(events).build());
+
+        assertThat(repository.findById(turn.getId())).isNotEmpty().hasValueSatisfying(t -> {
+            assertThat(t.getOutput()).isEmpty();
+            assertThat(t.getEvents()).isEqualTo(events);
+        });
+    }
 }
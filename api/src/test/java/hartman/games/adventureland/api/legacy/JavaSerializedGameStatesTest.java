@@ -0,0 +1,107 @@
+package hartman.games.adventureland.api.legacy;
+
+import hartman.games.adventureland.engine.Adventure;
+import hartman.games.adventureland.engine.GameState;
+import hartman.games.adventureland.engine.Item;
+import hartman.games.adventureland.engine.Room;
+import hartman.games.adventureland.engine.Vocabulary;
+import hartman.games.adventureland.engine.Word;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static java.util.Collections.emptySet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The saved game read here was written by the engine as it was before the compact codec: the player went down
+ * to the cellar with the lamp, left the ghost in the hall and destroyed the rope, and it set flag lit, reset flag
+ * scared, counted 42 moves and was named Archie.
+ */
+public class JavaSerializedGameStatesTest {
+
+    private final Room hall = new Room("hall", "A great hall.");
+    private final Room cellar = new Room("cellar", "A musty cellar.");
+    private final Item lamp = new Item.Builder().named("lamp").describedAs("a brass lamp").portable().in(hall).build();
+    private final Item rope = new Item.Builder().named("rope").describedAs("a rope").portable().in(cellar).build();
+    private final Item ghost = new Item.Builder().named("ghost").describedAs("a ghost").build();
+
+    {
+        hall.setExit(new Word("down", "d"), cellar);
+        cellar.setExit(new Word("up", "u"), hall);
+    }
+
+    @Test
+    public void recognisesJavaSerializationByItsHeader() throws IOException {
+        assertThat(JavaSerializedGameStates.isJavaSerialized(savedGame())).isTrue();
+        assertThat(JavaSerializedGameStates.isJavaSerialized(new byte[]{3, 1})).isFalse();
+        assertThat(JavaSerializedGameStates.isJavaSerialized(new byte[0])).isFalse();
+    }
+
+    @Test
+    public void migratesSavedGameToTheAdventure() throws IOException {
+        GameState gameState = JavaSerializedGameStates.read(savedGame(), adventureOf(lamp, rope, ghost));
+
+        assertThat(gameState.isRunning()).isTrue();
+        assertThat(gameState.getCurrentRoom()).isSameAs(cellar);
+        assertThat(gameState.carrying(lamp)).isTrue();
+        assertThat(gameState.inRoom(ghost, hall)).isTrue();
+        assertThat(gameState.exists(rope)).isFalse();
+        assertThat(gameState.getFlag("lit")).isTrue();
+        assertThat(gameState.getFlag("scared")).isFalse();
+        assertThat(gameState.getCounter("moves")).isEqualTo(42);
+        assertThat(gameState.getString("name")).isEqualTo("Archie");
+    }
+
+    @Test
+    public void leavesOutItemsTheAdventureNoLongerHas() throws IOException {
+        GameState gameState = JavaSerializedGameStates.read(savedGame(), adventureOf(lamp));
+
+        assertThat(gameState.getCurrentRoom()).isSameAs(cellar);
+        assertThat(gameState.carrying(lamp)).isTrue();
+    }
+
+    @Test
+    public void rejectsSavedGameInARoomTheAdventureNoLongerHas() throws IOException {
+        Room otherHall = new Room("hall", "A great hall.");
+        Adventure adventure = new Adventure(new Vocabulary(emptySet()), emptySet(), emptySet(), emptySet(), otherHall);
+
+        assertThatThrownBy(() -> JavaSerializedGameStates.read(savedGame(), adventure))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cellar");
+    }
+
+    @Test
+    public void rejectsClassesWhichAreNotPartOfAGameState() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new StringBuilder("not a game"));
+        }
+
+        assertThatThrownBy(() -> JavaSerializedGameStates.read(bytes.toByteArray(), adventureOf(lamp)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Adventure adventureOf(Item... items) {
+        Set<Item> itemSet = new LinkedHashSet<>(Arrays.asList(items));
+        return new Adventure(new Vocabulary(emptySet()), emptySet(), emptySet(), itemSet, hall);
+    }
+
+    private static byte[] savedGame() throws IOException {
+        try (InputStream in = JavaSerializedGameStatesTest.class.getResourceAsStream("/legacy/gamestate.ser")) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+                bytes.write(buffer, 0, n);
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -4,7 +4,9 @@ import hartman.games.adventureland.engine.Adventure;
 import hartman.games.adventureland.engine.CommandInterpreter;
 import hartman.games.adventureland.engine.Display;
 import hartman.games.adventureland.engine.Game;
+import hartman.games.adventureland.engine.GameHistory;
 import hartman.games.adventureland.engine.GameState;
+import hartman.games.adventureland.engine.core.AdventureImage;
 import hartman.games.adventureland.script.AdventureScriptParser;
 import hartman.games.adventureland.script.AdventureScriptParserImpl;
 import org.apache.commons.cli.CommandLine;
@@ -12,6 +14,7 @@ import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Option;
+import org.apache.commons.cli.OptionGroup;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.springframework.boot.CommandLineRunner;
@@ -21,6 +24,7 @@ import org.springframework.context.annotation.Bean;
 
 import javax.annotation.PostConstruct;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -51,12 +55,31 @@ public class ConsoleApplication implements CommandLineRunner {
         final Option scriptOption = Option.builder("s")
                 .longOpt("script")
                 .argName("script")
-                .required()
                 .hasArg()
                 .desc("Path to the Adventure story script file to load")
                 .build();
 
-        options.addOption(scriptOption);
+        final Option imageOption = Option.builder("i")
+                .longOpt("image")
+                .argName("image")
+                .hasArg()
+                .desc("Path to an Adventure image compiled from a script to load")
+                .build();
+
+        final Option outputOption = Option.builder("o")
+                .longOpt("output")
+                .argName("image")
+                .hasArg()
+                .desc("Compile the script into an Adventure image at this path instead of playing it")
+                .build();
+
+        OptionGroup adventureOptions = new OptionGroup();
+        adventureOptions.addOption(scriptOption);
+        adventureOptions.addOption(imageOption);
+        adventureOptions.setRequired(true);
+
+        options.addOptionGroup(adventureOptions);
+        options.addOption(outputOption);
     }
 
     @Override
@@ -69,7 +92,13 @@ public class ConsoleApplication implements CommandLineRunner {
             System.exit(1);
         }
 
-        runAdventure(loadAdventure(Paths.get(cmd.getOptionValue("s"))));
+        if (cmd.hasOption("i")) {
+            runAdventure(AdventureImage.load(Paths.get(cmd.getOptionValue("i"))));
+        } else if (cmd.hasOption("o")) {
+            compileAdventure(Paths.get(cmd.getOptionValue("s")), Paths.get(cmd.getOptionValue("o")));
+        } else {
+            runAdventure(loadAdventure(Paths.get(cmd.getOptionValue("s"))));
+        }
 
     }
 
@@ -84,11 +113,19 @@ public class ConsoleApplication implements CommandLineRunner {
         }
     }
 
+    private void compileAdventure(Path script, Path image) throws IOException {
+        try (Reader r = Files.newBufferedReader(script, StandardCharsets.UTF_8);
+             OutputStream out = Files.newOutputStream(image)) {
+            // a script compiled ahead of time may be large, so stream it instead of holding its parse tree
+            AdventureScriptParserImpl.streaming().compile(r, out);
+        }
+    }
+
     private void runAdventure(Adventure adventure) {
         CommandInterpreter interpreter = new ConsoleInterpreter(adventure.getVocabulary());
         Display display = new ConsoleDisplay();
-        GameState gameState = new GameState(adventure.getStartRoom(), adventure.getItems());
-        Game game = new Game(adventure, interpreter, display, gameState);
+        GameState gameState = new GameState(adventure);
+        Game game = new Game(adventure, interpreter, display, gameState, new GameHistory());
         game.run();
     }
 
@@ -0,0 +1,71 @@
+package hartman.games.adventureland.benchmarks;
+
+import hartman.games.adventureland.engine.Adventure;
+import hartman.games.adventureland.engine.core.AdventureImage;
+import hartman.games.adventureland.script.AdventureScriptParserImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the example adventure from its compiled image, from a file and from memory, against parsing its script.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdventureImageBenchmark {
+
+    private final AdventureScriptParserImpl parser = new AdventureScriptParserImpl();
+
+    private String script;
+    private byte[] image;
+    private Path imageFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        script = Resources.read("/example_adventure_1.txt");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        parser.compile(new StringReader(script), out);
+        image = out.toByteArray();
+        imageFile = Files.createTempFile("example_adventure_1", ".adventure");
+        Files.write(imageFile, image);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(imageFile);
+    }
+
+    @Benchmark
+    public Adventure parseScript() throws IOException {
+        return parser.parse(new StringReader(script));
+    }
+
+    @Benchmark
+    public Adventure loadImage() throws IOException {
+        return AdventureImage.load(imageFile);
+    }
+
+    @Benchmark
+    public Adventure readImage() {
+        return AdventureImage.read(image);
+    }
+}
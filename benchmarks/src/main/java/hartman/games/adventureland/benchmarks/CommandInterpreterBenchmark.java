@@ -0,0 +1,64 @@
+package hartman.games.adventureland.benchmarks;
+
+import hartman.games.adventureland.demo.HouseEscapeAdventure;
+import hartman.games.adventureland.engine.Command;
+import hartman.games.adventureland.engine.core.DefaultCommandInterpreter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.CharBuffer;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and tokenizing player input into commands, one line per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandInterpreterBenchmark {
+
+    private DefaultCommandInterpreter interpreter;
+
+    @Setup
+    public void setUp() {
+        String input = String.join("\n", GameTurnBenchmark.TOUR) + "\n";
+        interpreter = new DefaultCommandInterpreter(new Scanner(new EndlessInput(input)), HouseEscapeAdventure.adventure().getVocabulary());
+    }
+
+    @Benchmark
+    public Command nextCommand() {
+        return interpreter.nextCommand();
+    }
+
+    /**
+     * Repeats the same input forever so the interpreter never runs dry, however many operations JMH runs.
+     */
+    private static final class EndlessInput implements Readable {
+        private final String input;
+        private int position;
+
+        private EndlessInput(String input) {
+            this.input = input;
+        }
+
+        @Override
+        public int read(CharBuffer buffer) {
+            int length = Math.min(buffer.remaining(), input.length() - position);
+            buffer.put(input, position, position + length);
+            position = (position + length) % input.length();
+            return length;
+        }
+    }
+}
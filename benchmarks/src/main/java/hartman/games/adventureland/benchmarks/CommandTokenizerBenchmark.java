@@ -0,0 +1,61 @@
+package hartman.games.adventureland.benchmarks;
+
+import hartman.games.adventureland.demo.HouseEscapeAdventure;
+import hartman.games.adventureland.engine.Command;
+import hartman.games.adventureland.engine.Vocabulary;
+import hartman.games.adventureland.engine.Word;
+import hartman.games.adventureland.engine.core.CommandTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedList;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning a line of input into a command, with the tokenizer and with a scanner per line as the
+ * interpreter used to.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandTokenizerBenchmark {
+
+    private final Vocabulary vocabulary = HouseEscapeAdventure.adventure().getVocabulary();
+    private final CommandTokenizer tokenizer = new CommandTokenizer(vocabulary);
+
+    private int next;
+
+    private String nextLine() {
+        String line = GameTurnBenchmark.TOUR[next];
+        next = (next + 1) % GameTurnBenchmark.TOUR.length;
+        return line;
+    }
+
+    @Benchmark
+    public Command tokenizer() {
+        return tokenizer.tokenize(nextLine());
+    }
+
+    @Benchmark
+    public Command scannerPerLine() {
+        try (Scanner lineScanner = new Scanner(nextLine())) {
+            LinkedList<Word> words = new LinkedList<>();
+            while (lineScanner.hasNext()) {
+                String next = lineScanner.next();
+                words.add(vocabulary.findMatch(next).orElse(Word.unrecognized(next)));
+            }
+            return new Command(words.toArray(new Word[0]));
+        }
+    }
+}
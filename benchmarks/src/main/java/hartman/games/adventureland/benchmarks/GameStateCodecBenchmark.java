@@ -0,0 +1,85 @@
+package hartman.games.adventureland.benchmarks;
+
+import hartman.games.adventureland.demo.HouseEscapeAdventure;
+import hartman.games.adventureland.engine.Adventure;
+import hartman.games.adventureland.engine.Command;
+import hartman.games.adventureland.engine.Game;
+import hartman.games.adventureland.engine.GameState;
+import hartman.games.adventureland.engine.GameStateCodec;
+import hartman.games.adventureland.engine.core.DefaultDisplay;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storing and loading the state of a game part way through House Escape, as the API does around every turn,
+ * with the binary codec and with the Java serialization it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameStateCodecBenchmark {
+
+    private GameStateCodec codec;
+    private GameState gameState;
+    private byte[] encoded;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() throws IOException {
+        Adventure adventure = HouseEscapeAdventure.adventure();
+        codec = new GameStateCodec(adventure);
+        gameState = new GameState(adventure);
+        Game game = new Game(adventure, () -> Command.NONE, new DefaultDisplay(new PrintWriter(new GameTurnBenchmark.DiscardingWriter())), gameState);
+        game.takeTurn(Command.NONE);
+        for (Command command : GameTurnBenchmark.commands(adventure, GameTurnBenchmark.TOUR)) {
+            game.takeTurn(command);
+        }
+        encoded = codec.encode(gameState);
+        serialized = serialize();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.encode(gameState);
+    }
+
+    @Benchmark
+    public GameState decode() {
+        return codec.decode(encoded);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(gameState);
+        }
+        return baos.toByteArray();
+    }
+
+    @Benchmark
+    public GameState deserialize() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return (GameState) ois.readObject();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package hartman.games.adventureland.benchmarks;
+
+import hartman.games.adventureland.demo.HouseEscapeAdventure;
+import hartman.games.adventureland.engine.Adventure;
+import hartman.games.adventureland.engine.AdventureCompiler;
+import hartman.games.adventureland.engine.Command;
+import hartman.games.adventureland.engine.Display;
+import hartman.games.adventureland.engine.Game;
+import hartman.games.adventureland.engine.GameState;
+import hartman.games.adventureland.engine.core.DefaultCommandInterpreter;
+import hartman.games.adventureland.engine.core.DefaultDisplay;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns taken in House Escape, cycling through a walk around the house which ends where it starts.
+ * Output is formatted by the default display and then thrown away. The adventure's rules are either interpreted
+ * or compiled by the {@link AdventureCompiler}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameTurnBenchmark {
+
+    static final String[] TOUR = {
+            "LOOK", "N", "W", "GET PANDA", "I", "E", "S", "DROP PANDA",
+            "HELP", "XYZZY", "YELL HELLO", "GO NORTH", "GO SOUTH"
+    };
+
+    @Param({"interpreted", "compiled"})
+    public String rules;
+
+    private Adventure adventure;
+    private final Display display = new DefaultDisplay(new PrintWriter(new DiscardingWriter()));
+
+    private Command[] commands;
+    private int next;
+    private Game game;
+
+    @Setup
+    public void setUp() {
+        adventure = HouseEscapeAdventure.adventure();
+        if ("compiled".equals(rules)) {
+            adventure = new AdventureCompiler().compile(adventure);
+            if (!adventure.isCompiled()) {
+                throw new IllegalStateException("Compiling the rules needs the system Java compiler.");
+            }
+        }
+        commands = commands(adventure, TOUR);
+        newGame();
+    }
+
+    private void newGame() {
+        game = new Game(adventure, () -> Command.NONE, display, new GameState(adventure));
+        game.takeTurn(Command.NONE);
+    }
+
+    @Benchmark
+    public GameState takeTurn() {
+        GameState gameState = game.takeTurn(commands[next]);
+        next = (next + 1) % commands.length;
+        if (!gameState.isRunning()) {
+            newGame();
+        }
+        return gameState;
+    }
+
+    static Command[] commands(Adventure adventure, String... lines) {
+        Scanner scanner = new Scanner(String.join("\n", lines));
+        DefaultCommandInterpreter interpreter = new DefaultCommandInterpreter(scanner, adventure.getVocabulary());
+        Command[] commands = new Command[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            commands[i] = interpreter.nextCommand();
+        }
+        return commands;
+    }
+
+    static final class DiscardingWriter extends Writer {
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            // discard
+        }
+
+        @Override
+        public void flush() {
+            // nothing buffered
+        }
+
+        @Override
+        public void close() {
+            // nothing to release
+        }
+    }
+}
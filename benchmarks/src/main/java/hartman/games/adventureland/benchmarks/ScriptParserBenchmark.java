@@ -0,0 +1,77 @@
+package hartman.games.adventureland.benchmarks;
+
+import hartman.games.adventureland.engine.Adventure;
+import hartman.games.adventureland.script.AdventureScriptParser;
+import hartman.games.adventureland.script.AdventureScriptParserImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiling adventure scripts, i.e. what a cache miss costs the API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScriptParserBenchmark {
+
+    // the scripts in script/src/test/resources/scripts, see the resources of this module
+    private static final String[] TEST_SCRIPTS = {
+            "000", "001", "002", "003", "010", "020", "030", "040", "060", "070",
+            "100", "101", "102", "103", "104", "105", "200", "201", "202", "203",
+            "300", "301", "302", "303", "304", "305", "306", "307", "308", "309",
+            "310", "311", "312", "350", "351", "352", "400", "401", "402"
+    };
+
+    private final AdventureScriptParser parser = new AdventureScriptParserImpl();
+
+    private final List<String> testScripts = new ArrayList<>();
+    private String exampleAdventure;
+
+    @Setup
+    public void setUp() throws IOException {
+        for (String number : TEST_SCRIPTS) {
+            String script = Resources.read(String.format("/scripts/%sadventure.txt", number));
+            // several of the test scripts are invalid on purpose, only the ones which compile are timed
+            try {
+                parser.parse(new StringReader(script));
+                testScripts.add(script);
+            } catch (IllegalStateException e) {
+                // skip
+            }
+        }
+        exampleAdventure = Resources.read("/example_adventure_1.txt");
+    }
+
+    /**
+     * One operation compiles every valid test script once.
+     */
+    @Benchmark
+    public void parseTestScripts(Blackhole blackhole) throws IOException {
+        for (String script : testScripts) {
+            blackhole.consume(parser.parse(new StringReader(script)));
+        }
+    }
+
+    @Benchmark
+    public Adventure parseExampleAdventure() throws IOException {
+        return parser.parse(new StringReader(exampleAdventure));
+    }
+}
@@ -0,0 +1,93 @@
+package hartman.games.adventureland.benchmarks;
+
+import hartman.games.adventureland.engine.Adventure;
+import hartman.games.adventureland.script.AdventureScriptParser;
+import hartman.games.adventureland.script.AdventureScriptParserImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiling generated adventures of growing size, to show how compile time scales with the number of rooms, items
+ * and actions. Every room has two exits and an item, and every item five actions referring to it and its room, so
+ * 10000 rooms make 50000 actions. Each size is compiled both from a parse tree and streaming, without one.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScriptScalingBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int rooms;
+
+    @Param({"tree", "streaming"})
+    private String mode;
+
+    private AdventureScriptParser parser;
+
+    private String script;
+
+    @Setup
+    public void setUp() {
+        parser = "streaming".equals(mode) ? AdventureScriptParserImpl.streaming() : new AdventureScriptParserImpl();
+        script = generate(rooms);
+    }
+
+    private static String generate(int rooms) {
+        StringBuilder script = new StringBuilder();
+        script.append("wordgroup \"get\", \"take\"\n")
+                .append("wordgroup \"drop\"\n")
+                .append("wordgroup \"look\", \"l\"\n")
+                .append("wordgroup \"north\", \"n\"\n")
+                .append("wordgroup \"south\", \"s\"\n\n");
+        for (int i = 0; i < rooms; i++) {
+            script.append("room room").append(i).append(" \"I'm in room ").append(i).append(".\"\n")
+                    .append("    exit north room").append((i + 1) % rooms).append('\n')
+                    .append("    exit south room").append((i + rooms - 1) % rooms).append("\n\n");
+        }
+        for (int i = 0; i < rooms; i++) {
+            script.append("item thing").append(i).append(" \"thing ").append(i).append("\"\n")
+                    .append("    at room").append(i).append("\n\n");
+        }
+        for (int i = 0; i < rooms; i++) {
+            script.append("action \"get\" thing").append(i).append('\n')
+                    .append("    when here thing").append(i).append('\n')
+                    .append("    then get thing").append(i).append("\n\n")
+                    .append("action \"drop\" thing").append(i).append('\n')
+                    .append("    when carrying thing").append(i).append('\n')
+                    .append("    then drop thing").append(i).append("\n\n")
+                    .append("action \"look\" thing").append(i).append('\n')
+                    .append("    when present thing").append(i).append('\n')
+                    .append("    then print \"It's thing ").append(i).append(".\"\n\n")
+                    .append("action rub thing").append(i).append('\n')
+                    .append("    when carrying thing").append(i).append('\n')
+                    .append("        and in room").append(i).append('\n')
+                    .append("    then put thing").append(i).append(" room").append((i + 1) % rooms).append("\n\n")
+                    .append("action home thing").append(i).append('\n')
+                    .append("    when exists thing").append(i).append('\n')
+                    .append("    then goto room").append(i).append('\n')
+                    .append("        and look\n\n");
+        }
+        return script.toString();
+    }
+
+    @Benchmark
+    public Adventure parseGeneratedAdventure() throws IOException {
+        return parser.parse(new StringReader(script));
+    }
+}
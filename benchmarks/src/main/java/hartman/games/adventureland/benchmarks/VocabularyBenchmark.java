@@ -0,0 +1,51 @@
+package hartman.games.adventureland.benchmarks;
+
+import hartman.games.adventureland.demo.HouseEscapeAdventure;
+import hartman.games.adventureland.engine.Vocabulary;
+import hartman.games.adventureland.engine.Word;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking up the words a player types in the House Escape vocabulary.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VocabularyBenchmark {
+
+    private final Vocabulary vocabulary = HouseEscapeAdventure.adventure().getVocabulary();
+
+    // fields rather than constants so the lookups can't be folded
+    private String name = "look";
+    private String synonym = "pickup";
+    private String unknown = "xyzzy";
+
+    @Benchmark
+    public Optional<Word> findMatchByName() {
+        return vocabulary.findMatch(name);
+    }
+
+    @Benchmark
+    public Optional<Word> findMatchBySynonym() {
+        return vocabulary.findMatch(synonym);
+    }
+
+    @Benchmark
+    public Optional<Word> findMatchUnknown() {
+        return vocabulary.findMatch(unknown);
+    }
+}
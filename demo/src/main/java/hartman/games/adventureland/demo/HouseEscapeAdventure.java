@@ -4,6 +4,7 @@ import hartman.games.adventureland.engine.Adventure;
 import hartman.games.adventureland.engine.CommandInterpreter;
 import hartman.games.adventureland.engine.Display;
 import hartman.games.adventureland.engine.Game;
+import hartman.games.adventureland.engine.GameHistory;
 import hartman.games.adventureland.engine.GameState;
 import hartman.games.adventureland.engine.Item;
 import hartman.games.adventureland.engine.Room;
@@ -52,8 +53,8 @@ public class HouseEscapeAdventure {
         Adventure adventure = adventure();
         CommandInterpreter interpreter = new ConsoleInterpreter(adventure.getVocabulary());
         Display display = new ConsoleDisplay();
-        GameState gameState = new GameState(adventure.getStartRoom(), adventure.getItems());
-        Game game = new Game(adventure, interpreter, display, gameState);
+        GameState gameState = new GameState(adventure);
+        Game game = new Game(adventure, interpreter, display, gameState, new GameHistory());
         game.run();
     }
 
@@ -69,7 +70,10 @@ public class HouseEscapeAdventure {
         }
     }
 
-    private static Adventure adventure() {
+    /**
+     * Builds a new instance of the House Escape adventure.
+     */
+    public static Adventure adventure() {
 
         final String introduction = format(
                 "House Escape, a text-based adventure.%n" +
@@ -1,8 +1,11 @@
 package hartman.games.adventureland.engine;
 
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
+import static java.util.Arrays.asList;
+
 /**
  * Things the player can do or which happen to her and that result in changes to the game world.
  */
@@ -12,6 +15,8 @@ public class Action {
 
         private Set<Result> results = new LinkedHashSet<>();
         private Set<Condition> conditions = new LinkedHashSet<>();
+        private Set<Word> firstWords = Collections.emptySet();
+        private boolean unrecognizedFirstWord;
 
         public Builder when(Condition condition) {
             this.conditions.add(condition);
@@ -31,27 +36,106 @@ public class Action {
             return then(result);
         }
 
+        /**
+         * Declares that the action can only run for commands whose first word matches one of the given words,
+         * which lets the adventure skip it for every other command. The matching condition itself must still be
+         * added with {@link #when(Condition)}. Only the first declaration counts.
+         */
+        protected Builder keyOnFirstWords(Word... words) {
+            if (firstWords.isEmpty() && !unrecognizedFirstWord) {
+                firstWords = new LinkedHashSet<>(asList(words));
+            }
+            return this;
+        }
+
+        /**
+         * Declares that the action can only run for commands whose first word is unrecognized.
+         */
+        protected Builder keyOnUnrecognizedFirstWord() {
+            if (firstWords.isEmpty()) {
+                unrecognizedFirstWord = true;
+            }
+            return this;
+        }
+
         public Action build() {
-            return new Action(conditions, results);
+            return new Action(conditions, results, firstWords, unrecognizedFirstWord);
         }
     }
 
     @FunctionalInterface
     public interface Condition {
         boolean matches(Command command, GameState gameState);
+
+        /**
+         * What this condition reads of the game state besides the command. Unless a condition says otherwise
+         * it might read anything.
+         */
+        default Reads reads() {
+            return Reads.EVERYTHING;
+        }
+
+        /**
+         * What this condition does as code the compiled rules run instead of calling it, or null if they must call it.
+         */
+        default InlineCode inlineCode() {
+            return null;
+        }
     }
 
     @FunctionalInterface
     public interface Result {
         void execute(Command command, GameState gameState, Display display);
+
+        /**
+         * What this result does as code the compiled rules run instead of calling it, or null if they must call it.
+         */
+        default InlineCode inlineCode() {
+            return null;
+        }
     }
 
-    private final Set<Condition> conditions = new LinkedHashSet<>();
-    private final Set<Result> results = new LinkedHashSet<>();
+    // arrays rather than the given sets so running an action allocates nothing
+    private final Condition[] conditions;
+    private final Result[] results;
+    private final Set<Word> firstWords;
+    private final boolean unrecognizedFirstWord;
 
     public Action(Set<Condition> conditions, Set<Result> results) {
-        this.conditions.addAll(conditions);
-        this.results.addAll(results);
+        this(conditions, results, Collections.emptySet(), false);
+    }
+
+    private Action(Set<Condition> conditions, Set<Result> results, Set<Word> firstWords, boolean unrecognizedFirstWord) {
+        this.conditions = conditions.toArray(new Condition[0]);
+        this.results = results.toArray(new Result[0]);
+        this.firstWords = Collections.unmodifiableSet(new LinkedHashSet<>(firstWords));
+        this.unrecognizedFirstWord = unrecognizedFirstWord;
+    }
+
+    /**
+     * The words one of which the first word of a command must match for this action to run,
+     * or an empty set if the action is not keyed on the first word.
+     */
+    Set<Word> getFirstWords() {
+        return firstWords;
+    }
+
+    /**
+     * True if this action can only run for commands whose first word is unrecognized.
+     */
+    boolean isKeyedOnUnrecognizedFirstWord() {
+        return unrecognizedFirstWord;
+    }
+
+    /**
+     * What the conditions of this action read together.
+     */
+    Reads reads() {
+        Reads reads = Reads.NOTHING;
+        for (Condition condition : conditions) {
+            reads = reads.and(condition.reads());
+        }
+        return reads;
     }
 
     /**
@@ -60,11 +144,34 @@ public class Action {
      * @return true if this action is applicable to the given command and all conditions are met, otherwise returns false.
      */
     public boolean run(GameState gameState, Display display, Command command) {
-        if (conditions.stream().allMatch(condition -> condition.matches(command, gameState))) {
-            results.forEach(result -> result.execute(command, gameState, display));
-            return true;
+        if (!matches(command, gameState)) {
+            return false;
+        }
+        perform(command, gameState, display);
+        return true;
+    }
+
+    Condition[] getConditions() {
+        return conditions;
+    }
+
+    Result[] getResults() {
+        return results;
+    }
+
+    boolean matches(Command command, GameState gameState) {
+        for (Condition condition : conditions) {
+            if (!condition.matches(command, gameState)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void perform(Command command, GameState gameState, Display display) {
+        for (Result result : results) {
+            result.execute(command, gameState, display);
         }
-        return false;
     }
 
 }
@@ -0,0 +1,276 @@
+package hartman.games.adventureland.engine;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Dispatch table from the first word of a command to the actions which could possibly run for it.
+ * <p>
+ * Every action keyed on its first word is filed under the synonyms of each of its words. Actions on any word,
+ * on an unrecognized word or not keyed at all are kept in buckets of their own and merged back in, so the
+ * candidates for a command are always returned in declaration order and each candidate still checks all
+ * of its conditions. The index only ever leaves out actions which could not have matched.
+ * <p>
+ * The candidates for every word of the adventure's vocabulary, for unrecognized words and for commands without
+ * words are worked out up front, so looking them up during a turn allocates nothing. Each word only keeps the
+ * actions keyed on it, while the actions which are candidates for every word are kept once and merged with them
+ * as the candidates are walked.
+ */
+final class ActionIndex {
+
+    private static final int[] NO_ACTIONS = new int[0];
+
+    private final Action[] actions;
+    private final Map<String, int[]> bySynonym = new HashMap<>();
+    private final int[] anyWord;
+    private final int[] unrecognizedWord;
+    private final int[] unkeyed;
+    // the unkeyed actions and the actions on any word, which are candidates for every word but NONE
+    private final int[] unkeyedOrAnyWord;
+
+    private final Vocabulary vocabulary;
+    private final List<Candidates> candidatesBySymbol = new ArrayList<>();
+    private final Candidates noWordCandidates;
+    private final Candidates anyWordCandidates;
+    private final Candidates noneWordCandidates;
+    private final Candidates unrecognizedWordCandidates;
+
+    /**
+     * @param vocabulary the vocabulary whose words to work out the candidates for in advance, may be null
+     */
+    ActionIndex(Set<Action> declaredActions, Vocabulary vocabulary) {
+        this.actions = declaredActions.toArray(new Action[0]);
+
+        Map<String, List<Integer>> synonymBuckets = new HashMap<>();
+        List<Integer> anyBucket = new ArrayList<>();
+        List<Integer> unrecognizedBucket = new ArrayList<>();
+        List<Integer> unkeyedBucket = new ArrayList<>();
+
+        for (int ordinal = 0; ordinal < actions.length; ordinal++) {
+            Action action = actions[ordinal];
+            if (action.isKeyedOnUnrecognizedFirstWord()) {
+                unrecognizedBucket.add(ordinal);
+                continue;
+            }
+            Set<Word> firstWords = action.getFirstWords();
+            if (firstWords.isEmpty()) {
+                unkeyedBucket.add(ordinal);
+                continue;
+            }
+            for (Word word : firstWords) {
+                if (word == Word.ANY) {
+                    add(anyBucket, ordinal);
+                    continue;
+                }
+                if (word.isUnrecognized()) {
+                    add(unrecognizedBucket, ordinal);
+                }
+                for (String synonym : word.getSynonyms()) {
+                    add(synonymBuckets.computeIfAbsent(synonym, key -> new ArrayList<>()), ordinal);
+                }
+            }
+        }
+
+        synonymBuckets.forEach((synonym, bucket) -> bySynonym.put(synonym, toArray(bucket)));
+        this.anyWord = toArray(anyBucket);
+        this.unrecognizedWord = toArray(unrecognizedBucket);
+        this.unkeyed = toArray(unkeyedBucket);
+        this.unkeyedOrAnyWord = merge(new int[][]{unkeyed, anyWord}, 2);
+
+        this.vocabulary = vocabulary;
+        if (vocabulary != null) {
+            for (Word word : vocabulary.getWords()) {
+                candidatesBySymbol.add(candidatesFor(word));
+            }
+        }
+        this.noWordCandidates = new Candidates(NO_ACTIONS, unkeyed);
+        this.anyWordCandidates = candidatesFor(Word.ANY);
+        this.noneWordCandidates = candidatesFor(Word.NONE);
+        this.unrecognizedWordCandidates = new Candidates(without(unrecognizedWord, unkeyedOrAnyWord), unkeyedOrAnyWord);
+    }
+
+    /**
+     * The actions which could run for the given command, in declaration order.
+     */
+    Candidates candidates(Command command) {
+        if (!command.hasWord(1)) {
+            return noWordCandidates;
+        }
+        Word word = command.getWordOrNone(1);
+        if (word.isInternedIn(vocabulary)) {
+            return candidatesBySymbol.get(word.getSymbol());
+        }
+        if (word == Word.ANY || word.equals(Word.ANY)) {
+            return anyWordCandidates;
+        }
+        if (word == Word.NONE) {
+            return noneWordCandidates;
+        }
+        if (word.isUnrecognized() && !isKeyedOnAnySynonymOf(word)) {
+            return unrecognizedWordCandidates;
+        }
+        // a word from some other vocabulary
+        return candidatesFor(word);
+    }
+
+    private boolean isKeyedOnAnySynonymOf(Word word) {
+        for (String synonym : word.getSynonymArray()) {
+            if (bySynonym.containsKey(synonym)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Candidates candidatesFor(Word word) {
+        if (word == Word.ANY || word.equals(Word.ANY)) {
+            int[] all = new int[actions.length];
+            Arrays.setAll(all, ordinal -> ordinal);
+            return new Candidates(all, NO_ACTIONS);
+        }
+
+        int[] shared = word == Word.NONE ? unkeyed : unkeyedOrAnyWord;
+        int[][] buckets = new int[word.getSynonyms().size() + 1][];
+        int count = 0;
+        if (word.isUnrecognized()) {
+            buckets[count++] = unrecognizedWord;
+        }
+        for (String synonym : word.getSynonyms()) {
+            buckets[count++] = bySynonym.getOrDefault(synonym, NO_ACTIONS);
+        }
+        return new Candidates(without(count == 1 ? buckets[0] : merge(buckets, count), shared), shared);
+    }
+
+    // buckets are sorted, small and few, so concatenating and sorting is cheaper than a k-way merge
+    private static int[] merge(int[][] buckets, int count) {
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            size += buckets[i].length;
+        }
+        int[] merged = new int[size];
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(buckets[i], 0, merged, offset, buckets[i].length);
+            offset += buckets[i].length;
+        }
+        Arrays.sort(merged);
+
+        int distinct = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (distinct == 0 || merged[distinct - 1] != merged[i]) {
+                merged[distinct++] = merged[i];
+            }
+        }
+        return distinct == merged.length ? merged : Arrays.copyOf(merged, distinct);
+    }
+
+    // the sorted ordinals which are not among the sorted shared ones, the same array if there are none
+    private static int[] without(int[] ordinals, int[] shared) {
+        int[] kept = new int[ordinals.length];
+        int count = 0;
+        int s = 0;
+        for (int ordinal : ordinals) {
+            while (s < shared.length && shared[s] < ordinal) {
+                s++;
+            }
+            if (s == shared.length || shared[s] != ordinal) {
+                kept[count++] = ordinal;
+            }
+        }
+        return count == ordinals.length ? ordinals : Arrays.copyOf(kept, count);
+    }
+
+    /**
+     * A read only view of the candidate actions: the ordinals of the actions keyed on the word, i.e. their positions
+     * in declaration order, and the ordinals shared with other words. Neither has an ordinal of the other, so walking
+     * both at once, always taking the lower ordinal next, yields the candidates in declaration order.
+     */
+    final class Candidates extends AbstractList<Action> {
+        private final int[] keyed;
+        private final int[] shared;
+
+        private Candidates(int[] keyed, int[] shared) {
+            this.keyed = keyed;
+            this.shared = shared;
+        }
+
+        int[] keyedOrdinals() {
+            return keyed;
+        }
+
+        int[] sharedOrdinals() {
+            return shared;
+        }
+
+        /**
+         * Walks the candidates up to the index, so walk them with an iterator or the ordinals instead.
+         */
+        @Override
+        public Action get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(String.format("Index %d, size %d.", index, size()));
+            }
+            int k = 0;
+            int s = 0;
+            for (int i = 0; i < index; i++) {
+                if (isKeyedNext(k, s)) {
+                    k++;
+                } else {
+                    s++;
+                }
+            }
+            return actions[isKeyedNext(k, s) ? keyed[k] : shared[s]];
+        }
+
+        /**
+         * @return true if the next candidate is the keyed one at k rather than the shared one at s
+         */
+        boolean isKeyedNext(int k, int s) {
+            return s == shared.length || k < keyed.length && keyed[k] < shared[s];
+        }
+
+        @Override
+        public Iterator<Action> iterator() {
+            return new Iterator<Action>() {
+                private int k;
+                private int s;
+
+                @Override
+                public boolean hasNext() {
+                    return k < keyed.length || s < shared.length;
+                }
+
+                @Override
+                public Action next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return actions[isKeyedNext(k, s) ? keyed[k++] : shared[s++]];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return keyed.length + shared.length;
+        }
+    }
+
+    // an action may list several words sharing a synonym, file it only once
+    private static void add(List<Integer> bucket, int ordinal) {
+        if (bucket.isEmpty() || bucket.get(bucket.size() - 1) != ordinal) {
+            bucket.add(ordinal);
+        }
+    }
+
+    private static int[] toArray(List<Integer> bucket) {
+        return bucket.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -1,25 +1,95 @@
 package hartman.games.adventureland.engine;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
  * A vocabulary, a set of actions, and a collection of game elements like rooms and items which make up the adventure story.
+ * <p>
+ * An adventure is an immutable template which holds nothing that changes during play, so a single instance
+ * may safely back any number of concurrent games. Everything a game changes lives in its own {@link GameState}.
  */
 public class Adventure {
     private final Vocabulary vocabulary;
-    private final Set<Action> occurs = new LinkedHashSet<>();
-    private final Set<Action> actions = new LinkedHashSet<>();
-    private final Set<Item> items = new LinkedHashSet<>();
+    private final Set<Action> occurs;
+    private final Action[] occursInOrder;
+    private final Set<Action> actions;
+    private final Set<Item> items;
+    private final Set<Room> rooms;
     private final Room startRoom;
+    private final ActionIndex actionIndex;
+    private final Slots slots;
+    private final ItemIndex itemIndex;
+    private final OccursSchedule occursSchedule;
+    private final Rules rules;
+    private final boolean compiled;
 
-    public Adventure(Vocabulary vocabulary, Set<Action> occurs, Set<Action> actions, Set<Item> items, Room startRoom) {
+    /**
+     * @param slots the flag, counter and string slots the adventure's conditions and results are bound to
+     */
+    public Adventure(Vocabulary vocabulary, Set<Action> occurs, Set<Action> actions, Set<Item> items, Set<Room> rooms, Room startRoom, Slots slots) {
         this.vocabulary = vocabulary;
-        this.occurs.addAll(occurs);
-        this.actions.addAll(actions);
-        this.items.addAll(items);
+        this.occurs = Collections.unmodifiableSet(new LinkedHashSet<>(occurs));
+        this.occursInOrder = this.occurs.toArray(new Action[0]);
+        this.actions = Collections.unmodifiableSet(new LinkedHashSet<>(actions));
+        this.items = Collections.unmodifiableSet(new LinkedHashSet<>(items));
+        this.rooms = Collections.unmodifiableSet(new LinkedHashSet<>(rooms));
         this.startRoom = startRoom;
+        this.actionIndex = new ActionIndex(this.actions, vocabulary);
+        this.slots = slots;
+        this.itemIndex = new ItemIndex(this.items);
+        this.occursSchedule = new OccursSchedule(occursInOrder, slots, itemIndex);
+        this.rules = new InterpretedRules(getRulesInOrder(), occursInOrder.length);
+        this.compiled = false;
+    }
+
+    /**
+     * The same adventure running the given compiled rules.
+     */
+    Adventure(Adventure adventure, Rules rules) {
+        this.vocabulary = adventure.vocabulary;
+        this.occurs = adventure.occurs;
+        this.occursInOrder = adventure.occursInOrder;
+        this.actions = adventure.actions;
+        this.items = adventure.items;
+        this.rooms = adventure.rooms;
+        this.startRoom = adventure.startRoom;
+        this.actionIndex = adventure.actionIndex;
+        this.slots = adventure.slots;
+        this.itemIndex = adventure.itemIndex;
+        this.occursSchedule = adventure.occursSchedule;
+        this.rules = rules;
+        this.compiled = true;
+    }
+
+    public Adventure(Vocabulary vocabulary, Set<Action> occurs, Set<Action> actions, Set<Item> items, Set<Room> rooms, Room startRoom) {
+        this(vocabulary, occurs, actions, items, rooms, startRoom, new Slots());
+    }
+
+    /**
+     * Creates an adventure whose rooms are those reachable from the start room or from the items' starting rooms.
+     */
+    public Adventure(Vocabulary vocabulary, Set<Action> occurs, Set<Action> actions, Set<Item> items, Room startRoom) {
+        this(vocabulary, occurs, actions, items, reachableRooms(startRoom, items), startRoom);
+    }
+
+    private static Set<Room> reachableRooms(Room startRoom, Set<Item> items) {
+        Set<Room> rooms = new LinkedHashSet<>();
+        Deque<Room> pending = new ArrayDeque<>();
+        pending.add(startRoom);
+        items.forEach(item -> pending.add(item.getStartingRoom()));
+        while (!pending.isEmpty()) {
+            Room room = pending.remove();
+            if (room != Room.NOWHERE && room != Item.INVENTORY && rooms.add(room)) {
+                room.getExits().forEach(exit -> pending.add(exit.getRoom()));
+            }
+        }
+        return rooms;
     }
 
     public Vocabulary getVocabulary() {
@@ -27,15 +97,73 @@ public class Adventure {
     }
 
     public Set<Action> getOccurs() {
-        return Collections.unmodifiableSet(occurs);
+        return occurs;
+    }
+
+    /**
+     * The occurs in declaration order, as an array so running them every turn allocates nothing.
+     */
+    Action[] getOccursInOrder() {
+        return occursInOrder;
+    }
+
+    OccursSchedule getOccursSchedule() {
+        return occursSchedule;
+    }
+
+    /**
+     * The occurs followed by the actions, in declaration order, numbered as the {@link Rules} number them.
+     */
+    Action[] getRulesInOrder() {
+        Action[] rulesInOrder = Arrays.copyOf(occursInOrder, occursInOrder.length + actions.size());
+        int rule = occursInOrder.length;
+        for (Action action : actions) {
+            rulesInOrder[rule++] = action;
+        }
+        return rulesInOrder;
+    }
+
+    Rules getRules() {
+        return rules;
+    }
+
+    /**
+     * True if this adventure runs rules generated by the {@link AdventureCompiler}, false if it interprets them.
+     */
+    public boolean isCompiled() {
+        return compiled;
     }
 
     public Set<Action> getActions() {
-        return Collections.unmodifiableSet(actions);
+        return actions;
+    }
+
+    /**
+     * The actions which could run for the given command, in declaration order. Actions keyed on a first word
+     * which cannot match the command's first word are left out. The list is read only and best iterated.
+     */
+    public List<Action> getActionsFor(Command command) {
+        return actionIndex.candidates(command);
+    }
+
+    ActionIndex.Candidates getCandidatesFor(Command command) {
+        return actionIndex.candidates(command);
     }
 
     public Set<Item> getItems() {
-        return Collections.unmodifiableSet(items);
+        return items;
+    }
+
+    ItemIndex getItemIndex() {
+        return itemIndex;
+    }
+
+    public Set<Room> getRooms() {
+        return rooms;
+    }
+
+    public Slots getSlots() {
+        return slots;
     }
 
     public Room getStartRoom() {
@@ -0,0 +1,380 @@
+package hartman.games.adventureland.engine;
+
+import hartman.games.adventureland.engine.Action.Condition;
+import hartman.games.adventureland.engine.Action.Result;
+import hartman.games.adventureland.engine.Slots.Slot;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compiles the rules of an adventure into a generated class, so they run without the interpreter's loops.
+ * <p>
+ * The built-in conditions and results tell their {@link InlineCode code}, which the generated class runs in place of
+ * them, reading and writing the game state's slots and items directly. Other conditions and results are objects,
+ * often lambdas, so the generated code can't do what they do itself. Instead every one of them gets a call site of its
+ * own, where the interpreter calls them all from the same two megamorphic call sites. Each call site only ever sees
+ * one class, which lets the JIT inline the condition or result into it.
+ * <p>
+ * A game picks the actions to try from the command and skips the occurs whose inputs didn't change, so it asks for
+ * single rules by number, which the generated class dispatches with a switch to a run of {@code &&}s and statements
+ * per rule. When a game does run every occurs in turn, the generated class runs them in a straight line of ifs
+ * instead. The rules are split across methods of a limited number of rules, as the JIT won't compile huge methods
+ * and the class file format doesn't allow methods beyond 64KB.
+ * <p>
+ * The class is generated as source and compiled in memory with the system Java compiler. Without one, e.g. on a JRE,
+ * or if compiling fails for any other reason, the adventure is returned as it is and goes on being interpreted.
+ * Generated classes share class loaders, a new one being started every {@link #CLASSES_PER_LOADER} classes, so the
+ * classes of adventures no longer played can be unloaded along with the rest of their loader.
+ */
+public final class AdventureCompiler {
+
+    private static final Logger LOG = Logger.getLogger(AdventureCompiler.class.getName());
+
+    private static final String PACKAGE = "hartman.games.adventureland.engine.generated";
+    // keeps the methods of rules with a handful of conditions and results each below the 8000 bytes of bytecode
+    // beyond which the JIT doesn't compile a method
+    static final int RULES_PER_METHOD = 32;
+    static final int CLASSES_PER_LOADER = 64;
+    private static final AtomicInteger CLASSES = new AtomicInteger();
+    // types of the fields generated for operands of inline code, literals need none
+    private static final Class<?>[] OPERAND_TYPES = {Slot.class, Item.class, Room.class, Word.class, String.class};
+
+    private static GeneratedClassLoader loader;
+    private static int loaderClasses;
+
+    private final JavaCompiler compiler;
+
+    public AdventureCompiler() {
+        this(ToolProvider.getSystemJavaCompiler());
+    }
+
+    /**
+     * @param compiler the compiler to compile the generated source with, or null to interpret every adventure
+     */
+    AdventureCompiler(JavaCompiler compiler) {
+        this.compiler = compiler;
+    }
+
+    /**
+     * @return the same adventure running compiled rules, or the given adventure if its rules can't be compiled
+     * @see Adventure#isCompiled()
+     */
+    public Adventure compile(Adventure adventure) {
+        if (compiler == null || adventure.isCompiled()) {
+            return adventure;
+        }
+        Action[] rules = adventure.getRulesInOrder();
+        String className = "GeneratedRules" + CLASSES.incrementAndGet();
+        try {
+            List<Object> operands = new ArrayList<>();
+            Class<?> rulesClass = compile(className, generate(className, rules, adventure.getOccursInOrder().length, operands));
+            Condition[][] conditions = new Condition[rules.length][];
+            Result[][] results = new Result[rules.length][];
+            for (int rule = 0; rule < rules.length; rule++) {
+                conditions[rule] = rules[rule].getConditions();
+                results[rule] = rules[rule].getResults();
+            }
+            Rules compiled = (Rules) rulesClass.getConstructor(Condition[][].class, Result[][].class, Object[].class)
+                    .newInstance(conditions, results, operands.toArray());
+            return new Adventure(adventure, compiled);
+        } catch (ReflectiveOperationException | IOException | RuntimeException e) {
+            LOG.log(Level.WARNING, String.format("Failed to compile the %d rules of the adventure, interpreting them instead.", rules.length), e);
+            return adventure;
+        }
+    }
+
+    static String generate(String className, Action[] rules, int occurs) {
+        return generate(className, rules, occurs, new ArrayList<>());
+    }
+
+    /**
+     * @param occurs   the number of occurs, which come first among the rules
+     * @param operands gets the operands of the inline code, which the generated class takes as its third argument
+     */
+    static String generate(String className, Action[] rules, int occurs, List<Object> operands) {
+        Operands fields = new Operands(operands);
+        StringBuilder source = new StringBuilder();
+        int methods = (rules.length + RULES_PER_METHOD - 1) / RULES_PER_METHOD;
+        int occursMethods = (occurs + RULES_PER_METHOD - 1) / RULES_PER_METHOD;
+
+        source.append("    @Override\n")
+                .append("    public boolean matches(int rule, Command command, GameState gameState) {\n")
+                .append("        switch (rule / ").append(RULES_PER_METHOD).append(") {\n");
+        for (int method = 0; method < methods; method++) {
+            source.append("            case ").append(method).append(": return matches").append(method).append("(rule, command, gameState);\n");
+        }
+        source.append("            default: throw new IndexOutOfBoundsException(String.valueOf(rule));\n")
+                .append("        }\n")
+                .append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    public void perform(int rule, Command command, GameState gameState, Display display) {\n")
+                .append("        switch (rule / ").append(RULES_PER_METHOD).append(") {\n");
+        for (int method = 0; method < methods; method++) {
+            source.append("            case ").append(method).append(": perform").append(method).append("(rule, command, gameState, display); return;\n");
+        }
+        source.append("            default: throw new IndexOutOfBoundsException(String.valueOf(rule));\n")
+                .append("        }\n")
+                .append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    public void runOccurs(GameState gameState, Display display) {\n")
+                .append("        Command command = Command.NONE;\n");
+        for (int method = 0; method < occursMethods; method++) {
+            source.append("        runOccurs").append(method).append("(command, gameState, display);\n");
+        }
+        source.append("    }\n");
+
+        for (int method = 0; method < methods; method++) {
+            int first = method * RULES_PER_METHOD;
+            int end = Math.min(first + RULES_PER_METHOD, rules.length);
+
+            source.append("\n    private boolean matches").append(method).append("(int rule, Command command, GameState gameState) {\n")
+                    .append("        switch (rule) {\n");
+            for (int rule = first; rule < end; rule++) {
+                source.append("            case ").append(rule).append(": return ");
+                appendConditions(source, fields, rule, rules[rule], "true");
+                source.append(";\n");
+            }
+            source.append("            default: throw new IndexOutOfBoundsException(String.valueOf(rule));\n")
+                    .append("        }\n")
+                    .append("    }\n");
+
+            source.append("\n    private void perform").append(method).append("(int rule, Command command, GameState gameState, Display display) {\n")
+                    .append("        switch (rule) {\n");
+            for (int rule = first; rule < end; rule++) {
+                source.append("            case ").append(rule).append(":\n");
+                appendResults(source, fields, rule, rules[rule], "                ");
+                source.append("                return;\n");
+            }
+            source.append("            default: throw new IndexOutOfBoundsException(String.valueOf(rule));\n")
+                    .append("        }\n")
+                    .append("    }\n");
+
+            if (first < occurs) {
+                source.append("\n    private void runOccurs").append(method).append("(Command command, GameState gameState, Display display) {\n");
+                for (int rule = first; rule < Math.min(end, occurs); rule++) {
+                    if (rules[rule].getConditions().length == 0) {
+                        appendResults(source, fields, rule, rules[rule], "        ");
+                        continue;
+                    }
+                    source.append("        if (");
+                    appendConditions(source, fields, rule, rules[rule], null);
+                    source.append(") {\n");
+                    appendResults(source, fields, rule, rules[rule], "            ");
+                    source.append("        }\n");
+                }
+                source.append("    }\n");
+            }
+        }
+        return header(className, operands) + source.append("}\n");
+    }
+
+    private static String header(String className, List<Object> operands) {
+        StringBuilder header = new StringBuilder();
+        header.append("package ").append(PACKAGE).append(";\n\n")
+                .append("import hartman.games.adventureland.engine.Action.Condition;\n")
+                .append("import hartman.games.adventureland.engine.Action.Result;\n")
+                .append("import hartman.games.adventureland.engine.Command;\n")
+                .append("import hartman.games.adventureland.engine.Display;\n")
+                .append("import hartman.games.adventureland.engine.GameState;\n")
+                .append("import hartman.games.adventureland.engine.Rules;\n\n")
+                .append("public final class ").append(className).append(" implements Rules {\n")
+                .append("    private final Condition[][] c;\n")
+                .append("    private final Result[][] r;\n");
+        for (int i = 0; i < operands.size(); i++) {
+            header.append("    private final ").append(operandType(operands.get(i)).getCanonicalName()).append(" k").append(i).append(";\n");
+        }
+        header.append("\n    public ").append(className).append("(Condition[][] c, Result[][] r, Object[] k) {\n")
+                .append("        this.c = c;\n")
+                .append("        this.r = r;\n");
+        for (int i = 0; i < operands.size(); i++) {
+            header.append("        this.k").append(i).append(" = (").append(operandType(operands.get(i)).getCanonicalName())
+                    .append(") k[").append(i).append("];\n");
+        }
+        return header.append("    }\n\n").toString();
+    }
+
+    private static void appendConditions(StringBuilder source, Operands fields, int rule, Action action, String none) {
+        Condition[] conditions = action.getConditions();
+        if (conditions.length == 0) {
+            source.append(none);
+        }
+        for (int i = 0; i < conditions.length; i++) {
+            source.append(i == 0 ? "" : "\n                    && ");
+            String code = fields.inline(conditions[i].inlineCode());
+            if (code != null) {
+                source.append('(').append(code).append(')');
+            } else {
+                source.append("c[").append(rule).append("][").append(i).append("].matches(command, gameState)");
+            }
+        }
+    }
+
+    private static void appendResults(StringBuilder source, Operands fields, int rule, Action action, String indent) {
+        Result[] results = action.getResults();
+        for (int i = 0; i < results.length; i++) {
+            String code = fields.inline(results[i].inlineCode());
+            if (code != null) {
+                source.append(indent).append(code).append(";\n");
+            } else {
+                source.append(indent).append("r[").append(rule).append("][").append(i).append("].execute(command, gameState, display);\n");
+            }
+        }
+    }
+
+    // the type of the field kept for an operand, or null if the operand can't be kept in one
+    private static Class<?> operandType(Object operand) {
+        for (Class<?> type : OPERAND_TYPES) {
+            if (type.isInstance(operand)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The operands of the inline code of the generated class, each kept in a field of its own.
+     */
+    private static final class Operands {
+        private final List<Object> operands;
+        private final Map<Object, String> fields = new IdentityHashMap<>();
+
+        Operands(List<Object> operands) {
+            this.operands = operands;
+        }
+
+        // the code with its operands in place, or null if there is no code or it has an operand which fits nowhere
+        String inline(InlineCode code) {
+            if (code == null) {
+                return null;
+            }
+            String[] values = new String[code.getOperands().size()];
+            for (int i = 0; i < values.length; i++) {
+                Object operand = code.getOperands().get(i);
+                if (operand instanceof Integer || operand instanceof Boolean) {
+                    values[i] = operand.toString();
+                } else if (operandType(operand) == null) {
+                    return null;
+                }
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    values[i] = fields.computeIfAbsent(code.getOperands().get(i), operand -> {
+                        operands.add(operand);
+                        return "k" + (operands.size() - 1);
+                    });
+                }
+            }
+            String expression = code.getExpression();
+            // the highest first, so $1 doesn't replace the start of $10
+            for (int i = values.length - 1; i >= 0; i--) {
+                expression = expression.replace("$" + i, values[i]);
+            }
+            return expression;
+        }
+    }
+
+    /**
+     * Loads a generated class into the current shared loader.
+     */
+    private static synchronized Class<?> define(String name, byte[] classFile) {
+        if (loader == null || loaderClasses == CLASSES_PER_LOADER) {
+            loader = new GeneratedClassLoader();
+            loaderClasses = 0;
+        }
+        loaderClasses++;
+        return loader.define(name, classFile);
+    }
+
+    private static final class GeneratedClassLoader extends ClassLoader {
+        GeneratedClassLoader() {
+            super(Rules.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] classFile) {
+            return defineClass(name, classFile, 0, classFile.length);
+        }
+    }
+
+    private Class<?> compile(String className, String source) throws IOException {
+        String qualifiedName = PACKAGE + "." + className;
+        Map<String, ByteArrayOutputStream> classFiles = new HashMap<>();
+        try (StandardJavaFileManager standard = compiler.getStandardFileManager(null, null, null);
+             JavaFileManager fileManager = new ForwardingJavaFileManager<JavaFileManager>(standard) {
+                 @Override
+                 public JavaFileObject getJavaFileForOutput(Location location, String name, JavaFileObject.Kind kind, FileObject sibling) {
+                     return new SimpleJavaFileObject(URI.create("mem:///" + name.replace('.', '/') + kind.extension), kind) {
+                         @Override
+                         public OutputStream openOutputStream() {
+                             return classFiles.computeIfAbsent(name, key -> new ByteArrayOutputStream());
+                         }
+                     };
+                 }
+             }) {
+            JavaFileObject sourceFile = new SimpleJavaFileObject(URI.create("mem:///" + qualifiedName.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return source;
+                }
+            };
+            List<String> options = Arrays.asList("-classpath", classPath(), "-g:none", "-proc:none");
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            Boolean compiled = compiler.getTask(null, fileManager, diagnostics, options, null, Collections.singletonList(sourceFile)).call();
+            if (!Boolean.TRUE.equals(compiled)) {
+                throw new IllegalStateException("Generated rules failed to compile: " + diagnostics.getDiagnostics().stream()
+                        .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                        .map(diagnostic -> diagnostic.getMessage(Locale.ROOT))
+                        .findFirst()
+                        .orElse("no error reported"));
+            }
+        }
+        ByteArrayOutputStream classFile = classFiles.get(qualifiedName);
+        if (classFile == null || classFiles.size() != 1) {
+            throw new IllegalStateException(String.format("Generated rules compiled to %s rather than one class.", classFiles.keySet()));
+        }
+        return define(qualifiedName, classFile.toByteArray());
+    }
+
+    // the engine may be loaded from somewhere other than the class path, e.g. by a container
+    private static String classPath() {
+        String classPath = System.getProperty("java.class.path", "");
+        CodeSource engine = Rules.class.getProtectionDomain().getCodeSource();
+        if (engine == null || engine.getLocation() == null) {
+            return classPath;
+        }
+        try {
+            return Paths.get(engine.getLocation().toURI()) + File.pathSeparator + classPath;
+        } catch (Exception e) {
+            LOG.log(Level.INFO, String.format("Engine at %s is not a file, compiling generated rules against the class path only.", engine.getLocation()), e);
+            return classPath;
+        }
+    }
+}
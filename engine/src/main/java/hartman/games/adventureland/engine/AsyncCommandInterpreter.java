@@ -0,0 +1,20 @@
+package hartman.games.adventureland.engine;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * An AsyncCommandInterpreter parses player input into a {@link Command} when the input arrives, without
+ * blocking a thread while the player makes up their mind.
+ *
+ * @see GameSession
+ */
+@FunctionalInterface
+public interface AsyncCommandInterpreter {
+
+    /**
+     * @return a stage which completes with the next command once the player entered it, or completes exceptionally
+     * if there is no more input
+     */
+    CompletionStage<Command> nextCommand();
+
+}
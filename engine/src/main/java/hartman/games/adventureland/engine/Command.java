@@ -1,8 +1,6 @@
 package hartman.games.adventureland.engine;
 
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -12,10 +10,11 @@ import java.util.stream.Collectors;
 public class Command {
     public static final Command NONE = new Command();
 
-    private final LinkedList<Word> words = new LinkedList<>();
+    private final Word[] words;
 
     private Command() {
         // internal use only
+        this.words = new Word[0];
     }
 
     /**
@@ -27,17 +26,36 @@ public class Command {
         if (wordList.length == 0) {
             throw new IllegalArgumentException("Must have at least one word.");
         }
-        this.words.addAll(Arrays.stream(wordList).filter(Objects::nonNull).collect(Collectors.toList()));
-        if (this.words.isEmpty()) {
+        int count = 0;
+        for (Word word : wordList) {
+            if (word != null) {
+                count++;
+            }
+        }
+        if (count == 0) {
             throw new IllegalArgumentException("Words must contain as least one non-null value.");
         }
+        this.words = new Word[count];
+        count = 0;
+        for (Word word : wordList) {
+            if (word != null) {
+                this.words[count++] = word;
+            }
+        }
     }
 
     /**
      * Return the word at the given position, otherwise Word.NONE
      */
     public Word getWordOrNone(int position) {
-        return getWord(position).orElse(Word.NONE);
+        return hasWord(position) ? words[position - 1] : Word.NONE;
+    }
+
+    /**
+     * True if this Command has a word at the given position, 1 being the first word.
+     */
+    public boolean hasWord(int position) {
+        return position > 0 && position <= words.length;
     }
 
     /**
@@ -45,8 +63,8 @@ public class Command {
      * Position 1 represents the first word, 2 represents the second, and so on.
      */
     public Optional<Word> getWord(int position) {
-        if (position > 0 && position <= words.size()) {
-            return Optional.of(words.get(position - 1));
+        if (hasWord(position)) {
+            return Optional.of(words[position - 1]);
         } else {
             return Optional.empty();
         }
@@ -54,7 +72,7 @@ public class Command {
 
     @Override
     public String toString() {
-        return words.stream().map(Word::toString).collect(Collectors.joining(" "));
+        return Arrays.stream(words).map(Word::toString).collect(Collectors.joining(" "));
     }
 
     @Override
@@ -64,11 +82,11 @@ public class Command {
 
         Command command = (Command) o;
 
-        return words.equals(command.words);
+        return Arrays.equals(words, command.words);
     }
 
     @Override
     public int hashCode() {
-        return words.hashCode();
+        return Arrays.hashCode(words);
     }
 }
@@ -13,4 +13,25 @@ public interface Display {
 
     void inventory(List<Item> itemsCarried);
 
+    /**
+     * Called by the game at the end of a turn in which the player ended up in another room.
+     */
+    default void moved(Room room) {
+        // the room is described by the adventure when it wants
+    }
+
+    /**
+     * Called by the game at the end of the turn in which the game ended.
+     */
+    default void gameOver() {
+        // the adventure says goodbye itself
+    }
+
+    /**
+     * Called by the game once at the end of every turn, so a display may hold its output back until then.
+     */
+    default void flush() {
+        // nothing held back
+    }
+
 }
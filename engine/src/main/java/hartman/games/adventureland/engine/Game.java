@@ -1,42 +1,176 @@
 package hartman.games.adventureland.engine;
 
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.Optional;
+
 /**
  * A running game session with a player and an adventure.
+ * <p>
+ * Taking a turn allocates nothing itself, whatever is allocated is down to the conditions and results
+ * which run, to the display and to recording the turn if there is a history.
+ * <p>
+ * A game given a {@link GameHistory} records every turn and lets the player take turns back with UNDO and REDO,
+ * and SAVE and RESTORE the game under a name. These words only work as such if the adventure doesn't know them,
+ * an adventure's own words always come first. They don't count as turns, so no occurs run for them.
+ * <p>
+ * Occurs are evaluated again only once something they read changed, see {@link Reads}. Until then an occurs comes out
+ * as it did the last time, so one which fired fires again without its conditions being evaluated.
  */
 public class Game {
     private final Adventure adventure;
     private final CommandInterpreter interpreter;
     private final Display display;
+    private final GameHistory history;
 
     private GameState gameState;
+    // the occurs to evaluate at the next chance, and which occurs came out true when they were last evaluated
+    private final BitSet stale = new BitSet();
+    private final BitSet fired = new BitSet();
 
     public Game(Adventure adventure, CommandInterpreter interpreter, Display display, GameState gameState) {
+        this(adventure, interpreter, display, gameState, null);
+    }
+
+    /**
+     * @param history the history to record turns in, or null if the player can't undo turns or save the game
+     */
+    public Game(Adventure adventure, CommandInterpreter interpreter, Display display, GameState gameState, GameHistory history) {
         this.adventure = adventure;
         this.interpreter = interpreter;
         this.display = display;
         this.gameState = gameState;
+        this.history = history;
+        stale.set(0, adventure.getOccursInOrder().length);
     }
 
     public GameState run() {
-        runOccurs();
+        start();
         while (gameState.isRunning()) {
             gameState = takeTurn(interpreter.nextCommand());
         }
         return gameState;
     }
 
+    /**
+     * Runs the occurs before the player's first turn, for any introduction the adventure has.
+     */
+    public GameState start() {
+        Room room = gameState.getCurrentRoom();
+        runOccurs();
+        endTurn(room);
+        return gameState;
+    }
+
     public GameState takeTurn(Command command) {
+        Room room = gameState.getCurrentRoom();
+        if (history != null) {
+            if (history.isEmpty()) {
+                history.record(gameState);
+            }
+            if (runHistoryCommand(command)) {
+                endTurn(room);
+                return gameState;
+            }
+        }
         runActions(command);
         runOccurs();
+        if (history != null) {
+            history.record(gameState);
+        }
+        endTurn(room);
         return gameState;
     }
 
+    private void endTurn(Room roomBefore) {
+        if (gameState.getCurrentRoom() != roomBefore) {
+            display.moved(gameState.getCurrentRoom());
+        }
+        if (!gameState.isRunning()) {
+            display.gameOver();
+        }
+        display.flush();
+    }
+
+    private boolean runHistoryCommand(Command command) {
+        Word verb = command.getWordOrNone(1);
+        if (!verb.isUnrecognized()) {
+            return false;
+        }
+        String slot = command.hasWord(2) ? command.getWordOrNone(2).getName().toLowerCase(Locale.ROOT) : "";
+        switch (verb.getName().toUpperCase(Locale.ROOT)) {
+            case "UNDO":
+                carryOn(history.undo(), "Undone.", "There is nothing to undo.");
+                return true;
+            case "REDO":
+                carryOn(history.redo(), "Redone.", "There is nothing to redo.");
+                return true;
+            case "SAVE":
+                history.save(slot, gameState);
+                display.print(slot.isEmpty() ? String.format("Saved.%n") : String.format("Saved as %s.%n", slot));
+                return true;
+            case "RESTORE":
+                Optional<GameState> saved = history.restore(slot);
+                carryOn(saved, "Restored.", slot.isEmpty() ? "There is no saved game." : String.format("There is no saved game named %s.", slot));
+                // a restore can be undone like any turn
+                saved.ifPresent(history::record);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void carryOn(Optional<GameState> version, String done, String notDone) {
+        if (version.isPresent()) {
+            gameState = version.get();
+            stale.set(0, adventure.getOccursInOrder().length);
+            display.print(String.format("%s%n", done));
+            gameState.describe(display);
+        } else {
+            display.print(String.format("%s%n", notDone));
+        }
+    }
+
     private void runOccurs() {
-        adventure.getOccurs().forEach(occur -> occur.run(gameState, display, Command.NONE));
+        int occurs = adventure.getOccursInOrder().length;
+        Rules rules = adventure.getRules();
+        OccursSchedule schedule = adventure.getOccursSchedule();
+        // without a schedule to go by or occurs to skip, every occurs runs in turn
+        if (!schedule.covers(gameState) || schedule.isEvaluatedAlways()) {
+            rules.runOccurs(gameState, display);
+            return;
+        }
+        // an occurs whose inputs didn't change since it was last evaluated comes out the same again
+        schedule.markStale(gameState, stale);
+        for (int i = 0; i < occurs; i++) {
+            if (schedule.isEvaluatedAlways(i)) {
+                fired.set(i, rules.matches(i, Command.NONE, gameState));
+                // such conditions may be anything, even ones changing the state
+                schedule.markStale(gameState, stale);
+            } else if (stale.get(i)) {
+                stale.clear(i);
+                fired.set(i, rules.matches(i, Command.NONE, gameState));
+            }
+            if (fired.get(i)) {
+                rules.perform(i, Command.NONE, gameState, display);
+                schedule.markStale(gameState, stale);
+            }
+        }
     }
 
     private void runActions(Command command) {
-        for (Action action : adventure.getActions())
-            if (action.run(gameState, display, command)) return;
+        // the keyed and the shared ordinals merged by hand, an iterator would be garbage
+        ActionIndex.Candidates candidates = adventure.getCandidatesFor(command);
+        int[] keyed = candidates.keyedOrdinals();
+        int[] shared = candidates.sharedOrdinals();
+        Rules rules = adventure.getRules();
+        int occurs = adventure.getOccursInOrder().length;
+        for (int k = 0, s = 0; k < keyed.length || s < shared.length; ) {
+            int rule = occurs + (candidates.isKeyedNext(k, s) ? keyed[k++] : shared[s++]);
+            if (rules.matches(rule, command, gameState)) {
+                rules.perform(rule, command, gameState, display);
+                return;
+            }
+        }
     }
 }
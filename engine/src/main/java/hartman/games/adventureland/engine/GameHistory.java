@@ -0,0 +1,128 @@
+package hartman.games.adventureland.engine;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The recent versions of a game's state, for undoing and redoing turns, and the versions saved under a name.
+ * <p>
+ * Versions are {@link GameState#snapshot() snapshots} and share whatever a turn didn't change with the versions
+ * around them. The most recent versions are kept in a ring, so recording, undoing and redoing a turn take constant
+ * time and the oldest version is dropped once the ring is full. Recording a turn after undoing some drops the turns
+ * which could have been redone, like in any editor.
+ * <p>
+ * A history belongs to a single game and is not safe for use by concurrent threads.
+ */
+public class GameHistory {
+
+    public static final int DEFAULT_CAPACITY = 100;
+
+    private final GameState[] versions;
+    // ring positions of the oldest version, the current version and the newest version which can be redone
+    private int oldest;
+    private int current = -1;
+    private int newest = -1;
+
+    private final Map<String, GameState> saves = new LinkedHashMap<>();
+
+    public GameHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the number of versions to keep, i.e. one more than the turns which can be undone
+     */
+    public GameHistory(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2.");
+        }
+        this.versions = new GameState[capacity];
+    }
+
+    public boolean isEmpty() {
+        return current == -1;
+    }
+
+    /**
+     * Records the state of the game after a turn as the current version.
+     */
+    public void record(GameState gameState) {
+        if (isEmpty()) {
+            oldest = current = newest = 0;
+        } else {
+            // anything which could have been redone is lost
+            for (int i = current; i != newest; ) {
+                i = next(i);
+                versions[i] = null;
+            }
+            current = newest = next(current);
+            if (current == oldest) {
+                oldest = next(oldest);
+            }
+        }
+        versions[current] = gameState.snapshot();
+    }
+
+    public boolean canUndo() {
+        return !isEmpty() && current != oldest;
+    }
+
+    public boolean canRedo() {
+        return !isEmpty() && current != newest;
+    }
+
+    /**
+     * Steps back to the version before the current one.
+     *
+     * @return a copy of that version for the game to carry on with, or empty if there is nothing to undo
+     */
+    public Optional<GameState> undo() {
+        if (!canUndo()) {
+            return Optional.empty();
+        }
+        current = previous(current);
+        return Optional.of(versions[current].snapshot());
+    }
+
+    /**
+     * Steps forward to the version which was last undone.
+     *
+     * @return a copy of that version for the game to carry on with, or empty if there is nothing to redo
+     */
+    public Optional<GameState> redo() {
+        if (!canRedo()) {
+            return Optional.empty();
+        }
+        current = next(current);
+        return Optional.of(versions[current].snapshot());
+    }
+
+    /**
+     * Saves the game state under the given name, replacing any state saved under the same name before.
+     */
+    public void save(String name, GameState gameState) {
+        saves.put(name, gameState.snapshot());
+    }
+
+    /**
+     * @return a copy of the state saved under the given name for the game to carry on with, or empty if there is none
+     */
+    public Optional<GameState> restore(String name) {
+        return Optional.ofNullable(saves.get(name)).map(GameState::snapshot);
+    }
+
+    public Set<String> getSaveNames() {
+        return Collections.unmodifiableSet(saves.keySet());
+    }
+
+    private int next(int position) {
+        return (position + 1) % versions.length;
+    }
+
+    private int previous(int position) {
+        return (position + versions.length - 1) % versions.length;
+    }
+}
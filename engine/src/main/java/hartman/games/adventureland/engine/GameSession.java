@@ -0,0 +1,69 @@
+package hartman.games.adventureland.engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Plays a {@link Game} with input from an {@link AsyncCommandInterpreter}, taking a turn only once the player's
+ * next command is there rather than having a thread wait for it like {@link Game#run()} does.
+ * <p>
+ * Turns are taken on the given executor, one at a time and in order, so a session needs no thread of its own while
+ * it waits for the player and a small pool can host a great many sessions. On a JDK with virtual threads an
+ * executor creating a virtual thread per task does too.
+ */
+public class GameSession {
+
+    private final Game game;
+    private final AsyncCommandInterpreter interpreter;
+    private final Executor executor;
+    private final CompletableFuture<GameState> over = new CompletableFuture<>();
+
+    public GameSession(Game game, AsyncCommandInterpreter interpreter, Executor executor) {
+        this.game = game;
+        this.interpreter = interpreter;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts the game on the executor and carries on taking turns as commands arrive.
+     *
+     * @return a future which completes with the final game state when the game is over, or completes exceptionally
+     * if a turn failed or the interpreter ran out of input
+     */
+    public CompletableFuture<GameState> start() {
+        executor.execute(() -> carryOn(game::start));
+        return over;
+    }
+
+    /**
+     * @return the future returned by {@link #start()}, which can also be used to stop the session by completing it
+     */
+    public CompletableFuture<GameState> whenOver() {
+        return over;
+    }
+
+    private void carryOn(Supplier<GameState> turn) {
+        if (over.isDone()) {
+            return;
+        }
+        GameState gameState;
+        try {
+            gameState = turn.get();
+        } catch (RuntimeException e) {
+            over.completeExceptionally(e);
+            return;
+        }
+        if (!gameState.isRunning()) {
+            over.complete(gameState);
+            return;
+        }
+        interpreter.nextCommand().whenCompleteAsync((command, failure) -> {
+            if (failure != null) {
+                over.completeExceptionally(failure);
+            } else {
+                carryOn(() -> game.takeTurn(command));
+            }
+        }, executor);
+    }
+}
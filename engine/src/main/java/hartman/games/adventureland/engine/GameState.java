@@ -1,35 +1,105 @@
 package hartman.games.adventureland.engine;
 
+import hartman.games.adventureland.engine.Slots.Kind;
+import hartman.games.adventureland.engine.Slots.Slot;
+
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static java.util.Collections.emptySet;
-import static java.util.stream.Collectors.collectingAndThen;
-import static java.util.stream.Collectors.toList;
 
 /**
- * The state of the game world which consists of the player's current position
- * and a toSet of flags which the adventure's actions may toSet and interpret.
+ * The state of the game world which consists of the player's current position,
+ * the current location of every item, and a set of flags which the adventure's actions may set and interpret.
+ * <p>
+ * Flags, counters and strings are kept in arrays indexed by the {@link Slots} of the adventure. The name based
+ * accessors look the slot up first and are meant for debugging and for adventures built by hand. A name the
+ * adventure has no slot for is kept by name in the state itself, so playing never grows the adventure's shared slots.
+ * <p>
+ * A game state also carries the game's own random source, so given the same state and the same command
+ * a turn always plays out the same way, e.g. when replaying a game or simulating many games in parallel.
+ * <p>
+ * Taking a {@link #snapshot()} is cheap: the snapshot shares the flags, counters, strings and item locations with
+ * the state it was taken of and whichever of the two writes to the flags, counters, strings or undeclared names next
+ * copies just those first. Item locations are kept in persistent tries, of which a move copies only the few nodes it passes through. So a
+ * game may keep a version per turn, e.g. to undo turns, at a cost proportional to what each turn changed.
+ * <p>
+ * A game state belongs to exactly one game. The rooms and items it refers to are the adventure's
+ * immutable definitions, which are never modified during play.
  */
 public class GameState implements Serializable {
     private static final long serialVersionUID = 1L;
 
-    private final Map<String, Boolean> flags = new HashMap<>();
-    private final Map<String, Integer> counters = new HashMap<>();
-    private final Map<String, String> strings = new HashMap<>();
-    private final Set<Item> items = new LinkedHashSet<>();
+    // the components which may be shared with snapshots
+    private static final int FLAGS = 1;
+    private static final int COUNTERS = 2;
+    private static final int STRINGS = 4;
+    private static final int UNDECLARED = 8;
+
+    private final Slots slots;
+    private BitSet flags = new BitSet();
+    private int[] counters = new int[0];
+    private String[] strings = new String[0];
+    // values of the names without a slot by kind and name: TRUE for a flag which is set, non-zero counters, strings
+    private Map<Kind, Map<String, Object>> undeclared = new EnumMap<>(Kind.class);
+    private final ItemIndex items;
+    // location of every item by item id, and the ids of the items in every location in declaration order
+    private final ItemLocations itemLocations;
     private boolean running;
     private Room currentRoom;
+    // state of a SplitMix64 generator, the algorithm behind SplittableRandom, whose state can't be saved
+    private long randomState;
+    // components shared with a snapshot, which must be copied before they are written
+    private transient int shared;
+    // what changed since the game last looked, see changes()
+    private transient StateChanges changes;
 
     public GameState(Room startingRoom, Set<Item> items) {
+        this(startingRoom, new ItemIndex(items), new Slots());
+    }
+
+    private GameState(Room startingRoom, ItemIndex items, Slots slots) {
+        this.slots = slots;
+        this.items = items;
+        this.itemLocations = new ItemLocations(items.size());
+        for (int id = 0; id < items.size(); id++) {
+            setLocation(id, items.get(id).getStartingRoom());
+        }
         this.currentRoom = startingRoom;
-        this.items.addAll(items);
         this.running = true;
+        this.randomState = ThreadLocalRandom.current().nextLong();
+    }
+
+    private GameState(GameState that) {
+        this.slots = that.slots;
+        this.items = that.items;
+        this.flags = that.flags;
+        this.counters = that.counters;
+        this.strings = that.strings;
+        this.undeclared = that.undeclared;
+        this.itemLocations = that.itemLocations.snapshot();
+        this.running = that.running;
+        this.currentRoom = that.currentRoom;
+        this.randomState = that.randomState;
+        this.shared = FLAGS | COUNTERS | STRINGS | UNDECLARED;
+        that.shared = this.shared;
+    }
+
+    /**
+     * Creates the state of a new game of the given adventure.
+     */
+    public GameState(Adventure adventure) {
+        this(adventure.getStartRoom(), adventure.getItemIndex(), adventure.getSlots());
     }
 
     public GameState(Room startRoom) {
@@ -37,39 +107,240 @@ public class GameState implements Serializable {
     }
 
     public void setFlag(String name, boolean value) {
-        flags.put(name, value);
+        setFlag(indexOf(Kind.FLAG, name), name, value);
     }
 
     public void setFlag(String name) {
-        flags.put(name, Boolean.TRUE);
+        setFlag(name, true);
     }
 
     public boolean getFlag(String name) {
-        return flags.getOrDefault(name, Boolean.FALSE);
+        return getFlag(indexOf(Kind.FLAG, name), name);
     }
 
     public void resetFlag(String name) {
-        flags.remove(name);
+        setFlag(name, false);
     }
 
     public void setCounter(String name, int value) {
-        counters.put(name, value);
+        setCounter(indexOf(Kind.COUNTER, name), name, value);
     }
 
     public int getCounter(String name) {
-        return counters.getOrDefault(name, 0);
+        return getCounter(indexOf(Kind.COUNTER, name), name);
     }
 
     public void resetCounter(String name) {
-        counters.remove(name);
+        setCounter(name, 0);
     }
 
     public String getString(String name) {
-        return strings.getOrDefault(name, "");
+        return getString(indexOf(Kind.STRING, name), name);
     }
 
     public void setString(String name, String value) {
-        strings.put(name, value);
+        setString(indexOf(Kind.STRING, name), name, value);
+    }
+
+    /**
+     * Returns a copy of this state, which shares everything with this state until either of them changes it.
+     * Changing one never affects the other.
+     */
+    public GameState snapshot() {
+        return new GameState(this);
+    }
+
+    public void setFlag(Slot flag, boolean value) {
+        setFlag(indexOf(flag), flag.getName(), value);
+    }
+
+    public boolean getFlag(Slot flag) {
+        return getFlag(indexOf(flag), flag.getName());
+    }
+
+    public void setCounter(Slot counter, int value) {
+        setCounter(indexOf(counter), counter.getName(), value);
+    }
+
+    public int getCounter(Slot counter) {
+        return getCounter(indexOf(counter), counter.getName());
+    }
+
+    public void setString(Slot string, String value) {
+        setString(indexOf(string), string.getName(), value);
+    }
+
+    public String getString(Slot string) {
+        return getString(indexOf(string), string.getName());
+    }
+
+    private void setFlag(int index, String name, boolean value) {
+        if (index < 0) {
+            setUndeclared(Kind.FLAG, name, value ? Boolean.TRUE : null);
+            return;
+        }
+        if (flags.get(index) == value) {
+            return;
+        }
+        unshare(FLAGS);
+        flags.set(index, value);
+        changes().slot(Kind.FLAG, index);
+    }
+
+    private boolean getFlag(int index, String name) {
+        return index < 0 ? getUndeclared(Kind.FLAG, name) != null : flags.get(index);
+    }
+
+    private void setCounter(int index, String name, int value) {
+        if (index < 0) {
+            setUndeclared(Kind.COUNTER, name, value != 0 ? value : null);
+            return;
+        }
+        int current = index < counters.length ? counters[index] : 0;
+        if (current == value) {
+            return;
+        }
+        unshare(COUNTERS);
+        if (index >= counters.length) {
+            counters = Arrays.copyOf(counters, capacityFor(index, Kind.COUNTER));
+        }
+        counters[index] = value;
+        changes().slot(Kind.COUNTER, index);
+    }
+
+    private int getCounter(int index, String name) {
+        if (index < 0) {
+            Integer value = (Integer) getUndeclared(Kind.COUNTER, name);
+            return value != null ? value : 0;
+        }
+        return index < counters.length ? counters[index] : 0;
+    }
+
+    private void setString(int index, String name, String value) {
+        if (index < 0) {
+            setUndeclared(Kind.STRING, name, value);
+            return;
+        }
+        if (index < strings.length && Objects.equals(strings[index], value)) {
+            return;
+        }
+        unshare(STRINGS);
+        if (index >= strings.length) {
+            strings = Arrays.copyOf(strings, capacityFor(index, Kind.STRING));
+        }
+        strings[index] = value;
+        changes().slot(Kind.STRING, index);
+    }
+
+    private String getString(int index, String name) {
+        String value = index < 0 ? (String) getUndeclared(Kind.STRING, name) : index < strings.length ? strings[index] : null;
+        return value != null ? value : "";
+    }
+
+    // no occurs reads a name without a slot, so there are no changes to track
+    private void setUndeclared(Kind kind, String name, Object value) {
+        if (Objects.equals(getUndeclared(kind, name), value)) {
+            return;
+        }
+        unshare(UNDECLARED);
+        if (value != null) {
+            undeclared.computeIfAbsent(kind, k -> new HashMap<>()).put(name, value);
+        } else {
+            undeclared.get(kind).remove(name);
+        }
+    }
+
+    private Object getUndeclared(Kind kind, String name) {
+        Map<String, Object> values = undeclared.get(kind);
+        return values != null ? values.get(name) : null;
+    }
+
+    private void unshare(int component) {
+        if ((shared & component) == 0) {
+            return;
+        }
+        shared &= ~component;
+        switch (component) {
+            case FLAGS:
+                flags = (BitSet) flags.clone();
+                break;
+            case COUNTERS:
+                counters = counters.clone();
+                break;
+            case STRINGS:
+                strings = strings.clone();
+                break;
+            default:
+                Map<Kind, Map<String, Object>> copy = new EnumMap<>(Kind.class);
+                undeclared.forEach((kind, values) -> copy.put(kind, new HashMap<>(values)));
+                undeclared = copy;
+        }
+    }
+
+    /**
+     * What changed since the game last looked. A new state, a snapshot and a deserialized state start out
+     * with no changes, whoever looks at them first must assume anything could have changed.
+     */
+    StateChanges changes() {
+        if (changes == null) {
+            changes = new StateChanges();
+        }
+        return changes;
+    }
+
+    /**
+     * True if this state keeps its flags, counters and strings in the given slots and its items by the given index.
+     */
+    boolean isOf(Slots slots, ItemIndex items) {
+        return this.slots == slots && this.items == items;
+    }
+
+    // slots bound to another adventure's table are looked up again by name, -1 if this state's table has no slot
+    private int indexOf(Slot slot) {
+        Slot own = slots.find(slot);
+        return own != null ? own.getIndex() : -1;
+    }
+
+    private int indexOf(Kind kind, String name) {
+        Slot own = slots.find(kind, name);
+        return own != null ? own.getIndex() : -1;
+    }
+
+    // grow to every slot allocated so far so a game usually grows its arrays at most once
+    private int capacityFor(int index, Kind kind) {
+        return Math.max(index + 1, slots.size(kind));
+    }
+
+    /**
+     * Reseeds the game's random source. Games seeded alike roll the same numbers from then on.
+     */
+    public void seedRandom(long seed) {
+        randomState = seed;
+    }
+
+    /**
+     * Rolls the game's random source.
+     *
+     * @return a number between zero inclusive and bound exclusive
+     * @throws IllegalArgumentException if bound is not positive
+     */
+    public int nextRandom(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Bound must be positive.");
+        }
+        // the top bits are the best mixed, the bias of the multiply-shift is negligible for the bounds a game rolls
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    private long nextLong() {
+        long z = (randomState += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    long getRandomState() {
+        return randomState;
     }
 
     public boolean isRunning() {
@@ -88,6 +359,9 @@ public class GameState implements Serializable {
     public Room moveTo(Room room) {
         Room previousRoom = currentRoom;
         currentRoom = room;
+        if (!Objects.equals(room, previousRoom)) {
+            changes().room = true;
+        }
         return previousRoom;
     }
 
@@ -100,29 +374,33 @@ public class GameState implements Serializable {
      * Item only needs to exist and be portable, it does not need to be in the current room.
      */
     public void putInInventory(Item item) {
-        items.stream()
-                .filter(i -> i.matches(item))
-                .filter(Item::isPortable)
-                .findFirst()
-                .ifPresent(Item::stow);
+        int id = items.idOf(item);
+        if (id != ItemIndex.NOT_FOUND && items.get(id).isPortable()) {
+            setLocation(id, Item.INVENTORY);
+        }
     }
 
     /**
      * Visits the current room and the items in that room.
      */
     public void describe(Display display) {
-        display.look(currentRoom, items.stream()
-                .filter(item -> item.isHere(currentRoom))
-                .collect(collectingAndThen(toList(), Collections::unmodifiableList)));
+        display.look(currentRoom, itemsIn(currentRoom));
     }
 
     /**
      * Visits only those items currently held in player's inventory.
      */
     public void inventory(Display display) {
-        display.inventory(items.stream()
-                .filter(Item::isCarried)
-                .collect(collectingAndThen(toList(), Collections::unmodifiableList)));
+        display.inventory(itemsIn(Item.INVENTORY));
+    }
+
+    private List<Item> itemsIn(Room room) {
+        int[] ids = itemLocations.idsIn(room);
+        Item[] itemsInRoom = new Item[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            itemsInRoom[i] = items.get(ids[i]);
+        }
+        return Collections.unmodifiableList(Arrays.asList(itemsInRoom));
     }
 
     /**
@@ -134,30 +412,37 @@ public class GameState implements Serializable {
 
     /**
      * Places ITEM in ROOM.
+     *
+     * @return the former location of the item or nowhere if the item isn't in this game
      */
     public Room drop(Item item, Room room) {
-        return find(item).map(i -> i.drop(room)).orElse(Room.NOWHERE);
+        int id = items.idOf(item);
+        return id == ItemIndex.NOT_FOUND ? Room.NOWHERE : setLocation(id, room);
     }
 
     /**
      * Removes item thus effectively destroying it from game.
      */
     public void destroy(Item item) {
-        find(item).ifPresent(Item::destroy);
+        drop(item, Room.NOWHERE);
     }
 
     /**
      * True if ITEM is in the game and not destroyed.
      */
     public boolean exists(Item item) {
-        return items.stream().anyMatch(i -> i.matches(item) && !i.isDestroyed());
+        int id = items.idOf(item);
+        return id != ItemIndex.NOT_FOUND && !itemLocations.get(id).equals(Room.NOWHERE);
     }
 
     /**
      * Put ITEM1 in same room as ITEM2
      */
     public void putWith(Item item1, Item item2) {
-        find(item1).ifPresent(i -> i.putWith(item2));
+        int id = items.idOf(item2);
+        if (id != ItemIndex.NOT_FOUND) {
+            drop(item1, itemLocations.get(id));
+        }
     }
 
     /**
@@ -171,25 +456,135 @@ public class GameState implements Serializable {
      * Return true if ITEM is carried.
      */
     public boolean carrying(Item item) {
-        return find(item).map(Item::isCarried).orElse(false);
+        return inRoom(item, Item.INVENTORY);
     }
 
     /**
      * Return true if ITEM is in ROOM.
      */
     public boolean inRoom(Item item, Room room) {
-        return find(item).map(i -> i.isHere(room)).orElse(false);
+        int id = items.idOf(item);
+        return id != ItemIndex.NOT_FOUND && itemLocations.get(id).equals(room);
     }
 
     /**
      * Return true if ITEM has moved from its original starting location.
      */
     public boolean hasMoved(Item item) {
-        return find(item).map(Item::hasMoved).orElse(false);
+        int id = items.idOf(item);
+        return id != ItemIndex.NOT_FOUND && !itemLocations.get(id).equals(items.get(id).getStartingRoom());
+    }
+
+    Room locationOf(Item item) {
+        int id = items.idOf(item);
+        return id == ItemIndex.NOT_FOUND ? Room.NOWHERE : itemLocations.get(id);
+    }
+
+    Room locationOf(int id) {
+        return itemLocations.get(id);
+    }
+
+    void setLocation(Item item, Room room) {
+        drop(item, room);
+    }
+
+    /**
+     * Moves the item and keeps the per location lists up to date.
+     *
+     * @return the former location of the item
+     */
+    private Room setLocation(int id, Room room) {
+        Room previous = itemLocations.get(id);
+        if (room.equals(previous)) {
+            return previous;
+        }
+        itemLocations.set(id, room);
+        changes().items.set(id);
+        return previous;
+    }
+
+    private Map<Item, Room> itemLocations() {
+        Map<Item, Room> locationsByItem = new LinkedHashMap<>();
+        for (int id = 0; id < items.size(); id++) {
+            locationsByItem.put(items.get(id), itemLocations.get(id));
+        }
+        return locationsByItem;
+    }
+
+    /**
+     * Returns the index of the first flag at or after the given one which is set, or -1 if there is none.
+     */
+    int nextFlagSet(int fromIndex) {
+        return flags.nextSetBit(fromIndex);
+    }
+
+    /**
+     * Returns the number of counters this state keeps values for, every counter past them being zero.
+     */
+    int counterCount() {
+        return counters.length;
+    }
+
+    int getCounter(int index) {
+        return counters[index];
+    }
+
+    /**
+     * Returns the number of strings this state keeps values for, every string past them never having been set.
+     */
+    int stringCount() {
+        return strings.length;
+    }
+
+    // null if the string has never been set
+    String getString(int index) {
+        return strings[index];
     }
 
-    private Optional<Item> find(Item item) {
-        return items.stream().filter(i -> i.matches(item)).findFirst();
+    /**
+     * The values of the names without a slot of the given kind, by name, see {@link #getFlag(String)} and friends.
+     */
+    Map<String, Object> undeclared(Kind kind) {
+        Map<String, Object> values = undeclared.get(kind);
+        return values != null ? Collections.unmodifiableMap(values) : Collections.emptyMap();
+    }
+
+    /**
+     * The flags which are set, by name.
+     */
+    Map<String, Boolean> flags() {
+        Map<String, Boolean> flagsByName = new LinkedHashMap<>();
+        flags.stream().forEach(index -> flagsByName.put(slots.get(Kind.FLAG, index).getName(), Boolean.TRUE));
+        undeclared(Kind.FLAG).forEach((name, value) -> flagsByName.put(name, Boolean.TRUE));
+        return flagsByName;
+    }
+
+    /**
+     * The counters which are not zero, by name.
+     */
+    Map<String, Integer> counters() {
+        Map<String, Integer> countersByName = new LinkedHashMap<>();
+        for (int index = 0; index < counters.length; index++) {
+            if (counters[index] != 0) {
+                countersByName.put(slots.get(Kind.COUNTER, index).getName(), counters[index]);
+            }
+        }
+        undeclared(Kind.COUNTER).forEach((name, value) -> countersByName.put(name, (Integer) value));
+        return countersByName;
+    }
+
+    /**
+     * The strings which have been set, by name.
+     */
+    Map<String, String> strings() {
+        Map<String, String> stringsByName = new LinkedHashMap<>();
+        for (int index = 0; index < strings.length; index++) {
+            if (strings[index] != null) {
+                stringsByName.put(slots.get(Kind.STRING, index).getName(), strings[index]);
+            }
+        }
+        undeclared(Kind.STRING).forEach((name, value) -> stringsByName.put(name, (String) value));
+        return stringsByName;
     }
 
     @Override
@@ -200,19 +595,19 @@ public class GameState implements Serializable {
         GameState gameState = (GameState) o;
 
         if (running != gameState.running) return false;
-        if (!flags.equals(gameState.flags)) return false;
-        if (!counters.equals(gameState.counters)) return false;
-        if (!strings.equals(gameState.strings)) return false;
-        if (!items.equals(gameState.items)) return false;
+        if (!flags().equals(gameState.flags())) return false;
+        if (!counters().equals(gameState.counters())) return false;
+        if (!strings().equals(gameState.strings())) return false;
+        if (!itemLocations().equals(gameState.itemLocations())) return false;
         return currentRoom.equals(gameState.currentRoom);
     }
 
     @Override
     public int hashCode() {
-        int result = flags.hashCode();
-        result = 31 * result + counters.hashCode();
-        result = 31 * result + strings.hashCode();
-        result = 31 * result + items.hashCode();
+        int result = flags().hashCode();
+        result = 31 * result + counters().hashCode();
+        result = 31 * result + strings().hashCode();
+        result = 31 * result + itemLocations().hashCode();
         result = 31 * result + (running ? 1 : 0);
         result = 31 * result + currentRoom.hashCode();
         return result;
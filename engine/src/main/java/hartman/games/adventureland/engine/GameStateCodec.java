@@ -0,0 +1,289 @@
+package hartman.games.adventureland.engine;
+
+import hartman.games.adventureland.engine.Slots.Kind;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of a {@link GameState} against the symbol table of its {@link Adventure}.
+ * <p>
+ * Only what changes during play is written: the running flag, the current room, the items which are not where they
+ * started, the flags which are set, the counters and strings which have a value, and the state of the game's random
+ * source. Rooms and items are written as their ids in the adventure and flags, counters and strings as their
+ * {@link Slots slots}, so a blob grows with what the game changed rather than with the size of the adventure. Values
+ * of names the adventure has no slot for, which only a state set by name has, are written by name.
+ * <p>
+ * Ids only mean something against the adventure they were taken from, so every blob carries a fingerprint of the
+ * adventure's rooms, items and slots and is only decoded against an adventure with the same ones, e.g. a script which
+ * has been parsed again. Every blob also starts with a format version byte, so a later version of the codec can
+ * still tell the blobs of this one apart.
+ */
+public final class GameStateCodec {
+
+    public static final int VERSION = 1;
+
+    private static final int NOWHERE = -1;
+    private static final int INVENTORY = -2;
+    private static final int UNKNOWN_ROOM = -3;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Adventure adventure;
+    private final Room[] rooms;
+    private final Map<Room, Integer> roomIds = new HashMap<>();
+    private final ItemIndex items;
+    private final Slots slots;
+    private final long fingerprint;
+
+    public GameStateCodec(Adventure adventure) {
+        this.adventure = adventure;
+        this.rooms = adventure.getRooms().toArray(new Room[0]);
+        for (int id = 0; id < rooms.length; id++) {
+            roomIds.putIfAbsent(rooms[id], id);
+        }
+        this.items = adventure.getItemIndex();
+        this.slots = adventure.getSlots();
+        this.fingerprint = fingerprint();
+    }
+
+    public Adventure getAdventure() {
+        return adventure;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the state is not of the codec's adventure
+     */
+    public byte[] encode(GameState gameState) {
+        if (!gameState.isOf(slots, items)) {
+            throw new IllegalArgumentException("Game state is not of the codec's adventure.");
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(baos)) {
+            out.writeByte(VERSION);
+            out.writeLong(fingerprint);
+            out.writeBoolean(gameState.isRunning());
+            writeRoom(out, gameState.getCurrentRoom());
+
+            // each list is written as the gaps between the ids in it, ending with a gap of zero
+            int previous = -1;
+            for (int id = 0; id < items.size(); id++) {
+                Room location = gameState.locationOf(id);
+                if (!location.equals(items.get(id).getStartingRoom())) {
+                    writeVarInt(out, id - previous);
+                    writeRoom(out, location);
+                    previous = id;
+                }
+            }
+            writeVarInt(out, 0);
+
+            previous = -1;
+            for (int index = gameState.nextFlagSet(0); index >= 0; index = gameState.nextFlagSet(index + 1)) {
+                writeVarInt(out, index - previous);
+                previous = index;
+            }
+            writeVarInt(out, 0);
+
+            previous = -1;
+            for (int index = 0; index < gameState.counterCount(); index++) {
+                if (gameState.getCounter(index) != 0) {
+                    writeVarInt(out, index - previous);
+                    writeSignedVarInt(out, gameState.getCounter(index));
+                    previous = index;
+                }
+            }
+            writeVarInt(out, 0);
+
+            previous = -1;
+            for (int index = 0; index < gameState.stringCount(); index++) {
+                if (gameState.getString(index) != null) {
+                    writeVarInt(out, index - previous);
+                    out.writeUTF(gameState.getString(index));
+                    previous = index;
+                }
+            }
+            writeVarInt(out, 0);
+
+            for (Kind kind : Kind.values()) {
+                Map<String, Object> undeclared = gameState.undeclared(kind);
+                writeVarInt(out, undeclared.size());
+                for (Map.Entry<String, Object> entry : undeclared.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    if (kind == Kind.COUNTER) {
+                        writeSignedVarInt(out, (Integer) entry.getValue());
+                    } else if (kind == Kind.STRING) {
+                        out.writeUTF((String) entry.getValue());
+                    }
+                }
+            }
+
+            out.writeLong(gameState.getRandomState());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the blob was not written by this version of the codec or for another adventure
+     */
+    public GameState decode(byte[] blob) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(blob))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException(String.format("Unsupported game state format version %d.", version));
+            }
+            if (in.readLong() != fingerprint) {
+                throw new IllegalArgumentException("Game state was written for another adventure.");
+            }
+            return decode(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid game state.", e);
+        }
+    }
+
+    private GameState decode(DataInput in) throws IOException {
+        GameState gameState = new GameState(adventure);
+        if (!in.readBoolean()) {
+            gameState.quit();
+        }
+        gameState.moveTo(readRoom(in));
+
+        for (int id = readId(in, -1, items.size()); id >= 0; id = readId(in, id, items.size())) {
+            gameState.setLocation(items.get(id), readRoom(in));
+        }
+        for (int index = readId(in, -1, slots.size(Kind.FLAG)); index >= 0; index = readId(in, index, slots.size(Kind.FLAG))) {
+            gameState.setFlag(slots.get(Kind.FLAG, index), true);
+        }
+        for (int index = readId(in, -1, slots.size(Kind.COUNTER)); index >= 0; index = readId(in, index, slots.size(Kind.COUNTER))) {
+            gameState.setCounter(slots.get(Kind.COUNTER, index), readSignedVarInt(in));
+        }
+        for (int index = readId(in, -1, slots.size(Kind.STRING)); index >= 0; index = readId(in, index, slots.size(Kind.STRING))) {
+            gameState.setString(slots.get(Kind.STRING, index), in.readUTF());
+        }
+        for (int n = readVarInt(in); n > 0; n--) {
+            gameState.setFlag(in.readUTF());
+        }
+        for (int n = readVarInt(in); n > 0; n--) {
+            gameState.setCounter(in.readUTF(), readSignedVarInt(in));
+        }
+        for (int n = readVarInt(in); n > 0; n--) {
+            gameState.setString(in.readUTF(), in.readUTF());
+        }
+
+        gameState.seedRandom(in.readLong());
+        return gameState;
+    }
+
+    // returns the next id of a list, or -1 at its end
+    private static int readId(DataInput in, int previous, int size) throws IOException {
+        int gap = readVarInt(in);
+        if (gap == 0) {
+            return -1;
+        }
+        int id = previous + gap;
+        if (id >= size) {
+            throw new IllegalArgumentException(String.format("Id %d is not part of the adventure.", id));
+        }
+        return id;
+    }
+
+    private void writeRoom(DataOutput out, Room room) throws IOException {
+        Integer id = roomIds.get(room);
+        if (id != null) {
+            writeSignedVarInt(out, id);
+        } else if (room.equals(Room.NOWHERE)) {
+            writeSignedVarInt(out, NOWHERE);
+        } else if (room.equals(Item.INVENTORY)) {
+            writeSignedVarInt(out, INVENTORY);
+        } else {
+            // not one of the adventure's rooms, which only happens for states built by hand
+            writeSignedVarInt(out, UNKNOWN_ROOM);
+            out.writeUTF(room.getName());
+            out.writeUTF(room.getDescription());
+        }
+    }
+
+    private Room readRoom(DataInput in) throws IOException {
+        int id = readSignedVarInt(in);
+        switch (id) {
+            case NOWHERE:
+                return Room.NOWHERE;
+            case INVENTORY:
+                return Item.INVENTORY;
+            case UNKNOWN_ROOM:
+                return new Room(in.readUTF(), in.readUTF());
+            default:
+                if (id < 0 || id >= rooms.length) {
+                    throw new IllegalArgumentException(String.format("Room %d is not part of the adventure.", id));
+                }
+                return rooms[id];
+        }
+    }
+
+    /*
+     * FNV-1a over the names of the rooms, items and slots in id order, which is what the ids of a blob depend on.
+     */
+    private long fingerprint() {
+        long hash = FNV_OFFSET_BASIS;
+        for (Room room : rooms) {
+            hash = hash(hash, room.getName());
+        }
+        hash = hash(hash, "");
+        for (int id = 0; id < items.size(); id++) {
+            hash = hash(hash, items.get(id).getName());
+        }
+        for (Kind kind : Kind.values()) {
+            hash = hash(hash, "");
+            for (int index = 0; index < slots.size(kind); index++) {
+                hash = hash(hash, slots.get(kind, index).getName());
+            }
+        }
+        return hash;
+    }
+
+    // each name is terminated so names which run into each other hash differently
+    private static long hash(long hash, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            hash = (hash ^ name.charAt(i)) * FNV_PRIME;
+        }
+        return (hash ^ 0xFFFF) * FNV_PRIME;
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static void writeSignedVarInt(DataOutput out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable-length integer.");
+    }
+
+    private static int readSignedVarInt(DataInput in) throws IOException {
+        int value = readVarInt(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
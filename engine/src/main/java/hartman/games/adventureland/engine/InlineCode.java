@@ -0,0 +1,76 @@
+package hartman.games.adventureland.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * What a built-in {@link Action.Condition condition} or {@link Action.Result result} does, as a Java expression the
+ * {@link AdventureCompiler} emits in place of calling it.
+ * <p>
+ * The expression refers to the game state as {@code gameState}, a result's display as {@code display} and the
+ * operands as {@code $0}, {@code $1} and so on. Operands are slots, items, rooms, words and strings, which the
+ * generated class keeps in fields of their own, and numbers and booleans, which are written as literals. A condition's
+ * expression is a boolean, a result's is a statement without its semicolon.
+ */
+public final class InlineCode {
+
+    private static final Pattern OPERAND = Pattern.compile("\\$(\\d+)");
+
+    private final String expression;
+    private final List<Object> operands;
+
+    private InlineCode(String expression, List<Object> operands) {
+        this.expression = expression;
+        this.operands = operands;
+    }
+
+    public static InlineCode of(String expression, Object... operands) {
+        return new InlineCode(expression, Collections.unmodifiableList(Arrays.asList(operands)));
+    }
+
+    /**
+     * Returns the negation of this boolean expression.
+     */
+    public InlineCode negated() {
+        return new InlineCode("!(" + expression + ")", operands);
+    }
+
+    /**
+     * Returns this boolean expression or the given one.
+     */
+    public InlineCode or(InlineCode that) {
+        return join(" || ", that);
+    }
+
+    /**
+     * Returns this boolean expression and the given one.
+     */
+    public InlineCode and(InlineCode that) {
+        return join(" && ", that);
+    }
+
+    // the operands of the given expression follow these, so its operand numbers are shifted past them
+    private InlineCode join(String operator, InlineCode that) {
+        Matcher operand = OPERAND.matcher(that.expression);
+        StringBuffer shifted = new StringBuffer();
+        while (operand.find()) {
+            operand.appendReplacement(shifted, "\\$" + (Integer.parseInt(operand.group(1)) + operands.size()));
+        }
+        operand.appendTail(shifted);
+        List<Object> joined = new ArrayList<>(operands);
+        joined.addAll(that.operands);
+        return new InlineCode("(" + expression + ")" + operator + "(" + shifted + ")", Collections.unmodifiableList(joined));
+    }
+
+    String getExpression() {
+        return expression;
+    }
+
+    List<Object> getOperands() {
+        return operands;
+    }
+}
@@ -0,0 +1,37 @@
+package hartman.games.adventureland.engine;
+
+/**
+ * Runs the rules by looping through the conditions and results of each action.
+ */
+final class InterpretedRules implements Rules {
+
+    private final Action[] rules;
+    private final int occurs;
+
+    /**
+     * @param occurs the number of occurs, which come first among the rules
+     */
+    InterpretedRules(Action[] rules, int occurs) {
+        this.rules = rules;
+        this.occurs = occurs;
+    }
+
+    @Override
+    public boolean matches(int rule, Command command, GameState gameState) {
+        return rules[rule].matches(command, gameState);
+    }
+
+    @Override
+    public void perform(int rule, Command command, GameState gameState, Display display) {
+        rules[rule].perform(command, gameState, display);
+    }
+
+    @Override
+    public void runOccurs(GameState gameState, Display display) {
+        for (int rule = 0; rule < occurs; rule++) {
+            if (matches(rule, Command.NONE, gameState)) {
+                perform(rule, Command.NONE, gameState, display);
+            }
+        }
+    }
+}
@@ -9,6 +9,8 @@ import java.util.Set;
  * <p>
  * Items are either "objects" like keys, swords, lamps, and mud while other items
  * are "scenery" like trees, signs, crypts, tables, altars, donkeys, etc.
+ * <p>
+ * An item is an immutable definition shared by every game of an adventure.
  */
 public class Item extends Word implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -60,20 +62,20 @@ public class Item extends Word implements Serializable {
         }
     }
 
-    private static final Room INVENTORY = new Room("Inventory", "Player's inventory of carried items.");
+    /**
+     * Pseudo-room representing the player's inventory of carried items.
+     */
+    public static final Room INVENTORY = new Room("Inventory", "Player's inventory of carried items.");
 
     private final String description;
     private final boolean portable;
     private final Room startingRoom;
 
-    private Room currentRoom;
-
     protected Item(String name, String description, boolean portable, Room startingRoom, String... aliases) {
         super(name, aliases);
         this.description = description;
         this.portable = portable;
         this.startingRoom = startingRoom;
-        this.currentRoom = startingRoom;
     }
 
     public String getDescription() {
@@ -84,41 +86,11 @@ public class Item extends Word implements Serializable {
         return portable;
     }
 
-    public boolean isCarried() {
-        return isHere(INVENTORY);
-    }
-
-    public boolean isHere(Room room) {
-        return currentRoom.equals(room);
-    }
-
-    public Boolean hasMoved() {
-        return !currentRoom.equals(startingRoom);
-    }
-
-    public Room drop(Room room) {
-        Room formerLocation = currentRoom;
-        currentRoom = room;
-        return formerLocation;
-    }
-
-    public Room stow() {
-        if (portable) {
-            return drop(INVENTORY);
-        }
-        throw new IllegalStateException("Item cannot be put into inventory. Cannot stow a non-portable item.");
-    }
-
-    public void putWith(Item item) {
-        drop(item.currentRoom);
-    }
-
-    public void destroy() {
-        this.currentRoom = Room.NOWHERE;
-    }
-
-    public boolean isDestroyed() {
-        return isHere(Room.NOWHERE);
+    /**
+     * The location of this item at the start of every game. Where the item is now is tracked by {@link GameState}.
+     */
+    public Room getStartingRoom() {
+        return startingRoom;
     }
 
 }
@@ -0,0 +1,59 @@
+package hartman.games.adventureland.engine;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assigns each item of an adventure a dense id, in declaration order, so a {@link GameState} can keep
+ * item locations in arrays instead of searching the items.
+ */
+final class ItemIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    static final int NOT_FOUND = -1;
+
+    private final Item[] items;
+    private final Map<Item, Integer> ids = new HashMap<>();
+    // the first item with each name or alias, in upper case as words keep them
+    private final Map<String, Integer> idsByAlias = new HashMap<>();
+
+    ItemIndex(Set<Item> items) {
+        this.items = items.toArray(new Item[0]);
+        for (int id = 0; id < this.items.length; id++) {
+            ids.putIfAbsent(this.items[id], id);
+            for (String alias : this.items[id].getSynonymArray()) {
+                idsByAlias.putIfAbsent(alias, id);
+            }
+        }
+    }
+
+    int size() {
+        return items.length;
+    }
+
+    Item get(int id) {
+        return items[id];
+    }
+
+    /**
+     * Returns the id of the item with the same name or, failing that, of the first item matching one of its aliases.
+     *
+     * @return the item's id or {@link #NOT_FOUND}
+     */
+    int idOf(Item item) {
+        Integer id = ids.get(item);
+        if (id != null) {
+            return id;
+        }
+        int first = NOT_FOUND;
+        for (String alias : item.getSynonymArray()) {
+            Integer match = idsByAlias.get(alias);
+            if (match != null && (first == NOT_FOUND || match < first)) {
+                first = match;
+            }
+        }
+        return first;
+    }
+}
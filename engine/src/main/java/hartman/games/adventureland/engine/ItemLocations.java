@@ -0,0 +1,202 @@
+package hartman.games.adventureland.engine;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The location of every item of a game by item id, and the ids of the items in every location, kept in persistent
+ * tries which a {@link #snapshot()} shares with the locations it was taken of.
+ * <p>
+ * Every node of the tries belongs to the locations which created it. A move changes the nodes it passes through in
+ * place if they are its own and copies them if they are not, and a snapshot hands both sides a new owner so every
+ * node is shared from then on. So the first move after a snapshot copies a few small nodes per trie rather than the
+ * locations of every item, and a history of snapshots costs memory in proportion to the items which moved.
+ */
+final class ItemLocations implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    // rooms whose hashes agree in every bit the levels above used are chained at the bottom level
+    private static final int MAX_ROOM_SHIFT = 30;
+    private static final int[] NO_ITEMS = new int[0];
+
+    private Owner owner = new Owner();
+    // shift of the root level of the trie of locations by item id, deep enough for every id
+    private final int shift;
+    private Node locations;
+    // trie of the ids in every location by the location's hash, the ids of a location in ascending order
+    private Node rooms;
+
+    ItemLocations(int size) {
+        int shift = 0;
+        while (size > 1 << (shift + BITS)) {
+            shift += BITS;
+        }
+        this.shift = shift;
+        this.locations = new Node(owner);
+        this.rooms = new Node(owner);
+    }
+
+    private ItemLocations(ItemLocations that) {
+        this.shift = that.shift;
+        this.locations = that.locations;
+        this.rooms = that.rooms;
+    }
+
+    /**
+     * Returns a copy of these locations which shares every node with them until either of them moves an item.
+     */
+    ItemLocations snapshot() {
+        owner = new Owner();
+        return new ItemLocations(this);
+    }
+
+    /**
+     * @return the location of the item, or null if it has none yet
+     */
+    Room get(int id) {
+        Node node = locations;
+        for (int level = shift; level > 0 && node != null; level -= BITS) {
+            node = (Node) node.slots[(id >>> level) & MASK];
+        }
+        return node == null ? null : (Room) node.slots[id & MASK];
+    }
+
+    /**
+     * Moves the item to the room, which must not be where it is already.
+     *
+     * @return the former location of the item, or null if it had none
+     */
+    Room set(int id, Room room) {
+        locations = locations.editableBy(owner);
+        Node node = locations;
+        for (int level = shift; level > 0; level -= BITS) {
+            int index = (id >>> level) & MASK;
+            Node child = node.slots[index] == null ? new Node(owner) : ((Node) node.slots[index]).editableBy(owner);
+            node.slots[index] = child;
+            node = child;
+        }
+        Room previous = (Room) node.slots[id & MASK];
+        node.slots[id & MASK] = room;
+
+        if (previous != null) {
+            int[] ids = idsIn(previous);
+            putIds(previous, ids.length == 1 ? NO_ITEMS : without(ids, id));
+        }
+        putIds(room, with(idsIn(room), id));
+        return previous;
+    }
+
+    int[] idsIn(Room room) {
+        Object slot = rooms;
+        for (int level = 0; slot instanceof Node; level += BITS) {
+            slot = ((Node) slot).slots[(room.hashCode() >>> level) & MASK];
+        }
+        for (Entry entry = (Entry) slot; entry != null; entry = entry.next) {
+            if (entry.room.equals(room)) {
+                return entry.ids;
+            }
+        }
+        return NO_ITEMS;
+    }
+
+    private void putIds(Room room, int[] ids) {
+        int hash = room.hashCode();
+        rooms = rooms.editableBy(owner);
+        Node node = rooms;
+        int level = 0;
+        int index = hash & MASK;
+        while (node.slots[index] instanceof Node) {
+            Node child = ((Node) node.slots[index]).editableBy(owner);
+            node.slots[index] = child;
+            node = child;
+            level += BITS;
+            index = (hash >>> level) & MASK;
+        }
+        Entry entries = (Entry) node.slots[index];
+        // another room lives here, it moves down a level to make way unless every bit of the hashes has been used
+        while (entries != null && entries.room.hashCode() != hash && level < MAX_ROOM_SHIFT) {
+            Node child = new Node(owner);
+            level += BITS;
+            child.slots[(entries.room.hashCode() >>> level) & MASK] = entries;
+            node.slots[index] = child;
+            node = child;
+            index = (hash >>> level) & MASK;
+            entries = (Entry) node.slots[index];
+        }
+        node.slots[index] = Entry.put(entries, room, ids);
+    }
+
+    private static int[] with(int[] ids, int id) {
+        int insertionPoint = -Arrays.binarySearch(ids, id) - 1;
+        int[] result = new int[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, insertionPoint);
+        result[insertionPoint] = id;
+        System.arraycopy(ids, insertionPoint, result, insertionPoint + 1, ids.length - insertionPoint);
+        return result;
+    }
+
+    private static int[] without(int[] ids, int id) {
+        int index = Arrays.binarySearch(ids, id);
+        int[] result = new int[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, index);
+        System.arraycopy(ids, index + 1, result, index, ids.length - index - 1);
+        return result;
+    }
+
+    // identifies the locations a node belongs to, serializable so a deserialized state still owns its nodes
+    private static final class Owner implements Serializable {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static final class Node implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Owner owner;
+        private final Object[] slots;
+
+        private Node(Owner owner) {
+            this(owner, new Object[WIDTH]);
+        }
+
+        private Node(Owner owner, Object[] slots) {
+            this.owner = owner;
+            this.slots = slots;
+        }
+
+        Node editableBy(Owner owner) {
+            return this.owner == owner ? this : new Node(owner, slots.clone());
+        }
+    }
+
+    /**
+     * The ids of the items in a room, chained to the other rooms in the same slot of the bottom level. Entries are
+     * never changed, a change replaces the entries of the slot up to the one which changed.
+     */
+    private static final class Entry implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Room room;
+        private final int[] ids;
+        private final Entry next;
+
+        private Entry(Room room, int[] ids, Entry next) {
+            this.room = room;
+            this.ids = ids;
+            this.next = next;
+        }
+
+        // returns the chain with the room's ids replaced, the room dropped if it has none left
+        static Entry put(Entry entries, Room room, int[] ids) {
+            if (entries == null) {
+                return ids.length == 0 ? null : new Entry(room, ids, null);
+            }
+            if (entries.room.equals(room)) {
+                return ids.length == 0 ? entries.next : new Entry(room, ids, entries.next);
+            }
+            return new Entry(entries.room, entries.ids, put(entries.next, room, ids));
+        }
+    }
+}
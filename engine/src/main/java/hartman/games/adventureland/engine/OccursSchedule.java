@@ -0,0 +1,143 @@
+package hartman.games.adventureland.engine;
+
+import hartman.games.adventureland.engine.Slots.Kind;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Which of an adventure's occurs read which parts of the game state, so a game need only evaluate the occurs
+ * again whose inputs changed since it last did. An occurs whose conditions might read anything is evaluated
+ * every time.
+ * <p>
+ * The schedule refers to flags, counters and strings by slot index and to items by item id, so it only applies to
+ * game states using the adventure's own slots and items.
+ */
+final class OccursSchedule {
+
+    private static final int[] NONE = new int[0];
+
+    private final Slots slots;
+    private final ItemIndex items;
+    private final BitSet evaluatedAlways = new BitSet();
+    private final boolean everyEvaluatedAlways;
+    // the occurs reading the room, every slot by kind and index, and every item by id
+    private final int[] roomReaders;
+    private final int[][][] slotReaders = new int[Kind.values().length][][];
+    private final int[][] itemReaders;
+
+    OccursSchedule(Action[] occurs, Slots slots, ItemIndex items) {
+        this.slots = slots;
+        this.items = items;
+        List<Integer> roomReaders = new ArrayList<>();
+        List<List<Integer>> itemReaders = readersOf(items.size());
+        List<List<List<Integer>>> slotReaders = new ArrayList<>();
+        for (Kind kind : Kind.values()) {
+            slotReaders.add(new ArrayList<>());
+        }
+        for (int id = 0; id < occurs.length; id++) {
+            Reads reads = occurs[id].reads();
+            if (reads.isEverything()) {
+                evaluatedAlways.set(id);
+                continue;
+            }
+            if (reads.isRoom()) {
+                roomReaders.add(id);
+            }
+            for (Kind kind : Kind.values()) {
+                List<List<Integer>> readers = slotReaders.get(kind.ordinal());
+                for (String name : reads.getSlotNames(kind)) {
+                    int index = slots.slot(kind, name).getIndex();
+                    while (readers.size() <= index) {
+                        readers.add(new ArrayList<>());
+                    }
+                    readers.get(index).add(id);
+                }
+            }
+            for (Item item : reads.getItems()) {
+                int itemId = items.idOf(item);
+                // an item which isn't in the adventure never moves
+                if (itemId != ItemIndex.NOT_FOUND) {
+                    itemReaders.get(itemId).add(id);
+                }
+            }
+        }
+        this.everyEvaluatedAlways = evaluatedAlways.cardinality() == occurs.length;
+        this.roomReaders = toArray(roomReaders);
+        this.itemReaders = toArrays(itemReaders);
+        for (Kind kind : Kind.values()) {
+            this.slotReaders[kind.ordinal()] = toArrays(slotReaders.get(kind.ordinal()));
+        }
+    }
+
+    private static List<List<Integer>> readersOf(int size) {
+        List<List<Integer>> readers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            readers.add(new ArrayList<>());
+        }
+        return readers;
+    }
+
+    private static int[][] toArrays(List<List<Integer>> readers) {
+        int[][] arrays = new int[readers.size()][];
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = toArray(readers.get(i));
+        }
+        return arrays;
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        return ids.isEmpty() ? NONE : ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * True if the schedule applies to the game state, i.e. it uses the adventure's slots and items.
+     */
+    boolean covers(GameState gameState) {
+        return gameState.isOf(slots, items);
+    }
+
+    /**
+     * True if every occurs must be evaluated every time, so there is no occurs to skip.
+     */
+    boolean isEvaluatedAlways() {
+        return everyEvaluatedAlways;
+    }
+
+    /**
+     * True if the occurs must be evaluated every time, as it might read anything.
+     */
+    boolean isEvaluatedAlways(int occurs) {
+        return evaluatedAlways.get(occurs);
+    }
+
+    /**
+     * Marks the occurs reading anything which changed in the game state since the last time as stale and
+     * forgets about the changes.
+     */
+    void markStale(GameState gameState, BitSet stale) {
+        StateChanges changes = gameState.changes();
+        if (changes.room) {
+            mark(roomReaders, stale);
+        }
+        for (int kind = 0; kind < slotReaders.length; kind++) {
+            mark(slotReaders[kind], changes.slots[kind], stale);
+        }
+        mark(itemReaders, changes.items, stale);
+        changes.clear();
+    }
+
+    private static void mark(int[][] readers, BitSet changed, BitSet stale) {
+        // slots allocated since the schedule was made are read by no occurs
+        for (int index = changed.nextSetBit(0); index >= 0 && index < readers.length; index = changed.nextSetBit(index + 1)) {
+            mark(readers[index], stale);
+        }
+    }
+
+    private static void mark(int[] readers, BitSet stale) {
+        for (int occurs : readers) {
+            stale.set(occurs);
+        }
+    }
+}
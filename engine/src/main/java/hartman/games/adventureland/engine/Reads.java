@@ -0,0 +1,134 @@
+package hartman.games.adventureland.engine;
+
+import hartman.games.adventureland.engine.Slots.Kind;
+import hartman.games.adventureland.engine.Slots.Slot;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The parts of the game state a {@link Action.Condition condition} reads: the current room, particular flags,
+ * counters and strings, and the locations of particular items.
+ * <p>
+ * A condition which declares what it reads promises to give the same answer for the same command for as long as
+ * none of it changes, which lets the game skip evaluating occurs whose inputs didn't change since the last turn.
+ * A condition which doesn't know, or which rolls the dice, reads {@link #EVERYTHING}.
+ */
+public final class Reads {
+
+    /**
+     * Read by conditions which only look at the command, or not even that.
+     */
+    public static final Reads NOTHING = new Reads(false, false, emptySlots(), Collections.emptySet());
+
+    /**
+     * Read by conditions which must be evaluated every time.
+     */
+    public static final Reads EVERYTHING = new Reads(true, false, emptySlots(), Collections.emptySet());
+
+    /**
+     * Read by conditions on the player's current room.
+     */
+    public static final Reads ROOM = new Reads(false, true, emptySlots(), Collections.emptySet());
+
+    private final boolean everything;
+    private final boolean room;
+    // names of the flags, counters and strings read, by kind
+    private final Map<Kind, Set<String>> slots;
+    private final Set<Item> items;
+
+    private Reads(boolean everything, boolean room, Map<Kind, Set<String>> slots, Set<Item> items) {
+        this.everything = everything;
+        this.room = room;
+        this.slots = slots;
+        this.items = items;
+    }
+
+    private static Map<Kind, Set<String>> emptySlots() {
+        Map<Kind, Set<String>> slots = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            slots.put(kind, Collections.emptySet());
+        }
+        return slots;
+    }
+
+    private static Reads slot(Kind kind, String name) {
+        Map<Kind, Set<String>> slots = emptySlots();
+        slots.put(kind, Collections.singleton(name));
+        return new Reads(false, false, slots, Collections.emptySet());
+    }
+
+    public static Reads flag(String name) {
+        return slot(Kind.FLAG, name);
+    }
+
+    public static Reads counter(String name) {
+        return slot(Kind.COUNTER, name);
+    }
+
+    public static Reads string(String name) {
+        return slot(Kind.STRING, name);
+    }
+
+    /**
+     * The flag, counter or string in the given slot.
+     */
+    public static Reads slot(Slot slot) {
+        return slot(slot.getKind(), slot.getName());
+    }
+
+    /**
+     * The location of the given item.
+     */
+    public static Reads item(Item item) {
+        return new Reads(false, false, emptySlots(), Collections.singleton(item));
+    }
+
+    /**
+     * @return what this and the other read together
+     */
+    public Reads and(Reads other) {
+        if (everything || other.everything) {
+            return EVERYTHING;
+        }
+        Map<Kind, Set<String>> union = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            union.put(kind, union(slots.get(kind), other.slots.get(kind)));
+        }
+        return new Reads(false, room || other.room, union, union(items, other.items));
+    }
+
+    private static <T> Set<T> union(Set<T> these, Set<T> those) {
+        if (those.isEmpty()) {
+            return these;
+        }
+        if (these.isEmpty()) {
+            return those;
+        }
+        Set<T> union = new LinkedHashSet<>(these);
+        union.addAll(those);
+        return Collections.unmodifiableSet(union);
+    }
+
+    public boolean isEverything() {
+        return everything;
+    }
+
+    public boolean isRoom() {
+        return room;
+    }
+
+    /**
+     * @return the names of the flags, counters or strings read
+     */
+    public Set<String> getSlotNames(Kind kind) {
+        return slots.get(kind);
+    }
+
+    public Set<Item> getItems() {
+        return items;
+    }
+}
@@ -1,5 +1,7 @@
 package hartman.games.adventureland.engine;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collections;
@@ -61,6 +63,8 @@ public class Room implements Serializable {
     private final String name;
     private final String description;
     private final Set<Exit> exits = new LinkedHashSet<>();
+    // the exits again, in the same order, so moving about allocates nothing
+    private transient Exit[] exitArray;
 
     /**
      * Creates a new empty room with the given exits.
@@ -71,6 +75,7 @@ public class Room implements Serializable {
         this.name = name;
         this.description = description;
         this.exits.addAll(Arrays.asList(exits));
+        this.exitArray = this.exits.toArray(new Exit[0]);
     }
 
     public String getName() {
@@ -94,24 +99,39 @@ public class Room implements Serializable {
             exits.remove(exit);
             exits.add(exit);
         }
+        exitArray = exits.toArray(new Exit[0]);
     }
 
     public boolean hasExit(Word direction) {
-        return exits.stream().anyMatch(e -> e.getDirection().matches(direction));
+        return findExit(direction) != null;
     }
 
     public Room exit(Word direction) {
-        return exits.stream()
-                .filter(e -> e.getDirection().matches(direction))
-                .findFirst()
-                .map(Exit::getRoom)
-                .orElseThrow(() -> new IllegalStateException(String.format("Invalid exit. There is no exit %s from this room.", direction)));
+        Exit exit = findExit(direction);
+        if (exit == null) {
+            throw new IllegalStateException(String.format("Invalid exit. There is no exit %s from this room.", direction));
+        }
+        return exit.getRoom();
+    }
+
+    private Exit findExit(Word direction) {
+        for (Exit exit : exitArray) {
+            if (exit.getDirection().matches(direction)) {
+                return exit;
+            }
+        }
+        return null;
     }
 
     public Set<Exit> getExits() {
         return Collections.unmodifiableSet(exits);
     }
 
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        exitArray = exits.toArray(new Exit[0]);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,27 @@
+package hartman.games.adventureland.engine;
+
+/**
+ * Evaluates and performs an adventure's occurs and actions by their number: the occurs in declaration order
+ * come first, followed by the actions in declaration order.
+ * <p>
+ * An adventure interprets its rules by running through the conditions and results of each action, while
+ * {@link AdventureCompiler} generates an implementation which calls every condition and result from a call site
+ * of its own. This interface is public only so the generated classes can implement it.
+ */
+public interface Rules {
+
+    /**
+     * True if all the conditions of the given rule are met.
+     */
+    boolean matches(int rule, Command command, GameState gameState);
+
+    /**
+     * Executes the results of the given rule.
+     */
+    void perform(int rule, Command command, GameState gameState, Display display);
+
+    /**
+     * Performs every occurs in turn whose conditions are met.
+     */
+    void runOccurs(GameState gameState, Display display);
+}
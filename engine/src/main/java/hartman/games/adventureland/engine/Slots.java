@@ -0,0 +1,158 @@
+package hartman.games.adventureland.engine;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table assigning every flag, counter and string name of an adventure a dense slot number.
+ * <p>
+ * The names an adventure uses are all known when it is compiled, so its conditions and results are bound
+ * to {@link Slot}s up front and a {@link GameState} keeps their values in plain arrays indexed by slot.
+ * Slots are only allocated while an adventure is built. A game state keeps the values of names its table has
+ * no slot for by name, so playing never grows a table. A table may be shared by concurrent games.
+ */
+public final class Slots implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Kind {
+        FLAG, COUNTER, STRING
+    }
+
+    /**
+     * Handle to the storage of a single named flag, counter or string.
+     */
+    public static final class Slot implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Slots slots;
+        private final Kind kind;
+        private final String name;
+        private final int index;
+
+        private Slot(Slots slots, Kind kind, String name, int index) {
+            this.slots = slots;
+            this.kind = kind;
+            this.name = name;
+            this.index = index;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        boolean belongsTo(Slots slots) {
+            return this.slots == slots;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s", kind.name().toLowerCase(), name);
+        }
+    }
+
+    private final Namespace flags = new Namespace(Kind.FLAG);
+    private final Namespace counters = new Namespace(Kind.COUNTER);
+    private final Namespace strings = new Namespace(Kind.STRING);
+
+    public Slot flag(String name) {
+        return flags.slot(name);
+    }
+
+    public Slot counter(String name) {
+        return counters.slot(name);
+    }
+
+    public Slot string(String name) {
+        return strings.slot(name);
+    }
+
+    /**
+     * Returns the slot of the same kind and name in this table, or null if none has been allocated.
+     */
+    Slot find(Slot slot) {
+        return slot.belongsTo(this) ? slot : find(slot.getKind(), slot.getName());
+    }
+
+    /**
+     * Returns the slot of the given kind and name, allocating it if need be.
+     */
+    Slot slot(Kind kind, String name) {
+        return namespace(kind).slot(name);
+    }
+
+    /**
+     * Returns the slot of the given kind and name, or null if none has been allocated.
+     */
+    Slot find(Kind kind, String name) {
+        return namespace(kind).slotsByName.get(name);
+    }
+
+    /**
+     * Returns the slot with the given index, which must have been allocated already.
+     */
+    Slot get(Kind kind, int index) {
+        return namespace(kind).get(index);
+    }
+
+    int size(Kind kind) {
+        return namespace(kind).size();
+    }
+
+    private Namespace namespace(Kind kind) {
+        switch (kind) {
+            case FLAG:
+                return flags;
+            case COUNTER:
+                return counters;
+            default:
+                return strings;
+        }
+    }
+
+    private final class Namespace implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Kind kind;
+        private final Map<String, Slot> slotsByName = new ConcurrentHashMap<>();
+        private volatile Slot[] slotsByIndex = new Slot[0];
+
+        private Namespace(Kind kind) {
+            this.kind = kind;
+        }
+
+        Slot slot(String name) {
+            Slot slot = slotsByName.get(name);
+            return slot != null ? slot : allocate(name);
+        }
+
+        private synchronized Slot allocate(String name) {
+            Slot slot = slotsByName.get(name);
+            if (slot == null) {
+                Slot[] grown = Arrays.copyOf(slotsByIndex, slotsByIndex.length + 1);
+                slot = new Slot(Slots.this, kind, name, slotsByIndex.length);
+                grown[slot.index] = slot;
+                slotsByIndex = grown;
+                slotsByName.put(name, slot);
+            }
+            return slot;
+        }
+
+        Slot get(int index) {
+            return slotsByIndex[index];
+        }
+
+        int size() {
+            return slotsByIndex.length;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package hartman.games.adventureland.engine;
+
+import hartman.games.adventureland.engine.Slots.Kind;
+
+import java.util.BitSet;
+
+/**
+ * What changed in a game state since a game last looked: whether the player moved, which flags, counters and
+ * strings changed by slot index and which items moved by item id.
+ */
+final class StateChanges {
+
+    boolean room;
+    final BitSet[] slots = new BitSet[Kind.values().length];
+    final BitSet items = new BitSet();
+
+    StateChanges() {
+        for (int kind = 0; kind < slots.length; kind++) {
+            slots[kind] = new BitSet();
+        }
+    }
+
+    void slot(Kind kind, int index) {
+        slots[kind.ordinal()].set(index);
+    }
+
+    void clear() {
+        room = false;
+        for (BitSet changed : slots) {
+            changed.clear();
+        }
+        items.clear();
+    }
+}
@@ -1,46 +1,210 @@
 package hartman.games.adventureland.engine;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * The language of the adventure.
  *
  * A vocabulary gives the player the options for the words she may use to interact with the game world.
+ * <p>
+ * A vocabulary is also the adventure's symbol table. Each of its words is interned under an integer symbol
+ * when the vocabulary is created, and {@link #findMatch(CharSequence)} hands out the interned words, so two words
+ * of the same vocabulary match by comparing their symbols instead of their synonyms.
+ * <p>
+ * Like the classic two-word parsers, a vocabulary may be given a significant length in which case only that many
+ * leading letters of a word count, e.g. with a significant length of 3 "NORTH", "NOR" and "northward" are all the
+ * same word.
  */
 public class Vocabulary {
 
+    /**
+     * Significant length of a vocabulary in which every letter of a word counts.
+     */
+    public static final int ALL_LETTERS = 0;
+
     private final Set<Word> words = new LinkedHashSet<>();
+    private final Map<String, Word> wordsByName = new HashMap<>();
+    private final Node synonyms = new Node();
+    private final int significantLength;
+    private final boolean sharedSynonyms;
 
     public Vocabulary(Set<Word> words) {
-        this.words.addAll(filter(words));
+        this(words, ALL_LETTERS);
+    }
+
+    /**
+     * @param significantLength number of leading letters which identify a word, or {@link #ALL_LETTERS}
+     */
+    public Vocabulary(Set<Word> words, int significantLength) {
+        if (significantLength < 0) {
+            throw new IllegalArgumentException("Significant length cannot be negative.");
+        }
+        this.significantLength = significantLength;
+        Set<String> allSynonyms = new HashSet<>();
+        boolean sharedSynonyms = false;
+        for (Word word : words) {
+            if (isSpecial(word) || wordsByName.containsKey(word.getName())) {
+                continue;
+            }
+            Word interned = new Word(word, this, this.words.size());
+            this.words.add(interned);
+            wordsByName.put(interned.getName(), interned);
+            for (String synonym : interned.getSynonyms()) {
+                sharedSynonyms |= !allSynonyms.add(synonym);
+                synonyms.insert(synonym, significantLength(synonym.length()), interned);
+            }
+        }
+        this.sharedSynonyms = sharedSynonyms;
+    }
+
+    private static boolean isSpecial(Word word) {
+        return word == null
+                || word.matches(Word.unrecognized())
+                || word.equals(Word.NONE)
+                || word.equals(Word.ANY);
+    }
+
+    private int significantLength(int length) {
+        return significantLength == ALL_LETTERS ? length : Math.min(significantLength, length);
     }
 
-    private Set<Word> filter(Set<Word> words) {
-        return words.stream()
-                .filter(word -> !(word == null
-                        || word.matches(Word.unrecognized())
-                        || word.equals(Word.NONE)
-                        || word.equals(Word.ANY)))
-                .collect(Collectors.toSet());
+    /**
+     * True if any two words of this vocabulary have a synonym in common, in which case matching
+     * words by symbol alone is not enough.
+     */
+    boolean hasSharedSynonyms() {
+        return sharedSynonyms;
+    }
+
+    /**
+     * The interned words, in symbol order.
+     */
+    public Set<Word> getWords() {
+        return Collections.unmodifiableSet(words);
+    }
+
+    public int getSignificantLength() {
+        return significantLength;
     }
 
     public Optional<Word> findMatch(String word) {
-        return findMatch(Word.of(word));
+        return findMatch((CharSequence) word);
+    }
+
+    /**
+     * Finds the word one of whose synonyms is the given text, ignoring case and any letters past the significant length.
+     * Takes time proportional to the length of the text and allocates nothing.
+     */
+    public Optional<Word> findMatch(CharSequence text) {
+        return findMatch(text, 0, text.length());
+    }
+
+    /**
+     * Finds the word matching the characters of the text from start inclusive to end exclusive, so a line of input
+     * can be looked up word by word without cutting it up into strings.
+     *
+     * @see #findMatch(CharSequence)
+     */
+    public Optional<Word> findMatch(CharSequence text, int start, int end) {
+        return synonyms.find(text, start, start + significantLength(end - start));
     }
 
     public Optional<Word> findMatch(Word word) {
-        return words.stream()
-                .filter(n -> n.matches(word))
-                .findFirst();
+        if (word == Word.ANY) {
+            return words.stream().findFirst();
+        }
+        if (word == Word.NONE) {
+            return Optional.empty();
+        }
+        Word match = wordsByName.get(word.getName());
+        if (match != null) {
+            return Optional.of(match);
+        }
+        for (String synonym : word.getSynonyms()) {
+            Optional<Word> found = findMatch(synonym);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns this vocabulary's interned copy of the word with the same name, or the word itself if there is none.
+     */
+    public Word intern(Word word) {
+        return wordsByName.getOrDefault(word.getName(), word);
     }
 
     public Vocabulary merge(Vocabulary vocab) {
+        return merge(vocab.words);
+    }
+
+    /**
+     * Merges in words which aren't in a vocabulary yet, without first building a vocabulary of them just to merge it.
+     */
+    public Vocabulary merge(Set<Word> words) {
         Set<Word> mergedWordSet = new LinkedHashSet<>(this.words);
-        mergedWordSet.addAll(vocab.words);
-        return new Vocabulary(mergedWordSet);
+        mergedWordSet.addAll(words);
+        return new Vocabulary(mergedWordSet, significantLength);
+    }
+
+    /**
+     * Case-folded trie of synonyms. Children are kept in small parallel arrays because a node rarely has more than
+     * a handful of them and scanning those beats hashing boxed characters.
+     */
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        // shared by every lookup which ends here so hits allocate nothing
+        private Optional<Word> match = Optional.empty();
+
+        void insert(CharSequence text, int length, Word word) {
+            Node node = this;
+            for (int i = 0; i < length; i++) {
+                node = node.childOrCreate(Character.toUpperCase(text.charAt(i)));
+            }
+            // like the stream it replaces, the first word declared wins
+            if (!node.match.isPresent()) {
+                node.match = Optional.of(word);
+            }
+        }
+
+        Optional<Word> find(CharSequence text, int start, int end) {
+            Node node = this;
+            for (int i = start; i < end && node != null; i++) {
+                node = node.child(Character.toUpperCase(text.charAt(i)));
+            }
+            return node == null || start == end ? Optional.empty() : node.match;
+        }
+
+        private Node child(char key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node childOrCreate(char key) {
+            Node child = child(key);
+            if (child == null) {
+                child = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = key;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
     }
 
 }
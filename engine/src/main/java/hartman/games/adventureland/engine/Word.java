@@ -1,7 +1,10 @@
 package hartman.games.adventureland.engine;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
@@ -29,6 +32,12 @@ public class Word implements Serializable {
     private final String name;
     private final Set<String> synonyms = new LinkedHashSet<>();
     private final boolean recognized;
+    // the synonyms again, for matching without an iterator
+    private transient String[] synonymArray;
+
+    // symbol table which interned this word and the word's id in it, see Vocabulary
+    private final transient Vocabulary vocabulary;
+    private final transient int symbol;
 
     public Word(String name, boolean recognized, String... synonyms) {
         Objects.requireNonNull(name, "name cannot be null");
@@ -36,31 +45,84 @@ public class Word implements Serializable {
         this.synonyms.add(name.toUpperCase());
         this.synonyms.addAll(Arrays.stream(synonyms).map(String::toUpperCase).collect(Collectors.toSet()));
         this.recognized = recognized;
+        this.synonymArray = this.synonyms.toArray(new String[0]);
+        this.vocabulary = null;
+        this.symbol = -1;
     }
 
     public Word(String name, String... synonyms) {
         this(name, true, synonyms);
     }
 
+    /**
+     * Creates a copy of the given word interned as symbol in the vocabulary.
+     */
+    Word(Word word, Vocabulary vocabulary, int symbol) {
+        this.name = word.name;
+        this.synonyms.addAll(word.synonyms);
+        this.recognized = word.recognized;
+        this.synonymArray = word.synonymArray;
+        this.vocabulary = vocabulary;
+        this.symbol = symbol;
+    }
+
     public String getName() {
         return name;
     }
 
     public boolean matches(Word that) {
+        if (vocabulary != null && vocabulary == that.vocabulary) {
+            // interned words are never ANY, NONE or unrecognized and each name has exactly one symbol
+            return symbol == that.symbol || (vocabulary.hasSharedSynonyms() && sharesSynonymWith(that));
+        }
         if (equals(that)) return true;
         if (this.isUnrecognized() && that.isUnrecognized()) return true;
         if (this == NONE && that == NONE) return true;
         if (this == NONE || that == NONE) return false;
         if (this == ANY || that == ANY) return true;
-        Set<String> intersection = new LinkedHashSet<>(synonyms);
-        intersection.retainAll(that.synonyms);
-        return !intersection.isEmpty();
+        return sharesSynonymWith(that);
+    }
+
+    private boolean sharesSynonymWith(Word that) {
+        for (String synonym : synonymArray) {
+            if (that.synonyms.contains(synonym)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The name and the synonyms of this word, in upper case.
+     */
+    public Set<String> getSynonyms() {
+        return Collections.unmodifiableSet(synonyms);
+    }
+
+    String[] getSynonymArray() {
+        return synonymArray;
+    }
+
+    boolean isInternedIn(Vocabulary vocabulary) {
+        return this.vocabulary != null && this.vocabulary == vocabulary;
+    }
+
+    /**
+     * This word's symbol in the vocabulary which interned it, see {@link #isInternedIn(Vocabulary)}.
+     */
+    int getSymbol() {
+        return symbol;
     }
 
     public boolean isUnrecognized() {
         return !recognized;
     }
 
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        synonymArray = synonyms.toArray(new String[0]);
+    }
+
     @Override
     public String toString() {
         if (recognized) {
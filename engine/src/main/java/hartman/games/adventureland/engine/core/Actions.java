@@ -25,17 +25,26 @@ public final class Actions {
 
         public ActionBuilder onWordAt(int position, Word word) {
             words.add(word);
+            if (position == 1) {
+                keyOnFirstWords(word);
+            }
             when(wordMatches(position, word));
             return this;
         }
 
         public ActionBuilder onAnyWordAt(int position, Word... wordList) {
             words.addAll(asList(wordList));
+            if (position == 1) {
+                keyOnFirstWords(wordList);
+            }
             when(wordMatchesAny(position, wordList));
             return this;
         }
 
         public ActionBuilder onUnrecognizedWordAt(int position) {
+            if (position == 1) {
+                keyOnUnrecognizedFirstWord();
+            }
             when(wordUnrecognized(position));
             return this;
         }
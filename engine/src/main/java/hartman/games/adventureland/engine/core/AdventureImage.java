@@ -0,0 +1,695 @@
+package hartman.games.adventureland.engine.core;
+
+import hartman.games.adventureland.engine.Action;
+import hartman.games.adventureland.engine.Adventure;
+import hartman.games.adventureland.engine.Item;
+import hartman.games.adventureland.engine.Room;
+import hartman.games.adventureland.engine.Slots;
+import hartman.games.adventureland.engine.Vocabulary;
+import hartman.games.adventureland.engine.Word;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact binary image of an adventure, which loads without parsing its script again.
+ * <p>
+ * An image holds a string table, the vocabulary, the rooms and their exits, the items and the occurs and actions as
+ * sequences of {@link Op opcodes} with their operands. Names are resolved once, when the image is written, so loading
+ * refers to words, rooms and items by their index. Every string is stored and decoded once, however often it is used.
+ * <p>
+ * Conditions and results are objects which can't be written themselves, so whatever builds an adventure records
+ * the opcode of each condition and result it adds to an action with a {@link Writer}. Loading replays the opcodes
+ * against the same factories in the same order, which makes the loaded adventure behave just like the original.
+ */
+public final class AdventureImage {
+
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x41445649; // "ADVI"
+
+    // room references
+    private static final int NOWHERE = -1;
+    private static final int INVENTORY = -2;
+
+    // word references, the words of the vocabulary are referred to by their index
+    private static final int ANY_WORD = -1;
+    private static final int NO_WORD = -2;
+    private static final int UNRECOGNIZED_WORD = -3;
+    private static final int OTHER_WORD = -4;
+
+    private static final int NEGATED = 0x80;
+
+    /**
+     * The operations an action is made of. The ordinal of an operation is its opcode, so new ones only ever go last.
+     * The signature lists the operands: a room, an item, a string, a number or a boolean.
+     */
+    public enum Op {
+        WORD_AT(Kind.WORDS, ""),
+        ANY_WORD_AT(Kind.WORDS, ""),
+        UNRECOGNIZED_WORD_AT(Kind.WORDS, "n"),
+
+        RANDOM(Kind.CONDITION, "n"),
+        IN(Kind.CONDITION, "r"),
+        CARRYING(Kind.CONDITION, "i"),
+        HERE(Kind.CONDITION, "i"),
+        PRESENT(Kind.CONDITION, "i"),
+        EXISTS(Kind.CONDITION, "i"),
+        HAS_MOVED(Kind.CONDITION, "i"),
+        FLAG_SET(Kind.CONDITION, "s"),
+        COUNTER_EQUALS(Kind.CONDITION, "sn"),
+        COUNTER_LESS_THAN(Kind.CONDITION, "sn"),
+        COUNTER_GREATER_THAN(Kind.CONDITION, "sn"),
+        HAS_EXIT(Kind.CONDITION, "s"),
+        HAS_EXIT_AT(Kind.CONDITION, "n"),
+
+        PRINT(Kind.RESULT, "s"),
+        LOOK(Kind.RESULT, ""),
+        GO(Kind.RESULT, "s"),
+        GO_AT(Kind.RESULT, "n"),
+        QUIT(Kind.RESULT, ""),
+        INVENTORY(Kind.RESULT, ""),
+        SWAP(Kind.RESULT, "ii"),
+        GOTO(Kind.RESULT, "r"),
+        PUT(Kind.RESULT, "ir"),
+        PUT_HERE(Kind.RESULT, "i"),
+        GET(Kind.RESULT, "i"),
+        DROP(Kind.RESULT, "i"),
+        PUT_WITH(Kind.RESULT, "ii"),
+        DESTROY(Kind.RESULT, "i"),
+        SET_FLAG(Kind.RESULT, "sb"),
+        RESET_FLAG(Kind.RESULT, "s"),
+        SET_COUNTER(Kind.RESULT, "sn"),
+        INCREMENT_COUNTER(Kind.RESULT, "s"),
+        DECREMENT_COUNTER(Kind.RESULT, "s"),
+        RESET_COUNTER(Kind.RESULT, "s"),
+        SET_STRING(Kind.RESULT, "ss");
+
+        private enum Kind {WORDS, CONDITION, RESULT}
+
+        private static final Op[] OPS = values();
+
+        private final Kind kind;
+        private final String signature;
+
+        Op(Kind kind, String signature) {
+            this.kind = kind;
+            this.signature = signature;
+        }
+    }
+
+    private AdventureImage() {
+        throw new IllegalStateException("utility class");
+    }
+
+    /**
+     * Records the opcodes of an adventure's actions while it is built, to write its image once it is.
+     */
+    public static final class Writer {
+        private final List<RuleWriter> occurs = new ArrayList<>();
+        private final List<RuleWriter> actions = new ArrayList<>();
+
+        /**
+         * Records the next occurs, in declaration order.
+         */
+        public RuleWriter newOccurs() {
+            RuleWriter rule = new RuleWriter();
+            occurs.add(rule);
+            return rule;
+        }
+
+        /**
+         * Records the next action, in declaration order.
+         */
+        public RuleWriter newAction() {
+            RuleWriter rule = new RuleWriter();
+            actions.add(rule);
+            return rule;
+        }
+
+        /**
+         * Writes the image of the given adventure, whose occurs and actions must be the ones recorded.
+         */
+        public void write(Adventure adventure, OutputStream out) throws IOException {
+            if (occurs.size() != adventure.getOccurs().size() || actions.size() != adventure.getActions().size()) {
+                throw new IllegalStateException(String.format("Recorded %d occurs and %d actions but the adventure has %d and %d.",
+                        occurs.size(), actions.size(), adventure.getOccurs().size(), adventure.getActions().size()));
+            }
+            new Encoder(adventure).encode(occurs, actions, out);
+        }
+
+        public byte[] toByteArray(Adventure adventure) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                write(adventure, out);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * The opcodes of a single occurs or action, in the order the conditions and results were added to it.
+     */
+    public static final class RuleWriter {
+        private final List<Object[]> ops = new ArrayList<>();
+
+        private RuleWriter() {
+        }
+
+        public RuleWriter onWordAt(int position, Word word) {
+            ops.add(new Object[]{Op.WORD_AT, false, position, new Word[]{word}});
+            return this;
+        }
+
+        public RuleWriter onAnyWordAt(int position, Word... words) {
+            ops.add(new Object[]{Op.ANY_WORD_AT, false, position, words.clone()});
+            return this;
+        }
+
+        public RuleWriter onUnrecognizedWordAt(int position) {
+            return add(Op.UNRECOGNIZED_WORD_AT, Op.Kind.WORDS, false, position);
+        }
+
+        public RuleWriter when(Op op, Object... operands) {
+            return add(op, Op.Kind.CONDITION, false, operands);
+        }
+
+        public RuleWriter whenNot(Op op, Object... operands) {
+            return add(op, Op.Kind.CONDITION, true, operands);
+        }
+
+        public RuleWriter then(Op op, Object... operands) {
+            return add(op, Op.Kind.RESULT, false, operands);
+        }
+
+        private RuleWriter add(Op op, Op.Kind kind, boolean negated, Object... operands) {
+            if (op.kind != kind) {
+                throw new IllegalArgumentException(String.format("%s is not a %s.", op, kind.name().toLowerCase()));
+            }
+            if (op.signature.length() != operands.length) {
+                throw new IllegalArgumentException(String.format("%s takes %d operands.", op, op.signature.length()));
+            }
+            Object[] record = new Object[operands.length + 2];
+            record[0] = op;
+            record[1] = negated;
+            System.arraycopy(operands, 0, record, 2, operands.length);
+            ops.add(record);
+            return this;
+        }
+    }
+
+    private static final class Encoder {
+        private final Adventure adventure;
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final List<String> stringTable = new ArrayList<>();
+        private final Map<String, Integer> words = new HashMap<>();
+        private final Map<Room, Integer> rooms = new HashMap<>();
+        private final Map<Item, Integer> items = new HashMap<>();
+
+        Encoder(Adventure adventure) {
+            this.adventure = adventure;
+        }
+
+        void encode(List<RuleWriter> occurs, List<RuleWriter> actions, OutputStream out) throws IOException {
+            // the body goes first so the string table is complete once it is written
+            ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+            DataOutputStream body = new DataOutputStream(bodyBytes);
+
+            Vocabulary vocabulary = adventure.getVocabulary();
+            writeVarInt(body, vocabulary.getSignificantLength());
+            writeVarInt(body, vocabulary.getWords().size());
+            for (Word word : vocabulary.getWords()) {
+                words.put(word.getName(), words.size());
+                writeLiteralWord(body, word);
+            }
+
+            writeVarInt(body, adventure.getRooms().size());
+            for (Room room : adventure.getRooms()) {
+                rooms.put(room, rooms.size());
+                writeString(body, room.getName());
+                writeString(body, room.getDescription());
+            }
+            for (Room room : adventure.getRooms()) {
+                writeVarInt(body, room.getExits().size());
+                for (Room.Exit exit : room.getExits()) {
+                    writeWord(body, exit.getDirection());
+                    writeRoom(body, exit.getRoom());
+                }
+            }
+            writeRoom(body, adventure.getStartRoom());
+
+            writeVarInt(body, adventure.getItems().size());
+            for (Item item : adventure.getItems()) {
+                items.put(item, items.size());
+                writeString(body, item.getName());
+                writeString(body, item.getDescription());
+                body.writeBoolean(item.isPortable());
+                writeRoom(body, item.getStartingRoom());
+                writeAliases(body, item);
+            }
+
+            writeRules(body, occurs);
+            writeRules(body, actions);
+            body.flush();
+
+            DataOutputStream image = new DataOutputStream(out);
+            image.writeInt(MAGIC);
+            image.writeByte(VERSION);
+            writeVarInt(image, stringTable.size());
+            for (String string : stringTable) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(image, bytes.length);
+                image.write(bytes);
+            }
+            bodyBytes.writeTo(image);
+            image.flush();
+        }
+
+        private void writeRules(DataOutputStream out, List<RuleWriter> rules) throws IOException {
+            writeVarInt(out, rules.size());
+            for (RuleWriter rule : rules) {
+                writeVarInt(out, rule.ops.size());
+                for (Object[] record : rule.ops) {
+                    Op op = (Op) record[0];
+                    out.writeByte(op.ordinal() | ((Boolean) record[1] ? NEGATED : 0));
+                    if (op == Op.WORD_AT || op == Op.ANY_WORD_AT) {
+                        Word[] opWords = (Word[]) record[3];
+                        writeSignedVarInt(out, (Integer) record[2]);
+                        writeVarInt(out, opWords.length);
+                        for (Word word : opWords) {
+                            writeWord(out, word);
+                        }
+                        continue;
+                    }
+                    for (int i = 0; i < op.signature.length(); i++) {
+                        writeOperand(out, op.signature.charAt(i), record[i + 2]);
+                    }
+                }
+            }
+        }
+
+        private void writeOperand(DataOutputStream out, char type, Object operand) throws IOException {
+            switch (type) {
+                case 'r':
+                    writeRoom(out, (Room) operand);
+                    break;
+                case 'i':
+                    Integer item = items.get((Item) operand);
+                    if (item == null) {
+                        throw new IllegalArgumentException(String.format("Item %s is not part of the adventure.", operand));
+                    }
+                    writeVarInt(out, item);
+                    break;
+                case 's':
+                    writeString(out, (String) operand);
+                    break;
+                case 'n':
+                    writeSignedVarInt(out, (Integer) operand);
+                    break;
+                default:
+                    out.writeBoolean((Boolean) operand);
+            }
+        }
+
+        private void writeRoom(DataOutputStream out, Room room) throws IOException {
+            Integer id = rooms.get(room);
+            if (id != null) {
+                writeSignedVarInt(out, id);
+            } else if (room.equals(Room.NOWHERE)) {
+                writeSignedVarInt(out, NOWHERE);
+            } else if (room.equals(Item.INVENTORY)) {
+                writeSignedVarInt(out, INVENTORY);
+            } else {
+                throw new IllegalArgumentException(String.format("Room %s is not part of the adventure.", room.getName()));
+            }
+        }
+
+        private void writeWord(DataOutputStream out, Word word) throws IOException {
+            if (word == Word.ANY) {
+                writeSignedVarInt(out, ANY_WORD);
+            } else if (word == Word.NONE) {
+                writeSignedVarInt(out, NO_WORD);
+            } else if (word == Word.unrecognized()) {
+                writeSignedVarInt(out, UNRECOGNIZED_WORD);
+            } else if (words.containsKey(word.getName())) {
+                writeSignedVarInt(out, words.get(word.getName()));
+            } else {
+                writeSignedVarInt(out, OTHER_WORD);
+                writeLiteralWord(out, word);
+            }
+        }
+
+        private void writeLiteralWord(DataOutputStream out, Word word) throws IOException {
+            writeString(out, word.getName());
+            out.writeBoolean(!word.isUnrecognized());
+            writeAliases(out, word);
+        }
+
+        // the synonyms besides the name itself, which every word has
+        private void writeAliases(DataOutputStream out, Word word) throws IOException {
+            Set<String> aliases = new LinkedHashSet<>(word.getSynonyms());
+            aliases.remove(word.getName().toUpperCase());
+            writeVarInt(out, aliases.size());
+            for (String alias : aliases) {
+                writeString(out, alias);
+            }
+        }
+
+        private void writeString(DataOutputStream out, String string) throws IOException {
+            Integer id = strings.get(string);
+            if (id == null) {
+                id = stringTable.size();
+                strings.put(string, id);
+                stringTable.add(string);
+            }
+            writeVarInt(out, id);
+        }
+    }
+
+    /**
+     * Maps the image file into memory and loads the adventure from it.
+     */
+    public static Adventure load(Path image) throws IOException {
+        try (FileChannel channel = FileChannel.open(image, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static Adventure read(byte[] image) {
+        return read(ByteBuffer.wrap(image));
+    }
+
+    /**
+     * Loads the adventure from the image between the buffer's position and its limit.
+     */
+    public static Adventure read(ByteBuffer image) {
+        try {
+            return new Decoder(image.duplicate()).decode();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated adventure image.", e);
+        }
+    }
+
+    private static final class Decoder {
+        private final ByteBuffer in;
+        private String[] strings;
+        private Word[] words;
+        private Room[] rooms;
+        private Item[] items;
+        private final Slots slots = new Slots();
+
+        Decoder(ByteBuffer in) {
+            this.in = in;
+        }
+
+        Adventure decode() {
+            if (in.remaining() < 5 || in.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not an adventure image.");
+            }
+            int version = in.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException(String.format("Unsupported adventure image version %d.", version));
+            }
+
+            strings = new String[readVarInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[readVarInt()];
+                in.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int significantLength = readVarInt();
+            Set<Word> declared = new LinkedHashSet<>();
+            int wordCount = readVarInt();
+            for (int i = 0; i < wordCount; i++) {
+                declared.add(readLiteralWord());
+            }
+            Vocabulary vocabulary = new Vocabulary(declared, significantLength);
+            words = new Word[wordCount];
+            int symbol = 0;
+            for (Word word : vocabulary.getWords()) {
+                words[symbol++] = word;
+            }
+
+            rooms = new Room[readVarInt()];
+            for (int i = 0; i < rooms.length; i++) {
+                rooms[i] = new Room(readString(), readString());
+            }
+            for (Room room : rooms) {
+                for (int n = readVarInt(); n > 0; n--) {
+                    room.setExit(readWord(), readRoom());
+                }
+            }
+            Room startRoom = readRoom();
+
+            items = new Item[readVarInt()];
+            for (int i = 0; i < items.length; i++) {
+                Item.Builder builder = Item.newItem(readString()).describedAs(readString());
+                if (in.get() != 0) {
+                    builder.portable();
+                }
+                Room location = readRoom();
+                if (location == Item.INVENTORY) {
+                    builder.inInventory();
+                } else {
+                    builder.in(location);
+                }
+                for (int n = readVarInt(); n > 0; n--) {
+                    builder.alias(readString());
+                }
+                items[i] = builder.build();
+            }
+
+            Actions occurs = readRules();
+            Actions actions = readRules();
+            Set<Room> roomSet = new LinkedHashSet<>();
+            Collections.addAll(roomSet, rooms);
+            Set<Item> itemSet = new LinkedHashSet<>();
+            Collections.addAll(itemSet, items);
+            return new Adventure(vocabulary, occurs.copyOfActions(), actions.copyOfActions(), itemSet, roomSet, startRoom, slots);
+        }
+
+        private Actions readRules() {
+            Actions actions = Actions.newActionSet();
+            for (int n = readVarInt(); n > 0; n--) {
+                Actions.ActionBuilder builder = actions.newAction();
+                for (int ops = readVarInt(); ops > 0; ops--) {
+                    int opcode = in.get() & 0xFF;
+                    if ((opcode & ~NEGATED) >= Op.OPS.length) {
+                        throw new IllegalArgumentException(String.format("Unknown opcode %d.", opcode & ~NEGATED));
+                    }
+                    Op op = Op.OPS[opcode & ~NEGATED];
+                    switch (op.kind) {
+                        case WORDS:
+                            readWords(op, builder);
+                            break;
+                        case CONDITION:
+                            Action.Condition condition = readCondition(op);
+                            builder.when((opcode & NEGATED) != 0 ? Conditions.not(condition) : condition);
+                            break;
+                        default:
+                            builder.then(readResult(op));
+                    }
+                }
+                builder.build();
+            }
+            return actions;
+        }
+
+        private void readWords(Op op, Actions.ActionBuilder builder) {
+            int position = readSignedVarInt();
+            if (op == Op.UNRECOGNIZED_WORD_AT) {
+                builder.onUnrecognizedWordAt(position);
+                return;
+            }
+            Word[] any = new Word[readVarInt()];
+            for (int i = 0; i < any.length; i++) {
+                any[i] = readWord();
+            }
+            if (op == Op.WORD_AT) {
+                builder.onWordAt(position, any[0]);
+            } else {
+                builder.onAnyWordAt(position, any);
+            }
+        }
+
+        private Action.Condition readCondition(Op op) {
+            switch (op) {
+                case RANDOM:
+                    return Conditions.random(readSignedVarInt());
+                case IN:
+                    return Conditions.in(readRoom());
+                case CARRYING:
+                    return Conditions.carrying(readItem());
+                case HERE:
+                    return Conditions.here(readItem());
+                case PRESENT:
+                    return Conditions.present(readItem());
+                case EXISTS:
+                    return Conditions.exists(readItem());
+                case HAS_MOVED:
+                    return Conditions.hasMoved(readItem());
+                case FLAG_SET:
+                    return Conditions.isFlagSet(slots.flag(readString()));
+                case COUNTER_EQUALS: {
+                    Slots.Slot counter = slots.counter(readString());
+                    int number = readSignedVarInt();
+                    return Conditions.counterEquals(counter, number);
+                }
+                case COUNTER_LESS_THAN: {
+                    Slots.Slot counter = slots.counter(readString());
+                    int number = readSignedVarInt();
+                    return Conditions.counterLessThan(counter, number);
+                }
+                case COUNTER_GREATER_THAN: {
+                    Slots.Slot counter = slots.counter(readString());
+                    int number = readSignedVarInt();
+                    return Conditions.counterGreaterThan(counter, number);
+                }
+                case HAS_EXIT:
+                    return Conditions.hasExit(Word.of(readString()));
+                default:
+                    return Conditions.hasExitMatchingCommandWordAt(readSignedVarInt());
+            }
+        }
+
+        private Action.Result readResult(Op op) {
+            switch (op) {
+                case PRINT:
+                    return Results.println(readString(), slots);
+                case LOOK:
+                    return Results.look;
+                case GO:
+                    return Results.go(Word.of(readString()));
+                case GO_AT:
+                    return Results.goInDirectionMatchingCommandWordAt(readSignedVarInt());
+                case QUIT:
+                    return Results.quit;
+                case INVENTORY:
+                    return Results.inventory;
+                case SWAP:
+                    return Results.swap(readItem(), readItem());
+                case GOTO:
+                    return Results.gotoRoom(readRoom());
+                case PUT:
+                    return Results.put(readItem(), readRoom());
+                case PUT_HERE:
+                    return Results.putHere(readItem());
+                case GET:
+                    return Results.get(readItem());
+                case DROP:
+                    return Results.drop(readItem());
+                case PUT_WITH:
+                    return Results.putWith(readItem(), readItem());
+                case DESTROY:
+                    return Results.destroy(readItem());
+                case SET_FLAG:
+                    return Results.setFlag(slots.flag(readString()), in.get() != 0);
+                case RESET_FLAG:
+                    return Results.resetFlag(slots.flag(readString()));
+                case SET_COUNTER:
+                    return Results.setCounter(slots.counter(readString()), readSignedVarInt());
+                case INCREMENT_COUNTER:
+                    return Results.incrementCounter(slots.counter(readString()));
+                case DECREMENT_COUNTER:
+                    return Results.decrementCounter(slots.counter(readString()));
+                case RESET_COUNTER:
+                    return Results.resetCounter(slots.counter(readString()));
+                default:
+                    return Results.setString(slots.string(readString()), readString());
+            }
+        }
+
+        private Word readLiteralWord() {
+            String name = readString();
+            boolean recognized = in.get() != 0;
+            String[] aliases = new String[readVarInt()];
+            for (int i = 0; i < aliases.length; i++) {
+                aliases[i] = readString();
+            }
+            return new Word(name, recognized, aliases);
+        }
+
+        private Word readWord() {
+            int id = readSignedVarInt();
+            switch (id) {
+                case ANY_WORD:
+                    return Word.ANY;
+                case NO_WORD:
+                    return Word.NONE;
+                case UNRECOGNIZED_WORD:
+                    return Word.unrecognized();
+                case OTHER_WORD:
+                    return readLiteralWord();
+                default:
+                    return words[id];
+            }
+        }
+
+        private Room readRoom() {
+            int id = readSignedVarInt();
+            switch (id) {
+                case NOWHERE:
+                    return Room.NOWHERE;
+                case INVENTORY:
+                    return Item.INVENTORY;
+                default:
+                    return rooms[id];
+            }
+        }
+
+        private Item readItem() {
+            return items[readVarInt()];
+        }
+
+        private String readString() {
+            return strings[readVarInt()];
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = in.get() & 0xFF;
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed variable-length integer.");
+        }
+
+        private int readSignedVarInt() {
+            int value = readVarInt();
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static void writeSignedVarInt(DataOutputStream out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+}
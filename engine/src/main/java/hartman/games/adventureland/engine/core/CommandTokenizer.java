@@ -0,0 +1,66 @@
+package hartman.games.adventureland.engine.core;
+
+import hartman.games.adventureland.engine.Command;
+import hartman.games.adventureland.engine.Vocabulary;
+import hartman.games.adventureland.engine.Word;
+
+import java.util.Optional;
+
+/**
+ * Splits a line of player input into words separated by whitespace and looks each one up in the vocabulary.
+ * <p>
+ * The line is scanned in place, without regular expressions, and the vocabulary matches each word straight from
+ * the line ignoring case, so a line of known words allocates little beyond the resulting {@link Command}. Only
+ * words the vocabulary doesn't know are copied out of the line, to name the unrecognized word.
+ */
+public final class CommandTokenizer {
+
+    private final Vocabulary vocabulary;
+
+    public CommandTokenizer(Vocabulary vocabulary) {
+        this.vocabulary = vocabulary;
+    }
+
+    /**
+     * @return the command made of the words of the line or {@link Command#NONE} if the line is blank
+     */
+    public Command tokenize(CharSequence line) {
+        int count = countWords(line);
+        if (count == 0) {
+            return Command.NONE;
+        }
+        Word[] words = new Word[count];
+        int end = 0;
+        for (int i = 0; i < count; i++) {
+            int start = skipWhitespace(line, end);
+            end = skipWord(line, start);
+            Optional<Word> match = vocabulary.findMatch(line, start, end);
+            words[i] = match.isPresent() ? match.get() : Word.unrecognized(line.subSequence(start, end).toString());
+        }
+        return new Command(words);
+    }
+
+    private static int countWords(CharSequence line) {
+        int count = 0;
+        int end = skipWhitespace(line, 0);
+        while (end < line.length()) {
+            count++;
+            end = skipWhitespace(line, skipWord(line, end));
+        }
+        return count;
+    }
+
+    private static int skipWhitespace(CharSequence line, int index) {
+        while (index < line.length() && Character.isWhitespace(line.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int skipWord(CharSequence line, int index) {
+        while (index < line.length() && !Character.isWhitespace(line.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -1,93 +1,164 @@
 package hartman.games.adventureland.engine.core;
 
 import hartman.games.adventureland.engine.Action.Condition;
+import hartman.games.adventureland.engine.Command;
+import hartman.games.adventureland.engine.GameState;
+import hartman.games.adventureland.engine.InlineCode;
 import hartman.games.adventureland.engine.Item;
+import hartman.games.adventureland.engine.Reads;
 import hartman.games.adventureland.engine.Room;
+import hartman.games.adventureland.engine.Slots.Slot;
 import hartman.games.adventureland.engine.Word;
 
 import java.util.function.IntPredicate;
 import java.util.function.IntSupplier;
 
-import static java.util.Arrays.stream;
-
+/**
+ * The conditions of an adventure's actions.
+ * <p>
+ * Every condition made here declares what it {@link Condition#reads() reads} of the game state. The counter
+ * comparisons assume the given compare function depends on nothing but the counter. The random conditions read
+ * {@link Reads#EVERYTHING}, as they roll again every time. The conditions on rooms, items and slots also tell
+ * compiled rules their {@link Condition#inlineCode() code}.
+ */
 public final class Conditions {
 
     private Conditions() {
         throw new IllegalStateException("utility class");
     }
 
+    /**
+     * Declares what the given condition reads, e.g. for a condition written as a lambda.
+     */
+    public static Condition reading(Reads reads, Condition condition) {
+        return new Condition() {
+            @Override
+            public boolean matches(Command command, GameState gameState) {
+                return condition.matches(command, gameState);
+            }
+
+            @Override
+            public Reads reads() {
+                return reads;
+            }
+        };
+    }
+
+    // a condition the compiled rules run as the given code rather than calling it
+    private static Condition inlined(Reads reads, InlineCode code, Condition condition) {
+        return new Condition() {
+            @Override
+            public boolean matches(Command command, GameState gameState) {
+                return condition.matches(command, gameState);
+            }
+
+            @Override
+            public Reads reads() {
+                return reads;
+            }
+
+            @Override
+            public InlineCode inlineCode() {
+                return code;
+            }
+        };
+    }
+
     /**
      * Performs a logical NOT of the Condition operand.
      */
     public static Condition not(Condition operand) {
-        return (command, gameState) -> !operand.matches(command, gameState);
+        Condition not = (command, gameState) -> !operand.matches(command, gameState);
+        InlineCode code = operand.inlineCode();
+        return code == null ? reading(operand.reads(), not) : inlined(operand.reads(), code.negated(), not);
     }
 
     /**
      * Two Conditions combined with a 'logical OR'
      */
     public static Condition or(Condition c1, Condition c2) {
-        return (command, gameState) -> c1.matches(command, gameState) || c2.matches(command, gameState);
+        Condition or = (command, gameState) -> c1.matches(command, gameState) || c2.matches(command, gameState);
+        InlineCode code1 = c1.inlineCode();
+        InlineCode code2 = c2.inlineCode();
+        Reads reads = c1.reads().and(c2.reads());
+        return code1 == null || code2 == null ? reading(reads, or) : inlined(reads, code1.or(code2), or);
     }
 
     /**
      * Two Conditions combined with a 'logical AND'
      */
     public static Condition and(Condition c1, Condition c2) {
-        return ((command, gameState) -> c1.matches(command, gameState) && c2.matches(command, gameState));
+        Condition and = (command, gameState) -> c1.matches(command, gameState) && c2.matches(command, gameState);
+        InlineCode code1 = c1.inlineCode();
+        InlineCode code2 = c2.inlineCode();
+        Reads reads = c1.reads().and(c2.reads());
+        return code1 == null || code2 == null ? reading(reads, and) : inlined(reads, code1.and(code2), and);
     }
 
     /**
      * TRUE if word matches the Command word at the given position (1 based index)
      */
     public static Condition wordMatches(int position, Word word) {
-        return (command, gameState) -> command.getWord(position).map(word::matches).orElse(Boolean.FALSE);
+        return reading(Reads.NOTHING, (command, gameState) -> command.hasWord(position) && word.matches(command.getWordOrNone(position)));
     }
 
     /**
      * TRUE if Command first word matches any of the given words.
      */
     public static Condition wordMatchesAny(int position, Word... words) {
-        return (command, gameState) -> stream(words).anyMatch(word -> wordMatches(position, word).matches(command, gameState));
+        return reading(Reads.NOTHING, (command, gameState) -> {
+            if (!command.hasWord(position)) {
+                return false;
+            }
+            Word commandWord = command.getWordOrNone(position);
+            for (Word word : words) {
+                if (word.matches(commandWord)) {
+                    return true;
+                }
+            }
+            return false;
+        });
     }
 
     public static Condition wordUnrecognized(int position) {
-        return (command, gameState) -> command.getWord(position).map(Word::isUnrecognized).orElse(false);
+        return reading(Reads.NOTHING, (command, gameState) -> command.hasWord(position) && command.getWordOrNone(position).isUnrecognized());
     }
 
     /**
      * True if current room has exit matching given word
      */
     public static Condition hasExit(Word direction) {
-        return (command, gameState) -> gameState.getCurrentRoom().hasExit(direction);
+        return reading(Reads.ROOM, (command, gameState) -> gameState.getCurrentRoom().hasExit(direction));
     }
 
     /**
      * True if current room has exit matching the word at the given position in the command word list
      */
     public static Condition hasExitMatchingCommandWordAt(int position) {
-        return (command, gameState) -> hasExit(command.getWordOrNone(position)).matches(command, gameState);
+        return reading(Reads.ROOM, (command, gameState) -> gameState.getCurrentRoom().hasExit(command.getWordOrNone(position)));
     }
 
     /**
      * True if the player's current room is ROOM.
      */
     public static Condition in(Room room) {
-        return (command, gameState) -> gameState.getCurrentRoom().equals(room);
+        return inlined(Reads.ROOM, InlineCode.of("gameState.getCurrentRoom().equals($0)", room),
+                (command, gameState) -> gameState.getCurrentRoom().equals(room));
     }
 
     /**
      * True if the player is carrying ITEM in their inventory.
      */
     public static Condition carrying(Item item) {
-        return (command, gameState) -> gameState.carrying(item);
+        return inlined(Reads.item(item), InlineCode.of("gameState.carrying($0)", item), (command, gameState) -> gameState.carrying(item));
     }
 
     /**
      * True if ITEM is in the player's current room.
      */
     public static Condition here(Item item) {
-        return (command, gameState) -> gameState.inRoom(item, gameState.getCurrentRoom());
+        return inlined(Reads.ROOM.and(Reads.item(item)), InlineCode.of("gameState.inRoom($0, gameState.getCurrentRoom())", item),
+                (command, gameState) -> gameState.inRoom(item, gameState.getCurrentRoom()));
     }
 
     /**
@@ -99,62 +170,115 @@ public final class Conditions {
     }
 
     /**
-     * A condition which returns true based on a desired probability and a random number.
+     * A condition which returns true based on a desired probability and a roll of the game's random source.
      * E.g. given a probability of 10, this condition should evaluate to true, 10% of the time.
+     *
+     * @see hartman.games.adventureland.engine.GameState#nextRandom(int)
      */
     public static Condition random(Integer probability) {
-        return random(probability, () -> new java.util.Random().nextInt(100) /* 0 - 99 */);
+        checkProbability(probability);
+        return (command, gameState) -> probability - gameState.nextRandom(100) /* 0 - 99 */ > 0;
     }
 
     /**
      * A condition which returns true based on a desired probability and the result of the given supplier function.
      */
     public static Condition random(Integer probability, IntSupplier d100) {
+        checkProbability(probability);
+        return (command, gameState) -> probability - d100.getAsInt() > 0;
+    }
+
+    private static void checkProbability(Integer probability) {
         if (probability < 0 || probability > 100) {
             throw new IllegalArgumentException("Invalid value. Probability must be between 0 and 100 inclusive.");
         }
-        return (command, gameState) -> probability - d100.getAsInt() > 0;
     }
 
     /**
      * True if ITEM has moved from its original starting location.
      */
     public static Condition hasMoved(Item item) {
-        return (command, gameState) -> gameState.hasMoved(item);
+        return inlined(Reads.item(item), InlineCode.of("gameState.hasMoved($0)", item), (command, gameState) -> gameState.hasMoved(item));
     }
 
     /**
      * True if ITEM is in the ROOM
      */
     public static Condition there(Item item, Room room) {
-        return (command, gameState) -> gameState.inRoom(item, room);
+        return inlined(Reads.item(item), InlineCode.of("gameState.inRoom($0, $1)", item, room), (command, gameState) -> gameState.inRoom(item, room));
     }
 
     /**
      * True if ITEM is somewhere in the game, i.e. not "nowhere"
      */
     public static Condition exists(Item item) {
-        return (command, gameState) -> gameState.exists(item);
+        return inlined(Reads.item(item), InlineCode.of("gameState.exists($0)", item), (command, gameState) -> gameState.exists(item));
     }
 
     /**
      * True if flag is set to true.
      */
     public static Condition isFlagSet(String name) {
-        return (command, gameState) -> gameState.getFlag(name);
+        return reading(Reads.flag(name), (command, gameState) -> gameState.getFlag(name));
     }
 
     /**
      * Returns result of evaluating value of counter using given compare function.
      */
     public static Condition compareCounter(String name, IntPredicate compare) {
-        return ((command, gameState) -> compare.test(gameState.getCounter(name)));
+        return reading(Reads.counter(name), (command, gameState) -> compare.test(gameState.getCounter(name)));
     }
 
     /**
      * True if named string equals given value.
      */
     public static Condition stringEquals(String name, String value) {
-        return (command, gameState) -> gameState.getString(name).equals(value);
+        return reading(Reads.string(name), (command, gameState) -> gameState.getString(name).equals(value));
+    }
+
+    /**
+     * True if the flag in the given slot is set to true.
+     */
+    public static Condition isFlagSet(Slot flag) {
+        return inlined(Reads.slot(flag), InlineCode.of("gameState.getFlag($0)", flag), (command, gameState) -> gameState.getFlag(flag));
+    }
+
+    /**
+     * Returns result of evaluating value of the counter in the given slot using given compare function.
+     */
+    public static Condition compareCounter(Slot counter, IntPredicate compare) {
+        return reading(Reads.slot(counter), (command, gameState) -> compare.test(gameState.getCounter(counter)));
+    }
+
+    /**
+     * True if the counter in the given slot equals the number.
+     */
+    public static Condition counterEquals(Slot counter, int number) {
+        return inlined(Reads.slot(counter), InlineCode.of("gameState.getCounter($0) == $1", counter, number),
+                (command, gameState) -> gameState.getCounter(counter) == number);
+    }
+
+    /**
+     * True if the counter in the given slot is less than the number.
+     */
+    public static Condition counterLessThan(Slot counter, int number) {
+        return inlined(Reads.slot(counter), InlineCode.of("gameState.getCounter($0) < $1", counter, number),
+                (command, gameState) -> gameState.getCounter(counter) < number);
+    }
+
+    /**
+     * True if the counter in the given slot is greater than the number.
+     */
+    public static Condition counterGreaterThan(Slot counter, int number) {
+        return inlined(Reads.slot(counter), InlineCode.of("gameState.getCounter($0) > $1", counter, number),
+                (command, gameState) -> gameState.getCounter(counter) > number);
+    }
+
+    /**
+     * True if the string in the given slot equals given value.
+     */
+    public static Condition stringEquals(Slot string, String value) {
+        return inlined(Reads.slot(string), InlineCode.of("gameState.getString($0).equals($1)", string, value),
+                (command, gameState) -> gameState.getString(string).equals(value));
     }
 }
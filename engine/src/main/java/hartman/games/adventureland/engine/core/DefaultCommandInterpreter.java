@@ -3,21 +3,19 @@ package hartman.games.adventureland.engine.core;
 import hartman.games.adventureland.engine.Command;
 import hartman.games.adventureland.engine.CommandInterpreter;
 import hartman.games.adventureland.engine.Vocabulary;
-import hartman.games.adventureland.engine.Word;
 
-import java.util.LinkedList;
 import java.util.Scanner;
 
 public class DefaultCommandInterpreter implements CommandInterpreter {
 
     private final Scanner scanner;
-    private final Vocabulary vocabulary;
+    private final CommandTokenizer tokenizer;
 
     private String lastLine;
 
     public DefaultCommandInterpreter(Scanner scanner, Vocabulary vocabulary) {
         this.scanner = scanner;
-        this.vocabulary = vocabulary;
+        this.tokenizer = new CommandTokenizer(vocabulary);
     }
 
     @Override
@@ -34,14 +32,7 @@ public class DefaultCommandInterpreter implements CommandInterpreter {
 
         if (!(null == line || line.isEmpty())) {
             lastLine = line;
-            try (Scanner lineScanner = new Scanner(lastLine)) {
-                LinkedList<Word> words = new LinkedList<>();
-                while (lineScanner.hasNext()) {
-                    String next = lineScanner.next();
-                    words.add(vocabulary.findMatch(next).orElse(Word.unrecognized(next)));
-                }
-                return new Command(words.toArray(new Word[0]));
-            }
+            return tokenizer.tokenize(line);
         }
 
         return Command.NONE;
@@ -4,90 +4,129 @@ import hartman.games.adventureland.engine.Display;
 import hartman.games.adventureland.engine.Item;
 import hartman.games.adventureland.engine.Room;
 
-import java.io.PrintWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-
-import static java.lang.String.format;
 
+/**
+ * Displays the game as plain text.
+ * <p>
+ * Everything displayed during a turn is collected in a buffer, which is reused from turn to turn, and only written
+ * to the output when the turn is over and the display is {@link #flush() flushed}. The output may be any
+ * {@link Appendable}, e.g. a {@link Writer} for a console or a StringBuilder to capture the text of a turn.
+ */
 public class DefaultDisplay implements Display {
 
-    private final PrintWriter out;
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final Appendable out;
+    private final StringBuilder buffer = new StringBuilder(512);
+    private char[] chars = new char[0];
 
-    public DefaultDisplay(PrintWriter writer) {
-        this.out = writer;
+    public DefaultDisplay(Appendable out) {
+        this.out = out;
     }
 
     @Override
     public void print(String message) {
-        out.print(message);
-        out.flush();
+        buffer.append(message);
     }
 
     @Override
     public void look(Room room, List<Item> itemsInRoom) {
-        StringBuilder buf = new StringBuilder();
-        buf.append(format("%s%n", room.getDescription()));
-        lookAtItems(itemsInRoom, buf);
-        lookAtExits(room.getExits(), buf);
-        print(buf.toString());
+        buffer.append(room.getDescription()).append(NEWLINE);
+        lookAtItems(itemsInRoom);
+        lookAtExits(room.getExits());
     }
 
-    private void lookAtItems(List<Item> itemsInRoom, StringBuilder buf) {
+    private void lookAtItems(List<Item> itemsInRoom) {
         if (!itemsInRoom.isEmpty()) {
-            buf.append(format("%n"));
+            buffer.append(NEWLINE);
             int numOfItems = itemsInRoom.size();
             if (numOfItems == 1) {
-                buf.append(format("I can also see %s", itemsInRoom.get(0).getDescription()));
+                buffer.append("I can also see ").append(itemsInRoom.get(0).getDescription());
             } else {
-                buf.append(format("I can also see %d other things here: ", numOfItems));
-                IntStream.range(0, numOfItems).forEachOrdered(i -> {
+                buffer.append("I can also see ").append(numOfItems).append(" other things here: ");
+                for (int i = 0; i < numOfItems; i++) {
                     if (i > 0) {
-                        buf.append(", ");
+                        buffer.append(", ");
                     }
                     if (i == (numOfItems - 1)) {
-                        buf.append("and ");
+                        buffer.append("and ");
                     }
-                    buf.append(itemsInRoom.get(i).getDescription());
-                });
+                    buffer.append(itemsInRoom.get(i).getDescription());
+                }
             }
-            buf.append(format("%n"));
+            buffer.append(NEWLINE);
         }
     }
 
-    private void lookAtExits(Set<Room.Exit> exits, StringBuilder buf) {
-        buf.append(format("%n"));
+    private void lookAtExits(Set<Room.Exit> exits) {
+        buffer.append(NEWLINE);
         if (exits.isEmpty()) {
-            buf.append("There are no obvious exits.");
+            buffer.append("There are no obvious exits.");
+        } else if (exits.size() == 1) {
+            buffer.append("There is a single exit to the ").append(exits.iterator().next().getDescription());
         } else {
-            if (exits.size() == 1) {
-                buf.append(format("There is a single exit to the %s", exits.iterator().next().getDescription()));
-            } else {
-                String exitsString = String.join(", ", exits.stream().map(Room.Exit::getDescription).collect(Collectors.toList()));
-                buf.append(format("There are %d obvious exits: %s", exits.size(), exitsString));
+            buffer.append("There are ").append(exits.size()).append(" obvious exits: ");
+            String separator = "";
+            for (Room.Exit exit : exits) {
+                buffer.append(separator).append(exit.getDescription());
+                separator = ", ";
             }
         }
-        buf.append(format("%n"));
+        buffer.append(NEWLINE);
     }
 
     @Override
     public void inventory(List<Item> itemsCarried) {
-        StringBuilder buf = new StringBuilder();
         if (itemsCarried.isEmpty()) {
-            buf.append("I'm not carrying anything right now.");
+            buffer.append("I'm not carrying anything right now.");
         } else {
-            buf.append("I'm carrying ");
+            buffer.append("I'm carrying ");
             if (itemsCarried.size() == 1) {
-                buf.append(itemsCarried.iterator().next().getDescription());
+                buffer.append(itemsCarried.get(0).getDescription());
             } else {
-                buf.append(format("%d things: ", itemsCarried.size()));
-                itemsCarried.forEach(item -> buf.append(format("%n - %s", item.getDescription())));
+                buffer.append(itemsCarried.size()).append(" things: ");
+                for (Item item : itemsCarried) {
+                    buffer.append(NEWLINE).append(" - ").append(item.getDescription());
+                }
             }
         }
-        buf.append(format("%n"));
-        print(buf.toString());
+        buffer.append(NEWLINE);
     }
 
+    /**
+     * Writes everything displayed since the last flush to the output in one go and flushes the output too.
+     */
+    @Override
+    public void flush() {
+        try {
+            if (buffer.length() > 0) {
+                write();
+                buffer.setLength(0);
+            }
+            if (out instanceof Flushable) {
+                ((Flushable) out).flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // writers are handed the characters, appending the buffer would copy it into a string first
+    private void write() throws IOException {
+        if (out instanceof Writer) {
+            if (chars.length < buffer.length()) {
+                chars = new char[buffer.capacity()];
+            }
+            buffer.getChars(0, buffer.length(), chars, 0);
+            ((Writer) out).write(chars, 0, buffer.length());
+        } else {
+            out.append(buffer);
+        }
+    }
 }
@@ -0,0 +1,145 @@
+package hartman.games.adventureland.engine.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Something the game showed the player, as data rather than text, so a client can render it any way it likes.
+ * <p>
+ * Rooms and items are referred to by name and exits by the name of their direction, which is how the adventure
+ * refers to them too.
+ */
+public final class DisplayEvent implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Type {
+        /**
+         * A message for the player, see {@link #getText()}.
+         */
+        MESSAGE,
+        /**
+         * A view of the room, see {@link #getRoom()}, its {@link #getItems() items} and its {@link #getExits() exits}.
+         */
+        ROOM,
+        /**
+         * The {@link #getItems() items} the player is carrying.
+         */
+        INVENTORY,
+        /**
+         * The player moved to another {@link #getRoom() room}.
+         */
+        MOVED,
+        /**
+         * The game is over.
+         */
+        GAME_OVER
+    }
+
+    private static final DisplayEvent GAME_OVER = new DisplayEvent(Type.GAME_OVER, null, null, Collections.emptyList(), Collections.emptyList());
+
+    private final Type type;
+    private final String text;
+    private final String room;
+    private final List<String> items;
+    private final List<String> exits;
+
+    private DisplayEvent(Type type, String text, String room, List<String> items, List<String> exits) {
+        this.type = type;
+        this.text = text;
+        this.room = room;
+        this.items = items;
+        this.exits = exits;
+    }
+
+    public static DisplayEvent message(String text) {
+        Objects.requireNonNull(text, "Message must have text.");
+        return new DisplayEvent(Type.MESSAGE, text, null, Collections.emptyList(), Collections.emptyList());
+    }
+
+    public static DisplayEvent room(String room, List<String> items, List<String> exits) {
+        Objects.requireNonNull(room, "Room view must have a room.");
+        return new DisplayEvent(Type.ROOM, null, room, unmodifiableCopy(items), unmodifiableCopy(exits));
+    }
+
+    public static DisplayEvent inventory(List<String> items) {
+        return new DisplayEvent(Type.INVENTORY, null, null, unmodifiableCopy(items), Collections.emptyList());
+    }
+
+    public static DisplayEvent moved(String room) {
+        Objects.requireNonNull(room, "Move must have a room.");
+        return new DisplayEvent(Type.MOVED, null, room, Collections.emptyList(), Collections.emptyList());
+    }
+
+    public static DisplayEvent gameOver() {
+        return GAME_OVER;
+    }
+
+    private static List<String> unmodifiableCopy(List<String> names) {
+        return names.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(names));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the text of a message, or null for any other event
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return the name of the room viewed or moved to, or null for any other event
+     */
+    public String getRoom() {
+        return room;
+    }
+
+    /**
+     * @return the names of the items in the room or in the inventory, empty for any other event
+     */
+    public List<String> getItems() {
+        return items;
+    }
+
+    /**
+     * @return the directions of the exits out of the room viewed, empty for any other event
+     */
+    public List<String> getExits() {
+        return exits;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        DisplayEvent that = (DisplayEvent) o;
+
+        return type == that.type
+                && Objects.equals(text, that.text)
+                && Objects.equals(room, that.room)
+                && items.equals(that.items)
+                && exits.equals(that.exits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, text, room, items, exits);
+    }
+
+    @Override
+    public String toString() {
+        return "DisplayEvent{" +
+                "type=" + type +
+                ", text='" + text + '\'' +
+                ", room='" + room + '\'' +
+                ", items=" + items +
+                ", exits=" + exits +
+                '}';
+    }
+}
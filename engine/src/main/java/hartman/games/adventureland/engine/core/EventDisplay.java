@@ -0,0 +1,65 @@
+package hartman.games.adventureland.engine.core;
+
+import hartman.games.adventureland.engine.Display;
+import hartman.games.adventureland.engine.Item;
+import hartman.games.adventureland.engine.Room;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records what the game shows the player as {@link DisplayEvent events} instead of rendering it as text.
+ * <p>
+ * Events are kept until {@link #clear() cleared}, so a display used for a single turn holds the events of
+ * that turn.
+ */
+public class EventDisplay implements Display {
+
+    private final List<DisplayEvent> events = new ArrayList<>();
+
+    @Override
+    public void print(String message) {
+        events.add(DisplayEvent.message(message));
+    }
+
+    @Override
+    public void look(Room room, List<Item> itemsInRoom) {
+        List<String> exits = new ArrayList<>(room.getExits().size());
+        for (Room.Exit exit : room.getExits()) {
+            exits.add(exit.getDescription());
+        }
+        events.add(DisplayEvent.room(room.getName(), namesOf(itemsInRoom), exits));
+    }
+
+    @Override
+    public void inventory(List<Item> itemsCarried) {
+        events.add(DisplayEvent.inventory(namesOf(itemsCarried)));
+    }
+
+    @Override
+    public void moved(Room room) {
+        events.add(DisplayEvent.moved(room.getName()));
+    }
+
+    @Override
+    public void gameOver() {
+        events.add(DisplayEvent.gameOver());
+    }
+
+    private static List<String> namesOf(List<Item> items) {
+        List<String> names = new ArrayList<>(items.size());
+        for (Item item : items) {
+            names.add(item.getName());
+        }
+        return names;
+    }
+
+    public List<DisplayEvent> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+
+    public void clear() {
+        events.clear();
+    }
+}
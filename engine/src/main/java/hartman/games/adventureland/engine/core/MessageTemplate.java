@@ -0,0 +1,126 @@
+package hartman.games.adventureland.engine.core;
+
+import hartman.games.adventureland.engine.Command;
+import hartman.games.adventureland.engine.GameState;
+import hartman.games.adventureland.engine.Slots;
+import hartman.games.adventureland.engine.Slots.Slot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message split once into literal text and placeholders, so printing it never has to search the text again.
+ * <p>
+ * Supported placeholders are <code>{word:N}</code> for the Nth word of the command and <code>{counter:NAME}</code>,
+ * <code>{flag:NAME}</code> and <code>{string:NAME}</code> for the values in the game state. Anything else in braces
+ * is printed as is. A message without placeholders renders to itself.
+ */
+public final class MessageTemplate {
+
+    @FunctionalInterface
+    private interface Segment {
+        void appendTo(StringBuilder out, Command command, GameState gameState);
+    }
+
+    private final String message;
+    private final Segment[] segments;
+
+    private MessageTemplate(String message, Segment[] segments) {
+        this.message = message;
+        this.segments = segments;
+    }
+
+    /**
+     * Splits the message into segments, binding counter, flag and string placeholders to slots of the given table.
+     */
+    public static MessageTemplate compile(String message, Slots slots) {
+        List<Segment> segments = new ArrayList<>();
+        int literalStart = 0;
+        int open = message.indexOf('{');
+        while (open >= 0) {
+            int close = message.indexOf('}', open + 2);
+            Segment placeholder = close < 0 ? null : placeholder(message.substring(open + 1, close), slots);
+            if (placeholder == null) {
+                open = message.indexOf('{', open + 1);
+                continue;
+            }
+            if (open > literalStart) {
+                segments.add(literal(message.substring(literalStart, open)));
+            }
+            segments.add(placeholder);
+            literalStart = close + 1;
+            open = message.indexOf('{', literalStart);
+        }
+        if (segments.isEmpty()) {
+            return new MessageTemplate(message, null);
+        }
+        if (literalStart < message.length()) {
+            segments.add(literal(message.substring(literalStart)));
+        }
+        return new MessageTemplate(message, segments.toArray(new Segment[0]));
+    }
+
+    private static Segment literal(String text) {
+        return (out, command, gameState) -> out.append(text);
+    }
+
+    private static Segment placeholder(String placeholder, Slots slots) {
+        int colon = placeholder.indexOf(':');
+        if (colon < 0 || colon == placeholder.length() - 1) {
+            return null;
+        }
+        String name = placeholder.substring(colon + 1);
+        switch (placeholder.substring(0, colon)) {
+            case "word":
+                return word(name);
+            case "counter":
+                Slot counter = slots.counter(name);
+                return (out, command, gameState) -> out.append(gameState.getCounter(counter));
+            case "flag":
+                Slot flag = slots.flag(name);
+                return (out, command, gameState) -> out.append(gameState.getFlag(flag));
+            case "string":
+                Slot string = slots.string(name);
+                return (out, command, gameState) -> out.append(gameState.getString(string));
+            default:
+                return null;
+        }
+    }
+
+    private static Segment word(String position) {
+        int index;
+        try {
+            index = Integer.parseInt(position);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return (out, command, gameState) -> {
+            if (command.hasWord(index)) {
+                out.append(command.getWordOrNone(index).getName());
+            }
+        };
+    }
+
+    public boolean hasPlaceholders() {
+        return segments != null;
+    }
+
+    /**
+     * Renders the message in a single pass over its segments.
+     */
+    public String render(Command command, GameState gameState) {
+        if (segments == null) {
+            return message;
+        }
+        StringBuilder out = new StringBuilder(message.length() + 16);
+        for (Segment segment : segments) {
+            segment.appendTo(out, command, gameState);
+        }
+        return out.toString();
+    }
+
+    @Override
+    public String toString() {
+        return message;
+    }
+}
@@ -0,0 +1,96 @@
+package hartman.games.adventureland.engine.core;
+
+import hartman.games.adventureland.engine.AsyncCommandInterpreter;
+import hartman.games.adventureland.engine.Command;
+import hartman.games.adventureland.engine.Vocabulary;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Interprets lines of input handed to it as they arrive, e.g. by whatever reads from the player's connection.
+ * <p>
+ * Lines which arrive before the game asks for them are queued, and a game asking before there is a line gets
+ * its command as soon as one arrives. Like the {@link DefaultCommandInterpreter} empty lines are skipped.
+ * The interpreter is safe for a reading thread and the game's thread to use at the same time.
+ */
+public class QueuedCommandInterpreter implements AsyncCommandInterpreter {
+
+    private final CommandTokenizer tokenizer;
+    private final Queue<Command> commands = new ArrayDeque<>();
+
+    private CompletableFuture<Command> waiting;
+    private boolean closed;
+
+    public QueuedCommandInterpreter(Vocabulary vocabulary) {
+        this.tokenizer = new CommandTokenizer(vocabulary);
+    }
+
+    /**
+     * Hands over a line the player entered.
+     *
+     * @throws IllegalStateException if the input was closed
+     */
+    public void accept(CharSequence line) {
+        if (line.length() == 0) {
+            return;
+        }
+        Command command = tokenizer.tokenize(line);
+        CompletableFuture<Command> game;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Input is closed.");
+            }
+            if (waiting == null) {
+                commands.add(command);
+                return;
+            }
+            game = waiting;
+            waiting = null;
+        }
+        // outside the lock, whatever waits for the command runs as the stage completes
+        game.complete(command);
+    }
+
+    /**
+     * Ends the input. Commands already handed over are still interpreted, after that no more commands come.
+     */
+    public void close() {
+        CompletableFuture<Command> game;
+        synchronized (this) {
+            closed = true;
+            game = waiting;
+            waiting = null;
+        }
+        if (game != null) {
+            game.completeExceptionally(new IllegalStateException("Input is closed."));
+        }
+    }
+
+    /**
+     * @return the number of commands handed over which the game has not asked for yet
+     */
+    public synchronized int pendingCount() {
+        return commands.size();
+    }
+
+    @Override
+    public synchronized CompletionStage<Command> nextCommand() {
+        if (waiting != null) {
+            throw new IllegalStateException("Already waiting for the next command.");
+        }
+        Command command = commands.poll();
+        if (command != null) {
+            return CompletableFuture.completedFuture(command);
+        }
+        CompletableFuture<Command> next = new CompletableFuture<>();
+        if (closed) {
+            next.completeExceptionally(new IllegalStateException("Input is closed."));
+        } else {
+            waiting = next;
+        }
+        return next;
+    }
+}
@@ -1,25 +1,45 @@
 package hartman.games.adventureland.engine.core;
 
 import hartman.games.adventureland.engine.Action.Result;
+import hartman.games.adventureland.engine.Command;
 import hartman.games.adventureland.engine.Display;
+import hartman.games.adventureland.engine.GameState;
+import hartman.games.adventureland.engine.InlineCode;
 import hartman.games.adventureland.engine.Item;
 import hartman.games.adventureland.engine.Room;
+import hartman.games.adventureland.engine.Slots;
+import hartman.games.adventureland.engine.Slots.Slot;
 import hartman.games.adventureland.engine.Word;
 
-import java.util.function.UnaryOperator;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
+/**
+ * The results of an adventure's actions. The results on rooms, items and slots also tell compiled rules their
+ * {@link Result#inlineCode() code}.
+ */
 public final class Results {
 
     private Results() {
         throw new IllegalStateException("utility class");
     }
 
+    // a result the compiled rules run as the given code rather than calling it
+    private static Result inlined(InlineCode code, Result result) {
+        return new Result() {
+            @Override
+            public void execute(Command command, GameState gameState, Display display) {
+                result.execute(command, gameState, display);
+            }
+
+            @Override
+            public InlineCode inlineCode() {
+                return code;
+            }
+        };
+    }
+
     /**
      * Indicate that game state is no longer running.
      */
-    public static final Result quit = (command, gameState, display) -> gameState.quit();
+    public static final Result quit = inlined(InlineCode.of("gameState.quit()"), (command, gameState, display) -> gameState.quit());
 
     /**
      * Change the current toom based on the given direction.
@@ -30,46 +50,34 @@ public final class Results {
     }
 
     public static Result goInDirectionMatchingCommandWordAt(int position) {
-        return (command, gameState, display) -> go(command.getWordOrNone(position)).execute(command, gameState, display);
+        return (command, gameState, display) -> gameState.exitTowards(command.getWordOrNone(position));
     }
 
     /**
      * Asks gamestate to describe itself
      */
-    public static final Result look = (command, gameState, display) -> gameState.describe(display);
-
-    private static Pattern wordPlaceholderPattern = Pattern.compile("\\{word:(.+?)\\}");
-    private static Pattern counterPlaceholderPattern = Pattern.compile("\\{counter:(.+?)\\}");
-    private static Pattern flagPlaceholderPattern = Pattern.compile("\\{flag:(.+?)\\}");
-    private static Pattern stringPlaceholderPattern = Pattern.compile("\\{string:(.+?)\\}");
-
-    private static String resolvePlaceholder(String s, Pattern pattern, UnaryOperator<String> resolver) {
-        Matcher matcher = pattern.matcher(s);
-        StringBuilder builder = new StringBuilder();
-        int i = 0;
-        while (matcher.find()) {
-            String group = (matcher.groupCount() == 0) ? matcher.group(0) : matcher.group(1);
-            String result = resolver.apply(group);
-            builder.append(s, i, matcher.start());
-            builder.append(result);
-            i = matcher.end();
-        }
-        builder.append(s.substring(i));
-        return builder.toString();
-    }
+    public static final Result look = inlined(InlineCode.of("gameState.describe(display)"), (command, gameState, display) -> gameState.describe(display));
 
     /**
      * Prints the specified message to the {@link Display}
+     *
+     * @see MessageTemplate
      */
     public static Result print(String message) {
-        return (command, gameState, display) -> {
-            String output = message;
-            output = resolvePlaceholder(output, wordPlaceholderPattern, pos -> command.getWord(Integer.parseInt(pos)).orElse(new Word("")).getName());
-            output = resolvePlaceholder(output, counterPlaceholderPattern, counter -> String.valueOf(gameState.getCounter(counter)));
-            output = resolvePlaceholder(output, flagPlaceholderPattern, flag -> String.valueOf(gameState.getFlag(flag)));
-            output = resolvePlaceholder(output, stringPlaceholderPattern, gameState::getString);
-            display.print(output);
-        };
+        return print(message, new Slots());
+    }
+
+    /**
+     * Prints the specified message to the {@link Display}, binding its placeholders to the given slots.
+     *
+     * @see MessageTemplate
+     */
+    public static Result print(String message, Slots slots) {
+        MessageTemplate template = MessageTemplate.compile(message, slots);
+        if (!template.hasPlaceholders()) {
+            return (command, gameState, display) -> display.print(message);
+        }
+        return (command, gameState, display) -> display.print(template.render(command, gameState));
     }
 
     /**
@@ -90,65 +98,80 @@ public final class Results {
         return printf(message.concat("%n"));
     }
 
+    /**
+     * Message has a newline appended.
+     *
+     * @see #print(String, Slots)
+     */
+    public static Result println(String message, Slots slots) {
+        return print(String.format(message.concat("%n")), slots);
+    }
+
     /**
      * Displays a list of items that the player is carrying.
      */
-    public static final Result inventory = (command, gameState, display) -> gameState.inventory(display);
+    public static final Result inventory = inlined(InlineCode.of("gameState.inventory(display)"), (command, gameState, display) -> gameState.inventory(display));
 
     /**
      * Exchanges the two specified items, so that each occupies the location previously occupied by the other.
      */
     public static Result swap(Item item1, Item item2) {
-        return (command, gameState, display) -> gameState.swap(item1, item2);
+        return inlined(InlineCode.of("gameState.swap($0, $1)", item1, item2),
+                (command, gameState, display) -> gameState.swap(item1, item2));
     }
 
     /**
      * Moves to the specified room
      */
     public static Result gotoRoom(Room room) {
-        return (command, gameState, display) -> gameState.moveTo(room);
+        return inlined(InlineCode.of("gameState.moveTo($0)", room),
+                (command, gameState, display) -> gameState.moveTo(room));
     }
 
     /**
      * Put ITEM in ROOM.
      */
     public static Result put(Item item, Room room) {
-        return (command, gameState, display) -> gameState.drop(item, room);
+        return inlined(InlineCode.of("gameState.drop($0, $1)", item, room),
+                (command, gameState, display) -> gameState.drop(item, room));
     }
 
     /**
      * Put ITEM in current room.
      */
     public static Result putHere(Item item) {
-        return (command, gameState, display) -> gameState.drop(item);
+        return inlined(InlineCode.of("gameState.drop($0)", item), (command, gameState, display) -> gameState.drop(item));
     }
 
     /**
      * Put ITEM in Inventory.
      */
     public static Result get(Item item) {
-        return (command, gameState, display) -> gameState.putInInventory(item);
+        return inlined(InlineCode.of("gameState.putInInventory($0)", item),
+                (command, gameState, display) -> gameState.putInInventory(item));
     }
 
     /**
      * Drop ITEM in the current room.
      */
     public static Result drop(Item item) {
-        return (command, gameState, display) -> gameState.drop(item);
+        return inlined(InlineCode.of("gameState.drop($0)", item), (command, gameState, display) -> gameState.drop(item));
     }
 
     /**
      * Puts the first-specified item into the same location as the second.
      */
     public static Result putWith(Item item1, Item item2) {
-        return (command, gameState, display) -> gameState.putWith(item1, item2);
+        return inlined(InlineCode.of("gameState.putWith($0, $1)", item1, item2),
+                (command, gameState, display) -> gameState.putWith(item1, item2));
     }
 
     /**
      * Removes ITEM from the game.
      */
     public static Result destroy(Item item) {
-        return (command, gameState, display) -> gameState.destroy(item);
+        return inlined(InlineCode.of("gameState.destroy($0)", item),
+                (command, gameState, display) -> gameState.destroy(item));
     }
 
     /**
@@ -199,4 +222,60 @@ public final class Results {
     public static Result setString(String name, String value) {
         return (command, gameState, display) -> gameState.setString(name, value);
     }
+
+    /**
+     * Sets the flag in the given slot to TRUE or FALSE.
+     */
+    public static Result setFlag(Slot flag, boolean value) {
+        return inlined(InlineCode.of("gameState.setFlag($0, $1)", flag, value),
+                (command, gameState, display) -> gameState.setFlag(flag, value));
+    }
+
+    /**
+     * Resets the flag in the given slot to FALSE
+     */
+    public static Result resetFlag(Slot flag) {
+        return inlined(InlineCode.of("gameState.setFlag($0, false)", flag),
+                (command, gameState, display) -> gameState.setFlag(flag, false));
+    }
+
+    /**
+     * Sets the counter in the given slot to integer VALUE
+     */
+    public static Result setCounter(Slot counter, int value) {
+        return inlined(InlineCode.of("gameState.setCounter($0, $1)", counter, value),
+                (command, gameState, display) -> gameState.setCounter(counter, value));
+    }
+
+    /**
+     * Increments the counter in the given slot by 1
+     */
+    public static Result incrementCounter(Slot counter) {
+        return inlined(InlineCode.of("gameState.setCounter($0, gameState.getCounter($0) + 1)", counter),
+                (command, gameState, display) -> gameState.setCounter(counter, gameState.getCounter(counter) + 1));
+    }
+
+    /**
+     * Decrements the counter in the given slot by 1
+     */
+    public static Result decrementCounter(Slot counter) {
+        return inlined(InlineCode.of("gameState.setCounter($0, gameState.getCounter($0) - 1)", counter),
+                (command, gameState, display) -> gameState.setCounter(counter, gameState.getCounter(counter) - 1));
+    }
+
+    /**
+     * Resets the counter in the given slot to ZERO.
+     */
+    public static Result resetCounter(Slot counter) {
+        return inlined(InlineCode.of("gameState.setCounter($0, 0)", counter),
+                (command, gameState, display) -> gameState.setCounter(counter, 0));
+    }
+
+    /**
+     * Sets the string in the given slot to value
+     */
+    public static Result setString(Slot string, String value) {
+        return inlined(InlineCode.of("gameState.setString($0, $1)", string, value),
+                (command, gameState, display) -> gameState.setString(string, value));
+    }
 }
@@ -5,8 +5,11 @@ import hartman.games.adventureland.engine.Vocabulary;
 import hartman.games.adventureland.engine.Word;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static java.util.stream.Collectors.toCollection;
@@ -39,9 +42,13 @@ public final class Rooms {
             return new RoomExitBuilder(this);
         }
 
-        public void build() {
+        /**
+         * Adds the room and returns it, its exits being resolved once every room is known.
+         */
+        public Room build() {
             RoomHolder roomHolder = new RoomHolder(new Room(name, description), roomExitHolders);
             Rooms.this.roomHolders.add(roomHolder);
+            return roomHolder.getRoom();
         }
 
         void addExit(RoomExitHolder roomExitHolder) {
@@ -147,7 +154,10 @@ public final class Rooms {
     }
 
     private void resolveExits() {
-        // resolve the room names to each exit to point to the referenced room object
+        // resolve the room names to each exit to point to the referenced room object, the first room of a name winning
+        Map<String, Room> roomsByName = new HashMap<>(roomHolders.size() * 2);
+        roomHolders.forEach(roomHolder -> roomsByName.putIfAbsent(roomHolder.getRoomName(), roomHolder.getRoom()));
+
         roomHolders.forEach(roomHolder ->
                 roomHolder.getExits().forEach(roomExitHolder -> {
 
@@ -157,14 +167,11 @@ public final class Rooms {
                         roomHolder.setExitTowardsSelf(roomExitHolder.getDirection());
 
                     } else {
-                        roomHolders.stream()
-                                .filter(holder -> holder.getRoomName().equals(exitRoomName))
-                                .map(RoomHolder::getRoom)
-                                .findFirst()
-                                .<Runnable>map(room -> () -> roomHolder.setExit(roomExitHolder.getDirection(), room))
-                                .orElse(() -> {
-                                    throw new IllegalStateException(String.format("Invalid exit. Room %s is not defined.", exitRoomName));
-                                }).run(); // could be replaced with Java 9 ifPresentOrElse
+                        Room room = roomsByName.get(exitRoomName);
+                        if (null == room) {
+                            throw new IllegalStateException(String.format("Invalid exit. Room %s is not defined.", exitRoomName));
+                        }
+                        roomHolder.setExit(roomExitHolder.getDirection(), room);
                     }
                 }));
     }
@@ -173,4 +180,11 @@ public final class Rooms {
         return new Vocabulary(words);
     }
 
+    /**
+     * The directions of the exits declared so far, for building a vocabulary together with other words.
+     */
+    public Set<Word> getWords() {
+        return Collections.unmodifiableSet(words);
+    }
+
 }
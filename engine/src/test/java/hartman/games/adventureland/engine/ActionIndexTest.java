@@ -0,0 +1,109 @@
+package hartman.games.adventureland.engine;
+
+import hartman.games.adventureland.engine.core.Actions;
+import org.junit.Before;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ActionIndexTest {
+
+    private final Word take = new Word("take", "get");
+    private final Word drop = new Word("drop");
+    private final Word lamp = new Word("lamp");
+
+    private Action takeLamp;
+    private Action anything;
+    private Action dropOrTake;
+    private Action gibberish;
+    private Action always;
+    private Action nothing;
+    private Vocabulary vocabulary;
+    private ActionIndex index;
+
+    @Before
+    public void setUp() {
+        Actions actions = Actions.newActionSet();
+        takeLamp = actions.newAction().on(take).with(lamp).build();
+        anything = actions.newAction().onAnyFirstWord().build();
+        dropOrTake = actions.newAction().onAnyFirstWords(drop, take).build();
+        gibberish = actions.newAction().onUnrecognizedFirstWord().build();
+        always = actions.newAction().build();
+        nothing = actions.newAction().onNoFirstWord().build();
+        vocabulary = actions.buildVocabulary();
+        index = new ActionIndex(actions.copyOfActions(), vocabulary);
+    }
+
+    @Test
+    public void candidatesShouldBeKeyedActionsMergedInDeclarationOrder() {
+        assertEquals(asList(takeLamp, anything, dropOrTake, always), index.candidates(new Command(take, lamp)));
+        assertEquals(asList(anything, dropOrTake, always), index.candidates(new Command(drop)));
+    }
+
+    @Test
+    public void candidatesShouldIncludeActionsOnSynonyms() {
+        assertEquals(asList(takeLamp, anything, dropOrTake, always), index.candidates(new Command(new Word("get"))));
+    }
+
+    @Test
+    public void candidatesForVocabularyWordsShouldBeWorkedOutInAdvance() {
+        Word get = vocabulary.findMatch("get").get();
+        assertEquals(asList(takeLamp, anything, dropOrTake, always), index.candidates(new Command(get)));
+        assertSame(index.candidates(new Command(get)), index.candidates(new Command(get, lamp)));
+        assertSame(index.candidates(new Command(Word.unrecognized("xyzzy"))), index.candidates(new Command(Word.unrecognized("plugh"))));
+    }
+
+    @Test
+    public void candidatesForVocabularyWordsShouldShareActionsOnEveryWord() {
+        ActionIndex.Candidates takeCandidates = index.candidates(new Command(vocabulary.findMatch("take").get()));
+        ActionIndex.Candidates dropCandidates = index.candidates(new Command(vocabulary.findMatch("drop").get()));
+        assertSame(takeCandidates.sharedOrdinals(), dropCandidates.sharedOrdinals());
+        assertArrayEquals(new int[]{2}, dropCandidates.keyedOrdinals());
+    }
+
+    @Test
+    public void candidatesShouldListActionOnAnyAndAnotherWordOnce() {
+        Actions actions = Actions.newActionSet();
+        Action anyOrTake = actions.newAction().onAnyFirstWords(Word.ANY, take).build();
+        Action takeAgain = actions.newAction().on(take).build();
+        ActionIndex index = new ActionIndex(actions.copyOfActions(), actions.buildVocabulary());
+        assertEquals(asList(anyOrTake, takeAgain), index.candidates(new Command(take)));
+    }
+
+    @Test
+    public void candidatesForUnrecognizedWordShouldIncludeUnrecognizedActions() {
+        assertEquals(asList(anything, gibberish, always), index.candidates(new Command(Word.unrecognized("xyzzy"))));
+    }
+
+    @Test
+    public void candidatesForNoWordShouldIncludeOnlyNoWordActions() {
+        assertEquals(asList(always, nothing), index.candidates(new Command(Word.NONE)));
+    }
+
+    @Test
+    public void candidatesForEmptyCommandShouldBeUnkeyedActions() {
+        assertEquals(singletonList(always), index.candidates(Command.NONE));
+        assertEquals(emptyList(), new ActionIndex(Actions.newActionSet().copyOfActions(), null).candidates(Command.NONE));
+    }
+
+    @Test
+    public void candidatesShouldNeverLeaveOutAnActionWhichWouldRun() {
+        Command[] commands = {new Command(take, lamp), new Command(new Word("GET")), new Command(drop), new Command(lamp),
+                new Command(Word.NONE), new Command(Word.ANY), new Command(Word.unrecognized("xyzzy")), Command.NONE};
+        GameState gameState = new GameState(Room.NOWHERE, emptySet());
+        for (Command command : commands) {
+            for (Action action : asList(takeLamp, anything, dropOrTake, gibberish, always, nothing)) {
+                if (action.run(gameState, new TestDisplay(), command)) {
+                    assertTrue(action + " should be a candidate for " + command, index.candidates(command).contains(action));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package hartman.games.adventureland.engine;
+
+import hartman.games.adventureland.engine.Slots.Slot;
+import hartman.games.adventureland.engine.core.Actions;
+import hartman.games.adventureland.engine.core.DefaultCommandInterpreter;
+import hartman.games.adventureland.engine.core.DefaultDisplay;
+import org.junit.Test;
+
+import javax.tools.ToolProvider;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Scanner;
+import java.util.Set;
+
+import static hartman.games.adventureland.engine.core.Conditions.carrying;
+import static hartman.games.adventureland.engine.core.Conditions.compareCounter;
+import static hartman.games.adventureland.engine.core.Conditions.counterGreaterThan;
+import static hartman.games.adventureland.engine.core.Conditions.counterLessThan;
+import static hartman.games.adventureland.engine.core.Conditions.hasExitMatchingCommandWordAt;
+import static hartman.games.adventureland.engine.core.Conditions.here;
+import static hartman.games.adventureland.engine.core.Conditions.in;
+import static hartman.games.adventureland.engine.core.Conditions.isFlagSet;
+import static hartman.games.adventureland.engine.core.Conditions.not;
+import static hartman.games.adventureland.engine.core.Conditions.present;
+import static hartman.games.adventureland.engine.core.Results.get;
+import static hartman.games.adventureland.engine.core.Results.goInDirectionMatchingCommandWordAt;
+import static hartman.games.adventureland.engine.core.Results.incrementCounter;
+import static hartman.games.adventureland.engine.core.Results.look;
+import static hartman.games.adventureland.engine.core.Results.println;
+import static hartman.games.adventureland.engine.core.Results.quit;
+import static hartman.games.adventureland.engine.core.Results.resetFlag;
+import static hartman.games.adventureland.engine.core.Results.setFlag;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class AdventureCompilerTest {
+
+    private static final String[] WALK = {"look", "get lamp", "north", "get lamp", "look", "south", "south", "xyzzy", "north", "quit"};
+
+    private static Adventure adventure() {
+        Word north = new Word("north", "n");
+        Word south = new Word("south", "s");
+        Word get = new Word("get");
+        Word lamp = new Word("lamp");
+        Room hall = new Room("hall", "a hall");
+        Room cellar = new Room("cellar", "a cellar");
+        hall.setExit(north, cellar);
+        cellar.setExit(south, hall);
+        Item lampItem = Item.newItem("lamp").describedAs("a lamp").portable().in(cellar).build();
+
+        Slots slots = new Slots();
+        Slot turns = slots.counter("turns");
+        Actions actions = Actions.newActionSet();
+        actions.newAction().onAnyFirstWords(north, south).when(hasExitMatchingCommandWordAt(1)).then(goInDirectionMatchingCommandWordAt(1)).build();
+        actions.newAction().onAnyFirstWords(north, south).then(println("I can't go that way.")).build();
+        actions.newAction().on(get).with(lamp).when(here(lampItem)).then(get(lampItem)).andThen(println("Got it.")).build();
+        actions.newAction().on(get).then(println("I don't see it here.")).build();
+        actions.newAction().on(new Word("look")).then(look).build();
+        actions.newAction().on(new Word("quit")).then(quit).build();
+        actions.newAction().onUnrecognizedFirstWord().then(println("What?")).build();
+
+        Actions occurs = Actions.newActionSet();
+        occurs.newAction().then(incrementCounter(turns)).build();
+        occurs.newAction().when(in(cellar)).and(carrying(lampItem)).then(println("The lamp glows.")).build();
+        occurs.newAction().when(compareCounter(turns, count -> count % 4 == 0)).then(println("Time passes.", slots)).build();
+
+        return new Adventure(actions.buildVocabulary(), occurs.copyOfActions(), actions.copyOfActions(), singleton(lampItem),
+                new LinkedHashSet<>(asList(hall, cellar)), hall, slots);
+    }
+
+    private static String play(Adventure adventure, String... lines) {
+        StringBuilder out = new StringBuilder();
+        Display display = new DefaultDisplay(out);
+        CommandInterpreter interpreter = new DefaultCommandInterpreter(new Scanner(String.join("\n", lines)), adventure.getVocabulary());
+        new Game(adventure, interpreter, display, new GameState(adventure)).run();
+        return out.toString();
+    }
+
+    @Test
+    public void compiledAdventureShouldPlayLikeTheInterpretedOne() {
+        Adventure interpreted = adventure();
+        Adventure compiled = new AdventureCompiler().compile(interpreted);
+        assumeTrue("needs the system Java compiler", compiled.isCompiled());
+
+        assertFalse(interpreted.isCompiled());
+        assertEquals(play(interpreted, WALK), play(compiled, WALK));
+        assertTrue(play(compiled, WALK).contains("The lamp glows."));
+    }
+
+    @Test
+    public void compiledAdventureShouldShareEverythingButItsRules() {
+        Adventure interpreted = adventure();
+        Adventure compiled = new AdventureCompiler().compile(interpreted);
+        assumeTrue("needs the system Java compiler", compiled.isCompiled());
+
+        assertSame(interpreted.getVocabulary(), compiled.getVocabulary());
+        assertSame(interpreted.getActions(), compiled.getActions());
+        assertSame(interpreted.getOccurs(), compiled.getOccurs());
+        assertSame(interpreted.getSlots(), compiled.getSlots());
+        assertSame(compiled, new AdventureCompiler().compile(compiled));
+    }
+
+    @Test
+    public void builtInConditionsAndResultsShouldRunAsInlineCode() {
+        String source = AdventureCompiler.generate("Rules", adventure().getRulesInOrder(), 3);
+
+        assertTrue(source.matches("(?s).*gameState\\.setCounter\\((k\\d+), gameState\\.getCounter\\(\\1\\) \\+ 1\\);.*"));
+        assertTrue(source.contains("(gameState.carrying(k"));
+        assertTrue("a custom condition is called", source.contains("c[2][0].matches(command, gameState)"));
+        assertFalse(source.contains("c[1][1].matches(command, gameState)"));
+    }
+
+    @Test
+    public void combinedBuiltInConditionsShouldPlayLikeTheInterpretedOnes() {
+        Room hall = new Room("hall", "a hall");
+        Item lamp = Item.newItem("lamp").describedAs("a lamp").portable().in(hall).build();
+        Slots slots = new Slots();
+        Slot lit = slots.flag("lit");
+        Slot turns = slots.counter("turns");
+        Actions occurs = Actions.newActionSet();
+        occurs.newAction().then(incrementCounter(turns)).build();
+        occurs.newAction().when(not(isFlagSet(lit))).and(present(lamp)).and(counterLessThan(turns, 3))
+                .then(println("Dark.")).andThen(setFlag(lit, true)).build();
+        occurs.newAction().when(isFlagSet(lit)).and(counterGreaterThan(turns, 1)).then(resetFlag(lit)).build();
+        Actions actions = Actions.newActionSet();
+        actions.newAction().on(new Word("wait")).build();
+        actions.newAction().on(new Word("quit")).then(quit).build();
+        Adventure interpreted = new Adventure(actions.buildVocabulary(), occurs.copyOfActions(), actions.copyOfActions(),
+                singleton(lamp), singleton(hall), hall, slots);
+        Adventure compiled = new AdventureCompiler().compile(interpreted);
+        assumeTrue("needs the system Java compiler", compiled.isCompiled());
+
+        String[] lines = {"wait", "wait", "wait", "quit"};
+        assertEquals(play(interpreted, lines), play(compiled, lines));
+    }
+
+    @Test
+    public void generatedClassesShouldShareClassLoaders() {
+        Set<ClassLoader> loaders = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            Adventure compiled = new AdventureCompiler().compile(adventure());
+            assumeTrue("needs the system Java compiler", compiled.isCompiled());
+            loaders.add(compiled.getRules().getClass().getClassLoader());
+        }
+        // a new loader may have been started in between, but not for every class
+        assertTrue(loaders.size() <= 2);
+    }
+
+    @Test
+    public void adventureShouldBeInterpretedWithoutACompiler() {
+        Adventure adventure = adventure();
+        assertSame(adventure, new AdventureCompiler(null).compile(adventure));
+    }
+
+    @Test
+    public void manyRulesShouldBeSplitAcrossMethods() {
+        assumeTrue("needs the system Java compiler", ToolProvider.getSystemJavaCompiler() != null);
+        Slots slots = new Slots();
+        Slot count = slots.counter("count");
+        Actions occurs = Actions.newActionSet();
+        for (int i = 0; i < 5000; i++) {
+            int n = i;
+            occurs.newAction().when(compareCounter(count, c -> c == n)).then(incrementCounter(count)).build();
+        }
+        Adventure adventure = new AdventureCompiler().compile(
+                new Adventure(new Vocabulary(emptySet()), occurs.copyOfActions(), emptySet(), emptySet(), emptySet(), Room.NOWHERE, slots));
+
+        assertTrue(adventure.isCompiled());
+        assertTrue(AdventureCompiler.generate("Rules", adventure.getRulesInOrder(), 5000).contains("matches156("));
+        GameState gameState = new Game(adventure, () -> Command.NONE, new TestDisplay(), new GameState(adventure)).start();
+        assertEquals(5000, gameState.getCounter(count));
+    }
+
+    @Test
+    public void occursWithNothingToSkipShouldRunInAStraightLine() {
+        Slots slots = new Slots();
+        Slot count = slots.counter("count");
+        Actions occurs = Actions.newActionSet();
+        for (int i = 0; i < 100; i++) {
+            int n = i;
+            // a condition which doesn't say what it reads is evaluated every time
+            occurs.newAction().when((command, gameState) -> gameState.getCounter(count) % 3 == n % 3).then(incrementCounter(count)).build();
+        }
+        occurs.newAction().then(incrementCounter(count)).build();
+        Adventure interpreted = new Adventure(new Vocabulary(emptySet()), occurs.copyOfActions(), emptySet(), emptySet(), emptySet(), Room.NOWHERE, slots);
+        Adventure compiled = new AdventureCompiler().compile(interpreted);
+        assumeTrue("needs the system Java compiler", compiled.isCompiled());
+
+        assertTrue(AdventureCompiler.generate("Rules", compiled.getRulesInOrder(), 101).contains("runOccurs3("));
+        GameState played = new Game(compiled, () -> Command.NONE, new TestDisplay(), new GameState(compiled)).start();
+        GameState expected = new Game(interpreted, () -> Command.NONE, new TestDisplay(), new GameState(interpreted)).start();
+        assertEquals(expected.getCounter(count), played.getCounter(count));
+    }
+}
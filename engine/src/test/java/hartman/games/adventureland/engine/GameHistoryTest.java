@@ -0,0 +1,104 @@
+package hartman.games.adventureland.engine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GameHistoryTest {
+
+    private GameState gameState;
+    private GameHistory history;
+
+    @Before
+    public void setUp() {
+        gameState = new GameState(Room.NOWHERE);
+        history = new GameHistory(3);
+    }
+
+    private void turn(int moves) {
+        gameState.setCounter("moves", moves);
+        history.record(gameState);
+    }
+
+    @Test
+    public void undoShouldStepBackOneVersionAtATime() {
+        turn(0);
+        turn(1);
+        turn(2);
+
+        assertEquals(1, history.undo().get().getCounter("moves"));
+        assertEquals(0, history.undo().get().getCounter("moves"));
+        assertFalse(history.canUndo());
+        assertFalse(history.undo().isPresent());
+    }
+
+    @Test
+    public void redoShouldStepForwardAgain() {
+        turn(0);
+        turn(1);
+        history.undo();
+
+        assertTrue(history.canRedo());
+        assertEquals(1, history.redo().get().getCounter("moves"));
+        assertFalse(history.redo().isPresent());
+    }
+
+    @Test
+    public void recordingAfterUndoShouldDropWhatCouldHaveBeenRedone() {
+        turn(0);
+        turn(1);
+        gameState = history.undo().get();
+        turn(5);
+
+        assertFalse(history.canRedo());
+        assertEquals(0, history.undo().get().getCounter("moves"));
+    }
+
+    @Test
+    public void oldestVersionsShouldBeDroppedOnceFull() {
+        for (int moves = 0; moves < 10; moves++) {
+            turn(moves);
+        }
+
+        assertEquals(8, history.undo().get().getCounter("moves"));
+        assertEquals(7, history.undo().get().getCounter("moves"));
+        assertFalse(history.canUndo());
+    }
+
+    @Test
+    public void versionsShouldNotChangeWithTheGame() {
+        turn(0);
+        gameState.setCounter("moves", 99);
+        turn(1);
+
+        GameState undone = history.undo().get();
+        undone.setCounter("moves", 42);
+
+        history.redo();
+        assertEquals(0, history.undo().get().getCounter("moves"));
+    }
+
+    @Test
+    public void restoreShouldReturnTheStateSavedUnderTheName() {
+        Room cave = new Room("cave", "A cave.");
+        Item sword = new Item.Builder().named("sword").in(cave).portable().build();
+        GameState gameState = new GameState(cave, singleton(sword));
+        history.save("before", gameState);
+        gameState.putInInventory(sword);
+        history.save("after", gameState);
+
+        assertTrue(history.restore("before").get().inRoom(sword, cave));
+        assertTrue(history.restore("after").get().carrying(sword));
+        assertFalse(history.restore("elsewhere").isPresent());
+        assertEquals(2, history.getSaveNames().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityShouldBeAtLeastTwo() {
+        new GameHistory(1);
+    }
+}
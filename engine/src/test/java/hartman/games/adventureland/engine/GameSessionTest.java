@@ -0,0 +1,111 @@
+package hartman.games.adventureland.engine;
+
+import hartman.games.adventureland.engine.core.Actions;
+import hartman.games.adventureland.engine.core.QueuedCommandInterpreter;
+import hartman.games.adventureland.engine.core.Results;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static hartman.games.adventureland.engine.core.Results.incrementCounter;
+import static java.util.Collections.emptySet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GameSessionTest {
+
+    private Adventure adventure;
+    private Slots.Slot turns;
+
+    @Before
+    public void setupAdventure() {
+        Slots slots = new Slots();
+        turns = slots.counter("turns");
+        Actions actions = Actions.newActionSet();
+        actions.newAction().on(new Word("wait")).then(incrementCounter(turns)).build();
+        actions.newAction().on(new Word("quit")).then(Results.quit).build();
+        adventure = new Adventure(actions.buildVocabulary(), emptySet(), actions.copyOfActions(), emptySet(), emptySet(), Room.NOWHERE, slots);
+    }
+
+    private GameSession newSession(QueuedCommandInterpreter interpreter, Executor executor) {
+        Game game = new Game(adventure, () -> Command.NONE, new TestDisplay(), new GameState(adventure));
+        return new GameSession(game, interpreter, executor);
+    }
+
+    @Test
+    public void sessionShouldTakeTurnsAsCommandsArrive() throws Exception {
+        QueuedCommandInterpreter interpreter = new QueuedCommandInterpreter(adventure.getVocabulary());
+        CompletableFuture<GameState> over = newSession(interpreter, Runnable::run).start();
+
+        interpreter.accept("wait");
+        interpreter.accept("");
+        interpreter.accept("wait");
+        assertFalse(over.isDone());
+
+        interpreter.accept("quit");
+        assertTrue(over.isDone());
+        assertEquals(2, over.get().getCounter(turns));
+    }
+
+    @Test
+    public void sessionShouldTakeCommandsWhichArrivedBeforeItStarted() throws Exception {
+        QueuedCommandInterpreter interpreter = new QueuedCommandInterpreter(adventure.getVocabulary());
+        interpreter.accept("wait");
+        interpreter.accept("quit");
+
+        assertEquals(1, newSession(interpreter, Runnable::run).start().get().getCounter(turns));
+    }
+
+    @Test
+    public void sessionShouldEndWhenInputIsClosed() throws Exception {
+        QueuedCommandInterpreter interpreter = new QueuedCommandInterpreter(adventure.getVocabulary());
+        CompletableFuture<GameState> over = newSession(interpreter, Runnable::run).start();
+
+        interpreter.accept("wait");
+        interpreter.close();
+
+        try {
+            over.get();
+            fail("Expected session to end exceptionally.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void manySessionsShouldShareFewThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<QueuedCommandInterpreter> interpreters = new ArrayList<>();
+            List<CompletableFuture<GameState>> sessions = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                QueuedCommandInterpreter interpreter = new QueuedCommandInterpreter(adventure.getVocabulary());
+                interpreters.add(interpreter);
+                sessions.add(newSession(interpreter, executor).start());
+            }
+            for (int turn = 0; turn < 10; turn++) {
+                for (QueuedCommandInterpreter interpreter : interpreters) {
+                    interpreter.accept("wait");
+                }
+            }
+            interpreters.forEach(interpreter -> interpreter.accept("quit"));
+
+            CompletableFuture.allOf(sessions.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+            for (CompletableFuture<GameState> session : sessions) {
+                assertEquals(10, session.get().getCounter(turns));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
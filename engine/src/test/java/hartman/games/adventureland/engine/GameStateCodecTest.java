@@ -0,0 +1,185 @@
+package hartman.games.adventureland.engine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GameStateCodecTest {
+
+    private Room hall;
+    private Room cellar;
+    private Item lamp;
+    private Item rope;
+    private Item ghost;
+    private Adventure adventure;
+    private GameStateCodec codec;
+
+    @Before
+    public void setUp() {
+        hall = new Room("hall", "A great hall.");
+        cellar = new Room("cellar", "A musty cellar.");
+        hall.setExit(new Word("down"), cellar);
+        cellar.setExit(new Word("up"), hall);
+        lamp = new Item.Builder().named("lamp").alias("lantern").in(hall).portable().build();
+        rope = new Item.Builder().named("rope").in(cellar).portable().build();
+        ghost = new Item.Builder().named("ghost").build();
+        adventure = new Adventure(new Vocabulary(emptySet()), emptySet(), emptySet(), new LinkedHashSet<>(asList(lamp, rope, ghost)), hall);
+        codec = new GameStateCodec(adventure);
+    }
+
+    @Test
+    public void decodedStateShouldEqualEncodedState() {
+        GameState gameState = new GameState(adventure);
+        gameState.exitTowards(new Word("down"));
+        gameState.putInInventory(lamp);
+        gameState.drop(ghost, cellar);
+        gameState.destroy(rope);
+        gameState.setFlag("lit", true);
+        gameState.setFlag("scared", false);
+        gameState.setCounter("moves", 42);
+        gameState.setCounter("debt", -7);
+        gameState.setString("name", "Archie");
+
+        GameState actual = codec.decode(codec.encode(gameState));
+
+        assertEquals(gameState, actual);
+        assertSame("rooms come from the adventure", cellar, actual.getCurrentRoom());
+        assertTrue(actual.carrying(lamp));
+        assertFalse(actual.exists(rope));
+        assertEquals(-7, actual.getCounter("debt"));
+    }
+
+    @Test
+    public void decodedStateShouldKeepNamesWithoutSlotsByName() {
+        GameState gameState = new GameState(adventure);
+        gameState.setFlag("lit");
+        gameState.setCounter("moves", -3);
+        gameState.setString("name", "Archie");
+
+        GameState actual = codec.decode(codec.encode(gameState));
+
+        assertEquals(gameState, actual);
+        assertTrue(actual.getFlag("lit"));
+        assertEquals(-3, actual.getCounter("moves"));
+        assertEquals("Archie", actual.getString("name"));
+        assertEquals(0, adventure.getSlots().size(Slots.Kind.FLAG));
+    }
+
+    @Test
+    public void decodedStateShouldRememberGameOver() {
+        GameState gameState = new GameState(adventure);
+        gameState.quit();
+
+        assertFalse(codec.decode(codec.encode(gameState)).isRunning());
+    }
+
+    @Test
+    public void encodedStateShouldBeMuchSmallerThanSerializedState() throws IOException {
+        GameState gameState = new GameState(adventure);
+        gameState.setCounter("moves", 300);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(gameState);
+        }
+
+        int encodedSize = codec.encode(gameState).length;
+        assertTrue(String.format("encoded %d bytes, serialized %d bytes", encodedSize, baos.size()), encodedSize * 10 < baos.size());
+    }
+
+    @Test
+    public void decodedStateShouldRollLikeEncodedState() {
+        GameState gameState = new GameState(adventure);
+        gameState.seedRandom(7);
+        gameState.nextRandom(100);
+
+        GameState actual = codec.decode(codec.encode(gameState));
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(gameState.nextRandom(100), actual.nextRandom(100));
+        }
+    }
+
+    @Test
+    public void encodedStateShouldOnlyGrowWithTheItemsWhichMoved() {
+        Set<Item> manyItems = new LinkedHashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            manyItems.add(new Item.Builder().named("coin" + i).in(hall).build());
+        }
+        Adventure rich = new Adventure(new Vocabulary(emptySet()), emptySet(), emptySet(), manyItems, hall);
+        GameStateCodec richCodec = new GameStateCodec(rich);
+        GameState gameState = new GameState(rich);
+        int unmovedSize = richCodec.encode(gameState).length;
+
+        Item coin = rich.getItemIndex().get(500);
+        gameState.drop(coin, Room.NOWHERE);
+        byte[] blob = richCodec.encode(gameState);
+
+        assertTrue(String.format("%d bytes for 1000 items", unmovedSize), unmovedSize < 32);
+        assertTrue(String.format("%d bytes with one item moved", blob.length), blob.length - unmovedSize <= 3);
+        assertFalse(richCodec.decode(blob).exists(coin));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeShouldRejectStateOfAReplacedScript() {
+        byte[] blob = codec.encode(new GameState(adventure));
+
+        // the same rooms and items in another order would give the ids of the blob other meanings
+        Adventure replaced = new Adventure(new Vocabulary(emptySet()), emptySet(), emptySet(),
+                new LinkedHashSet<>(asList(ghost, rope, lamp)), new LinkedHashSet<>(asList(cellar, hall)), hall);
+
+        new GameStateCodec(replaced).decode(blob);
+    }
+
+    @Test
+    public void decodeShouldReadStateAgainstTheSameScriptParsedAgain() {
+        GameState gameState = new GameState(adventure);
+        gameState.exitTowards(new Word("down"));
+        gameState.putInInventory(lamp);
+        byte[] blob = codec.encode(gameState);
+
+        Room newHall = new Room("hall", "A great hall.");
+        Room newCellar = new Room("cellar", "A musty cellar.");
+        Item newLamp = new Item.Builder().named("lamp").alias("lantern").in(newHall).portable().build();
+        Item newRope = new Item.Builder().named("rope").in(newCellar).portable().build();
+        Item newGhost = new Item.Builder().named("ghost").build();
+        Adventure parsedAgain = new Adventure(new Vocabulary(emptySet()), emptySet(), emptySet(),
+                new LinkedHashSet<>(asList(newLamp, newRope, newGhost)), new LinkedHashSet<>(asList(newHall, newCellar)), newHall);
+
+        GameState actual = new GameStateCodec(parsedAgain).decode(blob);
+
+        assertSame(newCellar, actual.getCurrentRoom());
+        assertTrue(actual.carrying(newLamp));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encodeShouldRejectStateOfAnotherAdventure() {
+        codec.encode(new GameState(hall, new LinkedHashSet<>(asList(lamp, rope, ghost))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeShouldRejectUnknownVersion() {
+        byte[] blob = codec.encode(new GameState(adventure));
+        blob[0] = (byte) (GameStateCodec.VERSION + 1);
+        codec.decode(blob);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeShouldRejectStateInARoomTheAdventureDoesNotHave() {
+        Room attic = new Room("attic", "A dusty attic.");
+        Adventure other = new Adventure(new Vocabulary(emptySet()), emptySet(), emptySet(), emptySet(), attic);
+        codec.decode(new GameStateCodec(other).encode(new GameState(other)));
+    }
+}
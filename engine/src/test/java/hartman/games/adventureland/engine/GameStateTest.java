@@ -14,9 +14,11 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 public class GameStateTest {
@@ -39,29 +41,29 @@ public class GameStateTest {
         GameState gameState;
 
         Item cup = new Item.Builder().named("cup").alias("glass").build();
-        assertFalse(cup.isCarried());
         assertFalse(cup.isPortable());
 
         gameState = new GameState(Room.NOWHERE);
         gameState.putInInventory(cup);
-        assertFalse("cup wasn't registered with game state", cup.isCarried());
+        assertFalse("cup wasn't registered with game state", gameState.carrying(cup));
 
         gameState = new GameState(Room.NOWHERE, singleton(cup));
+        assertFalse(gameState.carrying(cup));
         gameState.putInInventory(cup);
-        assertFalse("cup isn't portable", cup.isCarried());
+        assertFalse("cup isn't portable", gameState.carrying(cup));
 
         Item bowl = new Item.Builder().named("bowl").portable().build();
-        assertFalse(bowl.isCarried());
         assertTrue(bowl.isPortable());
 
         gameState = new GameState(Room.NOWHERE, singleton(bowl));
+        assertFalse(gameState.carrying(bowl));
         gameState.putInInventory(bowl);
-        assertTrue(bowl.isCarried());
+        assertTrue(gameState.carrying(bowl));
 
         Item dog = new Item.Builder().named("dog").alias("archie").portable().build();
         gameState = new GameState(Room.NOWHERE, singleton(dog));
         gameState.putInInventory(Item.newItem("archie").build());
-        assertTrue("words matching items can be put into inventory", dog.isCarried());
+        assertTrue("words matching items can be put into inventory", gameState.carrying(dog));
     }
 
     @Test
@@ -114,33 +116,32 @@ public class GameStateTest {
 
         Item marker = new Item.Builder().named("marker").in(conferenceRoom).portable().build();
 
-        assertFalse(marker.isCarried());
-        assertTrue(marker.isHere(conferenceRoom));
-
         GameState gameState;
 
         gameState = new GameState(conferenceRoom, singleton(marker));
+        assertFalse(gameState.carrying(marker));
+        assertTrue(gameState.inRoom(marker, conferenceRoom));
         gameState.drop(marker);
-        assertTrue("marker should already be here", marker.isHere(conferenceRoom));
+        assertTrue("marker should already be here", gameState.inRoom(marker, conferenceRoom));
 
         Item wallet = new Item.Builder().named("wallet").inInventory().build();
         gameState = new GameState(conferenceRoom /* no items on purpose */);
         gameState.drop(wallet);
-        assertFalse("item missing from gamestate", wallet.isHere(conferenceRoom));
+        assertFalse("item missing from gamestate", gameState.inRoom(wallet, conferenceRoom));
 
         gameState = new GameState(conferenceRoom, singleton(wallet));
         gameState.drop(wallet);
-        assertTrue(wallet.isHere(conferenceRoom));
+        assertTrue(gameState.inRoom(wallet, conferenceRoom));
 
         Item carrot = new Item.Builder().named("carrot").build();
         gameState = new GameState(conferenceRoom, singleton(carrot));
         gameState.drop(carrot);
-        assertTrue(carrot.isHere(conferenceRoom));
+        assertTrue(gameState.inRoom(carrot, conferenceRoom));
 
         Item candy = new Item.Builder().named("pez").alias("candy").build();
         gameState = new GameState(conferenceRoom, singleton(candy));
         gameState.drop(candy);
-        assertTrue(candy.isHere(conferenceRoom));
+        assertTrue(gameState.inRoom(candy, conferenceRoom));
     }
 
     @Test
@@ -155,7 +156,7 @@ public class GameStateTest {
 
         gameState.destroy(hammer);
         assertFalse(gameState.exists(hammer));
-        assertTrue(hammer.isDestroyed());
+        assertTrue(gameState.inRoom(hammer, Room.NOWHERE));
 
         Item screwdriver = new Item.Builder().named("screwdriver").alias("flathead screwdriver").in(shed).build();
         gameState = new GameState(Room.NOWHERE, singleton(screwdriver));
@@ -163,7 +164,7 @@ public class GameStateTest {
 
         gameState.destroy(screwdriver);
         assertFalse(gameState.exists(screwdriver));
-        assertTrue(screwdriver.isDestroyed());
+        assertTrue(gameState.inRoom(screwdriver, Room.NOWHERE));
 
     }
 
@@ -192,4 +193,229 @@ public class GameStateTest {
         assertEquals(gameState, actual);
 
     }
+
+    @Test
+    public void gamesOfTheSameAdventureShouldNotShareItemLocations() {
+        Room cave = new Room("cave", "A damp cave.");
+        Item torch = new Item.Builder().named("torch").in(cave).portable().build();
+        Adventure adventure = new Adventure(new Vocabulary(emptySet()), emptySet(), emptySet(), singleton(torch), cave);
+
+        GameState game1 = new GameState(adventure);
+        GameState game2 = new GameState(adventure);
+        game1.putInInventory(torch);
+
+        assertTrue(game1.carrying(torch));
+        assertFalse(game2.carrying(torch));
+        assertTrue(game2.inRoom(torch, cave));
+        assertEquals(cave, torch.getStartingRoom());
+    }
+
+    @Test
+    public void slotsShouldShareStorageWithNames() {
+        Slots slots = new Slots();
+        Slots.Slot flag = slots.flag("lit");
+        Slots.Slot counter = slots.counter("lit");
+        Slots.Slot string = slots.string("lit");
+        Slots.Slot unset = slots.string("unset");
+        Adventure adventure = new Adventure(new Vocabulary(emptySet()), emptySet(), emptySet(), emptySet(), emptySet(), Room.NOWHERE, slots);
+        GameState gameState = new GameState(adventure);
+
+        gameState.setFlag(flag, true);
+        gameState.setCounter(counter, 3);
+        gameState.setString("lit", "yes");
+
+        assertTrue(gameState.getFlag("lit"));
+        assertEquals(3, gameState.getCounter("lit"));
+        assertEquals("yes", gameState.getString(string));
+        assertEquals("", gameState.getString(unset));
+    }
+
+    @Test
+    public void writingUndeclaredNamesShouldNotAllocateSlots() {
+        Slots slots = new Slots();
+        Adventure adventure = new Adventure(new Vocabulary(emptySet()), emptySet(), emptySet(), emptySet(), emptySet(), Room.NOWHERE, slots);
+        GameState gameState = new GameState(adventure);
+
+        gameState.setFlag("lit");
+        gameState.setCounter(new Slots().counter("moves"), 3);
+        gameState.setString("name", "Archie");
+
+        assertTrue(gameState.getFlag("lit"));
+        assertEquals(3, gameState.getCounter("moves"));
+        assertEquals("Archie", gameState.getString("name"));
+        assertEquals(0, slots.size(Slots.Kind.FLAG));
+        assertEquals(0, slots.size(Slots.Kind.COUNTER));
+        assertEquals(0, slots.size(Slots.Kind.STRING));
+    }
+
+    @Test
+    public void undeclaredNamesShouldBeCopiedBeforeSnapshotWritesThem() {
+        GameState gameState = new GameState(Room.NOWHERE);
+        gameState.setCounter("moves", 1);
+        GameState snapshot = gameState.snapshot();
+
+        snapshot.setCounter("moves", 2);
+        snapshot.setFlag("lit");
+
+        assertEquals(1, gameState.getCounter("moves"));
+        assertFalse(gameState.getFlag("lit"));
+        assertEquals(2, snapshot.getCounter("moves"));
+    }
+
+    @Test
+    public void readingUnknownNamesShouldNotAllocateSlots() {
+        Slots slots = new Slots();
+        Adventure adventure = new Adventure(new Vocabulary(emptySet()), emptySet(), emptySet(), emptySet(), emptySet(), Room.NOWHERE, slots);
+        GameState gameState = new GameState(adventure);
+
+        assertFalse(gameState.getFlag("lit"));
+        assertEquals(0, gameState.getCounter("moves"));
+        assertEquals("", gameState.getString("name"));
+        gameState.resetFlag("lit");
+        gameState.resetCounter("moves");
+
+        assertEquals(0, slots.size(Slots.Kind.FLAG));
+        assertEquals(0, slots.size(Slots.Kind.COUNTER));
+        assertEquals(0, slots.size(Slots.Kind.STRING));
+    }
+
+    @Test
+    public void slotsOfAnotherTableShouldBeResolvedByName() {
+        Slots other = new Slots();
+        other.counter("padding");
+        GameState gameState = new GameState(Room.NOWHERE);
+
+        gameState.setCounter(other.counter("moves"), 7);
+
+        assertEquals(7, gameState.getCounter("moves"));
+        assertEquals(0, gameState.getCounter("padding"));
+    }
+
+    @Test
+    public void gameStatesShouldBeEqualGivenSameValuesInDifferentSlots() {
+        GameState gameState1 = new GameState(Room.NOWHERE);
+        gameState1.setCounter("a", 1);
+        gameState1.setCounter("b", 2);
+        GameState gameState2 = new GameState(Room.NOWHERE);
+        gameState2.setCounter("b", 2);
+        gameState2.setCounter("a", 1);
+        gameState2.setFlag("unset", false);
+
+        assertEquals(gameState1, gameState2);
+        assertEquals(gameState1.hashCode(), gameState2.hashCode());
+
+        gameState2.setFlag("set");
+        assertNotEquals(gameState1, gameState2);
+    }
+
+    @Test
+    public void itemsInRoomShouldStayInDeclarationOrderAsTheyMove() {
+        Room kitchen = new Room("kitchen", "A kitchen.");
+        Item knife = new Item.Builder().named("knife").in(kitchen).portable().build();
+        Item fork = new Item.Builder().named("fork").portable().build();
+        Item spoon = new Item.Builder().named("spoon").in(kitchen).portable().build();
+        GameState gameState = new GameState(kitchen, new LinkedHashSet<>(asList(knife, fork, spoon)));
+
+        List<Item> itemsSeen = new ArrayList<>();
+        TestDisplay display = new TestDisplay() {
+            @Override
+            public void look(Room room, List<Item> itemsInRoom) {
+                itemsSeen.clear();
+                itemsSeen.addAll(itemsInRoom);
+            }
+        };
+
+        gameState.putInInventory(knife);
+        gameState.drop(fork);
+        gameState.drop(knife);
+        gameState.describe(display);
+        assertEquals(asList(knife, fork, spoon), itemsSeen);
+
+        gameState.swap(fork, spoon);
+        gameState.destroy(knife);
+        gameState.describe(display);
+        assertEquals(asList(fork, spoon), itemsSeen);
+        assertFalse(gameState.exists(knife));
+        assertTrue(gameState.hasMoved(fork));
+        assertFalse("swapped within the same room", gameState.hasMoved(spoon));
+    }
+
+    @Test
+    public void gamesSeededAlikeShouldRollAlike() {
+        GameState gameState1 = new GameState(Room.NOWHERE);
+        GameState gameState2 = new GameState(Room.NOWHERE);
+        gameState1.seedRandom(42);
+        gameState2.seedRandom(42);
+
+        for (int i = 0; i < 100; i++) {
+            int roll = gameState1.nextRandom(100);
+            assertEquals(roll, gameState2.nextRandom(100));
+            assertTrue(roll >= 0 && roll < 100);
+        }
+    }
+
+    @Test
+    public void randomSourceShouldSurviveSerialization() throws IOException, ClassNotFoundException {
+        GameState gameState = new GameState(Room.NOWHERE);
+        gameState.nextRandom(6);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(gameState);
+        }
+        GameState actual;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+            actual = (GameState) ois.readObject();
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(gameState.nextRandom(6), actual.nextRandom(6));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nextRandomShouldRejectBoundOfZero() {
+        new GameState(Room.NOWHERE).nextRandom(0);
+    }
+
+    @Test
+    public void snapshotShouldNotSeeChangesMadeAfterIt() {
+        Room kitchen = new Room("kitchen", "A kitchen.");
+        Room cellar = new Room("cellar", "A cellar.");
+        Item cheese = new Item.Builder().named("cheese").in(kitchen).portable().build();
+        GameState gameState = new GameState(kitchen, singleton(cheese));
+        gameState.setCounter("moves", 1);
+
+        GameState snapshot = gameState.snapshot();
+        gameState.setCounter("moves", 2);
+        gameState.setFlag("lit");
+        gameState.setString("name", "Rat");
+        gameState.putInInventory(cheese);
+        gameState.moveTo(cellar);
+
+        assertEquals(1, snapshot.getCounter("moves"));
+        assertFalse(snapshot.getFlag("lit"));
+        assertEquals("", snapshot.getString("name"));
+        assertTrue(snapshot.inRoom(cheese, kitchen));
+        assertEquals(kitchen, snapshot.getCurrentRoom());
+        assertNotEquals(gameState, snapshot);
+    }
+
+    @Test
+    public void changesToSnapshotShouldNotAffectTheOriginal() {
+        Room kitchen = new Room("kitchen", "A kitchen.");
+        Item cheese = new Item.Builder().named("cheese").in(kitchen).portable().build();
+        GameState gameState = new GameState(kitchen, singleton(cheese));
+        gameState.setCounter("moves", 1);
+
+        GameState snapshot = gameState.snapshot();
+        assertEquals(gameState, snapshot);
+        snapshot.setCounter("moves", 5);
+        snapshot.destroy(cheese);
+        snapshot.quit();
+
+        assertEquals(1, gameState.getCounter("moves"));
+        assertTrue(gameState.exists(cheese));
+        assertTrue(gameState.isRunning());
+    }
 }
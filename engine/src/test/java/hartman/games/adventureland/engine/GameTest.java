@@ -1,15 +1,36 @@
 package hartman.games.adventureland.engine;
 
+import hartman.games.adventureland.engine.Slots.Slot;
+import hartman.games.adventureland.engine.core.Actions;
+import hartman.games.adventureland.engine.core.Conditions;
+import hartman.games.adventureland.engine.core.DisplayEvent;
+import hartman.games.adventureland.engine.core.EventDisplay;
+import hartman.games.adventureland.engine.core.Results;
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
 import java.util.LinkedHashSet;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static hartman.games.adventureland.engine.core.Conditions.carrying;
+import static hartman.games.adventureland.engine.core.Conditions.compareCounter;
+import static hartman.games.adventureland.engine.core.Conditions.hasExitMatchingCommandWordAt;
+import static hartman.games.adventureland.engine.core.Conditions.isFlagSet;
+import static hartman.games.adventureland.engine.core.Conditions.not;
+import static hartman.games.adventureland.engine.core.Conditions.random;
+import static hartman.games.adventureland.engine.core.Results.goInDirectionMatchingCommandWordAt;
+import static hartman.games.adventureland.engine.core.Results.gotoRoom;
+import static hartman.games.adventureland.engine.core.Results.incrementCounter;
+import static hartman.games.adventureland.engine.core.Results.println;
+import static hartman.games.adventureland.engine.core.Results.setFlag;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 public class GameTest {
 
@@ -61,4 +82,189 @@ public class GameTest {
         assertEquals(1, gameState.getCounter("quit"));
     }
 
+
+    @Test
+    public void playerShouldBeAbleToUndoAndRestoreTurns() {
+        Word wait = new Word("wait");
+        Slots slots = new Slots();
+        Slot turns = slots.counter("turns");
+        Actions actions = Actions.newActionSet();
+        actions.newAction().on(wait).then(incrementCounter(turns)).build();
+        Vocabulary vocabulary = actions.buildVocabulary();
+        Adventure adventure = new Adventure(vocabulary, emptySet(), actions.copyOfActions(), emptySet(), emptySet(), Room.NOWHERE, slots);
+        TestDisplay display = new TestDisplay();
+        Game game = new Game(adventure, () -> Command.NONE, display, new GameState(adventure), new GameHistory());
+        Command waitCommand = new Command(vocabulary.findMatch("wait").get());
+
+        game.takeTurn(waitCommand);
+        game.takeTurn(new Command(Word.unrecognized("save"), Word.unrecognized("Once")));
+        game.takeTurn(waitCommand);
+        assertEquals(3, game.takeTurn(waitCommand).getCounter(turns));
+
+        assertEquals(2, game.takeTurn(new Command(Word.unrecognized("undo"))).getCounter(turns));
+        assertEquals(1, game.takeTurn(new Command(Word.unrecognized("UNDO"))).getCounter(turns));
+        assertEquals(2, game.takeTurn(new Command(Word.unrecognized("redo"))).getCounter(turns));
+        assertEquals(3, game.takeTurn(waitCommand).getCounter(turns));
+        assertEquals(1, game.takeTurn(new Command(Word.unrecognized("restore"), Word.unrecognized("once"))).getCounter(turns));
+        assertEquals(3, game.takeTurn(new Command(Word.unrecognized("undo"))).getCounter(turns));
+
+        display.reset();
+        game.takeTurn(new Command(Word.unrecognized("restore"), Word.unrecognized("twice")));
+        assertTrue(display.toString().startsWith("There is no saved game named twice."));
+    }
+
+    @Test
+    public void gameShouldTellDisplayWhenPlayerMovesAndWhenGameIsOver() {
+        Room cellar = new Room("cellar", "A damp cellar");
+        Room kitchen = new Room("kitchen", "A kitchen", new Room.Exit(new Word("down"), cellar));
+        Word down = new Word("down");
+        Word wait = new Word("wait");
+        Word quit = new Word("quit");
+        Actions actions = Actions.newActionSet();
+        actions.newAction().on(down).then(gotoRoom(cellar)).build();
+        actions.newAction().on(wait).then(println("Time passes.")).build();
+        actions.newAction().on(quit).then(Results.quit).build();
+        Vocabulary vocabulary = actions.buildVocabulary();
+        Adventure adventure = new Adventure(vocabulary, emptySet(), actions.copyOfActions(), emptySet(), kitchen);
+        EventDisplay display = new EventDisplay();
+        Game game = new Game(adventure, () -> Command.NONE, display, new GameState(adventure));
+
+        game.takeTurn(new Command(vocabulary.findMatch("wait").get()));
+        assertEquals(singletonList(DisplayEvent.message(String.format("Time passes.%n"))), display.getEvents());
+
+        display.clear();
+        game.takeTurn(new Command(vocabulary.findMatch("down").get()));
+        assertEquals(singletonList(DisplayEvent.moved("cellar")), display.getEvents());
+
+        display.clear();
+        game.takeTurn(new Command(vocabulary.findMatch("quit").get()));
+        assertEquals(singletonList(DisplayEvent.gameOver()), display.getEvents());
+    }
+
+    @Test
+    public void occursShouldOnlyBeEvaluatedAgainOnceWhatTheyReadChanged() {
+        Word light = new Word("light");
+        Word wait = new Word("wait");
+        Slots slots = new Slots();
+        Slot lit = slots.flag("lit");
+        Slot ticks = slots.counter("ticks");
+        AtomicInteger evaluations = new AtomicInteger();
+        Actions actions = Actions.newActionSet();
+        actions.newAction().on(light).then(setFlag(lit, true)).build();
+        actions.newAction().on(wait).then(println("Time passes.")).build();
+        Actions occurs = Actions.newActionSet();
+        occurs.newAction()
+                .when(Conditions.reading(Reads.slot(lit), (command, gameState) -> {
+                    evaluations.incrementAndGet();
+                    return gameState.getFlag(lit);
+                }))
+                .then(incrementCounter(ticks))
+                .build();
+        Vocabulary vocabulary = actions.buildVocabulary();
+        Adventure adventure = new Adventure(vocabulary, occurs.copyOfActions(), actions.copyOfActions(), emptySet(), emptySet(), Room.NOWHERE, slots);
+        Game game = new Game(adventure, () -> Command.NONE, new TestDisplay(), new GameState(adventure));
+        Command waitCommand = new Command(vocabulary.findMatch("wait").get());
+
+        game.takeTurn(waitCommand);
+        game.takeTurn(waitCommand);
+        assertEquals(1, evaluations.get());
+
+        game.takeTurn(new Command(vocabulary.findMatch("light").get()));
+        assertEquals(2, evaluations.get());
+
+        // still lit, so it fires every turn without being evaluated again
+        GameState gameState = game.takeTurn(waitCommand);
+        assertEquals(2, evaluations.get());
+        assertEquals(2, gameState.getCounter(ticks));
+    }
+
+    @Test
+    public void occursShouldSeeWhatEarlierOccursChangedInTheSameTurn() {
+        Slots slots = new Slots();
+        Slot alarm = slots.flag("alarm");
+        Slot rung = slots.counter("rung");
+        Actions occurs = Actions.newActionSet();
+        occurs.newAction().when(isFlagSet(alarm)).then(incrementCounter(rung)).build();
+        occurs.newAction().when(compareCounter(rung, count -> count == 0)).then(setFlag(alarm, true)).build();
+        occurs.newAction().when(isFlagSet(alarm)).then(incrementCounter(rung)).build();
+        Adventure adventure = new Adventure(new Vocabulary(emptySet()), occurs.copyOfActions(), emptySet(), emptySet(), emptySet(), Room.NOWHERE, slots);
+        Game game = new Game(adventure, () -> Command.NONE, new TestDisplay(), new GameState(adventure));
+
+        assertEquals(1, game.takeTurn(Command.NONE).getCounter(rung));
+        assertEquals(3, game.takeTurn(Command.NONE).getCounter(rung));
+    }
+
+    @Test
+    public void adventuresOwnWordsShouldComeBeforeUndo() {
+        Word undo = new Word("undo");
+        Actions actions = Actions.newActionSet();
+        actions.newAction().on(undo).then(println("Nice try.")).build();
+        Vocabulary vocabulary = actions.buildVocabulary();
+        Adventure adventure = new Adventure(vocabulary, emptySet(), actions.copyOfActions(), emptySet(), Room.NOWHERE);
+        TestDisplay display = new TestDisplay();
+        Game game = new Game(adventure, () -> Command.NONE, display, new GameState(adventure), new GameHistory());
+
+        game.takeTurn(new Command(vocabulary.findMatch("undo").get()));
+
+        assertEquals(String.format("Nice try.%n"), display.toString());
+    }
+
+    @Test
+    public void steadyStateTurnsShouldNotAllocate() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        Word go = new Word("go", "walk");
+        Word north = new Word("north", "n");
+        Word south = new Word("south", "s");
+        Word take = new Word("take", "get");
+        Word lamp = new Word("lamp");
+
+        Room hall = new Room("hall", "A hall.");
+        Room kitchen = new Room("kitchen", "A kitchen.");
+        hall.setExit(north, kitchen);
+        kitchen.setExit(south, hall);
+        Item lantern = new Item.Builder().named("lamp").in(hall).portable().build();
+
+        Slots slots = new Slots();
+        Slot turns = slots.counter("turns");
+        Actions actions = Actions.newActionSet();
+        actions.newAction().on(go).withAnySecondWords(north, south).when(hasExitMatchingCommandWordAt(2)).then(goInDirectionMatchingCommandWordAt(2)).build();
+        actions.newAction().on(go).then(println("You can't go that way.")).build();
+        actions.newAction().on(take).with(lamp).when(not(carrying(lantern))).then(println("You can't reach it.")).build();
+        actions.newAction().onUnrecognizedFirstWord().then(println("Sorry, I don't understand.")).build();
+        Actions occurs = Actions.newActionSet();
+        occurs.newAction().when(compareCounter(turns, counter -> counter >= 0)).then(incrementCounter(turns)).build();
+        occurs.newAction().when(random(50)).then(println("A clock ticks.")).build();
+
+        Vocabulary vocabulary = actions.buildVocabulary();
+        Adventure adventure = new Adventure(vocabulary, occurs.copyOfActions(), actions.copyOfActions(), singleton(lantern), hall);
+        Command[] commands = {
+                new Command(vocabulary.findMatch("go").get(), vocabulary.findMatch("n").get()),
+                new Command(vocabulary.findMatch("walk").get(), vocabulary.findMatch("north").get()),
+                new Command(vocabulary.findMatch("go").get(), vocabulary.findMatch("s").get()),
+                new Command(vocabulary.findMatch("get").get(), vocabulary.findMatch("lamp").get()),
+                new Command(Word.unrecognized("xyzzy")),
+                Command.NONE
+        };
+        TestDisplay display = new TestDisplay();
+        Game game = new Game(adventure, () -> Command.NONE, display, new GameState(adventure));
+
+        int turnsTaken = 100_000;
+        for (int i = 0; i < turnsTaken; i++) {
+            game.takeTurn(commands[i % commands.length]);
+            display.reset();
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < turnsTaken; i++) {
+            game.takeTurn(commands[i % commands.length]);
+            display.reset();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // reading the counter allocates a little itself, hence less than a byte a turn rather than none at all
+        assertTrue(String.format("%d bytes allocated in %d turns", allocated, turnsTaken), allocated < turnsTaken);
+    }
 }
@@ -0,0 +1,36 @@
+package hartman.games.adventureland.engine;
+
+import org.junit.Test;
+
+import java.util.LinkedHashSet;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+public class ItemIndexTest {
+
+    private final Item lamp = Item.newItem("lamp").describedAs("a lamp").alias("light").build();
+    private final Item torch = Item.newItem("torch").describedAs("a torch").alias("light").alias("brand").build();
+    private final ItemIndex index = new ItemIndex(new LinkedHashSet<>(asList(lamp, torch)));
+
+    @Test
+    public void itemShouldBeFoundByName() {
+        assertEquals(1, index.idOf(Item.newItem("torch").build()));
+    }
+
+    @Test
+    public void itemShouldBeFoundByAlias() {
+        assertEquals(1, index.idOf(Item.newItem("brand").build()));
+    }
+
+    @Test
+    public void firstOfItemsSharingAnAliasShouldBeFound() {
+        assertEquals(0, index.idOf(Item.newItem("light").build()));
+        assertEquals(0, index.idOf(Item.newItem("stick").alias("brand").alias("light").build()));
+    }
+
+    @Test
+    public void unknownItemShouldNotBeFound() {
+        assertEquals(ItemIndex.NOT_FOUND, index.idOf(Item.newItem("rope").build()));
+    }
+}
@@ -0,0 +1,66 @@
+package hartman.games.adventureland.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ItemLocationsTest {
+
+    private final Room hall = new Room("hall", "A great hall.");
+    private final Room cellar = new Room("cellar", "A musty cellar.");
+
+    @Test
+    public void locationsShouldBeKeptForManyItems() {
+        ItemLocations locations = new ItemLocations(2000);
+        for (int id = 0; id < 2000; id++) {
+            locations.set(id, hall);
+        }
+        locations.set(1500, cellar);
+
+        assertEquals(hall, locations.get(1499));
+        assertEquals(cellar, locations.get(1500));
+        assertEquals(1999, locations.idsIn(hall).length);
+        assertArrayEquals(new int[]{1500}, locations.idsIn(cellar));
+    }
+
+    @Test
+    public void itemShouldHaveNoLocationUntilItIsPlaced() {
+        assertNull(new ItemLocations(100).get(99));
+    }
+
+    @Test
+    public void snapshotAndOriginalShouldNotSeeEachOthersMoves() {
+        ItemLocations locations = new ItemLocations(100);
+        for (int id = 0; id < 100; id++) {
+            locations.set(id, hall);
+        }
+        ItemLocations snapshot = locations.snapshot();
+        locations.set(3, cellar);
+        snapshot.set(70, cellar);
+
+        assertEquals(cellar, locations.get(3));
+        assertEquals(hall, locations.get(70));
+        assertArrayEquals(new int[]{3}, locations.idsIn(cellar));
+        assertEquals(hall, snapshot.get(3));
+        assertEquals(cellar, snapshot.get(70));
+        assertArrayEquals(new int[]{70}, snapshot.idsIn(cellar));
+    }
+
+    @Test
+    public void roomsWithTheSameHashShouldKeepTheirOwnItems() {
+        // "Aa" and "BB" have the same string hash, so the rooms meet at the bottom of the trie
+        Room aa = new Room("Aa", "A room.");
+        Room bb = new Room("BB", "Another room.");
+        ItemLocations locations = new ItemLocations(3);
+        locations.set(0, aa);
+        locations.set(1, bb);
+        locations.set(2, hall);
+        locations.set(0, bb);
+
+        assertEquals(0, locations.idsIn(aa).length);
+        assertArrayEquals(new int[]{0, 1}, locations.idsIn(bb));
+        assertArrayEquals(new int[]{2}, locations.idsIn(hall));
+    }
+}
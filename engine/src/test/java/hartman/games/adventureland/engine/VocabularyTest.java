@@ -8,7 +8,9 @@ import java.util.Set;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class VocabularyTest {
@@ -39,6 +41,18 @@ public class VocabularyTest {
         assertTrue(vocab4.findMatch(new Word("v2")).isPresent());
     }
 
+    @Test
+    public void mergeShouldAddWordsNotYetInTheVocabulary() {
+        Word north = new Word("north", "n");
+        Vocabulary vocabulary = new Vocabulary(singleton(north));
+
+        Vocabulary merged = vocabulary.merge(new LinkedHashSet<>(asList(vocabulary.intern(north), new Word("south", "s"), Word.ANY)));
+
+        assertEquals(2, merged.getWords().size());
+        assertTrue(merged.findMatch("n").isPresent());
+        assertTrue(merged.findMatch("s").isPresent());
+    }
+
     @Test
     public void vocabularyShouldNotContainNullOrNoneOrUnrecognized() {
         Vocabulary vocabulary = new Vocabulary(new LinkedHashSet<>(asList(null, new Word("collect"), Word.NONE, Word.ANY, Word.unrecognized())));
@@ -48,4 +62,84 @@ public class VocabularyTest {
         assertFalse(vocabulary.findMatch(Word.unrecognized()).isPresent());
         assertTrue(vocabulary.findMatch(new Word("collect")).isPresent());
     }
+
+    @Test
+    public void findShouldReturnSameInternedWordForEverySynonym() {
+        Vocabulary vocabulary = new Vocabulary(new LinkedHashSet<>(asList(new Word("north", "n"), new Word("south", "s"))));
+
+        Word north = vocabulary.findMatch("north").get();
+
+        assertSame(north, vocabulary.findMatch("N").get());
+        assertSame(north, vocabulary.findMatch(new Word("n")).get());
+        assertSame(north, vocabulary.intern(new Word("north")));
+        assertTrue(north.matches(vocabulary.findMatch("n").get()));
+        assertFalse(north.matches(vocabulary.findMatch("south").get()));
+        assertTrue("interned words still match words of other vocabularies", north.matches(new Word("n")));
+    }
+
+    @Test
+    public void internedWordsSharingASynonymShouldMatch() {
+        Vocabulary vocabulary = new Vocabulary(new LinkedHashSet<>(asList(new Word("get", "take"), new Word("take", "grab"))));
+
+        assertTrue(vocabulary.findMatch("get").get().matches(vocabulary.intern(new Word("take"))));
+    }
+
+    @Test
+    public void firstDeclaredOfWordsSharingASynonymShouldBeFound() {
+        Word west = new Word("west", "w");
+        Word exit = new Word("West");
+
+        assertEquals("west", new Vocabulary(new LinkedHashSet<>(asList(west, exit))).findMatch("WEST").get().getName());
+        assertEquals("West", new Vocabulary(new LinkedHashSet<>(asList(exit, west))).findMatch("west").get().getName());
+    }
+
+    @Test
+    public void mergeShouldKeepTheWordsOfThisVocabularyFirst() {
+        Vocabulary declared = new Vocabulary(singleton(new Word("down", "d")));
+        Vocabulary exits = new Vocabulary(singleton(new Word("Down")));
+
+        assertEquals("down", declared.merge(exits).findMatch("DOWN").get().getName());
+        assertEquals("Down", exits.merge(declared).findMatch("DOWN").get().getName());
+    }
+
+    @Test
+    public void findShouldMatchPartOfText() {
+        Vocabulary vocabulary = new Vocabulary(singleton(new Word("lamp", "lantern")), 4);
+        String line = "light lanterns now";
+
+        assertSame(vocabulary.findMatch("lamp").get(), vocabulary.findMatch(line, 6, 14).get());
+        assertFalse(vocabulary.findMatch(line, 0, 5).isPresent());
+        assertFalse(vocabulary.findMatch(line, 6, 6).isPresent());
+    }
+
+    @Test
+    public void findShouldIgnoreCase() {
+        Vocabulary vocabulary = new Vocabulary(singleton(new Word("lamp", "lantern")));
+
+        assertTrue(vocabulary.findMatch("LaNtErN").isPresent());
+        assertFalse(vocabulary.findMatch("lamps").isPresent());
+        assertFalse(vocabulary.findMatch("lam").isPresent());
+        assertFalse(vocabulary.findMatch("").isPresent());
+    }
+
+    @Test
+    public void findShouldOnlyCompareSignificantLetters() {
+        Vocabulary vocabulary = new Vocabulary(new LinkedHashSet<>(asList(new Word("north", "n"), new Word("lantern"))), 3);
+
+        Word north = vocabulary.findMatch("north").get();
+
+        assertSame(north, vocabulary.findMatch("NOR").get());
+        assertSame(north, vocabulary.findMatch("northward").get());
+        assertSame(north, vocabulary.findMatch("n").get());
+        assertSame(vocabulary.findMatch("lantern").get(), vocabulary.findMatch("lan").get());
+        assertFalse("shorter than significant length must match exactly", vocabulary.findMatch("no").isPresent());
+        assertFalse(vocabulary.findMatch("nab").isPresent());
+    }
+
+    @Test
+    public void mergeShouldKeepSignificantLength() {
+        Vocabulary vocabulary = new Vocabulary(singleton(new Word("north")), 3).merge(new Vocabulary(singleton(new Word("south"))));
+
+        assertTrue(vocabulary.findMatch("southern").isPresent());
+    }
 }
@@ -0,0 +1,176 @@
+package hartman.games.adventureland.engine.core;
+
+import hartman.games.adventureland.engine.Adventure;
+import hartman.games.adventureland.engine.Command;
+import hartman.games.adventureland.engine.Game;
+import hartman.games.adventureland.engine.GameState;
+import hartman.games.adventureland.engine.Item;
+import hartman.games.adventureland.engine.Room;
+import hartman.games.adventureland.engine.Slots;
+import hartman.games.adventureland.engine.Vocabulary;
+import hartman.games.adventureland.engine.Word;
+import hartman.games.adventureland.engine.core.AdventureImage.Op;
+import hartman.games.adventureland.engine.core.AdventureImage.RuleWriter;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Scanner;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AdventureImageTest {
+
+    private static final String[] WALK = {"look", "get lamp", "north", "get lamp", "i", "look", "rub lamp", "south", "drop lamp", "look", "xyzzy", "quit"};
+
+    private final AdventureImage.Writer writer = new AdventureImage.Writer();
+
+    /*
+     * Builds a small adventure and records what it is made of, as a script compiler would.
+     */
+    private Adventure adventure() {
+        Word north = new Word("north", "n");
+        Word south = new Word("south", "s");
+        Word get = new Word("get", "take");
+        Word drop = new Word("drop");
+        Word rub = new Word("rub");
+        Word look = new Word("look", "l");
+        Word inventory = new Word("inventory", "i");
+        Word quit = new Word("quit");
+        Word lampWord = new Word("lamp");
+
+        Room hall = new Room("hall", "a hall");
+        Room cellar = new Room("cellar", "a dark cellar");
+        hall.setExit(north, cellar);
+        cellar.setExit(south, hall);
+        cellar.setExitTowardsSelf(new Word("down", "d"));
+        Item lamp = Item.newItem("lamp").describedAs("a brass lamp").alias("lantern").portable().in(cellar).build();
+        Item coin = Item.newItem("coin").describedAs("a gold coin").inInventory().build();
+        Item genie = Item.newItem("genie").describedAs("a genie").build();
+
+        Vocabulary vocabulary = new Vocabulary(new LinkedHashSet<>(asList(north, south, new Word("down", "d"), get, drop, rub, look, inventory, quit, lampWord)));
+        Slots slots = new Slots();
+
+        Actions occurs = Actions.newActionSet();
+        RuleWriter rule = writer.newOccurs();
+        occurs.newAction().when(Conditions.in(cellar)).and(Conditions.not(Conditions.carrying(lamp))).then(Results.println("It's dark in here.", slots)).build();
+        rule.when(Op.IN, cellar).whenNot(Op.CARRYING, lamp).then(Op.PRINT, "It's dark in here.");
+        rule = writer.newOccurs();
+        occurs.newAction().then(Results.incrementCounter(slots.counter("turns"))).build();
+        rule.then(Op.INCREMENT_COUNTER, "turns");
+        rule = writer.newOccurs();
+        occurs.newAction().when(Conditions.compareCounter(slots.counter("turns"), n -> n > 9)).then(Results.println("You have taken {counter:turns} turns.", slots)).andThen(Results.quit).build();
+        rule.when(Op.COUNTER_GREATER_THAN, "turns", 9).then(Op.PRINT, "You have taken {counter:turns} turns.").then(Op.QUIT);
+
+        Actions actions = Actions.newActionSet();
+        rule = writer.newAction();
+        actions.newAction().onAnyFirstWords(north, south).when(Conditions.hasExitMatchingCommandWordAt(1)).then(Results.goInDirectionMatchingCommandWordAt(1)).build();
+        rule.onAnyWordAt(1, north, south).when(Op.HAS_EXIT_AT, 1).then(Op.GO_AT, 1);
+        rule = writer.newAction();
+        actions.newAction().on(get).with(lampWord).when(Conditions.here(lamp)).then(Results.get(lamp)).andThen(Results.setFlag(slots.flag("lit"), true)).build();
+        rule.onWordAt(1, get).onWordAt(2, lampWord).when(Op.HERE, lamp).then(Op.GET, lamp).then(Op.SET_FLAG, "lit", true);
+        rule = writer.newAction();
+        actions.newAction().on(drop).with(lampWord).when(Conditions.carrying(lamp)).then(Results.drop(lamp)).andThen(Results.swap(lamp, coin)).build();
+        rule.onWordAt(1, drop).onWordAt(2, lampWord).when(Op.CARRYING, lamp).then(Op.DROP, lamp).then(Op.SWAP, lamp, coin);
+        rule = writer.newAction();
+        actions.newAction().on(rub).when(Conditions.present(lamp)).and(Conditions.isFlagSet(slots.flag("lit"))).then(Results.putHere(genie)).andThen(Results.println("A genie appears!", slots)).build();
+        rule.onWordAt(1, rub).when(Op.PRESENT, lamp).when(Op.FLAG_SET, "lit").then(Op.PUT_HERE, genie).then(Op.PRINT, "A genie appears!");
+        rule = writer.newAction();
+        actions.newAction().on(look).then(Results.look).build();
+        rule.onWordAt(1, look).then(Op.LOOK);
+        rule = writer.newAction();
+        actions.newAction().on(inventory).then(Results.inventory).build();
+        rule.onWordAt(1, inventory).then(Op.INVENTORY);
+        rule = writer.newAction();
+        actions.newAction().on(quit).then(Results.quit).build();
+        rule.onWordAt(1, quit).then(Op.QUIT);
+        rule = writer.newAction();
+        actions.newAction().onUnrecognizedFirstWord().then(Results.println("I don't know how to {word:1}.", slots)).build();
+        rule.onUnrecognizedWordAt(1).then(Op.PRINT, "I don't know how to {word:1}.");
+
+        return new Adventure(vocabulary, occurs.copyOfActions(), actions.copyOfActions(), new LinkedHashSet<>(asList(lamp, coin, genie)),
+                new LinkedHashSet<>(asList(hall, cellar)), hall, slots);
+    }
+
+    private static String play(Adventure adventure, String... lines) {
+        StringBuilder out = new StringBuilder();
+        DefaultCommandInterpreter interpreter = new DefaultCommandInterpreter(new Scanner(String.join("\n", lines)), adventure.getVocabulary());
+        new Game(adventure, interpreter, new DefaultDisplay(out), new GameState(adventure)).run();
+        return out.toString();
+    }
+
+    @Test
+    public void loadedAdventureShouldPlayLikeTheOriginal() {
+        Adventure adventure = adventure();
+        Adventure loaded = AdventureImage.read(writer.toByteArray(adventure));
+
+        String transcript = play(adventure, WALK);
+        assertTrue(transcript.contains("A genie appears!"));
+        assertEquals(transcript, play(loaded, WALK));
+    }
+
+    @Test
+    public void loadedAdventureShouldHaveTheSameWorld() {
+        Adventure adventure = adventure();
+        Adventure loaded = AdventureImage.read(writer.toByteArray(adventure));
+
+        assertEquals(adventure.getRooms(), loaded.getRooms());
+        assertEquals(adventure.getStartRoom(), loaded.getStartRoom());
+        assertEquals(adventure.getItems(), loaded.getItems());
+        assertEquals(adventure.getVocabulary().getWords(), loaded.getVocabulary().getWords());
+        assertEquals(adventure.getOccurs().size(), loaded.getOccurs().size());
+        assertEquals(adventure.getActions().size(), loaded.getActions().size());
+        for (Room room : loaded.getRooms()) {
+            Room original = adventure.getRooms().stream().filter(room::equals).findFirst().get();
+            assertEquals(original.getExits(), room.getExits());
+        }
+    }
+
+    @Test
+    public void imageShouldBeMappedFromAFile() throws IOException {
+        Adventure adventure = adventure();
+        Path image = Files.createTempFile("adventure", ".img");
+        try {
+            Files.write(image, writer.toByteArray(adventure));
+            assertEquals(play(adventure, WALK), play(AdventureImage.load(image), WALK));
+        } finally {
+            Files.delete(image);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void notAnImageShouldNotLoad() {
+        AdventureImage.read("room hall \"a hall\"".getBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedImageShouldNotLoad() {
+        byte[] image = writer.toByteArray(adventure());
+        AdventureImage.read(Arrays.copyOf(image, image.length - 3));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void adventureShouldMatchWhatWasRecorded() {
+        Adventure adventure = adventure();
+        writer.newAction();
+        writer.toByteArray(adventure);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void resultsShouldNotBeRecordedAsConditions() {
+        writer.newAction().when(Op.QUIT);
+    }
+
+    @Test
+    public void emptyAdventureShouldLoad() {
+        Adventure adventure = new Adventure(new Vocabulary(new LinkedHashSet<>()), new LinkedHashSet<>(), new LinkedHashSet<>(), new LinkedHashSet<>(), Room.NOWHERE);
+        Adventure loaded = AdventureImage.read(new AdventureImage.Writer().toByteArray(adventure));
+        assertEquals(Room.NOWHERE, loaded.getStartRoom());
+        assertTrue(new Game(loaded, () -> Command.NONE, new DefaultDisplay(new StringBuilder()), new GameState(loaded)).takeTurn(Command.NONE).isRunning());
+    }
+}
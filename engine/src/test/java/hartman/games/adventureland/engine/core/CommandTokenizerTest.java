@@ -0,0 +1,67 @@
+package hartman.games.adventureland.engine.core;
+
+import hartman.games.adventureland.engine.Command;
+import hartman.games.adventureland.engine.Vocabulary;
+import hartman.games.adventureland.engine.Word;
+import org.junit.Test;
+
+import java.util.HashSet;
+
+import static hartman.games.adventureland.engine.core.TestWords.GET;
+import static hartman.games.adventureland.engine.core.TestWords.GO;
+import static hartman.games.adventureland.engine.core.TestWords.NORTH;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CommandTokenizerTest {
+
+    private final Vocabulary vocabulary = new Vocabulary(new HashSet<>(asList(GO, GET, NORTH)));
+    private final CommandTokenizer tokenizer = new CommandTokenizer(vocabulary);
+
+    @Test
+    public void tokenizeShouldLookUpEveryWordIgnoringCase() {
+        Command command = tokenizer.tokenize("walk n");
+
+        assertSame(vocabulary.findMatch("go").get(), command.getWordOrNone(1));
+        assertSame(vocabulary.findMatch("north").get(), command.getWordOrNone(2));
+        assertFalse(command.hasWord(3));
+    }
+
+    @Test
+    public void tokenizeShouldSkipAnyWhitespace() {
+        assertEquals(new Command(GO, NORTH), tokenizer.tokenize(" \tGO   NORTH \r\n"));
+    }
+
+    @Test
+    public void tokenizeShouldNameUnrecognizedWords() {
+        Command command = tokenizer.tokenize("go plugh");
+
+        assertTrue(command.getWordOrNone(2).isUnrecognized());
+        assertEquals("plugh", command.getWordOrNone(2).getName());
+    }
+
+    @Test
+    public void tokenizeShouldKeepEveryWord() {
+        Command command = tokenizer.tokenize("get the lamp now");
+
+        assertTrue(command.hasWord(4));
+        assertEquals("now", command.getWordOrNone(4).getName());
+    }
+
+    @Test
+    public void tokenizeShouldReturnNoneGivenBlankLine() {
+        assertSame(Command.NONE, tokenizer.tokenize(""));
+        assertSame(Command.NONE, tokenizer.tokenize("  \t "));
+    }
+
+    @Test
+    public void tokenizeShouldReadAnyCharSequence() {
+        StringBuilder line = new StringBuilder("get");
+
+        assertEquals(new Command(GET), tokenizer.tokenize(line));
+        assertTrue(tokenizer.tokenize(line.append("xyzzy")).getWordOrNone(1).isUnrecognized());
+    }
+}
@@ -4,7 +4,9 @@ import hartman.games.adventureland.engine.Action.Condition;
 import hartman.games.adventureland.engine.Command;
 import hartman.games.adventureland.engine.GameState;
 import hartman.games.adventureland.engine.Item;
+import hartman.games.adventureland.engine.Reads;
 import hartman.games.adventureland.engine.Room;
+import hartman.games.adventureland.engine.Slots.Kind;
 import hartman.games.adventureland.engine.Word;
 import org.junit.Test;
 
@@ -181,15 +183,32 @@ public class ConditionsTest {
                 assertTrue(random(i + 1, () -> i).matches(command, gameState)));
     }
 
+    @Test
+    public void randomShouldRollTheGameStatesRandomSource() {
+        GameState gameState1 = new GameState(Room.NOWHERE);
+        GameState gameState2 = new GameState(Room.NOWHERE);
+        gameState1.seedRandom(1234);
+        gameState2.seedRandom(1234);
+        Condition coinToss = random(50);
+
+        int heads = 0;
+        for (int i = 0; i < 1000; i++) {
+            boolean toss = coinToss.matches(Command.NONE, gameState1);
+            assertEquals(toss, coinToss.matches(Command.NONE, gameState2));
+            heads += toss ? 1 : 0;
+        }
+        assertTrue("heads " + heads, heads > 400 && heads < 600);
+    }
+
     @Test
     public void itemMovedShouldReturnTrueIfItemsCurrentLocationDoesNotMatchItsStartingLocation() {
         Item chalice = new Item.Builder().named("chalice").describedAs("A jewel-encrusted golden chalice.").portable().build();
         Command command = new Command(new Word("PICKUP"), new Word("chalice"));
         GameState gameState = new GameState(Room.NOWHERE, singleton(chalice));
         assertFalse(hasMoved(chalice).matches(command, gameState));
-        chalice.stow();
+        gameState.putInInventory(chalice);
         assertTrue(hasMoved(chalice).matches(command, gameState));
-        chalice.drop(Room.NOWHERE);
+        gameState.drop(chalice, Room.NOWHERE);
         assertFalse(hasMoved(chalice).matches(command, gameState));
     }
 
@@ -272,4 +291,30 @@ public class ConditionsTest {
         gameState.setString("bar", "foo");
         assertTrue(stringEquals("bar", "foo").matches(Command.NONE, gameState));
     }
+
+    @Test
+    public void conditionsShouldDeclareWhatTheyRead() {
+        Item lamp = new Item.Builder().named("lamp").build();
+
+        assertEquals(Reads.NOTHING, Conditions.wordMatches(1, GO).reads());
+        assertTrue(in(Room.NOWHERE).reads().isRoom());
+        assertEquals(singleton(lamp), carrying(lamp).reads().getItems());
+        assertEquals(singleton("lit"), not(isFlagSet("lit")).reads().getSlotNames(Kind.FLAG));
+
+        Reads hereAndCounted = and(here(lamp), compareCounter("moves", moves -> moves > 1)).reads();
+        assertTrue(hereAndCounted.isRoom());
+        assertEquals(singleton(lamp), hereAndCounted.getItems());
+        assertEquals(singleton("moves"), hereAndCounted.getSlotNames(Kind.COUNTER));
+        assertFalse(hereAndCounted.isEverything());
+    }
+
+    @Test
+    public void randomAndUndeclaredConditionsShouldReadEverything() {
+        Condition undeclared = (command, gameState) -> true;
+
+        assertTrue(random(50).reads().isEverything());
+        assertTrue(undeclared.reads().isEverything());
+        assertTrue(or(in(Room.NOWHERE), undeclared).reads().isEverything());
+        assertEquals(Reads.ROOM, Conditions.reading(Reads.ROOM, undeclared).reads());
+    }
 }
@@ -2,6 +2,7 @@ package hartman.games.adventureland.engine.core;
 
 import hartman.games.adventureland.engine.Item;
 import hartman.games.adventureland.engine.Room;
+import hartman.games.adventureland.engine.Word;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -30,12 +31,50 @@ public class DefaultDisplayTest {
     @Test
     public void printShouldOutputGivenMessage() {
         display.print("Hello, World");
+        display.flush();
         assertEquals("Hello, World", out.toString());
     }
 
+    @Test
+    public void printShouldNotOutputUntilFlushed() {
+        display.print("Hello, ");
+        display.print("World");
+        assertEquals("", out.toString());
+
+        display.flush();
+        assertEquals("Hello, World", out.toString());
+
+        display.print("!");
+        display.flush();
+        display.flush();
+        assertEquals("Hello, World!", out.toString());
+    }
+
+    @Test
+    public void flushShouldAppendToAnyOutput() {
+        StringBuilder text = new StringBuilder();
+        DefaultDisplay display = new DefaultDisplay(text);
+        display.inventory(emptyList());
+        display.flush();
+        assertEquals(String.format("I'm not carrying anything right now.%n"), text.toString());
+    }
+
+    @Test
+    public void lookShouldDescribeRoomAndExits() {
+        Room hallway = new Room("hallway", "A long hallway");
+        Room kitchen = new Room("kitchen", "A kitchen");
+        Room garage = new Room("garage", "A messy garage",
+                new Room.Exit(new Word("north"), hallway), new Room.Exit(new Word("south"), kitchen));
+
+        display.look(garage, emptyList());
+        display.flush();
+        assertEquals(String.format("A messy garage%n%nThere are 2 obvious exits: north, south%n"), out.toString());
+    }
+
     @Test
     public void lookShouldDescribeRoom() {
         display.look(Room.NOWHERE, Collections.emptyList());
+        display.flush();
         assertTrue(out.toString().contains(Room.NOWHERE.getDescription()));
     }
 
@@ -45,6 +84,7 @@ public class DefaultDisplayTest {
         Item wrench = new Item.Builder().named("wrench").describedAs("A monkey wrench").in(garage).build();
 
         display.look(garage, singletonList(wrench));
+        display.flush();
         assertTrue(out.toString().contains(garage.getDescription()));
         assertTrue(out.toString().contains(wrench.getDescription()));
     }
@@ -57,6 +97,7 @@ public class DefaultDisplayTest {
         Item toolbox = new Item.Builder().named("toolbox").describedAs("A toolbox").in(garage).build();
 
         display.look(garage, asList(wrench, hammer, toolbox));
+        display.flush();
         assertTrue(out.toString().contains(garage.getDescription()));
         assertTrue(out.toString().contains(wrench.getDescription()));
         assertTrue(out.toString().contains(hammer.getDescription()));
@@ -69,14 +110,17 @@ public class DefaultDisplayTest {
         Item nails = new Item.Builder().named("nails").describedAs("A pocket full of nails").build();
 
         display.inventory(emptyList());
+        display.flush();
         assertFalse(out.toString().contains(hammer.getDescription()));
         assertFalse(out.toString().contains(nails.getDescription()));
 
         display.inventory(singletonList(hammer));
+        display.flush();
         assertTrue(out.toString().contains(hammer.getDescription()));
         assertFalse(out.toString().contains(nails.getDescription()));
 
         display.inventory(asList(hammer, nails));
+        display.flush();
         assertTrue(out.toString().contains(hammer.getDescription()));
         assertTrue(out.toString().contains(nails.getDescription()));
     }
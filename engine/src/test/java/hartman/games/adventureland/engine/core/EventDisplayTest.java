@@ -0,0 +1,70 @@
+package hartman.games.adventureland.engine.core;
+
+import hartman.games.adventureland.engine.Item;
+import hartman.games.adventureland.engine.Room;
+import hartman.games.adventureland.engine.Word;
+import org.junit.Before;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EventDisplayTest {
+
+    private EventDisplay display;
+
+    @Before
+    public void setupDisplay() {
+        display = new EventDisplay();
+    }
+
+    @Test
+    public void printShouldRecordMessage() {
+        display.print("Hello, World");
+        assertEquals(singletonList(DisplayEvent.message("Hello, World")), display.getEvents());
+    }
+
+    @Test
+    public void lookShouldRecordRoomWithItemsAndExits() {
+        Room hallway = new Room("hallway", "A long hallway");
+        Room kitchen = new Room("kitchen", "A kitchen");
+        Room garage = new Room("garage", "A messy garage",
+                new Room.Exit(new Word("north"), hallway), new Room.Exit(new Word("south"), kitchen));
+        Item wrench = new Item.Builder().named("wrench").describedAs("A monkey wrench").in(garage).build();
+        Item hammer = new Item.Builder().named("hammer").describedAs("A hammer").in(garage).build();
+
+        display.look(garage, asList(wrench, hammer));
+
+        DisplayEvent event = display.getEvents().get(0);
+        assertEquals(DisplayEvent.Type.ROOM, event.getType());
+        assertEquals("garage", event.getRoom());
+        assertEquals(asList("wrench", "hammer"), event.getItems());
+        assertEquals(asList("north", "south"), event.getExits());
+    }
+
+    @Test
+    public void inventoryShouldRecordItemsCarried() {
+        Item hammer = new Item.Builder().named("hammer").describedAs("A sledge hammer").build();
+
+        display.inventory(emptyList());
+        display.inventory(singletonList(hammer));
+
+        assertEquals(asList(DisplayEvent.inventory(emptyList()), DisplayEvent.inventory(singletonList("hammer"))), display.getEvents());
+    }
+
+    @Test
+    public void eventsShouldBeKeptInOrderUntilCleared() {
+        Room cellar = new Room("cellar", "A damp cellar");
+
+        display.print("You fall.");
+        display.moved(cellar);
+        display.gameOver();
+        assertEquals(asList(DisplayEvent.message("You fall."), DisplayEvent.moved("cellar"), DisplayEvent.gameOver()), display.getEvents());
+
+        display.clear();
+        assertTrue(display.getEvents().isEmpty());
+    }
+}
@@ -0,0 +1,57 @@
+package hartman.games.adventureland.engine.core;
+
+import hartman.games.adventureland.engine.Command;
+import hartman.games.adventureland.engine.GameState;
+import hartman.games.adventureland.engine.Room;
+import hartman.games.adventureland.engine.Slots;
+import hartman.games.adventureland.engine.Word;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MessageTemplateTest {
+
+    private final GameState gameState = new GameState(Room.NOWHERE);
+
+    @Test
+    public void renderShouldReturnMessageItselfGivenNoPlaceholders() {
+        String message = "Fly, you fools!";
+        MessageTemplate template = MessageTemplate.compile(message, new Slots());
+
+        assertFalse(template.hasPlaceholders());
+        assertSame(message, template.render(Command.NONE, gameState));
+    }
+
+    @Test
+    public void renderShouldResolveAllKindsOfPlaceholdersInOnePass() {
+        gameState.setCounter("kills", 3);
+        gameState.setFlag("angry");
+        gameState.setString("name", "Grendel");
+        MessageTemplate template = MessageTemplate.compile("{string:name} is {flag:angry}: you {word:1} {counter:kills} {word:3}.", new Slots());
+
+        assertTrue(template.hasPlaceholders());
+        assertEquals("Grendel is true: you killed 3 .", template.render(new Command(new Word("killed")), gameState));
+    }
+
+    @Test
+    public void renderShouldKeepTextWhichIsNotAPlaceholder() {
+        MessageTemplate template = MessageTemplate.compile("{} {word:x} {colour:red} {counter:} {counter:c}", new Slots());
+
+        gameState.setCounter("c", 9);
+
+        assertEquals("{} {word:x} {colour:red} {counter:} 9", template.render(Command.NONE, gameState));
+    }
+
+    @Test
+    public void renderShouldUseSlotsBoundAtCompileTime() {
+        Slots slots = new Slots();
+        MessageTemplate template = MessageTemplate.compile("{counter:moves} moves", slots);
+
+        gameState.setCounter(slots.counter("moves"), 12);
+
+        assertEquals("12 moves", template.render(Command.NONE, gameState));
+    }
+}
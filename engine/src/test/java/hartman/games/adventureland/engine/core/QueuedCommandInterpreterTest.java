@@ -0,0 +1,80 @@
+package hartman.games.adventureland.engine.core;
+
+import hartman.games.adventureland.engine.Command;
+import hartman.games.adventureland.engine.Vocabulary;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+
+import static hartman.games.adventureland.engine.core.TestWords.NORTH;
+import static hartman.games.adventureland.engine.core.TestWords.SOUTH;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class QueuedCommandInterpreterTest {
+
+    private QueuedCommandInterpreter interpreter;
+
+    @Before
+    public void setupInterpreter() {
+        interpreter = new QueuedCommandInterpreter(new Vocabulary(new HashSet<>(asList(NORTH, SOUTH))));
+    }
+
+    @Test
+    public void nextCommandShouldCompleteWithLineAlreadyAccepted() {
+        interpreter.accept("north");
+        interpreter.accept("south");
+
+        assertEquals(new Command(NORTH), interpreter.nextCommand().toCompletableFuture().join());
+        assertEquals(new Command(SOUTH), interpreter.nextCommand().toCompletableFuture().join());
+    }
+
+    @Test
+    public void pendingCountShouldCountCommandsNotAskedForYet() {
+        interpreter.accept("north");
+        interpreter.accept("");
+        interpreter.accept("south");
+        assertEquals(2, interpreter.pendingCount());
+
+        interpreter.nextCommand();
+        assertEquals(1, interpreter.pendingCount());
+    }
+
+    @Test
+    public void nextCommandShouldCompleteWhenLineIsAccepted() {
+        CompletableFuture<Command> next = interpreter.nextCommand().toCompletableFuture();
+        assertFalse(next.isDone());
+
+        interpreter.accept("");
+        assertFalse(next.isDone());
+
+        interpreter.accept("north");
+        assertEquals(new Command(NORTH), next.join());
+    }
+
+    @Test
+    public void nextCommandShouldFailOnceInputIsClosed() {
+        interpreter.accept("north");
+        interpreter.close();
+
+        assertEquals(new Command(NORTH), interpreter.nextCommand().toCompletableFuture().join());
+        assertTrue(interpreter.nextCommand().toCompletableFuture().isCompletedExceptionally());
+    }
+
+    @Test
+    public void closeShouldFailCommandBeingWaitedFor() {
+        CompletableFuture<Command> next = interpreter.nextCommand().toCompletableFuture();
+        interpreter.close();
+        assertTrue(next.isCompletedExceptionally());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void acceptShouldRejectLinesOnceInputIsClosed() {
+        interpreter.close();
+        interpreter.accept("north");
+    }
+}
@@ -180,20 +180,20 @@ public class ResultsTest {
         Item lockedChest = new Item.Builder().named("locked_chest").in(bedroom).build();
         Item openedChest = new Item.Builder().named("opened_chest").build();
 
-        assertTrue(lockedChest.isHere(bedroom));
-        assertTrue(openedChest.isHere(Room.NOWHERE));
-
         GameState gameState = new GameState(bedroom, new HashSet<>(asList(lockedChest, openedChest)));
+        assertTrue(gameState.inRoom(lockedChest, bedroom));
+        assertTrue(gameState.inRoom(openedChest, Room.NOWHERE));
+
         Display noDisplay = display;
         swap(lockedChest, openedChest).execute(Command.NONE, gameState, noDisplay);
 
-        assertTrue(lockedChest.isHere(Room.NOWHERE));
-        assertTrue(openedChest.isHere(bedroom));
+        assertTrue(gameState.inRoom(lockedChest, Room.NOWHERE));
+        assertTrue(gameState.inRoom(openedChest, bedroom));
 
         swap(lockedChest, openedChest).execute(Command.NONE, gameState, noDisplay);
 
-        assertTrue(lockedChest.isHere(bedroom));
-        assertTrue(openedChest.isHere(Room.NOWHERE));
+        assertTrue(gameState.inRoom(lockedChest, bedroom));
+        assertTrue(gameState.inRoom(openedChest, Room.NOWHERE));
     }
 
     @Test
@@ -210,11 +210,12 @@ public class ResultsTest {
         Item fly = new Item.Builder().named("fly").describedAs("A house fly").build();
         Room kitchen = new Room("kitchen", "A dirty kitchen");
 
-        assertFalse(fly.isHere(kitchen));
+        GameState gameState = new GameState(kitchen, singleton(fly));
+        assertFalse(gameState.inRoom(fly, kitchen));
 
-        put(fly, kitchen).execute(Command.NONE, new GameState(kitchen, singleton(fly)), display);
+        put(fly, kitchen).execute(Command.NONE, gameState, display);
 
-        assertTrue(fly.isHere(kitchen));
+        assertTrue(gameState.inRoom(fly, kitchen));
     }
 
     @Test
@@ -224,12 +225,12 @@ public class ResultsTest {
         GameState gameState = new GameState(Room.NOWHERE, itemSet.copyOfItems());
 
         assertTrue(bowl.isPortable());
-        assertFalse(bowl.isCarried());
+        assertFalse(gameState.carrying(bowl));
 
         get(bowl).execute(new Command(GET, bowl), gameState, display);
 
-        assertFalse(bowl.isHere(Room.NOWHERE));
-        assertTrue(bowl.isCarried());
+        assertFalse(gameState.inRoom(bowl, Room.NOWHERE));
+        assertTrue(gameState.carrying(bowl));
     }
 
     @Test
@@ -240,13 +241,13 @@ public class ResultsTest {
         Room cellar = new Room("cellar", "a potato cellar");
         GameState gameState = new GameState(cellar, items);
 
-        assertTrue(potato.isCarried());
-        assertFalse(potato.isHere(cellar));
+        assertTrue(gameState.carrying(potato));
+        assertFalse(gameState.inRoom(potato, cellar));
 
         drop(potato).execute(new Command(DROP, potato), gameState, display);
 
-        assertFalse(potato.isCarried());
-        assertTrue(potato.isHere(cellar));
+        assertFalse(gameState.carrying(potato));
+        assertTrue(gameState.inRoom(potato, cellar));
     }
 
     @Test
@@ -259,13 +260,13 @@ public class ResultsTest {
         Room cellar = new Room("cellar", "a potato cellar");
         GameState gameState = new GameState(cellar, items);
 
-        assertTrue(peeler.isCarried());
-        assertFalse(peeler.isHere(cellar));
+        assertTrue(gameState.carrying(peeler));
+        assertFalse(gameState.inRoom(peeler, cellar));
 
         drop(peeler).execute(new Command(DROP, peeler), gameState, display);
 
-        assertFalse(peeler.isCarried());
-        assertTrue(peeler.isHere(cellar));
+        assertFalse(gameState.carrying(peeler));
+        assertTrue(gameState.inRoom(peeler, cellar));
     }
 
     @Test
@@ -274,13 +275,14 @@ public class ResultsTest {
         Item grenade = new Item.Builder().named("grenade").build();
         Item phone = new Item.Builder().named("phone").in(pants).build();
 
-        assertFalse(grenade.isHere(pants));
-        assertTrue(phone.isHere(pants));
+        GameState gameState = new GameState(Room.NOWHERE, new HashSet<>(asList(grenade, phone)));
+        assertFalse(gameState.inRoom(grenade, pants));
+        assertTrue(gameState.inRoom(phone, pants));
 
-        putWith(grenade, phone).execute(Command.NONE, new GameState(Room.NOWHERE, new HashSet<>(asList(grenade, phone))), display);
+        putWith(grenade, phone).execute(Command.NONE, gameState, display);
 
-        assertTrue(grenade.isHere(pants));
-        assertTrue(phone.isHere(pants));
+        assertTrue(gameState.inRoom(grenade, pants));
+        assertTrue(gameState.inRoom(phone, pants));
     }
 
     @Test
@@ -291,11 +293,11 @@ public class ResultsTest {
 
         GameState gameState = new GameState(Room.NOWHERE, itemSet.copyOfItems());
         assertTrue(gameState.exists(orb));
-        assertFalse(orb.isDestroyed());
+        assertTrue(gameState.inRoom(orb, xandar));
 
         destroy(orb).execute(Command.NONE, gameState, display);
         assertFalse(gameState.exists(orb));
-        assertTrue(orb.isDestroyed());
+        assertTrue(gameState.inRoom(orb, Room.NOWHERE));
     }
 
     @Test
@@ -438,10 +440,11 @@ public class ResultsTest {
         Item knife = Item.newItem("knife").build();
         Room kitchen = new Room("kitchen", "A kitchen");
 
-        assertFalse(knife.isHere(kitchen));
+        GameState gameState = new GameState(kitchen, singleton(knife));
+        assertFalse(gameState.inRoom(knife, kitchen));
 
-        Results.putHere(knife).execute(Command.NONE, new GameState(kitchen, singleton(knife)), display);
+        Results.putHere(knife).execute(Command.NONE, gameState, display);
 
-        assertTrue(knife.isHere(kitchen));
+        assertTrue(gameState.inRoom(knife, kitchen));
     }
 }
\ No newline at end of file
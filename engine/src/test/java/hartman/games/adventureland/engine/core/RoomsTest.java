@@ -124,4 +124,25 @@ public class RoomsTest {
         assertEquals(deck4, turbolift.exit(new Word("deck2")));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void roomsResolvesExitsOfManyRooms() {
+        Rooms roomSet = Rooms.newRoomSet();
+        int count = 20_000;
+        for (int i = 0; i < count; i++) {
+            roomSet.newRoom().named("room" + i).describedAs("room " + i)
+                    .withExit().inDirectionOf("next").towards("room" + (i + 1) % count).buildExit()
+                    .withExit().inDirectionOf("back").towards("room" + (i + count - 1) % count).buildExit()
+                    .build();
+        }
+        Set<Room> rooms = roomSet.copyOfRooms();
+
+        assertEquals(count, rooms.size());
+        Room room = rooms.iterator().next();
+        for (int i = 0; i < count; i++) {
+            room = room.exit(new Word("next"));
+        }
+        assertEquals("room0", room.getName());
+        assertEquals("room" + (count - 1), room.exit(new Word("back")).getName());
+    }
+
+}
@@ -4,28 +4,51 @@ import hartman.games.adventureland.engine.Action;
 import hartman.games.adventureland.engine.Adventure;
 import hartman.games.adventureland.engine.Item;
 import hartman.games.adventureland.engine.Room;
+import hartman.games.adventureland.engine.Slots;
+import hartman.games.adventureland.engine.Slots.Slot;
 import hartman.games.adventureland.engine.Vocabulary;
 import hartman.games.adventureland.engine.Word;
 import hartman.games.adventureland.engine.core.Actions;
+import hartman.games.adventureland.engine.core.AdventureImage;
+import hartman.games.adventureland.engine.core.AdventureImage.Op;
+import hartman.games.adventureland.engine.core.AdventureImage.RuleWriter;
 import hartman.games.adventureland.engine.core.Conditions;
 import hartman.games.adventureland.engine.core.Items;
 import hartman.games.adventureland.engine.core.Results;
 import hartman.games.adventureland.engine.core.Rooms;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenFactory;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
 import org.antlr.v4.runtime.RuleContext;
+import org.antlr.v4.runtime.UnbufferedCharStream;
+import org.antlr.v4.runtime.UnbufferedTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
 import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -51,6 +74,8 @@ import static hartman.games.adventureland.script.AdventureParser.ConditionItemHa
 import static hartman.games.adventureland.script.AdventureParser.ConditionItemIsHereContext;
 import static hartman.games.adventureland.script.AdventureParser.ConditionItemIsPresentContext;
 import static hartman.games.adventureland.script.AdventureParser.ConditionRoomHasExitContext;
+import static hartman.games.adventureland.script.AdventureParser.GameElementContext;
+import static hartman.games.adventureland.script.AdventureParser.GlobalParameterContext;
 import static hartman.games.adventureland.script.AdventureParser.GlobalParameterStartContext;
 import static hartman.games.adventureland.script.AdventureParser.ItemAliasesContext;
 import static hartman.games.adventureland.script.AdventureParser.ItemDeclarationContext;
@@ -84,120 +109,529 @@ import static hartman.games.adventureland.script.AdventureParser.RoomExitContext
 import static hartman.games.adventureland.script.AdventureParser.RoomExitsContext;
 import static hartman.games.adventureland.script.AdventureParser.WordGroupContext;
 import static java.util.Optional.ofNullable;
-import static java.util.stream.Collectors.toSet;
 
 /**
  * ANTLR-based parser implementation which recognizes scripts written in Adventure grammar.
+ * <p>
+ * A script may also be compiled into an {@link AdventureImage}, which loads without parsing the script again.
+ * <p>
+ * Scripts are parsed in two stages. The first uses ANTLR's faster SLL prediction and gives up at the first syntax
+ * error. Only a script which fails it is parsed again with full LL prediction and the usual error reporting, so a valid
+ * script is parsed once, quickly, and an invalid one still fails with the same message. The prediction DFAs the
+ * generated lexer and parser build up as they go are static, so every parse warms them for the next one, whichever
+ * instance of this class runs it. How long each phase takes is added up in {@link #stats()}.
+ * <p>
+ * The declarations are built in one pass over the syntax tree, each as far as what it refers to allows, and put
+ * together into the adventure once all of them are known. A {@link #streaming() streaming} parser builds them while it
+ * parses instead. The actions of a large script are built in parallel, on the common fork/join pool.
  */
 public class AdventureScriptParserImpl implements AdventureScriptParser {
 
+    private static final BaseErrorListener FAIL_ON_SYNTAX_ERROR = new BaseErrorListener() {
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e) {
+            throw new IllegalStateException("failed to parse at line " + line + " due to " + msg, e);
+        }
+    };
+
+    private final boolean streaming;
+
+    private long parseCount;
+    private long fallbackCount;
+    private long totalLexTimeNanos;
+    private long totalParseTimeNanos;
+    private long totalVisitTimeNanos;
+
+    public AdventureScriptParserImpl() {
+        this(false);
+    }
+
+    private AdventureScriptParserImpl(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Returns a parser which compiles a script in a single pass as it reads it, for scripts too large to hold
+     * in memory along with their syntax tree.
+     * <p>
+     * Neither the script nor its tokens are buffered, and each declaration is taken apart and dropped from the syntax
+     * tree as soon as it has been parsed. A reference to a room or item declared further down is resolved once that
+     * has been read, so declarations may still refer to them. As there is nothing to parse again, the
+     * script is parsed with full LL prediction straight away.
+     */
+    public static AdventureScriptParserImpl streaming() {
+        return new AdventureScriptParserImpl(true);
+    }
+
     @Override
     public Adventure parse(Reader r) throws IOException {
+        return parse(r, null);
+    }
+
+    /**
+     * Parses an adventure script and writes the image of the adventure.
+     *
+     * @see AdventureImage#load(java.nio.file.Path)
+     */
+    public void compile(Reader r, OutputStream image) throws IOException {
+        AdventureImage.Writer writer = new AdventureImage.Writer();
+        writer.write(parse(r, writer), image);
+    }
+
+    /**
+     * Returns how many scripts have been parsed and how long their phases took, added up.
+     */
+    public synchronized Statistics stats() {
+        return new Statistics(parseCount, fallbackCount, totalLexTimeNanos, totalParseTimeNanos, totalVisitTimeNanos);
+    }
+
+    private Adventure parse(Reader r, AdventureImage.Writer image) throws IOException {
+        return streaming ? parseStream(r, image) : parseTree(r, image);
+    }
+
+    private Adventure parseTree(Reader r, AdventureImage.Writer image) throws IOException {
+        long start = System.nanoTime();
         CharStream input = CharStreams.fromReader(r);
-        AdventureLexer lexer = new AdventureLexer(input);
-        AdventureParser parser = new AdventureParser(new CommonTokenStream(lexer));
+        CommonTokenStream tokens = new CommonTokenStream(new AdventureLexer(input));
+        tokens.fill();
+        long lexed = System.nanoTime();
+
+        AdventureParser parser = new AdventureParser(tokens);
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        AdventureContext tree;
+        boolean fallback = false;
+        try {
+            tree = parser.adventure();
+        } catch (ParseCancellationException e) {
+            // either a syntax error or a script SLL can't handle, only LL can tell which
+            fallback = true;
+            tokens.seek(0);
+            parser.reset();
+            parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+            parser.addErrorListener(FAIL_ON_SYNTAX_ERROR);
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            tree = parser.adventure();
+        }
+        long parsed = System.nanoTime();
+
+        AdventureAssembler assembler = new AdventureAssembler(image);
+        tree.globalParameter().forEach(assembler::declare);
+        tree.gameElement().forEach(assembler::declare);
+        Adventure adventure = assembler.assemble();
+        long visited = System.nanoTime();
+
+        record(fallback, lexed - start, parsed - lexed, visited - parsed);
+        return adventure;
+    }
 
-        parser.addErrorListener(new BaseErrorListener() {
-            @Override
-            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e) {
-                throw new IllegalStateException("failed to parse at line " + line + " due to " + msg, e);
+    private Adventure parseStream(Reader r, AdventureImage.Writer image) throws IOException {
+        long start = System.nanoTime();
+        AdventureLexer lexer = new AdventureLexer(new UnbufferedCharStream(r));
+        // the characters a token was lexed from are let go of, so it has to keep its own text
+        lexer.setTokenFactory(new CommonTokenFactory(true));
+        AdventureParser parser = new AdventureParser(new UnbufferedTokenStream<>(lexer));
+        parser.addErrorListener(FAIL_ON_SYNTAX_ERROR);
+        AdventureAssembler assembler = new AdventureAssembler(image);
+        parser.addParseListener(new DeclarationListener(assembler));
+        try {
+            parser.adventure();
+        } catch (RuntimeException e) {
+            // the unbuffered stream reads as it goes and can only throw unchecked exceptions
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
             }
-        });
+            throw e;
+        }
+        long parsed = System.nanoTime();
+
+        Adventure adventure = assembler.assemble();
+        long visited = System.nanoTime();
 
-        return new AdventureVisitor().visit(parser.adventure());
+        record(false, 0, parsed - start, visited - parsed);
+        return adventure;
     }
 
-    private static class AdventureVisitor extends AdventureBaseVisitor<Adventure> {
+    private synchronized void record(boolean fallback, long lexTimeNanos, long parseTimeNanos, long visitTimeNanos) {
+        parseCount++;
+        fallbackCount += fallback ? 1 : 0;
+        totalLexTimeNanos += lexTimeNanos;
+        totalParseTimeNanos += parseTimeNanos;
+        totalVisitTimeNanos += visitTimeNanos;
+    }
 
-        @Override
-        public Adventure visitAdventure(AdventureContext adventureContext) {
-            Rooms rooms = getRooms(adventureContext);
-            Set<Room> roomSet = rooms.copyOfRooms();
+    /**
+     * Point-in-time totals of the phases of every script parsed so far.
+     */
+    public static final class Statistics {
+        private final long parseCount;
+        private final long fallbackCount;
+        private final long totalLexTimeNanos;
+        private final long totalParseTimeNanos;
+        private final long totalVisitTimeNanos;
 
-            Room startingRoom = getStartingRoom(adventureContext, roomSet);
+        private Statistics(long parseCount, long fallbackCount, long totalLexTimeNanos, long totalParseTimeNanos, long totalVisitTimeNanos) {
+            this.parseCount = parseCount;
+            this.fallbackCount = fallbackCount;
+            this.totalLexTimeNanos = totalLexTimeNanos;
+            this.totalParseTimeNanos = totalParseTimeNanos;
+            this.totalVisitTimeNanos = totalVisitTimeNanos;
+        }
 
-            Items items = getItems(adventureContext, roomSet);
-            Set<Item> itemSet = items.copyOfItems();
+        /**
+         * Number of scripts parsed into an adventure.
+         */
+        public long getParseCount() {
+            return parseCount;
+        }
 
-            Actions occurs = getOccurs(adventureContext, itemSet, roomSet);
+        /**
+         * Number of those scripts which SLL prediction couldn't parse, so they were parsed again with LL.
+         */
+        public long getFallbackCount() {
+            return fallbackCount;
+        }
 
-            Vocabulary vocabulary = getVocabulary(adventureContext).merge(rooms.buildVocabulary());
+        /**
+         * Time spent turning the scripts into tokens. A script parsed as a stream is lexed as it is parsed, which
+         * counts as parse time.
+         */
+        public long getTotalLexTimeNanos() {
+            return totalLexTimeNanos;
+        }
 
-            Actions actions = getActions(adventureContext, vocabulary, itemSet, roomSet);
+        /**
+         * Time spent parsing the tokens into syntax trees, including any second parse with LL.
+         */
+        public long getTotalParseTimeNanos() {
+            return totalParseTimeNanos;
+        }
 
-            vocabulary = vocabulary.merge(actions.buildVocabulary());
+        /**
+         * Time spent building adventures from the declarations and resolving their references.
+         */
+        public long getTotalVisitTimeNanos() {
+            return totalVisitTimeNanos;
+        }
+    }
 
-            return new Adventure(vocabulary, occurs.copyOfActions(), actions.copyOfActions(), itemSet, startingRoom);
+    /**
+     * Takes the declarations of a script one at a time and assembles the adventure once it has been given all of them.
+     * <p>
+     * Each declaration is built as far as it can be as it is declared, so neither its part of the syntax tree nor
+     * the declaration itself needs to be kept. Rooms and items are built straight away and occurs as soon as the rooms
+     * and items they refer to are known. An action's conditions and results are resolved likewise, and only its
+     * command words wait for {@link #assemble()}, when every word of the script is known. What refers to a room or
+     * item declared further down is kept by name until it has been declared.
+     */
+    private static class AdventureAssembler {
+
+        // records the opcodes of the occurs and actions if the script is being compiled, otherwise null
+        private final AdventureImage.Writer image;
+
+        private final Rooms rooms = Rooms.newRoomSet();
+        private final Items items = Items.newItemSet();
+        private final Actions occurs = Actions.newActionSet();
+        private final Set<Word> words = new LinkedHashSet<>();
+        // the first room and item of each name, as they are declared
+        private final Map<String, Room> roomsByName = new HashMap<>();
+        private final Map<String, Item> itemsByName = new HashMap<>();
+        private final SymbolTable symbols = new SymbolTable(roomsByName, itemsByName);
+        // items and occurs are built in declaration order, so those declared after one still waiting on a room or item wait too
+        private final Deque<ItemDeclaration> pendingItems = new ArrayDeque<>();
+        private final List<RuleDeclaration> pendingOccurs = new ArrayList<>();
+        private final List<RuleDeclaration> actionDeclarations = new ArrayList<>();
+        private String startingRoomName;
+
+        private final RoomDeclarationVisitor roomVisitor = new RoomDeclarationVisitor(rooms);
+        private final ItemDeclarationVisitor itemVisitor = new ItemDeclarationVisitor(items);
+        private final VocabularyDeclarationVisitor vocabularyVisitor = new VocabularyDeclarationVisitor();
+        // slots are bound as the declarations are parsed, so they are numbered in declaration order
+        private final Slots slots = new Slots();
+        private final RuleDeclarationVisitor ruleVisitor = new RuleDeclarationVisitor(slots);
+
+        private AdventureAssembler(AdventureImage.Writer image) {
+            this.image = image;
+        }
+
+        void declare(GlobalParameterContext ctx) {
+            if (null == startingRoomName && ctx instanceof GlobalParameterStartContext) {
+                startingRoomName = ((GlobalParameterStartContext) ctx).startParameter().roomName().getText();
+            }
         }
 
-        private Rooms getRooms(AdventureContext adventureContext) {
-            Rooms rooms = Rooms.newRoomSet();
-            RoomDeclarationVisitor visitor = new RoomDeclarationVisitor(rooms);
-            adventureContext.gameElement().stream()
-                    .filter(gameElementContext -> null != gameElementContext.roomDeclaration())
-                    .forEach(gameElementContext -> gameElementContext.roomDeclaration().accept(visitor));
-            return rooms;
+        void declare(GameElementContext ctx) {
+            if (null != ctx.roomDeclaration()) {
+                Room room = ctx.roomDeclaration().accept(roomVisitor);
+                roomsByName.putIfAbsent(room.getName(), room);
+                buildPendingItems();
+            } else if (null != ctx.itemDeclaration()) {
+                pendingItems.add(ctx.itemDeclaration().accept(itemVisitor));
+                buildPendingItems();
+            } else if (null != ctx.vocabularyDeclaration()) {
+                words.add(ctx.vocabularyDeclaration().accept(vocabularyVisitor));
+            } else if (null != ctx.occursDeclaration()) {
+                RuleDeclaration declaration = ctx.occursDeclaration().accept(ruleVisitor)
+                        .recordedBy(null == image ? null : image.newOccurs());
+                if (declaration.resolve(symbols) && pendingOccurs.isEmpty()) {
+                    declaration.build(occurs.newAction(), symbols, null);
+                } else {
+                    pendingOccurs.add(declaration);
+                }
+            } else if (null != ctx.actionDeclaration()) {
+                RuleDeclaration declaration = ctx.actionDeclaration().accept(ruleVisitor)
+                        .recordedBy(null == image ? null : image.newAction());
+                declaration.resolve(symbols);
+                actionDeclarations.add(declaration);
+            }
+        }
+
+        private void buildPendingItems() {
+            while (!pendingItems.isEmpty() && pendingItems.peek().canBuild(roomsByName)) {
+                Item item = pendingItems.remove().build(roomsByName);
+                itemsByName.putIfAbsent(item.getName(), item);
+            }
         }
 
-        private Room getStartingRoom(AdventureContext adventureContext, Set<Room> rooms) {
+        Adventure assemble() {
+            Set<Room> roomSet = rooms.copyOfRooms();
+            Room startingRoom = getStartingRoom(roomSet);
+
+            // whatever still waits refers to something never declared, which fails to build now
+            for (ItemDeclaration itemDeclaration : pendingItems) {
+                Item item = itemDeclaration.build(roomsByName);
+                itemsByName.putIfAbsent(item.getName(), item);
+            }
+            Set<Item> itemSet = items.copyOfItems();
+            pendingOccurs.forEach(declaration -> declaration.build(occurs.newAction(), symbols, null));
+
+            // the whole vocabulary is known before any action is built so every word is interned in the same symbol table
+            Vocabulary vocabulary = new Vocabulary(vocabularyWords());
+            internExitDirections(roomSet, vocabulary);
+
+            Actions actions = new RuleBuilder(actionDeclarations, symbols, toWord(vocabulary)).invoke();
+
+            return new Adventure(vocabulary, occurs.copyOfActions(), actions.copyOfActions(), itemSet, roomSet, startingRoom, slots);
+        }
+
+        /*
+         * The declared words, then the exit directions, then the words only actions use. An action's word which is a
+         * synonym of a declared word is that word, so the words are collected first and the vocabulary built once.
+         */
+        private Set<Word> vocabularyWords() {
+            Set<Word> vocabularyWords = new LinkedHashSet<>(words);
+            vocabularyWords.addAll(rooms.getWords());
+            Map<String, Word> declaredWordsBySynonym = new HashMap<>(vocabularyWords.size() * 4);
+            for (Word word : vocabularyWords) {
+                for (String synonym : word.getSynonyms()) {
+                    // like the vocabulary, the first word with a synonym wins
+                    declaredWordsBySynonym.putIfAbsent(upperCase(synonym), word);
+                }
+            }
+            actionDeclarations.stream()
+                    .flatMap(RuleDeclaration::words)
+                    .map(word -> RuleDeclaration.resolve(word, text -> declaredWordsBySynonym.getOrDefault(upperCase(text), word)))
+                    .forEach(vocabularyWords::add);
+            return vocabularyWords;
+        }
+
+        // folds case a letter at a time, as the vocabulary matches words
+        private static String upperCase(String text) {
+            char[] letters = text.toCharArray();
+            for (int i = 0; i < letters.length; i++) {
+                letters[i] = Character.toUpperCase(letters[i]);
+            }
+            return new String(letters);
+        }
+
+        private static Function<String, Word> toWord(Vocabulary vocabulary) {
+            return text -> vocabulary.findMatch(text).orElse(new Word(text));
+        }
+
+        private Room getStartingRoom(Set<Room> rooms) {
             if (rooms.isEmpty()) {
                 return Room.NOWHERE;
             }
-            return getGlobalParameterStart(adventureContext)
-                    .flatMap(roomName -> rooms.stream()
-                            .filter(room -> room.getName().equals(roomName))
-                            .findFirst())
+            return ofNullable(startingRoomName)
+                    .map(roomsByName::get)
                     .orElse(rooms.iterator().next());
         }
 
-        private Optional<String> getGlobalParameterStart(AdventureContext adventureContext) {
-            return adventureContext.globalParameter().stream()
-                    .map(globalParameterContext -> globalParameterContext.accept(new AdventureBaseVisitor<String>() {
-                        @Override
-                        public String visitGlobalParameterStart(GlobalParameterStartContext ctx) {
-                            return ctx.startParameter().roomName().getText();
-                        }
-                    })).findFirst();
+        private void internExitDirections(Set<Room> rooms, Vocabulary vocabulary) {
+            for (Room room : rooms) {
+                // replacing an exit moves it to the end, so replacing all of them in turn keeps their order
+                for (Room.Exit exit : new ArrayList<>(room.getExits())) {
+                    room.setExit(vocabulary.intern(exit.getDirection()), exit.getRoom());
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands every declaration to the assembler as soon as it has been parsed and drops it from the syntax tree, so
+     * the tree never holds more than the declaration being parsed.
+     */
+    private static class DeclarationListener implements ParseTreeListener {
+        private final AdventureAssembler assembler;
+
+        private DeclarationListener(AdventureAssembler assembler) {
+            this.assembler = assembler;
+        }
+
+        @Override
+        public void exitEveryRule(ParserRuleContext ctx) {
+            if (ctx instanceof GlobalParameterContext) {
+                assembler.declare((GlobalParameterContext) ctx);
+                ctx.getParent().removeLastChild();
+            } else if (ctx instanceof GameElementContext) {
+                assembler.declare((GameElementContext) ctx);
+                ctx.getParent().removeLastChild();
+            }
+        }
+
+        @Override
+        public void enterEveryRule(ParserRuleContext ctx) {
+        }
+
+        @Override
+        public void visitTerminal(TerminalNode node) {
+        }
+
+        @Override
+        public void visitErrorNode(ErrorNode node) {
         }
+    }
 
-        private Items getItems(AdventureContext adventureContext, Set<Room> rooms) {
-            Items items = Items.newItemSet();
-            ItemDeclarationVisitor visitor = new ItemDeclarationVisitor(items, rooms);
-            adventureContext.gameElement().stream()
-                    .filter(gameElementContext -> null != gameElementContext.itemDeclaration())
-                    .forEach(gameElementContext -> gameElementContext.itemDeclaration().accept(visitor));
-            return items;
+    /**
+     * Builds actions from their declarations as fork/join tasks over chunks of them.
+     * <p>
+     * Once the rooms, items and words are known the declarations don't depend on each other, and building one only
+     * reads the symbol tables and the vocabulary, so the chunks are built in parallel and merged back together in
+     * declaration order.
+     */
+    private static class RuleBuilder extends RecursiveTask<Actions> {
+        private static final long serialVersionUID = 1L;
+
+        // few enough rules that forking to build them costs more than building them
+        private static final int CHUNK_SIZE = 256;
+
+        private final List<RuleDeclaration> declarations;
+        private final SymbolTable symbols;
+        private final Function<String, Word> toWord;
+        private final int from;
+        private final int to;
+
+        private RuleBuilder(List<RuleDeclaration> declarations, SymbolTable symbols, Function<String, Word> toWord) {
+            this(declarations, symbols, toWord, 0, declarations.size());
         }
 
-        private Vocabulary getVocabulary(AdventureContext adventureContext) {
-            VocabularyDeclarationVisitor visitor = new VocabularyDeclarationVisitor();
-            Set<Word> words = adventureContext.gameElement().stream()
-                    .filter(gameElementContext -> null != gameElementContext.vocabularyDeclaration())
-                    .map(gameElementContext -> gameElementContext.vocabularyDeclaration().accept(visitor))
-                    .collect(toSet());
-            return new Vocabulary(words);
+        private RuleBuilder(List<RuleDeclaration> declarations, SymbolTable symbols, Function<String, Word> toWord, int from, int to) {
+            this.declarations = declarations;
+            this.symbols = symbols;
+            this.toWord = toWord;
+            this.from = from;
+            this.to = to;
         }
 
-        private Actions getActions(AdventureContext adventureContext, Vocabulary vocabulary, Set<Item> items, Set<Room> rooms) {
-            Actions actions = Actions.newActionSet();
-            ActionDeclarationVisitor visitor = new ActionDeclarationVisitor(actions, items, rooms, vocabulary);
-            adventureContext.gameElement().stream()
-                    .filter(gameElementContext -> null != gameElementContext.actionDeclaration())
-                    .forEach(gameElementContext -> gameElementContext.actionDeclaration().accept(visitor));
-            return actions;
+        @Override
+        protected Actions compute() {
+            if (to - from <= CHUNK_SIZE) {
+                Actions actions = Actions.newActionSet();
+                for (int i = from; i < to; i++) {
+                    declarations.get(i).build(actions.newAction(), symbols, toWord);
+                }
+                return actions;
+            }
+            int middle = (from + to) >>> 1;
+            RuleBuilder first = new RuleBuilder(declarations, symbols, toWord, from, middle);
+            RuleBuilder second = new RuleBuilder(declarations, symbols, toWord, middle, to);
+            second.fork();
+            Actions built = first.compute();
+            return built.merge(second.join());
         }
+    }
+
+    /**
+     * The rooms and items the references of occurs and actions are resolved against, which grow as they are declared.
+     */
+    private static class SymbolTable {
+        private final Map<String, Room> rooms;
+        private final Map<String, Item> items;
 
-        private Actions getOccurs(AdventureContext adventureContext, Set<Item> items, Set<Room> rooms) {
-            Actions actions = Actions.newActionSet();
-            OccursDeclarationVisitor visitor = new OccursDeclarationVisitor(actions, items, rooms);
-            adventureContext.gameElement().stream()
-                    .filter(gameElementContext -> null != gameElementContext.occursDeclaration())
-                    .forEach(gameElementContext -> gameElementContext.occursDeclaration().accept(visitor));
-            return actions;
+        private SymbolTable(Map<String, Room> rooms, Map<String, Item> items) {
+            this.rooms = rooms;
+            this.items = items;
+        }
+
+        Item getItemOrFail(String itemName) {
+            return ofNullable(items.get(itemName)).orElseThrow(ParseCancellationException::new);
+        }
+
+        Room getRoomOrFail(String roomName) {
+            return ofNullable(rooms.get(roomName)).orElseThrow(ParseCancellationException::new);
         }
     }
 
-    private static class RoomDeclarationVisitor extends AdventureBaseVisitor<Void> {
+    /**
+     * Records the opcodes of the conditions and results of an occurs or action, if the script is being compiled.
+     * <p>
+     * They are resolved before the words of an action's command are known, so their opcodes are held until the words
+     * have been written to the rule and then written after them.
+     */
+    private static class Recorder {
+        private static final Recorder NONE = new Recorder(null, false);
+
+        private final List<Consumer<RuleWriter>> ops;
+        private final boolean negated;
+
+        private Recorder(List<Consumer<RuleWriter>> ops, boolean negated) {
+            this.ops = ops;
+            this.negated = negated;
+        }
+
+        static Recorder of(RuleWriter rule) {
+            return null == rule ? NONE : new Recorder(new ArrayList<>(), false);
+        }
+
+        Recorder negated() {
+            return null == ops ? NONE : new Recorder(ops, !negated);
+        }
+
+        void condition(Op op, Object... operands) {
+            if (null == ops) {
+                return;
+            }
+            if (negated) {
+                ops.add(rule -> rule.whenNot(op, operands));
+            } else {
+                ops.add(rule -> rule.when(op, operands));
+            }
+        }
+
+        void result(Op op, Object... operands) {
+            if (null != ops) {
+                ops.add(rule -> rule.then(op, operands));
+            }
+        }
+
+        void writeTo(RuleWriter rule) {
+            if (null != ops) {
+                ops.forEach(op -> op.accept(rule));
+            }
+        }
+    }
+
+    /**
+     * A condition or result as it was declared, which becomes one once what it refers to can be resolved.
+     */
+    @FunctionalInterface
+    private interface Declared<T> {
+        T resolve(SymbolTable symbols, Recorder recorder);
+    }
+
+    private static class RoomDeclarationVisitor extends AdventureBaseVisitor<Room> {
 
         private Rooms rooms;
 
@@ -206,14 +640,13 @@ public class AdventureScriptParserImpl implements AdventureScriptParser {
         }
 
         @Override
-        public Void visitRoomDeclaration(RoomDeclarationContext ctx) {
+        public Room visitRoomDeclaration(RoomDeclarationContext ctx) {
             Rooms.RoomBuilder roomBuilder = rooms
                     .newRoom()
                     .named(ctx.roomName().getText())
                     .describedAs(ctx.roomDescription().getText());
             setExits(ctx.roomExits(), roomBuilder);
-            roomBuilder.build();
-            return null;
+            return roomBuilder.build();
         }
 
         private void setExits(RoomExitsContext context, Rooms.RoomBuilder roomBuilder) {
@@ -243,23 +676,44 @@ public class AdventureScriptParserImpl implements AdventureScriptParser {
         }
     }
 
-    private static class ItemDeclarationVisitor extends AdventureBaseVisitor<Item> {
+    /**
+     * An item whose room, if it starts in one, may not have been declared yet.
+     */
+    private static class ItemDeclaration {
+        private final Item.Builder builder;
+        private final String roomName;
+
+        private ItemDeclaration(Item.Builder builder, String roomName) {
+            this.builder = builder;
+            this.roomName = roomName;
+        }
+
+        boolean canBuild(Map<String, Room> rooms) {
+            return null == roomName || rooms.containsKey(roomName);
+        }
+
+        Item build(Map<String, Room> rooms) {
+            if (null != roomName) {
+                builder.in(ofNullable(rooms.get(roomName)).orElseThrow(ParseCancellationException::new));
+            }
+            return builder.build();
+        }
+    }
+
+    private static class ItemDeclarationVisitor extends AdventureBaseVisitor<ItemDeclaration> {
         private final Items items;
-        private final Set<Room> rooms;
 
-        private ItemDeclarationVisitor(Items items, Set<Room> rooms) {
+        private ItemDeclarationVisitor(Items items) {
             this.items = items;
-            this.rooms = rooms;
         }
 
         @Override
-        public Item visitItemDeclaration(ItemDeclarationContext ctx) {
+        public ItemDeclaration visitItemDeclaration(ItemDeclarationContext ctx) {
             Item.Builder builder = items.newItem()
                     .named(ctx.itemName().getText())
                     .describedAs(ctx.itemDescription().getText());
             setAliases(ctx.itemAliases(), builder);
-            setLocation(ctx.itemLocation(), builder);
-            return builder.build();
+            return new ItemDeclaration(builder, setLocation(ctx.itemLocation(), builder));
         }
 
         private void setAliases(ItemAliasesContext context, Item.Builder builder) {
@@ -270,39 +724,38 @@ public class AdventureScriptParserImpl implements AdventureScriptParser {
                                     .forEach(s -> builder.alias(s).portable())));
         }
 
-        private void setLocation(ItemLocationContext context, Item.Builder builder) {
-            ofNullable(context)
-                    .<Runnable>map(itemLocationContext -> () -> itemLocationContext.accept(new ItemLocationVisitor(builder, rooms)))
-                    .orElse(() -> builder.in(Room.NOWHERE))
-                    .run(); // Hack for ifPresentOrElse
+        // returns the name of the room the item is in, if it is in one, for it to be resolved later
+        private String setLocation(ItemLocationContext context, Item.Builder builder) {
+            if (null == context) {
+                builder.in(Room.NOWHERE);
+                return null;
+            }
+            return context.accept(new ItemLocationVisitor(builder));
         }
     }
 
-    private static class ItemLocationVisitor extends AdventureBaseVisitor<Item.Builder> {
+    private static class ItemLocationVisitor extends AdventureBaseVisitor<String> {
         private final Item.Builder builder;
-        private final Set<Room> rooms;
 
-        private ItemLocationVisitor(Item.Builder builder, Set<Room> rooms) {
+        private ItemLocationVisitor(Item.Builder builder) {
             this.builder = builder;
-            this.rooms = rooms;
         }
 
         @Override
-        public Item.Builder visitItemInRoom(ItemInRoomContext ctx) {
-            String roomName = ctx.roomName().getText();
-            return builder.in(rooms.stream()
-                    .filter(room -> room.getName().equals(roomName)).findFirst()
-                    .orElseThrow(ParseCancellationException::new));
+        public String visitItemInRoom(ItemInRoomContext ctx) {
+            return ctx.roomName().getText();
         }
 
         @Override
-        public Item.Builder visitItemIsNowhere(ItemIsNowhereContext ctx) {
-            return builder.in(Room.NOWHERE);
+        public String visitItemIsNowhere(ItemIsNowhereContext ctx) {
+            builder.in(Room.NOWHERE);
+            return null;
         }
 
         @Override
-        public Item.Builder visitItemIsInInventory(ItemIsInInventoryContext ctx) {
-            return builder.inInventory();
+        public String visitItemIsInInventory(ItemIsInInventoryContext ctx) {
+            builder.inInventory();
+            return null;
         }
     }
 
@@ -317,94 +770,183 @@ public class AdventureScriptParserImpl implements AdventureScriptParser {
         }
     }
 
-    private static class OccursDeclarationVisitor extends AdventureBaseVisitor<Action> {
-        private final Actions actions;
-        private final Set<Item> items;
-        private final Set<Room> rooms;
-
-        private OccursDeclarationVisitor(Actions actions, Set<Item> items, Set<Room> rooms) {
-            this.actions = actions;
-            this.items = items;
-            this.rooms = rooms;
+    /**
+     * An occurs or action as it was declared: its command words as written, waiting for the vocabulary, and its
+     * conditions and results, resolved as soon as the rooms and items they refer to are known.
+     */
+    private static class RuleDeclaration {
+        // the chance in percent an occurs has to happen, or null if it happens whenever its conditions hold
+        private final Integer probability;
+        // the words of the command at each position, of which any one may match if there are several
+        private final List<Word[]> command = new ArrayList<>();
+        private final List<Boolean> anyOf = new ArrayList<>();
+        // as declared until they are resolved, and dropped once they are
+        private List<Declared<Action.Result>> declaredResults = new ArrayList<>();
+        private List<Declared<Action.Condition>> declaredConditions = new ArrayList<>();
+        private Action.Result[] results;
+        private Action.Condition[] conditions;
+        // the rule's record in the image, taken when it is declared so the image keeps the declaration order, or null
+        private RuleWriter rule;
+        private Recorder recorder = Recorder.NONE;
+
+        private RuleDeclaration(Integer probability) {
+            this.probability = probability;
+        }
+
+        void onWordAt(Word word) {
+            command.add(new Word[]{word});
+            anyOf.add(false);
+        }
+
+        void onAnyWordAt(Word[] words) {
+            command.add(words);
+            anyOf.add(true);
+        }
+
+        Stream<Word> words() {
+            return command.stream().flatMap(Stream::of);
+        }
+
+        /**
+         * Returns the vocabulary's word for a command word as written, or the word itself for any, none and unknown.
+         */
+        static Word resolve(Word word, Function<String, Word> toWord) {
+            if (word == Word.ANY || word == Word.NONE || word.isUnrecognized()) {
+                return word;
+            }
+            return toWord.apply(word.getName());
         }
 
-        @Override
-        public Action visitOccursDeclaration(OccursDeclarationContext ctx) {
-            Actions.ActionBuilder builder = actions.newAction();
-            ofNullable(ctx.Number()).ifPresent(number -> builder.when(Conditions.random(Integer.parseInt(number.getText()))));
-            actionResults(ctx.actionResultDeclaration(), builder);
-            actionConditions(ctx.actionConditionDeclaration(), builder);
-            return builder.build();
+        RuleDeclaration recordedBy(RuleWriter rule) {
+            this.rule = rule;
+            return this;
         }
 
-        void actionResults(List<ActionResultDeclarationContext> contextList, Actions.ActionBuilder builder) {
-            ActionResultDeclarationVisitor visitor = new ActionResultDeclarationVisitor(items, rooms);
-            ofNullable(contextList).ifPresent(actionResultDeclarationContexts -> actionResultDeclarationContexts.stream()
-                    .map(actionResultDeclarationContext -> actionResultDeclarationContext.accept(visitor))
-                    .forEach(builder::then));
+        /**
+         * Resolves the conditions and results if every room and item they refer to has been declared, and returns
+         * whether they have been.
+         */
+        boolean resolve(SymbolTable symbols) {
+            try {
+                resolveOrFail(symbols);
+                return true;
+            } catch (ParseCancellationException e) {
+                // refers to something declared further down, so it is resolved once that has been
+                return false;
+            }
         }
 
-        void actionConditions(List<ActionConditionDeclarationContext> contextList, Actions.ActionBuilder builder) {
-            ActionConditionDeclarationVisitor visitor = new ActionConditionDeclarationVisitor(items, rooms);
-            ofNullable(contextList).ifPresent(actionConditionDeclarationContexts -> actionConditionDeclarationContexts.stream()
-                    .map(actionConditionDeclarationContext -> actionConditionDeclarationContext.accept(visitor))
-                    .forEach(builder::when));
+        private void resolveOrFail(SymbolTable symbols) {
+            if (null != results) {
+                return;
+            }
+            Recorder recorder = Recorder.of(rule);
+            Action.Result[] results = declaredResults.stream()
+                    .map(result -> result.resolve(symbols, recorder))
+                    .toArray(Action.Result[]::new);
+            Action.Condition[] conditions = declaredConditions.stream()
+                    .map(condition -> condition.resolve(symbols, recorder))
+                    .toArray(Action.Condition[]::new);
+            this.results = results;
+            this.conditions = conditions;
+            this.recorder = recorder;
+            declaredResults = null;
+            declaredConditions = null;
+        }
+
+        void build(Actions.ActionBuilder builder, SymbolTable symbols, Function<String, Word> toWord) {
+            resolveOrFail(symbols);
+            if (null != probability) {
+                builder.when(Conditions.random(probability));
+                ofNullable(rule).ifPresent(r -> r.when(Op.RANDOM, probability));
+            }
+            for (int i = 0; i < command.size(); i++) {
+                int position = i + 1;
+                Word[] words = Stream.of(command.get(i)).map(word -> resolve(word, toWord)).toArray(Word[]::new);
+                if (anyOf.get(i)) {
+                    builder.onAnyWordAt(position, words);
+                    ofNullable(rule).ifPresent(r -> r.onAnyWordAt(position, words));
+                } else {
+                    builder.onWordAt(position, words[0]);
+                    ofNullable(rule).ifPresent(r -> r.onWordAt(position, words[0]));
+                }
+            }
+            recorder.writeTo(rule);
+            Stream.of(results).forEach(builder::then);
+            Stream.of(conditions).forEach(builder::when);
+            builder.build();
         }
     }
 
-    private static class ActionDeclarationVisitor extends OccursDeclarationVisitor {
-        private final Actions actions;
-        private final ActionWordVisitor actionWordVisitor;
+    private static class RuleDeclarationVisitor extends AdventureBaseVisitor<RuleDeclaration> {
+        private final ActionWordVisitor actionWordVisitor = new ActionWordVisitor();
+        private final ActionResultDeclarationVisitor resultVisitor;
+        private final ActionConditionDeclarationVisitor conditionVisitor;
 
-        private ActionDeclarationVisitor(Actions actions, Set<Item> items, Set<Room> rooms, Vocabulary vocabulary) {
-            super(actions, items, rooms);
-            this.actions = actions;
-            this.actionWordVisitor = new ActionWordVisitor(vocabulary);
+        private RuleDeclarationVisitor(Slots slots) {
+            this.resultVisitor = new ActionResultDeclarationVisitor(slots);
+            this.conditionVisitor = new ActionConditionDeclarationVisitor(slots);
         }
 
         @Override
-        public Action visitActionDeclaration(ActionDeclarationContext ctx) {
-            Actions.ActionBuilder builder = actions.newAction();
-            actionCommand(ctx, builder);
-            super.actionResults(ctx.actionResultDeclaration(), builder);
-            super.actionConditions(ctx.actionConditionDeclaration(), builder);
-            return builder.build();
+        public RuleDeclaration visitOccursDeclaration(OccursDeclarationContext ctx) {
+            RuleDeclaration rule = new RuleDeclaration(ofNullable(ctx.Number())
+                    .map(number -> Integer.parseInt(number.getText()))
+                    .orElse(null));
+            actionResults(ctx.actionResultDeclaration(), rule);
+            actionConditions(ctx.actionConditionDeclaration(), rule);
+            return rule;
         }
 
-        private void actionCommand(ActionDeclarationContext ctx, Actions.ActionBuilder builder) {
-            AtomicInteger position = new AtomicInteger(1);
+        @Override
+        public RuleDeclaration visitActionDeclaration(ActionDeclarationContext ctx) {
+            RuleDeclaration rule = new RuleDeclaration(null);
             for (ActionWordOrListContext actionWordOrListContext : ctx.actionCommand().actionWordOrList()) {
 
                 ofNullable(actionWordOrListContext.actionWord())
                         .map(actionWordContext -> actionWordContext.accept(actionWordVisitor))
-                        .ifPresent(word -> builder.onWordAt(position.getAndIncrement(), word));
+                        .ifPresent(rule::onWordAt);
 
                 ofNullable(actionWordOrListContext.actionWordList())
                         .map(ActionWordListContext::actionWord)
                         .map(actionWordContextList -> actionWordContextList.stream().map(actionWordContext -> actionWordContext.accept(actionWordVisitor)))
                         .map(wordStream -> wordStream.toArray(Word[]::new))
-                        .ifPresent(list -> builder.onAnyWordAt(position.getAndIncrement(), list));
+                        .ifPresent(rule::onAnyWordAt);
             }
+            actionResults(ctx.actionResultDeclaration(), rule);
+            actionConditions(ctx.actionConditionDeclaration(), rule);
+            return rule;
         }
 
+        private void actionResults(List<ActionResultDeclarationContext> contextList, RuleDeclaration rule) {
+            ofNullable(contextList).ifPresent(actionResultDeclarationContexts -> actionResultDeclarationContexts.stream()
+                    .map(actionResultDeclarationContext -> actionResultDeclarationContext.accept(resultVisitor))
+                    .forEach(rule.declaredResults::add));
+        }
+
+        private void actionConditions(List<ActionConditionDeclarationContext> contextList, RuleDeclaration rule) {
+            ofNullable(contextList).ifPresent(actionConditionDeclarationContexts -> actionConditionDeclarationContexts.stream()
+                    .map(actionConditionDeclarationContext -> actionConditionDeclarationContext.accept(conditionVisitor))
+                    .forEach(rule.declaredConditions::add));
+        }
     }
 
+    /**
+     * Returns the words of an action's command as written, to be looked up in the vocabulary once it is complete.
+     */
     private static class ActionWordVisitor extends AdventureBaseVisitor<Word> {
 
-        private final Function<String, Word> toWord;
-
-        private ActionWordVisitor(Vocabulary vocabulary) {
-            this.toWord = text -> vocabulary.findMatch(text).orElse(new Word(text));
-        }
+        // the same text is always the same word, so it is held once however many actions use it
+        private final Map<String, Word> words = new HashMap<>();
 
         @Override
         public Word visitActionWordWord(ActionWordWordContext ctx) {
-            return toWord.apply(ctx.getText());
+            return words.computeIfAbsent(ctx.getText(), Word::of);
         }
 
         @Override
         public Word visitActionWordDirection(ActionWordDirectionContext ctx) {
-            return toWord.apply(ctx.exitDirection().getText());
+            return words.computeIfAbsent(ctx.exitDirection().getText(), Word::of);
         }
 
         @Override
@@ -424,248 +966,368 @@ public class AdventureScriptParserImpl implements AdventureScriptParser {
 
     }
 
-    private abstract static class ActionVisitor<T> extends AdventureBaseVisitor<T> {
-        private final Set<Item> items;
-        private final Set<Room> rooms;
-
-        private ActionVisitor(Set<Item> items, Set<Room> rooms) {
-            this.items = items;
-            this.rooms = rooms;
-        }
-
-        Item getItemOrFail(String itemName) {
-            return items.stream()
-                    .filter(item -> item.getName().equals(itemName))
-                    .findFirst()
-                    .orElseThrow(ParseCancellationException::new);
-        }
-
-        Room getRoomOrFail(String roomName) {
-            return rooms.stream()
-                    .filter(room -> room.getName().equals(roomName))
-                    .findFirst()
-                    .orElseThrow(ParseCancellationException::new);
-        }
-
-    }
-
-    private static class ActionResultDeclarationVisitor extends ActionVisitor<Action.Result> {
+    private static class ActionResultDeclarationVisitor extends AdventureBaseVisitor<Declared<Action.Result>> {
+        private final Slots slots;
 
-        private ActionResultDeclarationVisitor(Set<Item> items, Set<Room> rooms) {
-            super(items, rooms);
+        private ActionResultDeclarationVisitor(Slots slots) {
+            this.slots = slots;
         }
 
         @Override
-        public Action.Result visitResultPrint(ResultPrintContext ctx) {
-            return Results.println(ctx.message.getText());
+        public Declared<Action.Result> visitResultPrint(ResultPrintContext ctx) {
+            String message = ctx.message.getText();
+            Action.Result println = Results.println(message, slots);
+            return (symbols, recorder) -> {
+                recorder.result(Op.PRINT, message);
+                return println;
+            };
         }
 
         @Override
-        public Action.Result visitResultLook(ResultLookContext ctx) {
-            return Results.look;
+        public Declared<Action.Result> visitResultLook(ResultLookContext ctx) {
+            return (symbols, recorder) -> {
+                recorder.result(Op.LOOK);
+                return Results.look;
+            };
         }
 
         @Override
-        public Action.Result visitResultGo(ResultGoContext ctx) {
+        public Declared<Action.Result> visitResultGo(ResultGoContext ctx) {
             if (null == ctx.word()) {
-                return Results.goInDirectionMatchingCommandWordAt(1);
+                return (symbols, recorder) -> {
+                    recorder.result(Op.GO_AT, 1);
+                    return Results.goInDirectionMatchingCommandWordAt(1);
+                };
             }
             String word = ctx.word().getText();
             if (word.startsWith("$")) {
                 int position = Integer.parseInt(word.substring(1));
-                return Results.goInDirectionMatchingCommandWordAt(position);
+                return (symbols, recorder) -> {
+                    recorder.result(Op.GO_AT, position);
+                    return Results.goInDirectionMatchingCommandWordAt(position);
+                };
             }
-            return Results.go(Word.of(word));
+            return (symbols, recorder) -> {
+                recorder.result(Op.GO, word);
+                return Results.go(Word.of(word));
+            };
         }
 
         @Override
-        public Action.Result visitResultQuit(ResultQuitContext ctx) {
-            return Results.quit;
+        public Declared<Action.Result> visitResultQuit(ResultQuitContext ctx) {
+            return (symbols, recorder) -> {
+                recorder.result(Op.QUIT);
+                return Results.quit;
+            };
         }
 
         @Override
-        public Action.Result visitResultInventory(ResultInventoryContext ctx) {
-            return Results.inventory;
+        public Declared<Action.Result> visitResultInventory(ResultInventoryContext ctx) {
+            return (symbols, recorder) -> {
+                recorder.result(Op.INVENTORY);
+                return Results.inventory;
+            };
         }
 
         @Override
-        public Action.Result visitResultSwap(ResultSwapContext ctx) {
-            Item item1 = getItemOrFail(ctx.i1.getText());
-            Item item2 = getItemOrFail(ctx.i2.getText());
-            return Results.swap(item1, item2);
+        public Declared<Action.Result> visitResultSwap(ResultSwapContext ctx) {
+            String itemName1 = ctx.i1.getText();
+            String itemName2 = ctx.i2.getText();
+            return (symbols, recorder) -> {
+                Item item1 = symbols.getItemOrFail(itemName1);
+                Item item2 = symbols.getItemOrFail(itemName2);
+                recorder.result(Op.SWAP, item1, item2);
+                return Results.swap(item1, item2);
+            };
         }
 
         @Override
-        public Action.Result visitResultGotoRoom(ResultGotoRoomContext ctx) {
-            Room room = getRoomOrFail(ctx.roomName().getText());
-            return Results.gotoRoom(room);
+        public Declared<Action.Result> visitResultGotoRoom(ResultGotoRoomContext ctx) {
+            String roomName = ctx.roomName().getText();
+            return (symbols, recorder) -> {
+                Room room = symbols.getRoomOrFail(roomName);
+                recorder.result(Op.GOTO, room);
+                return Results.gotoRoom(room);
+            };
         }
 
         @Override
-        public Action.Result visitResultPut(ResultPutContext ctx) {
-            Item item = getItemOrFail(ctx.itemName().getText());
-            Room room = getRoomOrFail(ctx.roomName().getText());
-            return Results.put(item, room);
+        public Declared<Action.Result> visitResultPut(ResultPutContext ctx) {
+            String itemName = ctx.itemName().getText();
+            String roomName = ctx.roomName().getText();
+            return (symbols, recorder) -> {
+                Item item = symbols.getItemOrFail(itemName);
+                Room room = symbols.getRoomOrFail(roomName);
+                recorder.result(Op.PUT, item, room);
+                return Results.put(item, room);
+            };
         }
 
         @Override
-        public Action.Result visitResultPutHere(ResultPutHereContext ctx) {
-            Item item = getItemOrFail(ctx.itemName().getText());
-            return Results.putHere(item);
+        public Declared<Action.Result> visitResultPutHere(ResultPutHereContext ctx) {
+            String itemName = ctx.itemName().getText();
+            return (symbols, recorder) -> {
+                Item item = symbols.getItemOrFail(itemName);
+                recorder.result(Op.PUT_HERE, item);
+                return Results.putHere(item);
+            };
         }
 
         @Override
-        public Action.Result visitResultGet(ResultGetContext ctx) {
-            Item item = getItemOrFail(ctx.itemName().getText());
-            return Results.get(item);
+        public Declared<Action.Result> visitResultGet(ResultGetContext ctx) {
+            String itemName = ctx.itemName().getText();
+            return (symbols, recorder) -> {
+                Item item = symbols.getItemOrFail(itemName);
+                recorder.result(Op.GET, item);
+                return Results.get(item);
+            };
         }
 
         @Override
-        public Action.Result visitResultDrop(ResultDropContext ctx) {
-            Item item = getItemOrFail(ctx.itemName().getText());
-            return Results.drop(item);
+        public Declared<Action.Result> visitResultDrop(ResultDropContext ctx) {
+            String itemName = ctx.itemName().getText();
+            return (symbols, recorder) -> {
+                Item item = symbols.getItemOrFail(itemName);
+                recorder.result(Op.DROP, item);
+                return Results.drop(item);
+            };
         }
 
         @Override
-        public Action.Result visitResultPutWith(ResultPutWithContext ctx) {
-            Item item1 = getItemOrFail(ctx.i1.getText());
-            Item item2 = getItemOrFail(ctx.i2.getText());
-            return Results.putWith(item1, item2);
+        public Declared<Action.Result> visitResultPutWith(ResultPutWithContext ctx) {
+            String itemName1 = ctx.i1.getText();
+            String itemName2 = ctx.i2.getText();
+            return (symbols, recorder) -> {
+                Item item1 = symbols.getItemOrFail(itemName1);
+                Item item2 = symbols.getItemOrFail(itemName2);
+                recorder.result(Op.PUT_WITH, item1, item2);
+                return Results.putWith(item1, item2);
+            };
         }
 
         @Override
-        public Action.Result visitResultDestroy(ResultDestroyContext ctx) {
-            Item item = getItemOrFail(ctx.itemName().getText());
-            return Results.destroy(item);
+        public Declared<Action.Result> visitResultDestroy(ResultDestroyContext ctx) {
+            String itemName = ctx.itemName().getText();
+            return (symbols, recorder) -> {
+                Item item = symbols.getItemOrFail(itemName);
+                recorder.result(Op.DESTROY, item);
+                return Results.destroy(item);
+            };
         }
 
         @Override
-        public Action.Result visitResultSetFlag(ResultSetFlagContext ctx) {
+        public Declared<Action.Result> visitResultSetFlag(ResultSetFlagContext ctx) {
             String name = ctx.word().getText();
             Boolean val = Stream.of("yes", "on", "true").anyMatch(s -> s.equalsIgnoreCase(ctx.booleanValue().getText()));
-            return Results.setFlag(name, val);
+            Slot flag = slots.flag(name);
+            return (symbols, recorder) -> {
+                recorder.result(Op.SET_FLAG, name, val);
+                return Results.setFlag(flag, val);
+            };
         }
 
         @Override
-        public Action.Result visitResultResetFlag(ResultResetFlagContext ctx) {
-            return Results.resetFlag(ctx.word().getText());
+        public Declared<Action.Result> visitResultResetFlag(ResultResetFlagContext ctx) {
+            String name = ctx.word().getText();
+            Slot flag = slots.flag(name);
+            return (symbols, recorder) -> {
+                recorder.result(Op.RESET_FLAG, name);
+                return Results.resetFlag(flag);
+            };
         }
 
         @Override
-        public Action.Result visitResultSetCounter(ResultSetCounterContext ctx) {
+        public Declared<Action.Result> visitResultSetCounter(ResultSetCounterContext ctx) {
             String name = ctx.word().getText();
             Integer val = Integer.parseInt(ctx.Number().getText());
-            return Results.setCounter(name, val);
+            Slot counter = slots.counter(name);
+            return (symbols, recorder) -> {
+                recorder.result(Op.SET_COUNTER, name, val);
+                return Results.setCounter(counter, val);
+            };
         }
 
         @Override
-        public Action.Result visitResultIncrementCounter(ResultIncrementCounterContext ctx) {
-            return Results.incrementCounter(ctx.word().getText());
+        public Declared<Action.Result> visitResultIncrementCounter(ResultIncrementCounterContext ctx) {
+            String name = ctx.word().getText();
+            Slot counter = slots.counter(name);
+            return (symbols, recorder) -> {
+                recorder.result(Op.INCREMENT_COUNTER, name);
+                return Results.incrementCounter(counter);
+            };
         }
 
         @Override
-        public Action.Result visitResultDecrementCounter(ResultDecrementCounterContext ctx) {
-            return Results.decrementCounter(ctx.word().getText());
+        public Declared<Action.Result> visitResultDecrementCounter(ResultDecrementCounterContext ctx) {
+            String name = ctx.word().getText();
+            Slot counter = slots.counter(name);
+            return (symbols, recorder) -> {
+                recorder.result(Op.DECREMENT_COUNTER, name);
+                return Results.decrementCounter(counter);
+            };
         }
 
         @Override
-        public Action.Result visitResultResetCounter(ResultResetCounterContext ctx) {
-            return Results.resetCounter(ctx.word().getText());
+        public Declared<Action.Result> visitResultResetCounter(ResultResetCounterContext ctx) {
+            String name = ctx.word().getText();
+            Slot counter = slots.counter(name);
+            return (symbols, recorder) -> {
+                recorder.result(Op.RESET_COUNTER, name);
+                return Results.resetCounter(counter);
+            };
         }
 
         @Override
-        public Action.Result visitResultSetString(ResultSetStringContext ctx) {
+        public Declared<Action.Result> visitResultSetString(ResultSetStringContext ctx) {
             String key = ctx.k.getText();
             String value = ctx.v.getText();
-            return Results.setString(key, value);
+            Slot string = slots.string(key);
+            return (symbols, recorder) -> {
+                recorder.result(Op.SET_STRING, key, value);
+                return Results.setString(string, value);
+            };
         }
     }
 
-    private static class ActionConditionDeclarationVisitor extends ActionVisitor<Action.Condition> {
+    private static class ActionConditionDeclarationVisitor extends AdventureBaseVisitor<Declared<Action.Condition>> {
+        private final Slots slots;
 
-        private ActionConditionDeclarationVisitor(Set<Item> items, Set<Room> rooms) {
-            super(items, rooms);
+        private ActionConditionDeclarationVisitor(Slots slots) {
+            this.slots = slots;
         }
 
         @Override
-        public Action.Condition visitActionConditionDeclaration(ActionConditionDeclarationContext ctx) {
-            Action.Condition condition = super.visitActionConditionDeclaration(ctx);
+        public Declared<Action.Condition> visitActionConditionDeclaration(ActionConditionDeclarationContext ctx) {
+            Declared<Action.Condition> condition = super.visitActionConditionDeclaration(ctx);
             if (null != ctx.NOT()) {
-                return Conditions.not(condition);
+                return (symbols, recorder) -> Conditions.not(condition.resolve(symbols, recorder.negated()));
             }
             return condition;
         }
 
         @Override
-        public Action.Condition visitConditionInRoom(ConditionInRoomContext ctx) {
-            Room room = getRoomOrFail(ctx.roomName().getText());
-            return Conditions.in(room);
+        public Declared<Action.Condition> visitConditionInRoom(ConditionInRoomContext ctx) {
+            String roomName = ctx.roomName().getText();
+            return (symbols, recorder) -> {
+                Room room = symbols.getRoomOrFail(roomName);
+                recorder.condition(Op.IN, room);
+                return Conditions.in(room);
+            };
         }
 
         @Override
-        public Action.Condition visitConditionItemCarried(ConditionItemCarriedContext ctx) {
-            Item item = getItemOrFail(ctx.itemName().getText());
-            return Conditions.carrying(item);
+        public Declared<Action.Condition> visitConditionItemCarried(ConditionItemCarriedContext ctx) {
+            String itemName = ctx.itemName().getText();
+            return (symbols, recorder) -> {
+                Item item = symbols.getItemOrFail(itemName);
+                recorder.condition(Op.CARRYING, item);
+                return Conditions.carrying(item);
+            };
         }
 
         @Override
-        public Action.Condition visitConditionItemIsHere(ConditionItemIsHereContext ctx) {
-            Item item = getItemOrFail(ctx.itemName().getText());
-            return Conditions.here(item);
+        public Declared<Action.Condition> visitConditionItemIsHere(ConditionItemIsHereContext ctx) {
+            String itemName = ctx.itemName().getText();
+            return (symbols, recorder) -> {
+                Item item = symbols.getItemOrFail(itemName);
+                recorder.condition(Op.HERE, item);
+                return Conditions.here(item);
+            };
         }
 
         @Override
-        public Action.Condition visitConditionItemIsPresent(ConditionItemIsPresentContext ctx) {
-            Item item = getItemOrFail(ctx.itemName().getText());
-            return Conditions.present(item);
+        public Declared<Action.Condition> visitConditionItemIsPresent(ConditionItemIsPresentContext ctx) {
+            String itemName = ctx.itemName().getText();
+            return (symbols, recorder) -> {
+                Item item = symbols.getItemOrFail(itemName);
+                recorder.condition(Op.PRESENT, item);
+                return Conditions.present(item);
+            };
         }
 
         @Override
-        public Action.Condition visitConditionItemExists(ConditionItemExistsContext ctx) {
-            Item item = getItemOrFail(ctx.itemName().getText());
-            return Conditions.exists(item);
+        public Declared<Action.Condition> visitConditionItemExists(ConditionItemExistsContext ctx) {
+            String itemName = ctx.itemName().getText();
+            return (symbols, recorder) -> {
+                Item item = symbols.getItemOrFail(itemName);
+                recorder.condition(Op.EXISTS, item);
+                return Conditions.exists(item);
+            };
         }
 
         @Override
-        public Action.Condition visitConditionItemHasMoved(ConditionItemHasMovedContext ctx) {
-            Item item = getItemOrFail(ctx.itemName().getText());
-            return Conditions.hasMoved(item);
+        public Declared<Action.Condition> visitConditionItemHasMoved(ConditionItemHasMovedContext ctx) {
+            String itemName = ctx.itemName().getText();
+            return (symbols, recorder) -> {
+                Item item = symbols.getItemOrFail(itemName);
+                recorder.condition(Op.HAS_MOVED, item);
+                return Conditions.hasMoved(item);
+            };
         }
 
         @Override
-        public Action.Condition visitConditionFlagIsTrue(ConditionFlagIsTrueContext ctx) {
-            return Conditions.isFlagSet(ctx.word().getText());
+        public Declared<Action.Condition> visitConditionFlagIsTrue(ConditionFlagIsTrueContext ctx) {
+            String name = ctx.word().getText();
+            Slot flag = slots.flag(name);
+            return (symbols, recorder) -> {
+                recorder.condition(Op.FLAG_SET, name);
+                return Conditions.isFlagSet(flag);
+            };
         }
 
         @Override
-        public Action.Condition visitConditionCounterEquals(ConditionCounterEqualsContext ctx) {
+        public Declared<Action.Condition> visitConditionCounterEquals(ConditionCounterEqualsContext ctx) {
             int number = Integer.parseInt(ctx.Number().getText());
-            return Conditions.compareCounter(ctx.word().getText(), val -> val == number);
+            String name = ctx.word().getText();
+            Slot counter = slots.counter(name);
+            return (symbols, recorder) -> {
+                recorder.condition(Op.COUNTER_EQUALS, name, number);
+                return Conditions.counterEquals(counter, number);
+            };
         }
 
         @Override
-        public Action.Condition visitConditionCounterLessThan(ConditionCounterLessThanContext ctx) {
+        public Declared<Action.Condition> visitConditionCounterLessThan(ConditionCounterLessThanContext ctx) {
             Integer number = Integer.parseInt(ctx.Number().getText());
-            return Conditions.compareCounter(ctx.word().getText(), val -> val < number);
+            String name = ctx.word().getText();
+            Slot counter = slots.counter(name);
+            return (symbols, recorder) -> {
+                recorder.condition(Op.COUNTER_LESS_THAN, name, number);
+                return Conditions.counterLessThan(counter, number);
+            };
         }
 
         @Override
-        public Action.Condition visitConditionCounterGreaterThan(ConditionCounterGreaterThanContext ctx) {
+        public Declared<Action.Condition> visitConditionCounterGreaterThan(ConditionCounterGreaterThanContext ctx) {
             Integer number = Integer.parseInt(ctx.Number().getText());
-            return Conditions.compareCounter(ctx.word().getText(), val -> val > number);
+            String name = ctx.word().getText();
+            Slot counter = slots.counter(name);
+            return (symbols, recorder) -> {
+                recorder.condition(Op.COUNTER_GREATER_THAN, name, number);
+                return Conditions.counterGreaterThan(counter, number);
+            };
         }
 
         @Override
-        public Action.Condition visitConditionRoomHasExit(ConditionRoomHasExitContext ctx) {
+        public Declared<Action.Condition> visitConditionRoomHasExit(ConditionRoomHasExitContext ctx) {
             if (null == ctx.word()) {
-                return Conditions.hasExitMatchingCommandWordAt(1);
+                return (symbols, recorder) -> {
+                    recorder.condition(Op.HAS_EXIT_AT, 1);
+                    return Conditions.hasExitMatchingCommandWordAt(1);
+                };
             }
             String word = ctx.word().getText();
             if (word.startsWith("$")) {
                 int position = Integer.parseInt(word.substring(1));
-                return Conditions.hasExitMatchingCommandWordAt(position);
+                return (symbols, recorder) -> {
+                    recorder.condition(Op.HAS_EXIT_AT, position);
+                    return Conditions.hasExitMatchingCommandWordAt(position);
+                };
             }
-            return Conditions.hasExit(Word.of(word));
+            return (symbols, recorder) -> {
+                recorder.condition(Op.HAS_EXIT, word);
+                return Conditions.hasExit(Word.of(word));
+            };
         }
 
     }
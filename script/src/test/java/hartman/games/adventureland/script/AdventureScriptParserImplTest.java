@@ -9,9 +9,12 @@ import hartman.games.adventureland.engine.Item;
 import hartman.games.adventureland.engine.Room;
 import hartman.games.adventureland.engine.Vocabulary;
 import hartman.games.adventureland.engine.Word;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.List;
 import java.util.Set;
 
@@ -19,11 +22,14 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class AdventureScriptParserImplTest {
 
+    private final AdventureScriptParserImpl parser = new AdventureScriptParserImpl();
+
     @Rule
-    public AdventureScriptParsingRule adventureScriptParsingRule = new AdventureScriptParsingRule(new AdventureScriptParserImpl());
+    public AdventureScriptParsingRule adventureScriptParsingRule = new AdventureScriptParsingRule(parser);
 
     @Test(expected = IllegalStateException.class)
     @AdventureScriptResource("/scripts/000adventure.txt")
@@ -148,23 +154,26 @@ public class AdventureScriptParserImplTest {
 
         Room kitchen = new Room("kitchen", "A kitchen.");
 
+        GameState gameState = new GameState(adventure);
+
         Item fork = getItemOrFail(adventure.getItems(), "fork");
-        assertTrue(fork.isHere(kitchen));
+        assertEquals(kitchen, fork.getStartingRoom());
+        assertTrue(gameState.inRoom(fork, kitchen));
 
         Item spoon = getItemOrFail(adventure.getItems(), "spoon");
-        assertTrue(spoon.isHere(kitchen));
+        assertTrue(gameState.inRoom(spoon, kitchen));
 
         Item lamp = getItemOrFail(adventure.getItems(), "lamp");
-        assertTrue(lamp.isHere(Room.NOWHERE));
+        assertTrue(gameState.inRoom(lamp, Room.NOWHERE));
 
         Item knife = getItemOrFail(adventure.getItems(), "knife");
-        assertTrue(knife.isHere(Room.NOWHERE));
+        assertTrue(gameState.inRoom(knife, Room.NOWHERE));
 
         Item chest = getItemOrFail(adventure.getItems(), "chest");
-        assertTrue(chest.isHere(new Room("hallway", "hallway")));
+        assertTrue(gameState.inRoom(chest, new Room("hallway", "hallway")));
 
         Item flintAndSteel = getItemOrFail(adventure.getItems(), "flint");
-        assertTrue(flintAndSteel.isCarried());
+        assertTrue(gameState.carrying(flintAndSteel));
     }
 
     @Test(expected = IllegalStateException.class)
@@ -408,17 +417,17 @@ public class AdventureScriptParserImplTest {
         Adventure adventure = adventureScriptParsingRule.parse();
 
         Action action = adventure.getActions().iterator().next();
-        GameState gameState = new GameState(adventure.getStartRoom(), adventure.getItems());
+        GameState gameState = new GameState(adventure);
         TestDisplay display = new TestDisplay();
 
         Item locked_door = getItemOrFail(adventure.getItems(), "locked_door");
-        assertTrue(locked_door.isHere(adventure.getStartRoom()));
+        assertTrue(gameState.inRoom(locked_door, adventure.getStartRoom()));
         Item open_door = getItemOrFail(adventure.getItems(), "open_door");
-        assertTrue(open_door.isHere(Room.NOWHERE));
+        assertTrue(gameState.inRoom(open_door, Room.NOWHERE));
 
         action.run(gameState, display, new Command(new Word("unlock"), new Word("door")));
-        assertTrue(locked_door.isHere(Room.NOWHERE));
-        assertTrue(open_door.isHere(adventure.getStartRoom()));
+        assertTrue(gameState.inRoom(locked_door, Room.NOWHERE));
+        assertTrue(gameState.inRoom(open_door, adventure.getStartRoom()));
     }
 
     @Test
@@ -526,4 +535,136 @@ public class AdventureScriptParserImplTest {
         assertEquals(String.format("I%nam%ndrowning%n...%n...%n...%n"), testDisplay.toString());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    @AdventureScriptResource("/scripts/010adventure.txt")
+    public void validScriptIsParsedOnceWithoutFallingBackToLL() {
+        adventureScriptParsingRule.parse();
+
+        AdventureScriptParserImpl.Statistics stats = parser.stats();
+        assertEquals(1, stats.getParseCount());
+        assertEquals(0, stats.getFallbackCount());
+        assertTrue(stats.getTotalLexTimeNanos() > 0);
+        assertTrue(stats.getTotalParseTimeNanos() > 0);
+        assertTrue(stats.getTotalVisitTimeNanos() > 0);
+    }
+
+    @Test
+    @AdventureScriptResource("/scripts/001adventure.txt")
+    public void invalidScriptStillReportsTheLineItFailedAt() {
+        try {
+            adventureScriptParsingRule.parse();
+            fail("invalid script parsed");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("failed to parse at line"));
+        }
+        assertEquals(0, parser.stats().getParseCount());
+    }
+
+    @Test
+    public void streamingParserResolvesItemsAndRoomsDeclaredAfterTheirActions() throws IOException {
+        String script = "action rub lamp\n" +
+                "    when carrying lamp\n" +
+                "    then goto cave\n" +
+                "\n" +
+                "room hall \"a hall\"\n" +
+                "    exit north cave\n" +
+                "\n" +
+                "room cave \"a cave\"\n" +
+                "\n" +
+                "item lamp \"a lamp\"\n" +
+                "    inventory\n";
+        Adventure adventure = AdventureScriptParserImpl.streaming().parse(new StringReader(script));
+
+        GameState gameState = new GameState(adventure.getStartRoom(), adventure.getItems());
+        Action action = adventure.getActions().iterator().next();
+        action.run(gameState, new TestDisplay(), new Command(new Word("rub"), new Word("lamp")));
+
+        assertEquals("cave", gameState.getCurrentRoom().getName());
+        assertEquals(new Room("hall", "a hall"), adventure.getStartRoom());
+    }
+
+    @Test
+    public void itemsAndOccursWaitingOnLaterDeclarationsKeepTheirOrder() throws IOException {
+        String script = "item lamp \"a lamp\"\n" +
+                "    in cave\n" +
+                "\n" +
+                "item rope \"a rope\"\n" +
+                "\n" +
+                "occurs\n" +
+                "    when present sword\n" +
+                "    then print \"first\"\n" +
+                "\n" +
+                "occurs\n" +
+                "    then print \"second\"\n" +
+                "\n" +
+                "room cave \"a cave\"\n" +
+                "\n" +
+                "item sword \"a sword\"\n" +
+                "    in cave\n";
+        Adventure adventure = AdventureScriptParserImpl.streaming().parse(new StringReader(script));
+
+        Item[] items = adventure.getItems().toArray(new Item[0]);
+        assertEquals(3, items.length);
+        assertEquals("lamp", items[0].getName());
+        assertEquals("cave", items[0].getStartingRoom().getName());
+        assertEquals("rope", items[1].getName());
+        assertEquals("sword", items[2].getName());
+
+        GameState gameState = new GameState(adventure.getStartRoom(), adventure.getItems());
+        TestDisplay display = new TestDisplay();
+        adventure.getOccurs().forEach(occurs -> occurs.run(gameState, display, Command.NONE));
+        assertEquals(String.format("first%nsecond%n"), display.toString());
+    }
+
+    @Test
+    public void streamingParserReportsTheLineItFailedAt() throws IOException {
+        try {
+            AdventureScriptParserImpl.streaming().parse(new StringReader("room hall \"a hall\"\n\nroom cave\n"));
+            fail("invalid script parsed");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("failed to parse at line"));
+        }
+    }
+
+    @Test
+    public void manyActionsAreBuiltInDeclarationOrder() throws IOException {
+        StringBuilder script = new StringBuilder("room hall \"a hall\"\n\n");
+        for (int i = 0; i < 2000; i++) {
+            script.append("action say\n    then print \"").append(i).append("\"\n\n");
+        }
+        Adventure adventure = parser.parse(new StringReader(script.toString()));
+
+        assertEquals(2000, adventure.getActions().size());
+        GameState gameState = new GameState(adventure.getStartRoom(), adventure.getItems());
+        int i = 0;
+        for (Action action : adventure.getActions()) {
+            TestDisplay display = new TestDisplay();
+            action.run(gameState, display, new Command(new Word("say"), Word.NONE));
+            assertEquals(String.format("%d%n", i++), display.toString());
+        }
+    }
+
+    @Test
+    public void slotsOfManyActionsAreNumberedInDeclarationOrder() throws IOException {
+        StringBuilder script = new StringBuilder("room hall \"a hall\"\n\n");
+        for (int i = 0; i < 2000; i++) {
+            script.append("action say\n    then setFlag f").append(i).append(" true\n    and incr c").append(i).append("\n\n");
+        }
+        Adventure adventure = parser.parse(new StringReader(script.toString()));
+
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(i, adventure.getSlots().flag("f" + i).getIndex());
+            assertEquals(i, adventure.getSlots().counter("c" + i).getIndex());
+        }
+    }
+
+    @Test(expected = ParseCancellationException.class)
+    public void unknownItemInOneOfManyActionsFailsTheParse() throws IOException {
+        StringBuilder script = new StringBuilder("room hall \"a hall\"\n\nitem lamp \"a lamp\"\n\n");
+        for (int i = 0; i < 2000; i++) {
+            script.append("action rub\n    then get ").append(i == 1500 ? "sword" : "lamp").append("\n\n");
+        }
+        parser.parse(new StringReader(script.toString()));
+    }
+}
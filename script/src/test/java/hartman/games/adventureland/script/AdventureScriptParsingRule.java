@@ -49,7 +49,7 @@ public class AdventureScriptParsingRule implements TestRule {
             public void evaluate() throws Throwable {
                 AdventureScriptResource resource = description.getAnnotation(AdventureScriptResource.class);
                 if (null != resource) {
-                    Class<?> clazz = resource.getClass();
+                    Class<?> clazz = description.getTestClass();
                     InputStream is = clazz.getResourceAsStream(resource.value());
                     reader = new InputStreamReader(is);
                 }
@@ -1,22 +1,26 @@
 package hartman.games.adventureland.script;
 
 import hartman.games.adventureland.engine.Adventure;
+import hartman.games.adventureland.engine.AdventureCompiler;
 import hartman.games.adventureland.engine.Command;
 import hartman.games.adventureland.engine.CommandInterpreter;
 import hartman.games.adventureland.engine.Display;
 import hartman.games.adventureland.engine.Game;
 import hartman.games.adventureland.engine.GameState;
 import hartman.games.adventureland.engine.Vocabulary;
+import hartman.games.adventureland.engine.core.AdventureImage;
 import hartman.games.adventureland.engine.core.DefaultCommandInterpreter;
 import hartman.games.adventureland.engine.core.DefaultDisplay;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 
@@ -41,12 +45,20 @@ public class AdventureScriptTest {
         }
     }
 
-    private Adventure readAdventure(InputStream inputStream) throws IOException {
+    private Adventure readAdventure(AdventureScriptParser parser, InputStream inputStream) throws IOException {
         try (Reader r = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
-            return new AdventureScriptParserImpl().parse(r);
+            return parser.parse(r);
         }
     }
 
+    private Adventure readAdventureImage(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream image = new ByteArrayOutputStream();
+        try (Reader r = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            new AdventureScriptParserImpl().compile(r, image);
+        }
+        return AdventureImage.read(image.toByteArray());
+    }
+
     private String readToString(InputStream inputStream) {
         try (Scanner scanner = new Scanner(inputStream, "UTF-8").useDelimiter("\\A")) {
             if (scanner.hasNext()) {
@@ -57,17 +69,37 @@ public class AdventureScriptTest {
     }
 
     private void runAdventure(int id) {
+        String ident = String.format("%03d", id);
+        String script = String.format("/adventures/%s/adventure.txt", ident);
+        Adventure adventure;
+        Adventure streamed;
+        Adventure loaded;
+        try {
+            adventure = readAdventure(new AdventureScriptParserImpl(), getClass().getResourceAsStream(script));
+            streamed = readAdventure(AdventureScriptParserImpl.streaming(), getClass().getResourceAsStream(script));
+            loaded = readAdventureImage(getClass().getResourceAsStream(script));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String expected = readToString(getClass().getResourceAsStream(String.format("/adventures/%s/transcript.txt", ident)));
+        // the compiled rules must play exactly like the interpreted ones
+        playAdventure(ident, adventure, expected);
+        playAdventure(ident, new AdventureCompiler().compile(adventure), expected);
+        // and so must the adventure loaded from its image
+        playAdventure(ident, loaded, expected);
+        // and the adventure parsed without building a parse tree
+        playAdventure(ident, streamed, expected);
+    }
+
+    private void playAdventure(String ident, Adventure adventure, String expected) {
         StringWriter out = new StringWriter();
         try (PrintWriter pw = new PrintWriter(out)) {
             try {
-                String ident = String.format("%03d", id);
-                Adventure adventure = readAdventure(getClass().getResourceAsStream(String.format("/adventures/%s/adventure.txt", ident)));
                 Display display = new DefaultDisplay(pw);
                 CommandInterpreter interpreter = new TestCommandInterpreter(String.format("/adventures/%s/input.txt", ident), adventure.getVocabulary(), display);
-                GameState gameState = new GameState(adventure.getStartRoom(), adventure.getItems());
+                GameState gameState = new GameState(adventure);
                 Game game = new Game(adventure, interpreter, display, gameState);
                 game.run();
-                String expected = readToString(getClass().getResourceAsStream(String.format("/adventures/%s/transcript.txt", ident)));
                 String actual = out.toString();
                 assertEquals(expected, actual);
             } catch (Exception e) {
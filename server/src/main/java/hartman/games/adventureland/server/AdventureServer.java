@@ -0,0 +1,52 @@
+package hartman.games.adventureland.server;
+
+import hartman.games.adventureland.engine.Adventure;
+import hartman.games.adventureland.script.AdventureScriptParserImpl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves an adventure script to players connecting with telnet or the {@link LoadClient}.
+ * <p>
+ * Usage: {@code AdventureServer <script> [port] [threads]}, the port defaults to 2323 and the number of threads
+ * taking turns to the number of processors.
+ */
+public class AdventureServer {
+
+    public static final int DEFAULT_PORT = 2323;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: AdventureServer <script> [port] [threads]");
+            System.exit(1);
+        }
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        Adventure adventure;
+        try (Reader r = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            adventure = new AdventureScriptParserImpl().parse(r);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        GameServer server = new GameServer(adventure, new InetSocketAddress(port), executor);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                // shutting down anyway
+            }
+            executor.shutdownNow();
+        }));
+        server.start();
+        System.out.printf("Serving %s on port %d with %d threads%n", args[0], server.getPort(), threads);
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,164 @@
+package hartman.games.adventureland.server;
+
+import hartman.games.adventureland.engine.Vocabulary;
+import hartman.games.adventureland.engine.core.QueuedCommandInterpreter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A player's connection to the server.
+ * <p>
+ * Reading and sending happen on the server's selector thread. Lines read are handed to the connection's interpreter,
+ * the game's turns write to the connection's output on whatever thread takes them.
+ * <p>
+ * A player who sends faster than the game answers is pushed back on: once {@link #MAX_PENDING_COMMANDS} commands wait
+ * for the game or {@link #MAX_PENDING_OUTPUT} bytes wait to be sent, the connection stops reading until the game has
+ * caught up and its output was sent. A player whose output overflows anyway is hung up on.
+ */
+final class Connection {
+
+    static final int MAX_LINE_LENGTH = 256;
+    static final int MAX_PENDING_COMMANDS = 16;
+    static final int MAX_PENDING_OUTPUT = 16 * 1024;
+
+    private final GameServer server;
+    private final SocketChannel channel;
+    private final QueuedCommandInterpreter interpreter;
+    private final ConnectionOutput output;
+    private final ConnectionDisplay display;
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer in = ByteBuffer.allocate(512);
+    private final CharBuffer chars = CharBuffer.allocate(512);
+    private final StringBuilder line = new StringBuilder();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private SelectionKey key;
+    // only touched by the selector thread, chars may hold lines not handed over yet while not reading
+    private boolean reading = true;
+
+    Connection(GameServer server, SocketChannel channel, Vocabulary vocabulary) {
+        this.server = server;
+        this.channel = channel;
+        this.interpreter = new QueuedCommandInterpreter(vocabulary);
+        this.output = new ConnectionOutput(() -> server.requestSend(this));
+        this.display = new ConnectionDisplay(output);
+    }
+
+    void register(Selector selector) throws IOException {
+        key = channel.register(selector, SelectionKey.OP_READ, this);
+    }
+
+    QueuedCommandInterpreter getInterpreter() {
+        return interpreter;
+    }
+
+    ConnectionDisplay getDisplay() {
+        return display;
+    }
+
+    /**
+     * Reads what the player sent and hands over every complete line. Overlong lines are cut short.
+     */
+    void read() throws IOException {
+        if (!reading) {
+            return;
+        }
+        if (channel.read(in) == -1) {
+            close();
+            return;
+        }
+        handOverLines();
+        if (!reading) {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        }
+    }
+
+    // hands over the lines read so far, or as many as fit before the connection has to stop reading
+    private void handOverLines() {
+        CoderResult result;
+        do {
+            in.flip();
+            result = decoder.decode(in, chars, false);
+            in.compact();
+            chars.flip();
+            while (chars.hasRemaining() && reading) {
+                char c = chars.get();
+                if (c == '\n') {
+                    int end = line.length();
+                    if (end > 0 && line.charAt(end - 1) == '\r') {
+                        line.setLength(end - 1);
+                    }
+                    interpreter.accept(line);
+                    line.setLength(0);
+                    reading = !isBackedUp();
+                } else if (line.length() < MAX_LINE_LENGTH) {
+                    line.append(c);
+                }
+            }
+            chars.compact();
+        } while (reading && result.isOverflow());
+    }
+
+    private boolean isBackedUp() {
+        return interpreter.pendingCount() >= MAX_PENDING_COMMANDS || output.pendingBytes() >= MAX_PENDING_OUTPUT;
+    }
+
+    /**
+     * Sends what output is waiting, and closes the connection once the game is over and all of it was sent. Reading
+     * resumes once the game has caught up with the player and all output was sent.
+     */
+    void send() throws IOException {
+        if (!key.isValid()) {
+            return;
+        }
+        if (output.isOverflowed()) {
+            close();
+            return;
+        }
+        boolean unsent = output.sendTo(channel);
+        if (!unsent && output.isDone()) {
+            close();
+            return;
+        }
+        if (!reading && !unsent && interpreter.pendingCount() < MAX_PENDING_COMMANDS) {
+            reading = true;
+            handOverLines();
+        }
+        key.interestOps((reading ? SelectionKey.OP_READ : 0) | (unsent ? SelectionKey.OP_WRITE : 0));
+    }
+
+    /**
+     * Sends the player the rest of the output and then hangs up.
+     */
+    void hangUp() {
+        output.close();
+    }
+
+    void close() {
+        if (closed.compareAndSet(false, true)) {
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // closed anyway
+            }
+            interpreter.close();
+            server.closed(this);
+        }
+    }
+}
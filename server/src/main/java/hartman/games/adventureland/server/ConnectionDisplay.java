@@ -0,0 +1,31 @@
+package hartman.games.adventureland.server;
+
+import hartman.games.adventureland.engine.core.DefaultDisplay;
+
+/**
+ * Displays a game to a connected player as text, prompting for the next command at the end of every turn
+ * until the game is over. The prompt also tells clients that the game's response to a command is complete.
+ */
+final class ConnectionDisplay extends DefaultDisplay {
+
+    static final String PROMPT = "> ";
+
+    private boolean over;
+
+    ConnectionDisplay(ConnectionOutput output) {
+        super(output);
+    }
+
+    @Override
+    public void gameOver() {
+        over = true;
+    }
+
+    @Override
+    public void flush() {
+        if (!over) {
+            print(PROMPT);
+        }
+        super.flush();
+    }
+}
@@ -0,0 +1,147 @@
+package hartman.games.adventureland.server;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The output waiting to be sent to a player.
+ * <p>
+ * The game appends text to it and flushes it at the end of a turn, which encodes the text into the bytes waiting
+ * to be sent and asks the server to send them. The server's selector thread sends as much as the connection takes
+ * whenever it can. Line separators are sent as CR LF, as telnet expects.
+ * <p>
+ * The bytes waiting are bounded: output which would take them past {@link #MAX_PENDING_BYTES} is dropped and the
+ * output marked as overflowed, so a client which stops reading is hung up on rather than buffered for.
+ */
+final class ConnectionOutput implements Appendable, Flushable {
+
+    static final int MAX_PENDING_BYTES = 1 << 20;
+
+    private final StringBuilder text = new StringBuilder(256);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final Runnable sendRequest;
+
+    // bytes waiting to be sent, in write mode, only ever touched while holding the lock
+    private ByteBuffer bytes = ByteBuffer.allocate(256);
+    private boolean lastWasReturn;
+    private boolean closing;
+    private boolean overflowed;
+
+    /**
+     * @param sendRequest asks the server to send the bytes waiting, from whatever thread flushed them
+     */
+    ConnectionOutput(Runnable sendRequest) {
+        this.sendRequest = sendRequest;
+    }
+
+    @Override
+    public synchronized Appendable append(CharSequence csq) {
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public synchronized Appendable append(CharSequence csq, int start, int end) {
+        for (int i = start; i < end; i++) {
+            append(csq.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public synchronized Appendable append(char c) {
+        if (c == '\n' && !lastWasReturn) {
+            text.append('\r');
+        }
+        text.append(c);
+        lastWasReturn = c == '\r';
+        return this;
+    }
+
+    @Override
+    public void flush() {
+        synchronized (this) {
+            if (text.length() == 0) {
+                return;
+            }
+            CharBuffer chars = CharBuffer.wrap(text);
+            boolean fits = true;
+            while (fits && encoder.encode(chars, bytes, true) == CoderResult.OVERFLOW) {
+                fits = grow();
+            }
+            while (fits && encoder.flush(bytes) == CoderResult.OVERFLOW) {
+                fits = grow();
+            }
+            encoder.reset();
+            text.setLength(0);
+            overflowed |= !fits;
+        }
+        sendRequest.run();
+    }
+
+    // returns false rather than growing past the limit
+    private boolean grow() {
+        if (bytes.capacity() >= MAX_PENDING_BYTES) {
+            return false;
+        }
+        ByteBuffer bigger = ByteBuffer.allocate(Math.min(bytes.capacity() * 2, MAX_PENDING_BYTES));
+        bytes.flip();
+        bigger.put(bytes);
+        bytes = bigger;
+        return true;
+    }
+
+    /**
+     * Sends the connection no more output once what is waiting has been sent.
+     */
+    void close() {
+        synchronized (this) {
+            closing = true;
+        }
+        sendRequest.run();
+    }
+
+    /**
+     * Sends as many of the bytes waiting as the channel takes without blocking.
+     *
+     * @return true if there are bytes left to send
+     */
+    synchronized boolean sendTo(SocketChannel channel) throws IOException {
+        bytes.flip();
+        try {
+            channel.write(bytes);
+            return bytes.hasRemaining();
+        } finally {
+            bytes.compact();
+        }
+    }
+
+    /**
+     * @return the number of bytes waiting to be sent
+     */
+    synchronized int pendingBytes() {
+        return bytes.position();
+    }
+
+    /**
+     * @return true if output was dropped because too much of it was waiting to be sent
+     */
+    synchronized boolean isOverflowed() {
+        return overflowed;
+    }
+
+    /**
+     * @return true once the output was closed and everything has been sent
+     */
+    synchronized boolean isDone() {
+        return closing && bytes.position() == 0;
+    }
+}
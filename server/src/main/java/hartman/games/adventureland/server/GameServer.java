@@ -0,0 +1,167 @@
+package hartman.games.adventureland.server;
+
+import hartman.games.adventureland.engine.Adventure;
+import hartman.games.adventureland.engine.Command;
+import hartman.games.adventureland.engine.Game;
+import hartman.games.adventureland.engine.GameHistory;
+import hartman.games.adventureland.engine.GameSession;
+import hartman.games.adventureland.engine.GameState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hosts games of an adventure for many players at once, each playing their own game over a telnet-style
+ * connection: the player sends a command per line and the game answers with the text of the turn followed by
+ * a {@link ConnectionDisplay#PROMPT prompt}. The server hangs up when the player's game is over.
+ * <p>
+ * A single selector thread accepts connections, reads commands and sends output for all of them, while turns are
+ * taken on the given executor as {@link GameSession sessions}, so no thread is tied to a player waiting to type.
+ * All games share the one adventure.
+ */
+public class GameServer implements Closeable {
+
+    private static final int BACKLOG = 1024;
+
+    private final Adventure adventure;
+    private final Executor executor;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Thread selectorThread;
+    private final Queue<Connection> sendRequests = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private volatile boolean running = true;
+
+    /**
+     * Opens the server's socket. Connections are not accepted before the server is {@link #start() started}.
+     *
+     * @param address  the address to listen on, port 0 picks any free port
+     * @param executor takes the turns of all games
+     */
+    public GameServer(Adventure adventure, InetSocketAddress address, Executor executor) throws IOException {
+        this.adventure = adventure;
+        this.executor = executor;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(address, BACKLOG);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.selectorThread = new Thread(this::select, "adventureland-selector");
+    }
+
+    public void start() {
+        selectorThread.start();
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * @return the number of players connected right now
+     */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection) {
+                ((Connection) key.attachment()).close();
+            }
+        }
+        serverChannel.close();
+        selector.close();
+    }
+
+    void requestSend(Connection connection) {
+        sendRequests.add(connection);
+        selector.wakeup();
+    }
+
+    void closed(Connection connection) {
+        connections.decrementAndGet();
+    }
+
+    private void select() {
+        try {
+            while (running) {
+                selector.select();
+                Connection connection;
+                while ((connection = sendRequests.poll()) != null) {
+                    ready(connection, SelectionKey.OP_WRITE);
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        ready((Connection) key.attachment(), key.readyOps());
+                    }
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            // closed while selecting
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void ready(Connection connection, int readyOps) {
+        try {
+            if ((readyOps & SelectionKey.OP_READ) != 0) {
+                connection.read();
+            }
+            if ((readyOps & SelectionKey.OP_WRITE) != 0) {
+                connection.send();
+            }
+        } catch (IOException e) {
+            connection.close();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Connection connection = new Connection(this, channel, adventure.getVocabulary());
+        connection.register(selector);
+        connections.incrementAndGet();
+
+        // the session feeds the game its commands, the game's own interpreter is never asked
+        Game game = new Game(adventure, () -> Command.NONE, connection.getDisplay(), new GameState(adventure), new GameHistory());
+        new GameSession(game, connection.getInterpreter(), executor)
+                .start()
+                .whenComplete((gameState, failure) -> connection.hangUp());
+    }
+}
@@ -0,0 +1,186 @@
+package hartman.games.adventureland.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puts a {@link GameServer} under load: opens many connections from a single thread and has every one of them
+ * play the given commands over and over, sending the next command as soon as the response to the last one is
+ * complete, i.e. ends with the prompt.
+ * <p>
+ * Usage: {@code LoadClient <host> [port] [connections] [seconds] [command...]}, by default 1000 connections LOOK
+ * for 10 seconds. Commands which end the game end the connection, which shows in the connections held.
+ */
+public class LoadClient {
+
+    private static final byte[] PROMPT = ConnectionDisplay.PROMPT.getBytes(StandardCharsets.US_ASCII);
+
+    private final InetSocketAddress server;
+    private final int connections;
+    private final List<byte[]> commands = new ArrayList<>();
+
+    private long[] latencies = new long[1024];
+    private int turns;
+
+    public LoadClient(InetSocketAddress server, int connections, List<String> commands) {
+        if (commands.isEmpty()) {
+            throw new IllegalArgumentException("Load client needs commands to send.");
+        }
+        this.server = server;
+        this.connections = connections;
+        for (String command : commands) {
+            this.commands.add((command + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: LoadClient <host> [port] [connections] [seconds] [command...]");
+            System.exit(1);
+        }
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : AdventureServer.DEFAULT_PORT;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        List<String> commands = args.length > 4 ? Arrays.asList(args).subList(4, args.length) : Collections.singletonList("look");
+
+        LoadReport report = new LoadClient(new InetSocketAddress(args[0], port), connections, commands).run(seconds, TimeUnit.SECONDS);
+        System.out.println(report);
+    }
+
+    /**
+     * Connects and plays until the time is up.
+     */
+    public LoadReport run(long duration, TimeUnit unit) throws IOException {
+        turns = 0;
+        List<Player> players = new ArrayList<>(connections);
+        try (Selector selector = Selector.open()) {
+            long start = System.nanoTime();
+            long deadline = start + unit.toNanos(duration);
+            for (int i = 0; i < connections; i++) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Player player = new Player(channel, i % commands.size());
+                players.add(player);
+                if (channel.connect(server)) {
+                    channel.register(selector, SelectionKey.OP_READ, player);
+                } else {
+                    channel.register(selector, SelectionKey.OP_CONNECT, player);
+                }
+            }
+
+            long now;
+            while ((now = System.nanoTime()) < deadline) {
+                selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - now)));
+                for (SelectionKey key : selector.selectedKeys()) {
+                    Player player = (Player) key.attachment();
+                    try {
+                        player.ready(key);
+                    } catch (IOException e) {
+                        player.close();
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+
+            int held = 0;
+            for (Player player : players) {
+                if (player.isOpen()) {
+                    held++;
+                }
+                player.close();
+            }
+            return new LoadReport(connections, held, System.nanoTime() - start, Arrays.copyOf(latencies, turns));
+        }
+    }
+
+    private void record(long latency) {
+        if (turns == latencies.length) {
+            latencies = Arrays.copyOf(latencies, turns * 2);
+        }
+        latencies[turns++] = latency;
+    }
+
+    private final class Player {
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(4096);
+        private ByteBuffer out;
+        private int nextCommand;
+        private int promptMatched;
+        private long sentAt;
+
+        Player(SocketChannel channel, int firstCommand) {
+            this.channel = channel;
+            this.nextCommand = firstCommand;
+        }
+
+        void ready(SelectionKey key) throws IOException {
+            if (key.isConnectable() && channel.finishConnect()) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+            if (key.isReadable()) {
+                read(key);
+            }
+            if (key.isValid() && key.isWritable()) {
+                send(key);
+            }
+        }
+
+        private void read(SelectionKey key) throws IOException {
+            int read = channel.read(in);
+            if (read == -1) {
+                close();
+                return;
+            }
+            in.flip();
+            boolean prompted = false;
+            while (in.hasRemaining()) {
+                byte b = in.get();
+                promptMatched = b == PROMPT[promptMatched] ? promptMatched + 1 : (b == PROMPT[0] ? 1 : 0);
+                // a prompt only counts at the end of what arrived, the text of a turn may contain one too
+                prompted = promptMatched == PROMPT.length && !in.hasRemaining();
+                if (promptMatched == PROMPT.length) {
+                    promptMatched = 0;
+                }
+            }
+            in.clear();
+            if (prompted) {
+                if (sentAt != 0) {
+                    record(System.nanoTime() - sentAt);
+                }
+                out = ByteBuffer.wrap(commands.get(nextCommand));
+                nextCommand = (nextCommand + 1) % commands.size();
+                sentAt = System.nanoTime();
+                send(key);
+            }
+        }
+
+        private void send(SelectionKey key) throws IOException {
+            channel.write(out);
+            key.interestOps(out.hasRemaining() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+
+        boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // closed anyway
+            }
+        }
+    }
+}
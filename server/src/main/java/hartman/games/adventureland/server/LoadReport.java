@@ -0,0 +1,71 @@
+package hartman.games.adventureland.server;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a {@link LoadClient} run found: how many connections the server held, how many turns it took and how long
+ * players waited for the response to a command.
+ */
+public final class LoadReport {
+
+    private final int connections;
+    private final int connectionsHeld;
+    private final long elapsedNanos;
+    private final long[] latencyNanos;
+
+    LoadReport(int connections, int connectionsHeld, long elapsedNanos, long[] latencyNanos) {
+        this.connections = connections;
+        this.connectionsHeld = connectionsHeld;
+        this.elapsedNanos = elapsedNanos;
+        this.latencyNanos = latencyNanos.clone();
+        Arrays.sort(this.latencyNanos);
+    }
+
+    /**
+     * @return the number of connections the client tried to hold
+     */
+    public int getConnections() {
+        return connections;
+    }
+
+    /**
+     * @return the number of connections still open at the end of the run
+     */
+    public int getConnectionsHeld() {
+        return connectionsHeld;
+    }
+
+    /**
+     * @return the number of commands the server responded to
+     */
+    public int getTurns() {
+        return latencyNanos.length;
+    }
+
+    public double getTurnsPerSecond() {
+        return getTurns() / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the latency in microseconds which the given percentage of turns didn't exceed, 0 if there were none
+     */
+    public long getLatencyMicros(double percentile) {
+        if (latencyNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * latencyNanos.length) - 1;
+        return TimeUnit.NANOSECONDS.toMicros(latencyNanos[Math.max(0, Math.min(index, latencyNanos.length - 1))]);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("connections held: %d of %d%n" +
+                        "turns: %d in %.1f s, %.0f turns/s%n" +
+                        "latency (us): p50 %d, p90 %d, p99 %d, p99.9 %d, max %d",
+                connectionsHeld, connections,
+                getTurns(), elapsedNanos / 1e9, getTurnsPerSecond(),
+                getLatencyMicros(50), getLatencyMicros(90), getLatencyMicros(99), getLatencyMicros(99.9), getLatencyMicros(100));
+    }
+}
@@ -0,0 +1,121 @@
+package hartman.games.adventureland.server;
+
+import hartman.games.adventureland.engine.Adventure;
+import hartman.games.adventureland.engine.Room;
+import hartman.games.adventureland.engine.Slots;
+import hartman.games.adventureland.engine.Word;
+import hartman.games.adventureland.engine.core.Actions;
+import hartman.games.adventureland.engine.core.Results;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static hartman.games.adventureland.engine.core.Conditions.compareCounter;
+import static hartman.games.adventureland.engine.core.Results.incrementCounter;
+import static hartman.games.adventureland.engine.core.Results.println;
+import static java.util.Collections.emptySet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GameServerTest {
+
+    private ExecutorService executor;
+    private GameServer server;
+
+    static Adventure adventure() {
+        Slots slots = new Slots();
+        Slots.Slot turns = slots.counter("turns");
+        Actions occurs = Actions.newActionSet();
+        occurs.newAction().when(compareCounter(turns, n -> n == 0)).then(println("Welcome!")).build();
+        Actions actions = Actions.newActionSet();
+        actions.newAction().on(new Word("look")).then(Results.look).andThen(incrementCounter(turns)).build();
+        actions.newAction().on(new Word("quit")).then(println("Bye.")).andThen(Results.quit).build();
+        Room hall = new Room("hall", "I'm in a grand hall.");
+        return new Adventure(actions.buildVocabulary(), occurs.copyOfActions(), actions.copyOfActions(), emptySet(), emptySet(), hall, slots);
+    }
+
+    @Before
+    public void startServer() throws IOException {
+        executor = Executors.newFixedThreadPool(2);
+        server = new GameServer(adventure(), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), executor);
+        server.start();
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        server.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void playerShouldPlayOverConnectionUntilGameIsOver() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            OutputStream out = socket.getOutputStream();
+
+            assertEquals("Welcome!", in.readLine());
+
+            out.write("look\r\n".getBytes(StandardCharsets.UTF_8));
+            assertEquals("> I'm in a grand hall.", in.readLine());
+            assertEquals("", in.readLine());
+            assertEquals("There are no obvious exits.", in.readLine());
+
+            out.write("\r\nQUIT\n".getBytes(StandardCharsets.UTF_8));
+            assertEquals("> Bye.", in.readLine());
+            assertEquals(null, in.readLine());
+        }
+    }
+
+    @Test
+    public void playerSendingMoreCommandsThanPendingShouldHaveEveryOneAnswered() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            OutputStream out = socket.getOutputStream();
+            assertEquals("Welcome!", in.readLine());
+
+            int commands = Connection.MAX_PENDING_COMMANDS * 4;
+            StringBuilder lines = new StringBuilder();
+            for (int i = 0; i < commands; i++) {
+                lines.append("look\r\n");
+            }
+            out.write(lines.append("quit\r\n").toString().getBytes(StandardCharsets.UTF_8));
+
+            for (int i = 0; i < commands; i++) {
+                assertEquals("> I'm in a grand hall.", in.readLine());
+                assertEquals("", in.readLine());
+                assertEquals("There are no obvious exits.", in.readLine());
+            }
+            assertEquals("> Bye.", in.readLine());
+            assertEquals(null, in.readLine());
+        }
+    }
+
+    @Test
+    public void serverShouldCountConnectedPlayers() throws Exception {
+        try (Socket first = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             Socket second = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            awaitConnections(2);
+            assertTrue(first.isConnected() && second.isConnected());
+        }
+        awaitConnections(0);
+    }
+
+    private void awaitConnections(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getConnectionCount() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, server.getConnectionCount());
+    }
+}
@@ -0,0 +1,49 @@
+package hartman.games.adventureland.server;
+
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LoadClientTest {
+
+    @Test
+    public void clientShouldReportLoadItPutOnServer() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (GameServer server = new GameServer(GameServerTest.adventure(), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), executor)) {
+            server.start();
+            LoadClient client = new LoadClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()), 50, singletonList("look"));
+
+            LoadReport report = client.run(1, TimeUnit.SECONDS);
+
+            assertEquals(50, report.getConnectionsHeld());
+            assertTrue(report.getTurns() > 0);
+            assertTrue(report.getTurnsPerSecond() > 0);
+            assertTrue(report.getLatencyMicros(50) <= report.getLatencyMicros(99));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void clientShouldSeeConnectionsEndWithGame() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (GameServer server = new GameServer(GameServerTest.adventure(), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), executor)) {
+            server.start();
+            LoadClient client = new LoadClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()), 10, singletonList("quit"));
+
+            LoadReport report = client.run(500, TimeUnit.MILLISECONDS);
+
+            assertEquals(0, report.getConnectionsHeld());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}